@@ -7,22 +7,17 @@
  * SPDX-License-Identifier: EPL-2.0
  *
  * Contributors:
- *    Marc R. Hoffmann - initial API and implementation
+ *    Evgeny Mandrikov - initial API and implementation
+ *    Kyle Lieber - implementation of CheckMojo
  *
  *******************************************************************************/
-package org.jacoco.core.test.perf;
+import org.junit.Test;
 
-/**
- * Interface for a performance scenario.
- */
-public interface IPerfScenario {
+public class ExampleTest {
 
-	/**
-	 * Runs the performance scenario and reports the result to the given
-	 * interface.
-	 *
-	 * @param output
-	 */
-	void run(IPerfOutput output) throws Exception;
+	@Test
+	public void test() {
+		new Example().sayHello();
+	}
 
 }
@@ -148,11 +148,38 @@ public abstract class AbstractAgentMojo extends AbstractJacocoMojo {
 	 */
 	@Parameter(property = "jacoco.classDumpDir")
 	File classDumpDir;
+	/**
+	 * If a directory is specified for this parameter the JaCoCo agent caches
+	 * instrumented class files at the given location. The cache can be shared
+	 * by multiple JVMs, for example forked test executions, to avoid repeated
+	 * instrumentation of the same classes.
+	 *
+	 * @since 0.8.8
+	 */
+	@Parameter(property = "jacoco.cacheDir")
+	File cacheDir;
+	/**
+	 * Maximum size of the cache directory in megabytes. When the agent starts
+	 * and the cache exceeds this size, least recently used entries are removed.
+	 *
+	 * @since 0.8.8
+	 */
+	@Parameter(property = "jacoco.cacheSize")
+	Integer cacheSize;
 	/**
 	 * If set to true the agent exposes functionality via JMX.
 	 */
 	@Parameter(property = "jacoco.jmx")
 	Boolean jmx;
+	/**
+	 * If set to true the agent writes execution data in the compact format,
+	 * which can only be read by JaCoCo 0.8.8 or later. Execution data files are
+	 * additionally compressed.
+	 *
+	 * @since 0.8.8
+	 */
+	@Parameter(property = "jacoco.compact")
+	Boolean compact;
 
 	@Override
 	public void executeMojo() {
@@ -225,9 +252,18 @@ public abstract class AbstractAgentMojo extends AbstractJacocoMojo {
 		if (classDumpDir != null) {
 			agentOptions.setClassDumpDir(classDumpDir.getAbsolutePath());
 		}
+		if (cacheDir != null) {
+			agentOptions.setCacheDir(cacheDir.getAbsolutePath());
+		}
+		if (cacheSize != null) {
+			agentOptions.setCacheSize(cacheSize.intValue());
+		}
 		if (jmx != null) {
 			agentOptions.setJmx(jmx.booleanValue());
 		}
+		if (compact != null) {
+			agentOptions.setCompact(compact.booleanValue());
+		}
 		return agentOptions;
 	}
 
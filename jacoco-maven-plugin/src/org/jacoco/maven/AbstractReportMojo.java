@@ -86,6 +86,38 @@ public abstract class AbstractReportMojo extends AbstractMojo
 	@Parameter
 	List<String> excludes;
 
+	/**
+	 * If set to <code>true</code> only classes with execution data are included
+	 * in the report. Classes which have not been loaded at runtime are skipped
+	 * without analysis, which speeds up report creation for large projects.
+	 *
+	 * @since 0.8.8
+	 */
+	@Parameter(defaultValue = "false")
+	boolean executedOnly;
+
+	/**
+	 * Path to a directory where the structural analysis of class files is
+	 * cached. Coverage of class files found in the cache is calculated without
+	 * parsing them again. The directory may be shared by multiple builds.
+	 *
+	 * @since 0.8.8
+	 */
+	@Parameter(property = "jacoco.analysisCache")
+	File analysisCache;
+
+	/**
+	 * If set to <code>true</code> the analysis of the class files is shared
+	 * with other <code>report</code> and <code>check</code> goals of the same
+	 * module within the build, as long as class files and execution data files
+	 * have not been modified. The goal <code>report-aggregate</code> never
+	 * shares its analysis, as it is based on the execution data of all modules.
+	 *
+	 * @since 0.8.8
+	 */
+	@Parameter(property = "jacoco.shareAnalysis", defaultValue = "true")
+	boolean shareAnalysis;
+
 	/**
 	 * Flag used to suppress execution.
 	 */
@@ -128,6 +160,16 @@ public abstract class AbstractReportMojo extends AbstractMojo
 		return excludes;
 	}
 
+	/**
+	 * Returns whether the analysis may be shared with other goals of the same
+	 * module.
+	 *
+	 * @return <code>true</code> if the analysis may be shared
+	 */
+	boolean isShareAnalysis() {
+		return shareAnalysis;
+	}
+
 	public boolean canGenerateReport() {
 		if (skip) {
 			getLog().info(
@@ -188,6 +230,9 @@ public abstract class AbstractReportMojo extends AbstractMojo
 			throws MavenReportException {
 		try {
 			final ReportSupport support = new ReportSupport(getLog());
+			support.setExecutedOnly(executedOnly);
+			support.setShareAnalysis(isShareAnalysis());
+			support.setAnalysisCache(analysisCache);
 			loadExecutionData(support);
 			addFormatters(support, locale);
 			final IReportVisitor visitor = support.initRootVisitor();
@@ -143,6 +143,27 @@ public class CheckMojo extends AbstractJacocoMojo implements IViolationsOutput {
 	@Parameter
 	private List<String> excludes;
 
+	/**
+	 * Path to a directory where the structural analysis of class files is
+	 * cached. Coverage of class files found in the cache is calculated without
+	 * parsing them again. The directory may be shared by multiple builds.
+	 *
+	 * @since 0.8.8
+	 */
+	@Parameter(property = "jacoco.analysisCache")
+	private File analysisCache;
+
+	/**
+	 * If set to <code>true</code> the analysis of the class files is shared
+	 * with other <code>report</code> and <code>check</code> goals of the same
+	 * module within the build, as long as class files and execution data files
+	 * have not been modified.
+	 *
+	 * @since 0.8.8
+	 */
+	@Parameter(property = "jacoco.shareAnalysis", defaultValue = "true")
+	private boolean shareAnalysis;
+
 	private boolean violations;
 
 	private boolean canCheckCoverage() {
@@ -173,6 +194,8 @@ public class CheckMojo extends AbstractJacocoMojo implements IViolationsOutput {
 		violations = false;
 
 		final ReportSupport support = new ReportSupport(getLog());
+		support.setShareAnalysis(shareAnalysis);
+		support.setAnalysisCache(analysisCache);
 
 		final List<Rule> checkerrules = new ArrayList<Rule>();
 		for (final RuleConfiguration r : rules) {
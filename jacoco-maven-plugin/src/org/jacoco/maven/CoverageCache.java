@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.project.MavenProject;
+import org.jacoco.core.analysis.CoverageBuilder;
+import org.jacoco.core.tools.InputFingerprint;
+
+/**
+ * Keeps the analyzed coverage of a Maven project for the duration of a build,
+ * so that goals like <code>report</code> and <code>check</code> analyze the
+ * class files of a module only once. Results are stored in the context of the
+ * {@link MavenProject} and identified by a fingerprint of all inputs: the
+ * analysis options, the content of every execution data file and the path, size
+ * and modification time of every class file. Results are only reused if the
+ * fingerprint matches, i.e. if no input has been modified in the meantime, e.g.
+ * by offline instrumentation. Results are held by soft references and may be
+ * reclaimed if the build runs short of memory. Goals of the plugin may run in
+ * different class realms, e.g. as reports of the site plugin, therefore only
+ * results created within the same class realm are returned.
+ */
+final class CoverageCache {
+
+	private static final String KEY = CoverageCache.class.getName();
+
+	private CoverageCache() {
+	}
+
+	/**
+	 * Returns the coverage of the given project if it has been analyzed with
+	 * the same inputs before.
+	 *
+	 * @param project
+	 *            Maven project
+	 * @param fingerprint
+	 *            fingerprint of the analysis inputs
+	 * @return coverage or <code>null</code>
+	 */
+	static CoverageBuilder get(final MavenProject project,
+			final String fingerprint) {
+		synchronized (project) {
+			final SoftReference<Object> ref = getEntries(project)
+					.get(fingerprint);
+			final Object coverage = ref == null ? null : ref.get();
+			return coverage instanceof CoverageBuilder
+					? (CoverageBuilder) coverage
+					: null;
+		}
+	}
+
+	/**
+	 * Stores the coverage of the given project.
+	 *
+	 * @param project
+	 *            Maven project
+	 * @param fingerprint
+	 *            fingerprint of the analysis inputs
+	 * @param coverage
+	 *            analyzed coverage, must not be modified afterwards
+	 */
+	static void put(final MavenProject project, final String fingerprint,
+			final CoverageBuilder coverage) {
+		synchronized (project) {
+			getEntries(project).put(fingerprint,
+					new SoftReference<Object>(coverage));
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, SoftReference<Object>> getEntries(
+			final MavenProject project) {
+		Map<String, SoftReference<Object>> entries = (Map<String, SoftReference<Object>>) project
+				.getContextValue(KEY);
+		if (entries == null) {
+			entries = new HashMap<String, SoftReference<Object>>();
+			project.setContextValue(KEY, entries);
+		}
+		return entries;
+	}
+
+	/**
+	 * Calculates the fingerprint of the analysis inputs.
+	 *
+	 * @param executedOnly
+	 *            whether classes without execution data are skipped
+	 * @param execFiles
+	 *            loaded execution data files
+	 * @param classFiles
+	 *            analyzed class files
+	 * @return fingerprint
+	 * @throws IOException
+	 *             if an execution data file can not be read
+	 */
+	static String fingerprint(final boolean executedOnly,
+			final List<File> execFiles, final List<File> classFiles)
+			throws IOException {
+		final InputFingerprint fingerprint = new InputFingerprint();
+		fingerprint.add(String.valueOf(executedOnly));
+		for (final File f : execFiles) {
+			fingerprint.addContent(f);
+		}
+		fingerprint.add("");
+		for (final File f : classFiles) {
+			fingerprint.addFile(f);
+		}
+		return fingerprint.getValue();
+	}
+
+}
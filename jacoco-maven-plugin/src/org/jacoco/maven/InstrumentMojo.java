@@ -18,7 +18,12 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
@@ -28,6 +33,7 @@ import org.apache.maven.plugins.annotations.Parameter;
 import org.codehaus.plexus.util.FileUtils;
 import org.codehaus.plexus.util.IOUtil;
 import org.jacoco.core.instr.Instrumenter;
+import org.jacoco.core.internal.Futures;
 import org.jacoco.core.runtime.OfflineInstrumentationAccessGenerator;
 
 /**
@@ -63,6 +69,15 @@ public class InstrumentMojo extends AbstractJacocoMojo {
 	@Parameter
 	private List<String> excludes;
 
+	/**
+	 * Maximum number of class files which are instrumented in parallel. By
+	 * default the number of available processors is used.
+	 *
+	 * @since 0.8.8
+	 */
+	@Parameter(property = "jacoco.instrument.threads")
+	private int threads = Runtime.getRuntime().availableProcessors();
+
 	@Override
 	public void executeMojo()
 			throws MojoExecutionException, MojoFailureException {
@@ -90,25 +105,51 @@ public class InstrumentMojo extends AbstractJacocoMojo {
 
 		final Instrumenter instrumenter = new Instrumenter(
 				new OfflineInstrumentationAccessGenerator());
-		for (final String fileName : fileNames) {
-			if (fileName.endsWith(".class")) {
-				final File source = new File(classesDir, fileName);
-				final File backup = new File(originalClassesDir, fileName);
-				InputStream input = null;
-				OutputStream output = null;
-				try {
-					FileUtils.copyFile(source, backup);
-					input = new FileInputStream(backup);
-					output = new FileOutputStream(source);
-					instrumenter.instrument(input, output, source.getPath());
-				} catch (final IOException e2) {
-					throw new MojoExecutionException(
-							"Unable to instrument file.", e2);
-				} finally {
-					IOUtil.close(input);
-					IOUtil.close(output);
+		final ExecutorService executor = Executors
+				.newFixedThreadPool(Math.max(1, threads));
+		try {
+			final List<Future<Void>> results = new ArrayList<Future<Void>>();
+			for (final String fileName : fileNames) {
+				if (fileName.endsWith(".class")) {
+					final File source = new File(classesDir, fileName);
+					final File backup = new File(originalClassesDir, fileName);
+					results.add(executor.submit(new Callable<Void>() {
+						public Void call() throws IOException {
+							instrument(instrumenter, source, backup);
+							return null;
+						}
+					}));
 				}
 			}
+			for (final Future<Void> result : results) {
+				await(result);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static void instrument(final Instrumenter instrumenter,
+			final File source, final File backup) throws IOException {
+		InputStream input = null;
+		OutputStream output = null;
+		try {
+			FileUtils.copyFile(source, backup);
+			input = new FileInputStream(backup);
+			output = new FileOutputStream(source);
+			instrumenter.instrument(input, output, source.getPath());
+		} finally {
+			IOUtil.close(input);
+			IOUtil.close(output);
+		}
+	}
+
+	private static void await(final Future<Void> result)
+			throws MojoExecutionException {
+		try {
+			Futures.get(result);
+		} catch (final IOException e) {
+			throw new MojoExecutionException("Unable to instrument file.", e);
 		}
 	}
 
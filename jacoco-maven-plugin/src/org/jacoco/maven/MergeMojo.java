@@ -14,6 +14,7 @@ package org.jacoco.maven;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.maven.plugin.MojoExecutionException;
@@ -23,7 +24,7 @@ import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.shared.model.fileset.FileSet;
 import org.apache.maven.shared.model.fileset.util.FileSetManager;
-import org.jacoco.core.tools.ExecFileLoader;
+import org.jacoco.core.tools.ExecFileMerger;
 
 /**
  * Mojo for merging a set of execution data files (*.exec) into a single file
@@ -60,6 +61,15 @@ public class MergeMojo extends AbstractJacocoMojo {
 	@Parameter(required = true)
 	private List<FileSet> fileSets;
 
+	/**
+	 * Maximum number of execution data files which are read in parallel. By
+	 * default the number of available processors is used.
+	 *
+	 * @since 0.8.8
+	 */
+	@Parameter(property = "jacoco.merge.threads")
+	private int threads = Runtime.getRuntime().availableProcessors();
+
 	@Override
 	protected void executeMojo()
 			throws MojoExecutionException, MojoFailureException {
@@ -78,15 +88,16 @@ public class MergeMojo extends AbstractJacocoMojo {
 	}
 
 	private void executeMerge() throws MojoExecutionException {
-		final ExecFileLoader loader = new ExecFileLoader();
+		final ExecFileMerger merger = new ExecFileMerger();
 
-		load(loader);
-		save(loader);
+		load(merger);
+		save(merger);
 	}
 
-	private void load(final ExecFileLoader loader)
+	private void load(final ExecFileMerger merger)
 			throws MojoExecutionException {
 		final FileSetManager fileSetManager = new FileSetManager(getLog());
+		final List<File> inputFiles = new ArrayList<File>();
 		for (final FileSet fileSet : fileSets) {
 			for (final String includedFilename : fileSetManager
 					.getIncludedFiles(fileSet)) {
@@ -95,28 +106,28 @@ public class MergeMojo extends AbstractJacocoMojo {
 				if (inputFile.isDirectory()) {
 					continue;
 				}
-				try {
-					getLog().info("Loading execution data file "
-							+ inputFile.getAbsolutePath());
-					loader.load(inputFile);
-				} catch (final IOException e) {
-					throw new MojoExecutionException(
-							"Unable to read " + inputFile.getAbsolutePath(), e);
-				}
+				getLog().info("Loading execution data file "
+						+ inputFile.getAbsolutePath());
+				inputFiles.add(inputFile);
 			}
 		}
+		try {
+			merger.loadAll(inputFiles, threads);
+		} catch (final IOException e) {
+			throw new MojoExecutionException(e.getMessage(), e);
+		}
 	}
 
-	private void save(final ExecFileLoader loader)
+	private void save(final ExecFileMerger merger)
 			throws MojoExecutionException {
-		if (loader.getExecutionDataStore().getContents().isEmpty()) {
+		if (merger.isEmpty()) {
 			getLog().info(MSG_SKIPPING);
 			return;
 		}
 		getLog().info("Writing merged execution data to "
 				+ destFile.getAbsolutePath());
 		try {
-			loader.save(destFile, false);
+			merger.save(destFile, false);
 		} catch (final IOException e) {
 			throw new MojoExecutionException(
 					"Unable to write merged file " + destFile.getAbsolutePath(),
@@ -82,12 +82,29 @@ public class ReportAggregateMojo extends AbstractReportMojo {
 	@Parameter(defaultValue = "${project.reporting.outputDirectory}/jacoco-aggregate")
 	private File outputDirectory;
 
+	/**
+	 * Maximum number of projects which are analyzed in parallel. The order of
+	 * the projects in the report does not depend on this setting. By default
+	 * the number of available processors is used.
+	 *
+	 * @since 0.8.8
+	 */
+	@Parameter(property = "jacoco.aggregate.threads")
+	private int threads = Runtime.getRuntime().availableProcessors();
+
 	/**
 	 * The projects in the reactor.
 	 */
 	@Parameter(property = "reactorProjects", readonly = true)
 	private List<MavenProject> reactorProjects;
 
+	@Override
+	boolean isShareAnalysis() {
+		// Execution data of all modules would never match the analysis of a
+		// single module
+		return false;
+	}
+
 	@Override
 	boolean canGenerateReportRegardingDataFiles() {
 		return true;
@@ -131,12 +148,10 @@ public class ReportAggregateMojo extends AbstractReportMojo {
 	void createReport(final IReportGroupVisitor visitor,
 			final ReportSupport support) throws IOException {
 		final IReportGroupVisitor group = visitor.visitGroup(title);
-		for (final MavenProject dependency : findDependencies(
-				Artifact.SCOPE_COMPILE, Artifact.SCOPE_RUNTIME,
-				Artifact.SCOPE_PROVIDED)) {
-			support.processProject(group, dependency.getArtifactId(),
-					dependency, getIncludes(), getExcludes(), sourceEncoding);
-		}
+		support.processProjects(group,
+				findDependencies(Artifact.SCOPE_COMPILE, Artifact.SCOPE_RUNTIME,
+						Artifact.SCOPE_PROVIDED),
+				getIncludes(), getExcludes(), sourceEncoding, threads);
 	}
 
 	public File getReportOutputDirectory() {
@@ -16,24 +16,31 @@ package org.jacoco.maven;
 import static java.lang.String.format;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.io.Reader;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.project.MavenProject;
+import org.jacoco.core.analysis.AnalysisCache;
 import org.jacoco.core.analysis.Analyzer;
 import org.jacoco.core.analysis.CoverageBuilder;
 import org.jacoco.core.analysis.IBundleCoverage;
 import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.internal.Futures;
 import org.jacoco.core.tools.ExecFileLoader;
 import org.jacoco.report.IReportGroupVisitor;
 import org.jacoco.report.IReportVisitor;
 import org.jacoco.report.ISourceFileLocator;
+import org.jacoco.report.IndexedSourceFileLocator;
 import org.jacoco.report.MultiReportVisitor;
 import org.jacoco.report.check.IViolationsOutput;
 import org.jacoco.report.check.Rule;
@@ -49,14 +56,22 @@ import org.jacoco.report.check.RulesChecker;
  * <code>loadExecutionData()</code></li>
  * <li>Add one or multiple formatters with <code>addXXX()</code> methods</li>
  * <li>Create the root visitor with <code>initRootVisitor()</code></li>
- * <li>Process one or multiple projects with <code>processProject()</code></li>
+ * <li>Process one or multiple projects with <code>processProject()</code> or
+ * <code>processProjects()</code></li>
  * </ol>
  */
 final class ReportSupport {
 
+	/** Maximum number of source files kept in memory per project */
+	private static final int SOURCE_CACHE_SIZE = 16;
+
 	private final Log log;
 	private final ExecFileLoader loader;
+	private final List<File> execFiles;
 	private final List<IReportVisitor> formatters;
+	private boolean executedOnly;
+	private boolean shareAnalysis;
+	private AnalysisCache analysisCache;
 
 	/**
 	 * Construct a new instance with the given log output.
@@ -67,7 +82,43 @@ final class ReportSupport {
 	public ReportSupport(final Log log) {
 		this.log = log;
 		this.loader = new ExecFileLoader();
+		this.execFiles = new ArrayList<File>();
 		this.formatters = new ArrayList<IReportVisitor>();
+		this.shareAnalysis = true;
+	}
+
+	/**
+	 * Restricts the analysis to classes with execution data.
+	 *
+	 * @param executedOnly
+	 *            <code>true</code> if classes without execution data should be
+	 *            skipped
+	 */
+	public void setExecutedOnly(final boolean executedOnly) {
+		this.executedOnly = executedOnly;
+	}
+
+	/**
+	 * Specifies whether the analysis of a project is shared with other goals
+	 * within the same build, see {@link CoverageCache}. Enabled by default.
+	 *
+	 * @param shareAnalysis
+	 *            <code>true</code> if analysis results should be reused and
+	 *            stored for other goals
+	 */
+	public void setShareAnalysis(final boolean shareAnalysis) {
+		this.shareAnalysis = shareAnalysis;
+	}
+
+	/**
+	 * Sets a directory to cache the structural analysis of class files in.
+	 *
+	 * @param analysisCache
+	 *            cache directory or <code>null</code>
+	 */
+	public void setAnalysisCache(final File analysisCache) {
+		this.analysisCache = analysisCache == null ? null
+				: new AnalysisCache(analysisCache);
 	}
 
 	/**
@@ -81,6 +132,7 @@ final class ReportSupport {
 	public void loadExecutionData(final File execFile) throws IOException {
 		log.info("Loading execution data file " + execFile);
 		loader.load(execFile);
+		execFiles.add(execFile);
 	}
 
 	public void addVisitor(final IReportVisitor visitor) {
@@ -150,27 +202,128 @@ final class ReportSupport {
 				new SourceFileCollection(project, srcEncoding));
 	}
 
+	/**
+	 * Calculates coverage for the given projects and emits it to the report
+	 * group including source references. The bundles are named by the artifact
+	 * ids of the projects. Projects are analyzed concurrently with the given
+	 * number of threads, while bundles are still emitted on the calling thread
+	 * in the order of the given list. Execution data is shared read-only by all
+	 * threads.
+	 *
+	 * @param visitor
+	 *            group visitor to emit the projects' coverage to
+	 * @param projects
+	 *            the MavenProjects
+	 * @param includes
+	 *            list of includes patterns
+	 * @param excludes
+	 *            list of excludes patterns
+	 * @param srcEncoding
+	 *            encoding of the source files within the projects
+	 * @param threads
+	 *            maximum number of projects to analyze in parallel
+	 * @throws IOException
+	 *             if class files can't be read
+	 */
+	public void processProjects(final IReportGroupVisitor visitor,
+			final List<MavenProject> projects, final List<String> includes,
+			final List<String> excludes, final String srcEncoding,
+			final int threads) throws IOException {
+		if (threads <= 1 || projects.size() <= 1) {
+			for (final MavenProject project : projects) {
+				processProject(visitor, project.getArtifactId(), project,
+						includes, excludes, srcEncoding);
+			}
+			return;
+		}
+		final ExecutorService executor = Executors
+				.newFixedThreadPool(Math.min(threads, projects.size()));
+		try {
+			final LinkedList<Future<CoverageBuilder>> pending = new LinkedList<Future<CoverageBuilder>>();
+			int submitted = 0;
+			for (final MavenProject project : projects) {
+				// Limit the number of analyzed projects waiting for emission
+				while (submitted < projects.size()
+						&& pending.size() < 2 * threads) {
+					final MavenProject next = projects.get(submitted++);
+					pending.add(
+							executor.submit(new Callable<CoverageBuilder>() {
+								public CoverageBuilder call()
+										throws IOException {
+									return analyze(next, includes, excludes);
+								}
+							}));
+				}
+				visitBundle(visitor, project.getArtifactId(),
+						Futures.get(pending.removeFirst()),
+						new SourceFileCollection(project, srcEncoding));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
 	private void processProject(final IReportGroupVisitor visitor,
 			final String bundleName, final MavenProject project,
 			final List<String> includes, final List<String> excludes,
 			final ISourceFileLocator locator) throws IOException {
-		final CoverageBuilder builder = new CoverageBuilder();
+		visitBundle(visitor, bundleName, analyze(project, includes, excludes),
+				locator);
+	}
+
+	private void visitBundle(final IReportGroupVisitor visitor,
+			final String bundleName, final CoverageBuilder builder,
+			final ISourceFileLocator locator) throws IOException {
+		final IBundleCoverage bundle = builder.getBundle(bundleName);
+		logBundleInfo(bundle, builder.getNoMatchClasses());
+
+		visitor.visitBundle(bundle, locator);
+	}
+
+	/**
+	 * Analyzes the class files of the given project. Unless disabled the result
+	 * is shared with other goals within the same build, see
+	 * {@link CoverageCache}. This method may be called concurrently for
+	 * different projects.
+	 */
+	private CoverageBuilder analyze(final MavenProject project,
+			final List<String> includes, final List<String> excludes)
+			throws IOException {
 		final File classesDir = new File(
 				project.getBuild().getOutputDirectory());
-
+		final List<File> classFiles;
 		if (classesDir.isDirectory()) {
-			final Analyzer analyzer = new Analyzer(
-					loader.getExecutionDataStore(), builder);
-			final FileFilter filter = new FileFilter(includes, excludes);
-			for (final File file : filter.getFiles(classesDir)) {
-				analyzer.analyzeAll(file);
-			}
+			classFiles = new FileFilter(includes, excludes)
+					.getFiles(classesDir);
+		} else {
+			classFiles = Collections.emptyList();
 		}
 
-		final IBundleCoverage bundle = builder.getBundle(bundleName);
-		logBundleInfo(bundle, builder.getNoMatchClasses());
+		String fingerprint = null;
+		if (shareAnalysis) {
+			fingerprint = CoverageCache.fingerprint(executedOnly, execFiles,
+					classFiles);
+			final CoverageBuilder builder = CoverageCache.get(project,
+					fingerprint);
+			if (builder != null) {
+				log.info(format("Reusing analysis of project %s",
+						project.getArtifactId()));
+				return builder;
+			}
+		}
 
-		visitor.visitBundle(bundle, locator);
+		final CoverageBuilder builder = new CoverageBuilder();
+		final Analyzer analyzer = new Analyzer(loader.getExecutionDataStore(),
+				builder);
+		analyzer.setExecutedOnly(executedOnly);
+		analyzer.setCache(analysisCache);
+		for (final File file : classFiles) {
+			analyzer.analyzeAll(file);
+		}
+		if (shareAnalysis) {
+			CoverageCache.put(project, fingerprint, builder);
+		}
+		return builder;
 	}
 
 	private void logBundleInfo(final IBundleCoverage bundle,
@@ -207,37 +360,14 @@ final class ReportSupport {
 		}
 	}
 
-	private class SourceFileCollection implements ISourceFileLocator {
-
-		private final List<File> sourceRoots;
-		private final String encoding;
+	private static class SourceFileCollection extends IndexedSourceFileLocator {
 
 		public SourceFileCollection(final MavenProject project,
 				final String encoding) {
-			this.sourceRoots = getCompileSourceRoots(project);
-			this.encoding = encoding;
-		}
-
-		public Reader getSourceFile(final String packageName,
-				final String fileName) throws IOException {
-			final String r;
-			if (packageName.length() > 0) {
-				r = packageName + '/' + fileName;
-			} else {
-				r = fileName;
-			}
-			for (final File sourceRoot : sourceRoots) {
-				final File file = new File(sourceRoot, r);
-				if (file.exists() && file.isFile()) {
-					return new InputStreamReader(new FileInputStream(file),
-							encoding);
-				}
+			super(encoding, 4, SOURCE_CACHE_SIZE);
+			for (final File sourceRoot : getCompileSourceRoots(project)) {
+				add(sourceRoot);
 			}
-			return null;
-		}
-
-		public int getTabWidth() {
-			return 4;
 		}
 	}
 
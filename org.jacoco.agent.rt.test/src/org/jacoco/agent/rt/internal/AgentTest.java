@@ -294,6 +294,28 @@ public class AgentTest implements IExceptionLogger, IAgentOutput {
 				loader.getSessionInfoStore().getInfos().get(0).getId());
 	}
 
+	@Test
+	public void getExecutionDataDelta_should_return_new_probes_only()
+			throws Exception {
+		Agent agent = createAgent();
+		agent.startup();
+		agent.getData().getExecutionData(Long.valueOf(0x12345678), "Foo", 1)
+				.getProbes()[0] = true;
+
+		ExecFileLoader loader = new ExecFileLoader();
+		loader.load(new ByteArrayInputStream(
+				agent.getExecutionDataDelta("client")));
+		assertEquals("Foo",
+				loader.getExecutionDataStore().get(0x12345678).getName());
+
+		loader = new ExecFileLoader();
+		loader.load(new ByteArrayInputStream(
+				agent.getExecutionDataDelta("client")));
+		assertTrue(loader.getExecutionDataStore().getContents().isEmpty());
+		assertEquals("test",
+				loader.getSessionInfoStore().getInfos().get(0).getId());
+	}
+
 	@Test
 	public void getExecutionData_should_reset_probes_when_enabled()
 			throws Exception {
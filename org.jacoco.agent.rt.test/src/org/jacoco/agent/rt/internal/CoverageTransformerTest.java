@@ -12,6 +12,7 @@
  *******************************************************************************/
 package org.jacoco.agent.rt.internal;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
@@ -19,6 +20,8 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.instrument.IllegalClassFormatException;
@@ -31,7 +34,9 @@ import org.jacoco.core.runtime.AbstractRuntime;
 import org.jacoco.core.runtime.AgentOptions;
 import org.junit.After;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.objectweb.asm.MethodVisitor;
 
 /**
@@ -39,6 +44,9 @@ import org.objectweb.asm.MethodVisitor;
  */
 public class CoverageTransformerTest {
 
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
 	private ExceptionRecorder recorder;
 
 	private AgentOptions options;
@@ -233,6 +241,43 @@ public class CoverageTransformerTest {
 				protectionDomain, getClassData(target)));
 	}
 
+	@Test
+	public void testTransformWithCache() throws Exception {
+		final File cachedir = new File(folder.getRoot(), "cache");
+		options.setCacheDir(cachedir.getAbsolutePath());
+		final byte[] original = getClassData(JaCoCo.class);
+
+		final byte[] instrumented = createTransformer().transform(classLoader,
+				"org/jacoco/core/JaCoCo", null, protectionDomain, original);
+
+		final File entry = new File(cachedir, JaCoCo.VERSION + "-StubRuntime")
+				.listFiles()[0];
+		assertArrayEquals(instrumented, read(new FileInputStream(entry)));
+		assertArrayEquals(instrumented,
+				createTransformer().transform(classLoader,
+						"org/jacoco/core/JaCoCo", null, protectionDomain,
+						original));
+	}
+
+	@Test
+	public void testTransformWithUnwritableCache() throws Exception {
+		final File cachedir = folder.newFile("cache");
+		options.setCacheDir(cachedir.getAbsolutePath());
+		final CoverageTransformer t = createTransformer();
+
+		final byte[] instrumented = t.transform(classLoader,
+				"org/jacoco/core/JaCoCo", null, protectionDomain,
+				getClassData(JaCoCo.class));
+		final byte[] instrumented2 = t.transform(classLoader,
+				"org/jacoco/core/runtime/AgentOptions", null, protectionDomain,
+				getClassData(AgentOptions.class));
+
+		assertTrue(instrumented.length > 0);
+		assertTrue(instrumented2.length > 0);
+		recorder.assertException(IOException.class);
+		recorder.clear();
+	}
+
 	private CoverageTransformer createTransformer() {
 		return new CoverageTransformer(runtime, options, recorder);
 	}
@@ -240,7 +285,10 @@ public class CoverageTransformerTest {
 	private static byte[] getClassData(Class<?> clazz) throws IOException {
 		final String resource = "/" + clazz.getName().replace('.', '/')
 				+ ".class";
-		final InputStream in = clazz.getResourceAsStream(resource);
+		return read(clazz.getResourceAsStream(resource));
+	}
+
+	private static byte[] read(InputStream in) throws IOException {
 		final ByteArrayOutputStream out = new ByteArrayOutputStream();
 		byte[] buffer = new byte[0x100];
 		int len;
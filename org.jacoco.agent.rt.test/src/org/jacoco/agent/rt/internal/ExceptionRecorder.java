@@ -41,6 +41,11 @@ public class ExceptionRecorder implements IExceptionLogger {
 		assertNull(exceptionType);
 	}
 
+	public void assertException(
+			final Class<? extends Throwable> exceptionType) {
+		assertEquals(exceptionType, this.exceptionType);
+	}
+
 	public void assertException(final Class<? extends Throwable> exceptionType,
 			final String message) {
 		assertEquals(exceptionType, this.exceptionType);
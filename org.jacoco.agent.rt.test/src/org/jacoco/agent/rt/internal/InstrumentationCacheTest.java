@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.agent.rt.internal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link InstrumentationCache}.
+ */
+public class InstrumentationCacheTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File location;
+
+	private byte[] original;
+
+	private byte[] instrumented;
+
+	@Before
+	public void setup() throws IOException {
+		location = new File(folder.getRoot(), "cache");
+		original = "just some bytes".getBytes("UTF-8");
+		instrumented = new byte[] { (byte) 0xCA, (byte) 0xFE, (byte) 0xBA,
+				(byte) 0xBE, 1, 2, 3 };
+	}
+
+	@Test
+	public void testNoCache() throws IOException {
+		final InstrumentationCache cache = new InstrumentationCache(null, "key",
+				1000);
+		cache.put(original, instrumented);
+		assertNull(cache.get(original));
+	}
+
+	@Test
+	public void testPutGet() throws IOException {
+		final InstrumentationCache cache = createCache("key", 1000);
+		assertNull(cache.get(original));
+
+		cache.put(original, instrumented);
+
+		assertArrayEquals(instrumented, cache.get(original));
+		assertTrue(new File(location, "key/aff06045a340cd62.class").isFile());
+		assertArrayEquals(instrumented, createCache("key", 1000).get(original));
+	}
+
+	@Test
+	public void testPutExisting() throws IOException {
+		final InstrumentationCache cache = createCache("key", 1000);
+		cache.put(original, instrumented);
+		cache.put(original, instrumented);
+
+		assertArrayEquals(instrumented, cache.get(original));
+		assertEquals(1, new File(location, "key").list().length);
+	}
+
+	@Test
+	public void testDifferentKey() throws IOException {
+		createCache("key1", 1000).put(original, instrumented);
+
+		assertNull(createCache("key2", 1000).get(original));
+	}
+
+	@Test
+	public void testInvalidEntry() throws IOException {
+		createCache("key", 1000);
+		write(new File(location, "key/aff06045a340cd62.class"), 3, 0);
+
+		assertNull(createCache("key", 1000).get(original));
+	}
+
+	@Test
+	public void testEvictLeastRecentlyUsed() throws IOException {
+		final File f1 = new File(location, "old/a.class");
+		final File f2 = new File(location, "key/b.class");
+		final File f3 = new File(location, "key/c.class");
+		write(f1, 400, 1000);
+		write(f2, 400, 3000);
+		write(f3, 400, 2000);
+
+		createCache("key", 1000);
+
+		assertFalse(f1.exists());
+		assertTrue(f2.exists());
+		assertFalse(f3.exists());
+	}
+
+	@Test
+	public void testNoEvictionBelowMaxSize() throws IOException {
+		final File f1 = new File(location, "key/a.class");
+		final File f2 = new File(location, "key/b.class");
+		write(f1, 500, 1000);
+		write(f2, 500, 2000);
+
+		createCache("key", 1000);
+
+		assertTrue(f1.exists());
+		assertTrue(f2.exists());
+	}
+
+	private InstrumentationCache createCache(final String key,
+			final long maxSize) {
+		return new InstrumentationCache(location.toString(), key, maxSize);
+	}
+
+	private static void write(final File file, final int size,
+			final long lastModified) throws IOException {
+		file.getParentFile().mkdirs();
+		final OutputStream out = new FileOutputStream(file);
+		out.write(new byte[size]);
+		out.close();
+		file.setLastModified(lastModified);
+	}
+
+}
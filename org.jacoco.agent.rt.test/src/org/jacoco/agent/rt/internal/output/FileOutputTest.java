@@ -20,6 +20,7 @@ import java.io.IOException;
 
 import org.jacoco.core.runtime.AgentOptions;
 import org.jacoco.core.runtime.RuntimeData;
+import org.jacoco.core.tools.ExecFileLoader;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
@@ -62,6 +63,27 @@ public class FileOutputTest {
 				destFile.length() > 0);
 	}
 
+	@Test
+	public void testWriteCompactData() throws Exception {
+		File destFile = folder.newFile("jacoco.exec");
+		AgentOptions options = new AgentOptions();
+		options.setDestfile(destFile.getAbsolutePath());
+		options.setCompact(true);
+		RuntimeData data = new RuntimeData();
+		data.getProbes(42, "Foo", 3)[1] = true;
+
+		FileOutput controller = new FileOutput();
+		controller.startup(options, data);
+		controller.writeExecutionData(false);
+		controller.writeExecutionData(false);
+		controller.shutdown();
+
+		ExecFileLoader loader = new ExecFileLoader();
+		loader.load(destFile);
+		assertEquals(2, loader.getSessionInfoStore().getInfos().size());
+		assertEquals("Foo", loader.getExecutionDataStore().get(42).getName());
+	}
+
 	@Test(expected = IOException.class)
 	public void testInvalidDestFile() throws Exception {
 		AgentOptions options = new AgentOptions();
@@ -158,6 +158,35 @@ public class TcpConnectionTest extends ExecutorTestBase {
 		f.get();
 	}
 
+	@Test
+	public void testRemoteDumpCompact() throws Exception {
+		data.getExecutionData(Long.valueOf(0x12345678), "Foo", 42)
+				.getProbes()[0] = true;
+		data.setSessionId("stubid");
+
+		final RemoteControlWriter remoteWriter = new RemoteControlWriter(
+				mockConnection.getSocketB().getOutputStream());
+
+		final TcpConnection con = new TcpConnection(mockConnection.getSocketA(),
+				data, true);
+		con.init();
+
+		final Future<Void> f = executor.submit(new Callable<Void>() {
+			public Void call() throws Exception {
+				con.run();
+				return null;
+			}
+		});
+
+		assertBlocks(f);
+
+		remoteWriter.visitDumpCommand(true, false);
+		readAndAssertData();
+
+		con.close();
+		f.get();
+	}
+
 	@Test
 	public void testLocalDump() throws Exception {
 		data.getExecutionData(Long.valueOf(0x12345678), "Foo", 42)
@@ -215,6 +244,51 @@ public class TcpConnectionTest extends ExecutorTestBase {
 		assertEquals("Foo", execStore.get(0x12345678).getName());
 	}
 
+	@Test
+	public void testRemoteDeltaDump() throws Exception {
+		data.getExecutionData(Long.valueOf(0x12345678), "Foo", 42)
+				.getProbes()[0] = true;
+		data.setSessionId("stubid");
+
+		final RemoteControlWriter remoteWriter = new RemoteControlWriter(
+				mockConnection.getSocketB().getOutputStream());
+
+		final TcpConnection con = new TcpConnection(mockConnection.getSocketA(),
+				data);
+		con.init();
+
+		final Future<Void> f = executor.submit(new Callable<Void>() {
+			public Void call() throws Exception {
+				con.run();
+				return null;
+			}
+		});
+
+		assertBlocks(f);
+
+		remoteWriter.visitDeltaDumpCommand("client");
+		final RemoteControlReader remoteReader = new RemoteControlReader(
+				mockConnection.getSocketB().getInputStream());
+		final ExecutionDataStore execStore = new ExecutionDataStore();
+		remoteReader.setExecutionDataVisitor(execStore);
+		final SessionInfoStore infoStore = new SessionInfoStore();
+		remoteReader.setSessionInfoVisitor(infoStore);
+
+		assertTrue(remoteReader.read());
+		assertEquals("stubid", infoStore.getInfos().get(0).getId());
+		assertEquals("Foo", execStore.get(0x12345678).getName());
+
+		final ExecutionDataStore deltaStore = new ExecutionDataStore();
+		remoteReader.setExecutionDataVisitor(deltaStore);
+		remoteWriter.visitDeltaDumpCommand("client");
+
+		assertTrue(remoteReader.read());
+		assertTrue(deltaStore.getContents().isEmpty());
+
+		con.close();
+		f.get();
+	}
+
 	@Test
 	public void testRemoteReset() throws Exception {
 		data.getExecutionData(Long.valueOf(123), "Foo", 1)
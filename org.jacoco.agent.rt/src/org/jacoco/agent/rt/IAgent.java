@@ -56,6 +56,18 @@ public interface IAgent {
 	 */
 	byte[] getExecutionData(boolean reset);
 
+	/**
+	 * Returns the execution data which has been added since the previous call
+	 * for the same client. Only classes with newly executed probes are
+	 * contained and only the new probes are set. The first call for a client
+	 * and the first call after a reset return all current execution data.
+	 *
+	 * @param client
+	 *            identifier of the client the delta is tracked for
+	 * @return dump of the new execution data in JaCoCo binary format
+	 */
+	byte[] getExecutionDataDelta(String client);
+
 	/**
 	 * Triggers a dump of the current execution data through the configured
 	 * output.
@@ -216,6 +216,18 @@ public class Agent implements IAgent {
 		return buffer.toByteArray();
 	}
 
+	public byte[] getExecutionDataDelta(final String client) {
+		final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		try {
+			final ExecutionDataWriter writer = new ExecutionDataWriter(buffer);
+			data.collectDelta(client, writer, writer);
+		} catch (final IOException e) {
+			// Must not happen with ByteArrayOutputStream
+			throw new AssertionError(e);
+		}
+		return buffer.toByteArray();
+	}
+
 	public void dump(final boolean reset) throws IOException {
 		output.writeExecutionData(reset);
 	}
@@ -12,11 +12,13 @@
  *******************************************************************************/
 package org.jacoco.agent.rt.internal;
 
+import java.io.IOException;
 import java.lang.instrument.ClassFileTransformer;
 import java.lang.instrument.IllegalClassFormatException;
 import java.security.CodeSource;
 import java.security.ProtectionDomain;
 
+import org.jacoco.core.JaCoCo;
 import org.jacoco.core.instr.Instrumenter;
 import org.jacoco.core.runtime.AgentOptions;
 import org.jacoco.core.runtime.IRuntime;
@@ -46,6 +48,10 @@ public class CoverageTransformer implements ClassFileTransformer {
 
 	private final ClassFileDumper classFileDumper;
 
+	private final InstrumentationCache instrumentationCache;
+
+	private volatile boolean cacheFailureLogged;
+
 	private final boolean inclBootstrapClasses;
 
 	private final boolean inclNoLocationClasses;
@@ -69,6 +75,11 @@ public class CoverageTransformer implements ClassFileTransformer {
 		excludes = new WildcardMatcher(toVMName(options.getExcludes()));
 		exclClassloader = new WildcardMatcher(options.getExclClassloader());
 		classFileDumper = new ClassFileDumper(options.getClassDumpDir());
+		// Instrumented class files depend on the agent version and the
+		// runtime which is selected depending on the JVM version:
+		instrumentationCache = new InstrumentationCache(options.getCacheDir(),
+				JaCoCo.VERSION + "-" + runtime.getClass().getSimpleName(),
+				options.getCacheSize() * 1024L * 1024L);
 		inclBootstrapClasses = options.getInclBootstrapClasses();
 		inclNoLocationClasses = options.getInclNoLocationClasses();
 	}
@@ -89,7 +100,13 @@ public class CoverageTransformer implements ClassFileTransformer {
 
 		try {
 			classFileDumper.dump(classname, classfileBuffer);
-			return instrumenter.instrument(classfileBuffer, classname);
+			byte[] instrumented = instrumentationCache.get(classfileBuffer);
+			if (instrumented == null) {
+				instrumented = instrumenter.instrument(classfileBuffer,
+						classname);
+				cache(classfileBuffer, instrumented);
+			}
+			return instrumented;
 		} catch (final Exception ex) {
 			final IllegalClassFormatException wrapper = new IllegalClassFormatException(
 					ex.getMessage());
@@ -100,6 +117,19 @@ public class CoverageTransformer implements ClassFileTransformer {
 		}
 	}
 
+	private void cache(final byte[] original, final byte[] instrumented) {
+		try {
+			instrumentationCache.put(original, instrumented);
+		} catch (final IOException e) {
+			// The class is instrumented anyways, report the broken cache only
+			// once to avoid flooding the log:
+			if (!cacheFailureLogged) {
+				cacheFailureLogged = true;
+				logger.logExeption(e);
+			}
+		}
+	}
+
 	/**
 	 * Checks whether this class should be instrumented.
 	 *
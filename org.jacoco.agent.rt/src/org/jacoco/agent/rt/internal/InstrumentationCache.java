@@ -0,0 +1,199 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.agent.rt.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.jacoco.core.internal.data.CRC64;
+
+/**
+ * Internal on-disk cache for instrumented class files. The cache directory may
+ * be shared by multiple JVMs: Entries are written to temporary files first and
+ * then atomically renamed, so readers never see partial content. Entries are
+ * stored in a sub-directory for the given key which must identify everything
+ * that influences instrumentation besides the original class file.
+ */
+class InstrumentationCache {
+
+	private static final String SUFFIX = ".class";
+
+	private final File location;
+
+	/**
+	 * Create a new cache for the given location. If the content of the cache
+	 * directory exceeds the given size, least recently used entries are
+	 * removed.
+	 *
+	 * @param location
+	 *            path to cache directory. <code>null</code> if no cache should
+	 *            be used
+	 * @param key
+	 *            identifier for the instrumentation configuration
+	 * @param maxSize
+	 *            maximum size of the cache directory in bytes
+	 */
+	InstrumentationCache(final String location, final String key,
+			final long maxSize) {
+		if (location == null) {
+			this.location = null;
+		} else {
+			final File root = new File(location);
+			evict(root, maxSize);
+			this.location = new File(root, key);
+		}
+	}
+
+	/**
+	 * Returns the cached instrumented version of the given class file.
+	 *
+	 * @param original
+	 *            original class file
+	 * @return instrumented class file or <code>null</code> if not available
+	 */
+	byte[] get(final byte[] original) {
+		if (location == null) {
+			return null;
+		}
+		final File file = getFile(original);
+		final byte[] contents;
+		try {
+			contents = read(file);
+		} catch (final IOException e) {
+			// Missing or concurrently evicted entry
+			return null;
+		}
+		if (!isClassFile(contents)) {
+			return null;
+		}
+		// Mark entry as recently used
+		file.setLastModified(System.currentTimeMillis());
+		return contents;
+	}
+
+	/**
+	 * Stores the instrumented version of the given class file.
+	 *
+	 * @param original
+	 *            original class file
+	 * @param instrumented
+	 *            instrumented class file
+	 * @throws IOException
+	 *             in case of problems while writing the entry
+	 */
+	void put(final byte[] original, final byte[] instrumented)
+			throws IOException {
+		if (location == null) {
+			return;
+		}
+		location.mkdirs();
+		final File file = getFile(original);
+		final File tmp = File.createTempFile(file.getName(), ".tmp", location);
+		final OutputStream out = new FileOutputStream(tmp);
+		try {
+			out.write(instrumented);
+		} finally {
+			out.close();
+		}
+		if (!tmp.renameTo(file)) {
+			// Entry has been written by another JVM in the meantime
+			tmp.delete();
+		}
+	}
+
+	private File getFile(final byte[] original) {
+		final Long id = Long.valueOf(CRC64.classId(original));
+		return new File(location, String.format("%016x%s", id, SUFFIX));
+	}
+
+	private static boolean isClassFile(final byte[] contents) {
+		return contents.length >= 4 && contents[0] == (byte) 0xCA
+				&& contents[1] == (byte) 0xFE && contents[2] == (byte) 0xBA
+				&& contents[3] == (byte) 0xBE;
+	}
+
+	private static byte[] read(final File file) throws IOException {
+		final InputStream in = new FileInputStream(file);
+		try {
+			final ByteArrayOutputStream out = new ByteArrayOutputStream(
+					(int) file.length());
+			final byte[] buffer = new byte[0x1000];
+			int len;
+			while ((len = in.read(buffer)) != -1) {
+				out.write(buffer, 0, len);
+			}
+			return out.toByteArray();
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Removes the least recently used files below the given directory until the
+	 * total size is below 3/4 of the given maximum size. Files which can't be
+	 * removed, e.g. because they are concurrently used by another JVM, are
+	 * skipped.
+	 */
+	private static void evict(final File root, final long maxSize) {
+		final List<File> files = new ArrayList<File>();
+		collect(root, files);
+		long size = 0;
+		for (final File f : files) {
+			size += f.length();
+		}
+		if (size <= maxSize) {
+			return;
+		}
+		Collections.sort(files, new Comparator<File>() {
+			public int compare(final File f1, final File f2) {
+				final long m1 = f1.lastModified();
+				final long m2 = f2.lastModified();
+				return m1 < m2 ? -1 : (m1 == m2 ? 0 : 1);
+			}
+		});
+		final long target = maxSize / 4 * 3;
+		for (final File f : files) {
+			if (size <= target) {
+				break;
+			}
+			final long length = f.length();
+			if (f.delete()) {
+				size -= length;
+			}
+		}
+	}
+
+	private static void collect(final File dir, final List<File> files) {
+		final File[] children = dir.listFiles();
+		if (children == null) {
+			return;
+		}
+		for (final File c : children) {
+			if (c.isDirectory()) {
+				collect(c, files);
+			} else {
+				files.add(c);
+			}
+		}
+	}
+
+}
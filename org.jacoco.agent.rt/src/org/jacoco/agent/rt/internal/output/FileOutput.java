@@ -27,6 +27,7 @@ import org.jacoco.core.runtime.RuntimeData;
  * <ul>
  * <li>destfile</li>
  * <li>append</li>
+ * <li>compact</li>
  * </ul>
  */
 public class FileOutput implements IAgentOutput {
@@ -37,11 +38,14 @@ public class FileOutput implements IAgentOutput {
 
 	private boolean append;
 
+	private boolean compact;
+
 	public final void startup(final AgentOptions options,
 			final RuntimeData data) throws IOException {
 		this.data = data;
 		this.destFile = new File(options.getDestfile()).getAbsoluteFile();
 		this.append = options.getAppend();
+		this.compact = options.getCompact();
 		final File folder = destFile.getParentFile();
 		if (folder != null) {
 			folder.mkdirs();
@@ -53,8 +57,10 @@ public class FileOutput implements IAgentOutput {
 	public void writeExecutionData(final boolean reset) throws IOException {
 		final OutputStream output = openFile();
 		try {
-			final ExecutionDataWriter writer = new ExecutionDataWriter(output);
+			final ExecutionDataWriter writer = new ExecutionDataWriter(output,
+					compact, compact);
 			data.collect(writer, writer, reset);
+			writer.finish();
 		} finally {
 			output.close();
 		}
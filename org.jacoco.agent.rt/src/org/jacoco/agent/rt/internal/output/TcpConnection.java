@@ -30,6 +30,8 @@ class TcpConnection implements IRemoteCommandVisitor {
 
 	private final Socket socket;
 
+	private final boolean compact;
+
 	private RemoteControlWriter writer;
 
 	private RemoteControlReader reader;
@@ -37,13 +39,20 @@ class TcpConnection implements IRemoteCommandVisitor {
 	private boolean initialized;
 
 	public TcpConnection(final Socket socket, final RuntimeData data) {
+		this(socket, data, false);
+	}
+
+	public TcpConnection(final Socket socket, final RuntimeData data,
+			final boolean compact) {
 		this.socket = socket;
 		this.data = data;
+		this.compact = compact;
 		this.initialized = false;
 	}
 
 	public void init() throws IOException {
-		this.writer = new RemoteControlWriter(socket.getOutputStream());
+		this.writer = new RemoteControlWriter(socket.getOutputStream(),
+				compact);
 		this.reader = new RemoteControlReader(socket.getInputStream());
 		this.reader.setRemoteCommandVisitor(this);
 		this.initialized = true;
@@ -109,4 +118,9 @@ class TcpConnection implements IRemoteCommandVisitor {
 		writer.sendCmdOk();
 	}
 
+	public void visitDeltaDumpCommand(final String client) throws IOException {
+		data.collectDelta(client, writer, writer);
+		writer.sendCmdOk();
+	}
+
 }
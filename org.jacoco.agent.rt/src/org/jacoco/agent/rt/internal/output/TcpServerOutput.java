@@ -27,6 +27,7 @@ import org.jacoco.core.runtime.RuntimeData;
  * <ul>
  * <li>address</li>
  * <li>port</li>
+ * <li>compact</li>
  * </ul>
  */
 public class TcpServerOutput implements IAgentOutput {
@@ -58,7 +59,8 @@ public class TcpServerOutput implements IAgentOutput {
 					try {
 						synchronized (serverSocket) {
 							connection = new TcpConnection(
-									serverSocket.accept(), data);
+									serverSocket.accept(), data,
+									options.getCompact());
 						}
 						connection.init();
 						connection.run();
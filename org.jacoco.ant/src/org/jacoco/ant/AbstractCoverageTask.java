@@ -201,6 +201,27 @@ public class AbstractCoverageTask extends Task {
 		agentOptions.setClassDumpDir(dir.getAbsolutePath());
 	}
 
+	/**
+	 * Sets the directory where the agent caches instrumented class files.
+	 *
+	 * @param dir
+	 *            cache location
+	 */
+	public void setCachedir(final File dir) {
+		agentOptions.setCacheDir(dir.getAbsolutePath());
+	}
+
+	/**
+	 * Sets the maximum size of the cache directory in megabytes. Default is
+	 * <code>100</code>.
+	 *
+	 * @param size
+	 *            maximum cache size
+	 */
+	public void setCachesize(final int size) {
+		agentOptions.setCacheSize(size);
+	}
+
 	/**
 	 * Sets whether the agent should expose functionality via JMX.
 	 *
@@ -211,6 +232,16 @@ public class AbstractCoverageTask extends Task {
 		agentOptions.setJmx(jmx);
 	}
 
+	/**
+	 * Sets whether the agent should write execution data in the compact format.
+	 *
+	 * @param compact
+	 *            <code>true</code> if the compact format should be used
+	 */
+	public void setCompact(final boolean compact) {
+		agentOptions.setCompact(compact);
+	}
+
 	/**
 	 * Creates JVM argument to launch with the specified JaCoCo agent jar and
 	 * the current options
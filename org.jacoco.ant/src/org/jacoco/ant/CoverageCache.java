@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.ant;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.SoftReference;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.types.Resource;
+import org.apache.tools.ant.types.ResourceCollection;
+import org.apache.tools.ant.types.resources.FileResource;
+import org.jacoco.core.analysis.CoverageBuilder;
+import org.jacoco.core.tools.InputFingerprint;
+
+/**
+ * Keeps analyzed coverage for the duration of an Ant build, so that multiple
+ * report tasks for the same class files and execution data analyze the class
+ * files only once. Results are stored as a reference of the {@link Project} and
+ * identified by a fingerprint of all inputs: the analysis options, the content
+ * of every execution data resource and the name, size and modification time of
+ * every class file resource. Directories are traversed like the analyzer does.
+ * Results are held by soft references and may be reclaimed if the build runs
+ * short of memory.
+ */
+final class CoverageCache {
+
+	private static final String REFERENCE = CoverageCache.class.getName();
+
+	private CoverageCache() {
+	}
+
+	/**
+	 * Returns the coverage which has been analyzed with the same inputs before.
+	 *
+	 * @param project
+	 *            Ant project
+	 * @param fingerprint
+	 *            fingerprint of the analysis inputs
+	 * @return coverage or <code>null</code>
+	 */
+	static CoverageBuilder get(final Project project,
+			final String fingerprint) {
+		synchronized (project) {
+			final SoftReference<CoverageBuilder> ref = getEntries(project)
+					.get(fingerprint);
+			return ref == null ? null : ref.get();
+		}
+	}
+
+	/**
+	 * Stores analyzed coverage.
+	 *
+	 * @param project
+	 *            Ant project
+	 * @param fingerprint
+	 *            fingerprint of the analysis inputs
+	 * @param coverage
+	 *            analyzed coverage, must not be modified afterwards
+	 */
+	static void put(final Project project, final String fingerprint,
+			final CoverageBuilder coverage) {
+		synchronized (project) {
+			getEntries(project).put(fingerprint,
+					new SoftReference<CoverageBuilder>(coverage));
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, SoftReference<CoverageBuilder>> getEntries(
+			final Project project) {
+		Map<String, SoftReference<CoverageBuilder>> entries = (Map<String, SoftReference<CoverageBuilder>>) project
+				.getReference(REFERENCE);
+		if (entries == null) {
+			entries = new HashMap<String, SoftReference<CoverageBuilder>>();
+			project.addReference(REFERENCE, entries);
+		}
+		return entries;
+	}
+
+	/**
+	 * Calculates the fingerprint of the analysis inputs.
+	 *
+	 * @param executedOnly
+	 *            whether classes without execution data are skipped
+	 * @param executionData
+	 *            execution data resources
+	 * @param classFiles
+	 *            class file resources
+	 * @return fingerprint
+	 * @throws IOException
+	 *             if an execution data resource can not be read
+	 */
+	static String fingerprint(final boolean executedOnly,
+			final ResourceCollection executionData,
+			final ResourceCollection classFiles) throws IOException {
+		final InputFingerprint fingerprint = new InputFingerprint();
+		fingerprint.add(String.valueOf(executedOnly));
+		for (final Iterator<?> i = executionData.iterator(); i.hasNext();) {
+			final Resource r = (Resource) i.next();
+			fingerprint.add(r.toLongString());
+			final InputStream in = r.getInputStream();
+			try {
+				fingerprint.addContent(in);
+			} finally {
+				in.close();
+			}
+		}
+		fingerprint.add("");
+		for (final Iterator<?> i = classFiles.iterator(); i.hasNext();) {
+			final Resource r = (Resource) i.next();
+			if (r instanceof FileResource) {
+				fingerprint.addFile(((FileResource) r).getFile());
+			} else {
+				fingerprint.add(r.toLongString() + '\t' + r.getSize() + '\t'
+						+ r.getLastModified());
+			}
+		}
+		return fingerprint.getValue();
+	}
+
+}
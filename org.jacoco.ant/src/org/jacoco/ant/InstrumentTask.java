@@ -16,17 +16,26 @@ import static java.lang.String.format;
 
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.Task;
 import org.apache.tools.ant.types.Resource;
 import org.apache.tools.ant.types.ResourceCollection;
+import org.apache.tools.ant.types.resources.FileResource;
 import org.apache.tools.ant.types.resources.Union;
 import org.apache.tools.ant.util.FileUtils;
 import org.jacoco.core.instr.Instrumenter;
+import org.jacoco.core.internal.Futures;
 import org.jacoco.core.runtime.OfflineInstrumentationAccessGenerator;
 
 /**
@@ -40,6 +49,8 @@ public class InstrumentTask extends Task {
 
 	private boolean removesignatures = true;
 
+	private int threads = Runtime.getRuntime().availableProcessors();
+
 	/**
 	 * Sets the location of the instrumented classes.
 	 *
@@ -60,6 +71,18 @@ public class InstrumentTask extends Task {
 		this.removesignatures = removesignatures;
 	}
 
+	/**
+	 * Sets the maximum number of files and archive entries which are
+	 * instrumented in parallel. By default the number of available processors
+	 * is used.
+	 *
+	 * @param threads
+	 *            maximum number of parallel instrumentations
+	 */
+	public void setThreads(final int threads) {
+		this.threads = threads;
+	}
+
 	/**
 	 * This task accepts any number of class file resources.
 	 *
@@ -76,22 +99,46 @@ public class InstrumentTask extends Task {
 			throw new BuildException("Destination directory must be supplied",
 					getLocation());
 		}
-		int total = 0;
 		final Instrumenter instrumenter = new Instrumenter(
 				new OfflineInstrumentationAccessGenerator());
 		instrumenter.setRemoveSignatures(removesignatures);
-		final Iterator<?> resourceIterator = files.iterator();
-		while (resourceIterator.hasNext()) {
-			final Resource resource = (Resource) resourceIterator.next();
-			if (resource.isDirectory()) {
-				continue;
+		final ExecutorService executor = Executors
+				.newFixedThreadPool(Math.max(1, threads));
+		instrumenter.setExecutor(executor);
+		int total = 0;
+		try {
+			final List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+			final Iterator<?> resourceIterator = files.iterator();
+			while (resourceIterator.hasNext()) {
+				final Resource resource = (Resource) resourceIterator.next();
+				if (resource.isDirectory()) {
+					continue;
+				}
+				results.add(executor.submit(new Callable<Integer>() {
+					public Integer call() {
+						return Integer
+								.valueOf(instrument(instrumenter, resource));
+					}
+				}));
+			}
+			for (final Future<Integer> result : results) {
+				total += await(result);
 			}
-			total += instrument(instrumenter, resource);
+		} finally {
+			executor.shutdownNow();
 		}
 		log(format("Instrumented %s classes to %s", Integer.valueOf(total),
 				destdir.getAbsolutePath()));
 	}
 
+	private int await(final Future<Integer> result) {
+		try {
+			return Futures.get(result).intValue();
+		} catch (final IOException e) {
+			throw new BuildException(e, getLocation());
+		}
+	}
+
 	private int instrument(final Instrumenter instrumenter,
 			final Resource resource) {
 		final File file = new File(destdir, resource.getName());
@@ -100,8 +147,13 @@ public class InstrumentTask extends Task {
 			InputStream input = null;
 			OutputStream output = null;
 			try {
-				input = resource.getInputStream();
 				output = new FileOutputStream(file);
+				if (resource instanceof FileResource) {
+					return instrumenter.instrumentAll(
+							((FileResource) resource).getFile(), output,
+							resource.getName());
+				}
+				input = resource.getInputStream();
 				return instrumenter.instrumentAll(input, output,
 						resource.getName());
 			} finally {
@@ -17,15 +17,18 @@ import static java.lang.String.format;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.Task;
 import org.apache.tools.ant.types.Resource;
 import org.apache.tools.ant.types.ResourceCollection;
+import org.apache.tools.ant.types.resources.FileResource;
 import org.apache.tools.ant.types.resources.Union;
 import org.apache.tools.ant.util.FileUtils;
-import org.jacoco.core.tools.ExecFileLoader;
+import org.jacoco.core.tools.ExecFileMerger;
 
 /**
  * Task for merging a set of execution data files (*.exec) into a single file
@@ -36,6 +39,8 @@ public class MergeTask extends Task {
 
 	private final Union files = new Union();
 
+	private int threads = Runtime.getRuntime().availableProcessors();
+
 	/**
 	 * Sets the location of the merged data store
 	 *
@@ -46,6 +51,17 @@ public class MergeTask extends Task {
 		this.destfile = destfile;
 	}
 
+	/**
+	 * Sets the maximum number of execution data files which are read in
+	 * parallel. By default the number of available processors is used.
+	 *
+	 * @param threads
+	 *            maximum number of parallel reads
+	 */
+	public void setThreads(final int threads) {
+		this.threads = threads;
+	}
+
 	/**
 	 * This task accepts any number of execution data resources.
 	 *
@@ -63,13 +79,14 @@ public class MergeTask extends Task {
 					getLocation());
 		}
 
-		final ExecFileLoader loader = new ExecFileLoader();
+		final ExecFileMerger merger = new ExecFileMerger();
 
-		load(loader);
-		save(loader);
+		load(merger);
+		save(merger);
 	}
 
-	private void load(final ExecFileLoader loader) {
+	private void load(final ExecFileMerger merger) {
+		final List<File> inputFiles = new ArrayList<File>();
 		final Iterator<?> resourceIterator = files.iterator();
 		while (resourceIterator.hasNext()) {
 			final Resource resource = (Resource) resourceIterator.next();
@@ -80,10 +97,15 @@ public class MergeTask extends Task {
 
 			log(format("Loading execution data file %s", resource));
 
+			if (resource instanceof FileResource) {
+				inputFiles.add(((FileResource) resource).getFile());
+				continue;
+			}
+
 			InputStream resourceStream = null;
 			try {
 				resourceStream = resource.getInputStream();
-				loader.load(resourceStream);
+				merger.load(resourceStream);
 			} catch (final IOException e) {
 				throw new BuildException(format("Unable to read %s", resource),
 						e, getLocation());
@@ -91,13 +113,18 @@ public class MergeTask extends Task {
 				FileUtils.close(resourceStream);
 			}
 		}
+		try {
+			merger.loadAll(inputFiles, threads);
+		} catch (final IOException e) {
+			throw new BuildException(e.getMessage(), e, getLocation());
+		}
 	}
 
-	private void save(final ExecFileLoader loader) {
+	private void save(final ExecFileMerger merger) {
 		log(format("Writing merged execution data to %s",
 				destfile.getAbsolutePath()));
 		try {
-			loader.save(destfile, false);
+			merger.save(destfile, false);
 		} catch (final IOException e) {
 			throw new BuildException(format("Unable to write merged file %s",
 					destfile.getAbsolutePath()), e, getLocation());
@@ -32,6 +32,7 @@ import org.apache.tools.ant.types.Resource;
 import org.apache.tools.ant.types.resources.FileResource;
 import org.apache.tools.ant.types.resources.Union;
 import org.apache.tools.ant.util.FileUtils;
+import org.jacoco.core.analysis.AnalysisCache;
 import org.jacoco.core.analysis.Analyzer;
 import org.jacoco.core.analysis.CoverageBuilder;
 import org.jacoco.core.analysis.IBundleCoverage;
@@ -424,6 +425,46 @@ public class ReportTask extends Task {
 
 	private final List<FormatterElement> formatters = new ArrayList<FormatterElement>();
 
+	private boolean executedOnly = false;
+
+	/**
+	 * Restricts the report to classes with execution data. Classes without
+	 * execution data are skipped without analysis.
+	 *
+	 * @param executedOnly
+	 *            <code>true</code> if classes without execution data should be
+	 *            skipped
+	 */
+	public void setExecutedonly(final boolean executedOnly) {
+		this.executedOnly = executedOnly;
+	}
+
+	private boolean shareAnalysis = true;
+
+	/**
+	 * Specifies whether the analysis of class files is shared with other report
+	 * tasks of the same build, see {@link CoverageCache}.
+	 *
+	 * @param shareAnalysis
+	 *            <code>true</code> if analysis results should be reused and
+	 *            stored for other report tasks
+	 */
+	public void setShareanalysis(final boolean shareAnalysis) {
+		this.shareAnalysis = shareAnalysis;
+	}
+
+	private File analysisCache = null;
+
+	/**
+	 * Sets a directory to cache the structural analysis of class files in.
+	 *
+	 * @param analysisCache
+	 *            cache directory
+	 */
+	public void setAnalysiscache(final File analysisCache) {
+		this.analysisCache = analysisCache;
+	}
+
 	/**
 	 * Returns the nested resource collection for execution data files.
 	 *
@@ -562,11 +603,39 @@ public class ReportTask extends Task {
 
 	private IBundleCoverage createBundle(final GroupElement group)
 			throws IOException {
+		final CoverageBuilder builder = analyze(group);
+		final IBundleCoverage bundle = builder.getBundle(group.name);
+		logBundleInfo(bundle, builder.getNoMatchClasses());
+		return bundle;
+	}
+
+	/**
+	 * Analyzes the class files of the given group. Unless disabled the result
+	 * is shared with other report tasks of the same build, see
+	 * {@link CoverageCache}.
+	 */
+	private CoverageBuilder analyze(final GroupElement group)
+			throws IOException {
+		String fingerprint = null;
+		if (shareAnalysis) {
+			fingerprint = CoverageCache.fingerprint(executedOnly,
+					executiondataElement, group.classfiles);
+			final CoverageBuilder builder = CoverageCache.get(getProject(),
+					fingerprint);
+			if (builder != null) {
+				log(format("Reusing analysis of bundle '%s'", group.name));
+				return builder;
+			}
+		}
 		final CoverageBuilder builder = new CoverageBuilder();
 		final Analyzer analyzer = new Analyzer(executionDataStore, builder);
+		analyzer.setExecutedOnly(executedOnly);
+		if (analysisCache != null) {
+			analyzer.setCache(new AnalysisCache(analysisCache));
+		}
 		for (final Iterator<?> i = group.classfiles.iterator(); i.hasNext();) {
 			final Resource resource = (Resource) i.next();
-			if (resource.isDirectory() && resource instanceof FileResource) {
+			if (resource instanceof FileResource) {
 				analyzer.analyzeAll(((FileResource) resource).getFile());
 			} else {
 				final InputStream in = resource.getInputStream();
@@ -574,9 +643,10 @@ public class ReportTask extends Task {
 				in.close();
 			}
 		}
-		final IBundleCoverage bundle = builder.getBundle(group.name);
-		logBundleInfo(bundle, builder.getNoMatchClasses());
-		return bundle;
+		if (shareAnalysis) {
+			CoverageCache.put(getProject(), fingerprint, builder);
+		}
+		return builder;
 	}
 
 	private void logBundleInfo(final IBundleCoverage bundle,
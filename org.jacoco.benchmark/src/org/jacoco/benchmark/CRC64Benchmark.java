@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jacoco.core.internal.data.CRC64;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Calculates class identifiers for all JDK classes of a package tree. The
+ * <code>bytewise</code> benchmark is the previous implementation with a single
+ * lookup table as a baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CRC64Benchmark {
+
+	private static final long[] LOOKUPTABLE = new long[0x100];
+
+	static {
+		for (int i = 0; i < 0x100; i++) {
+			long v = i;
+			for (int j = 0; j < 8; j++) {
+				if ((v & 1) == 1) {
+					v = (v >>> 1) ^ 0xd800000000000000L;
+				} else {
+					v = (v >>> 1);
+				}
+			}
+			LOOKUPTABLE[i] = v;
+		}
+	}
+
+	@Param({ "java/util/" })
+	public String corpus;
+
+	private List<byte[]> classes;
+
+	@Setup
+	public void setup() throws IOException {
+		classes = ClassFiles.jdk(corpus);
+		for (final byte[] c : classes) {
+			if (bytewise(c) != CRC64.classId(c)) {
+				throw new IllegalStateException("Different class id.");
+			}
+		}
+	}
+
+	@Benchmark
+	public long classId() {
+		long result = 0;
+		for (final byte[] c : classes) {
+			result ^= CRC64.classId(c);
+		}
+		return result;
+	}
+
+	@Benchmark
+	public long bytewise() {
+		long result = 0;
+		for (final byte[] c : classes) {
+			result ^= bytewise(c);
+		}
+		return result;
+	}
+
+	private static long bytewise(final byte[] bytes) {
+		long sum = 0;
+		for (final byte b : bytes) {
+			sum = (sum >>> 8) ^ LOOKUPTABLE[((int) sum ^ b) & 0xff];
+		}
+		return sum;
+	}
+
+}
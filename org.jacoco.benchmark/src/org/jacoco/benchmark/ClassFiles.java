@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Corpus of real world class files taken from the runtime of the executing JVM.
+ * Depending on the JVM version classes are read from <code>rt.jar</code> or
+ * from the <code>jrt:/</code> file system.
+ */
+public final class ClassFiles {
+
+	private ClassFiles() {
+	}
+
+	/**
+	 * Reads all class files of the JDK within the given package and its sub
+	 * packages. The result is ordered by the resource name of the classes.
+	 *
+	 * @param prefix
+	 *            VM package name prefix, e.g. <code>java/util/</code>
+	 * @return contents of all matching class files
+	 * @throws IOException
+	 *             if the class files can't be read
+	 */
+	public static List<byte[]> jdk(final String prefix) throws IOException {
+		final File rtjar = new File(System.getProperty("java.home"),
+				"lib/rt.jar");
+		final List<byte[]> classes = rtjar.isFile() ? fromJar(rtjar, prefix)
+				: fromJrt(prefix);
+		if (classes.isEmpty()) {
+			throw new IOException("No JDK classes found for " + prefix);
+		}
+		return classes;
+	}
+
+	private static List<byte[]> fromJar(final File file, final String prefix)
+			throws IOException {
+		final List<String> names = new ArrayList<String>();
+		final ZipFile zip = new ZipFile(file);
+		try {
+			final Enumeration<? extends ZipEntry> entries = zip.entries();
+			while (entries.hasMoreElements()) {
+				final String name = entries.nextElement().getName();
+				if (name.startsWith(prefix) && name.endsWith(".class")) {
+					names.add(name);
+				}
+			}
+			names.sort(null);
+			final List<byte[]> classes = new ArrayList<byte[]>();
+			for (final String name : names) {
+				classes.add(read(zip.getInputStream(zip.getEntry(name))));
+			}
+			return classes;
+		} finally {
+			zip.close();
+		}
+	}
+
+	private static List<byte[]> fromJrt(final String prefix)
+			throws IOException {
+		final Path root = FileSystems.getFileSystem(URI.create("jrt:/"))
+				.getPath("modules", "java.base", prefix);
+		final List<Path> paths;
+		final Stream<Path> stream = Files.walk(root);
+		try {
+			paths = stream.filter(p -> p.toString().endsWith(".class")).sorted()
+					.collect(Collectors.toList());
+		} finally {
+			stream.close();
+		}
+		final List<byte[]> classes = new ArrayList<byte[]>();
+		for (final Path p : paths) {
+			classes.add(Files.readAllBytes(p));
+		}
+		return classes;
+	}
+
+	/**
+	 * Reads the class file of the given class from its class loader.
+	 *
+	 * @param type
+	 *            class to read
+	 * @return class file content
+	 * @throws IOException
+	 *             if the class file can't be read
+	 */
+	public static byte[] of(final Class<?> type) throws IOException {
+		final String resource = "/" + type.getName().replace('.', '/')
+				+ ".class";
+		return read(type.getResourceAsStream(resource));
+	}
+
+	private static byte[] read(final InputStream in) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try {
+			final byte[] buffer = new byte[0x1000];
+			int len;
+			while ((len = in.read(buffer)) != -1) {
+				out.write(buffer, 0, len);
+			}
+		} finally {
+			in.close();
+		}
+		return out.toByteArray();
+	}
+
+}
@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.jacoco.core.analysis.Analyzer;
+import org.jacoco.core.analysis.ClassProjection;
+import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.analysis.ICoverageVisitor;
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.ExecutionDataStore;
+import org.jacoco.core.internal.data.CRC64;
+import org.jacoco.core.internal.flow.ClassProbesAdapter;
+import org.jacoco.core.internal.flow.ClassProbesVisitor;
+import org.jacoco.core.internal.flow.MethodProbesVisitor;
+import org.jacoco.core.internal.instr.InstrSupport;
+import org.objectweb.asm.ClassReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Calculates the coverage of all JDK classes of a package tree for random
+ * execution data, either by analyzing the class files or by evaluating
+ * pre-compiled {@link ClassProjection}s.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ClassProjectionBenchmark {
+
+	@Param({ "java/util/" })
+	public String corpus;
+
+	@Param({ "0.5" })
+	public double density;
+
+	private List<byte[]> classes;
+
+	private List<ClassProjection> projections;
+
+	private ExecutionDataStore executionData;
+
+	@Setup
+	public void setup() throws IOException {
+		classes = ClassFiles.jdk(corpus);
+		projections = new ArrayList<ClassProjection>();
+		executionData = new ExecutionDataStore();
+		final Random random = new Random(0);
+		for (final byte[] c : classes) {
+			final ClassProjection projection = ClassProjection.compile(c, "");
+			if (projection != null) {
+				projections.add(projection);
+			}
+			final boolean[] probes = new boolean[probeCount(c)];
+			for (int i = 0; i < probes.length; i++) {
+				probes[i] = random.nextDouble() < density;
+			}
+			final ClassReader reader = InstrSupport.classReaderFor(c);
+			executionData.put(new ExecutionData(CRC64.classId(c),
+					reader.getClassName(), probes));
+		}
+	}
+
+	@Benchmark
+	public void analyze(final Blackhole blackhole) throws IOException {
+		final Analyzer analyzer = new Analyzer(executionData,
+				new ICoverageVisitor() {
+					public void visitCoverage(final IClassCoverage coverage) {
+						blackhole.consume(coverage);
+					}
+				});
+		for (final byte[] c : classes) {
+			analyzer.analyzeClass(c, "");
+		}
+	}
+
+	@Benchmark
+	public void evaluate(final Blackhole blackhole) {
+		for (final ClassProjection p : projections) {
+			blackhole.consume(p.evaluate(executionData));
+		}
+	}
+
+	private static int probeCount(final byte[] c) {
+		final int[] count = new int[1];
+		InstrSupport.classReaderFor(c)
+				.accept(new ClassProbesAdapter(new ClassProbesVisitor() {
+					@Override
+					public MethodProbesVisitor visitMethod(final int access,
+							final String name, final String desc,
+							final String signature, final String[] exceptions) {
+						return null;
+					}
+
+					@Override
+					public void visitTotalProbeCount(final int total) {
+						count[0] = total;
+					}
+				}, false), 0);
+		return count[0];
+	}
+
+}
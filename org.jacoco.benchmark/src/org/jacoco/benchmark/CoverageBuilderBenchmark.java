@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jacoco.core.analysis.Analyzer;
+import org.jacoco.core.analysis.CoverageBuilder;
+import org.jacoco.core.analysis.IBundleCoverage;
+import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.analysis.ICoverageVisitor;
+import org.jacoco.core.data.ExecutionDataStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Aggregates the class coverage of all JDK classes of a package tree into a
+ * bundle.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CoverageBuilderBenchmark {
+
+	@Param({ "java/util/" })
+	public String corpus;
+
+	private List<IClassCoverage> classes;
+
+	@Setup
+	public void setup() throws IOException {
+		classes = analyze(corpus);
+	}
+
+	@Benchmark
+	public IBundleCoverage getBundle() {
+		final CoverageBuilder builder = new CoverageBuilder();
+		for (final IClassCoverage c : classes) {
+			builder.visitCoverage(c);
+		}
+		return builder.getBundle("benchmark");
+	}
+
+	/**
+	 * Analyzes all JDK classes of the given package tree.
+	 *
+	 * @param corpus
+	 *            VM package name prefix
+	 * @return coverage of all classes
+	 * @throws IOException
+	 *             if the class files can't be read
+	 */
+	static List<IClassCoverage> analyze(final String corpus)
+			throws IOException {
+		final List<IClassCoverage> classes = new ArrayList<IClassCoverage>();
+		final Analyzer analyzer = new Analyzer(new ExecutionDataStore(),
+				new ICoverageVisitor() {
+					public void visitCoverage(final IClassCoverage coverage) {
+						classes.add(coverage);
+					}
+				});
+		for (final byte[] c : ClassFiles.jdk(corpus)) {
+			analyzer.analyzeClass(c, "");
+		}
+		return classes;
+	}
+
+}
@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.ExecutionDataReader;
+import org.jacoco.core.data.ExecutionDataStore;
+import org.jacoco.core.data.ExecutionDataWriter;
+import org.jacoco.core.data.SessionInfoStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Writes and reads execution data in the exec file format. The data set is
+ * randomly generated with a fixed seed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ExecutionDataBenchmark {
+
+	@Param({ "10000" })
+	public int classCount;
+
+	@Param({ "100" })
+	public int probeCount;
+
+	private ExecutionDataStore store;
+
+	private byte[] execfile;
+
+	@Setup
+	public void setup() throws IOException {
+		final Random random = new Random(42);
+		store = new ExecutionDataStore();
+		for (int i = 0; i < classCount; i++) {
+			final boolean[] probes = new boolean[probeCount];
+			for (int j = 0; j < probeCount; j++) {
+				probes[j] = random.nextBoolean();
+			}
+			store.put(new ExecutionData(random.nextLong(),
+					"org/example/Class" + i, probes));
+		}
+		execfile = write();
+	}
+
+	@Benchmark
+	public byte[] write() throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		store.accept(new ExecutionDataWriter(out));
+		return out.toByteArray();
+	}
+
+	@Benchmark
+	public ExecutionDataStore read() throws IOException {
+		final ExecutionDataStore result = new ExecutionDataStore();
+		final ExecutionDataReader reader = new ExecutionDataReader(
+				new ByteArrayInputStream(execfile));
+		reader.setExecutionDataVisitor(result);
+		reader.setSessionInfoVisitor(new SessionInfoStore());
+		reader.read();
+		return result;
+	}
+
+}
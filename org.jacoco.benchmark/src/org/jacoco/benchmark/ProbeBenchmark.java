@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.jacoco.core.instr.Instrumenter;
+import org.jacoco.core.runtime.IRuntime;
+import org.jacoco.core.runtime.LoggerRuntime;
+import org.jacoco.core.runtime.RuntimeData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Executes the target classes in package
+ * <code>org.jacoco.benchmark.targets</code> with and without instrumentation.
+ * The probe array strategy chosen by the instrumenter depends on the class file
+ * version and whether probes are inserted in classes or interfaces:
+ *
+ * <ul>
+ * <li><code>Target01</code>-<code>Target03</code>, version 8: class field</li>
+ * <li><code>Target01</code>-<code>Target03</code>, version 11: condy</li>
+ * <li><code>Target04</code>, version 8: interface field</li>
+ * <li><code>Target04</code>, version 11: condy for interfaces</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ProbeBenchmark {
+
+	private static final String TARGETS = "org.jacoco.benchmark.targets.";
+
+	@Param({ "Target01", "Target02", "Target03", "Target04" })
+	public String target;
+
+	@Param({ "8", "11" })
+	public int version;
+
+	@Param({ "true", "false" })
+	public boolean instrumented;
+
+	private IRuntime runtime;
+
+	private Callable<?> callable;
+
+	@Setup
+	public void setup() throws Exception {
+		runtime = new LoggerRuntime();
+		runtime.startup(new RuntimeData());
+		final Instrumenter instrumenter = instrumented
+				? new Instrumenter(runtime)
+				: null;
+		final ClassLoader loader = new ClassLoader(
+				ProbeBenchmark.class.getClassLoader()) {
+			@Override
+			protected synchronized Class<?> loadClass(final String name,
+					final boolean resolve) throws ClassNotFoundException {
+				if (!name.startsWith(TARGETS)) {
+					return super.loadClass(name, resolve);
+				}
+				Class<?> c = findLoadedClass(name);
+				if (c == null) {
+					final byte[] bytes = transform(name, instrumenter);
+					c = defineClass(name, bytes, 0, bytes.length);
+				}
+				if (resolve) {
+					resolveClass(c);
+				}
+				return c;
+			}
+		};
+		callable = (Callable<?>) loader.loadClass(TARGETS + target)
+				.getDeclaredConstructor().newInstance();
+	}
+
+	private byte[] transform(final String name, final Instrumenter instrumenter)
+			throws ClassNotFoundException {
+		try {
+			final byte[] bytes = ClassFiles
+					.of(ProbeBenchmark.class.getClassLoader().loadClass(name));
+			// Class file major version, supported by the target classes as
+			// they neither use nest mates nor other version specific
+			// features:
+			bytes[6] = 0;
+			bytes[7] = (byte) (44 + version);
+			return instrumenter == null ? bytes
+					: instrumenter.instrument(bytes, name);
+		} catch (final IOException e) {
+			throw new ClassNotFoundException(name, e);
+		}
+	}
+
+	@TearDown
+	public void teardown() {
+		runtime.shutdown();
+	}
+
+	@Benchmark
+	public Object call() throws Exception {
+		return callable.call();
+	}
+
+}
@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.jacoco.core.analysis.CoverageBuilder;
+import org.jacoco.core.analysis.IBundleCoverage;
+import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.SessionInfo;
+import org.jacoco.report.IMultiReportOutput;
+import org.jacoco.report.IReportVisitor;
+import org.jacoco.report.ISourceFileLocator;
+import org.jacoco.report.csv.CSVFormatter;
+import org.jacoco.report.html.HTMLFormatter;
+import org.jacoco.report.xml.XMLFormatter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Creates reports for the coverage of all JDK classes of a package tree. The
+ * report content is discarded, source files are not available.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ReportBenchmark {
+
+	@Param({ "java/util/" })
+	public String corpus;
+
+	@Param({ "html", "xml", "csv" })
+	public String format;
+
+	private IBundleCoverage bundle;
+
+	@Setup
+	public void setup() throws IOException {
+		final CoverageBuilder builder = new CoverageBuilder();
+		for (final IClassCoverage c : CoverageBuilderBenchmark
+				.analyze(corpus)) {
+			builder.visitCoverage(c);
+		}
+		bundle = builder.getBundle("benchmark");
+	}
+
+	@Benchmark
+	public void report() throws IOException {
+		final IReportVisitor visitor = createVisitor();
+		visitor.visitInfo(Collections.<SessionInfo> emptyList(),
+				Collections.<ExecutionData> emptyList());
+		visitor.visitBundle(bundle, NO_SOURCES);
+		visitor.visitEnd();
+	}
+
+	private IReportVisitor createVisitor() throws IOException {
+		if ("html".equals(format)) {
+			return new HTMLFormatter().createVisitor(NULL_MULTI_OUTPUT);
+		}
+		if ("xml".equals(format)) {
+			return new XMLFormatter().createVisitor(NULL_OUTPUT);
+		}
+		if ("csv".equals(format)) {
+			return new CSVFormatter().createVisitor(NULL_OUTPUT);
+		}
+		throw new IllegalArgumentException("Unknown format " + format);
+	}
+
+	private static final OutputStream NULL_OUTPUT = new OutputStream() {
+		@Override
+		public void write(final int b) {
+		}
+
+		@Override
+		public void write(final byte[] b, final int off, final int len) {
+		}
+	};
+
+	private static final IMultiReportOutput NULL_MULTI_OUTPUT = new IMultiReportOutput() {
+		public OutputStream createFile(final String path) {
+			return NULL_OUTPUT;
+		}
+
+		public void close() {
+		}
+	};
+
+	private static final ISourceFileLocator NO_SOURCES = new ISourceFileLocator() {
+		public Reader getSourceFile(final String packageName,
+				final String fileName) {
+			return null;
+		}
+
+		public int getTabWidth() {
+			return 4;
+		}
+	};
+
+}
@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.jacoco.core.runtime.WildcardMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Matches class names against an exclude expression with the given number of
+ * package patterns, like an agent configured to exclude generated code. The
+ * <code>regex</code> benchmark is the previous implementation with a single
+ * regular expression as a baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class WildcardMatcherBenchmark {
+
+	@Param({ "1", "10", "500" })
+	public int patterns;
+
+	private WildcardMatcher matcher;
+
+	private Pattern regex;
+
+	private List<String> names;
+
+	@Setup
+	public void setup() {
+		final StringBuilder expression = new StringBuilder("*Test");
+		for (int i = 0; i < patterns; i++) {
+			expression.append(":org/example/generated").append(i).append("/*");
+		}
+		matcher = new WildcardMatcher(expression.toString());
+		regex = toRegex(expression.toString());
+		names = new ArrayList<String>();
+		for (int i = 0; i < 1000; i++) {
+			names.add("java/util/concurrent/Class" + i);
+			names.add("org/example/generated" + (i % patterns) + "/Class" + i);
+			names.add("org/example/service/Class" + i + "Test");
+		}
+		for (final String name : names) {
+			if (matcher.matches(name) != regex.matcher(name).matches()) {
+				throw new IllegalStateException("Different result.");
+			}
+		}
+	}
+
+	@Benchmark
+	public int matcher() {
+		int count = 0;
+		for (final String name : names) {
+			if (matcher.matches(name)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Benchmark
+	public int regex() {
+		int count = 0;
+		for (final String name : names) {
+			if (regex.matcher(name).matches()) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private static Pattern toRegex(final String expression) {
+		final StringBuilder regex = new StringBuilder();
+		for (final String part : expression.split("\\:")) {
+			if (regex.length() > 0) {
+				regex.append('|');
+			}
+			regex.append('(');
+			for (final char c : part.toCharArray()) {
+				switch (c) {
+				case '?':
+					regex.append(".");
+					break;
+				case '*':
+					regex.append(".*");
+					break;
+				default:
+					regex.append(Pattern.quote(String.valueOf(c)));
+					break;
+				}
+			}
+			regex.append(')');
+		}
+		return Pattern.compile(regex.toString());
+	}
+
+}
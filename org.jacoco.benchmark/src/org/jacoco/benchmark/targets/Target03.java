@@ -10,7 +10,7 @@
  *    Marc R. Hoffmann - initial API and implementation
  *
  *******************************************************************************/
-package org.jacoco.core.test.perf.targets;
+package org.jacoco.benchmark.targets;
 
 import java.util.Random;
 import java.util.concurrent.Callable;
@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.benchmark.targets;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Plain method calls within default methods of an interface.
+ */
+public class Target04 implements Callable<Void> {
+
+	private int c;
+
+	private final Calls calls = new Calls() {
+		public void tick() {
+			c++; // some side effect, otherwise the JIT will remove the method
+		}
+	};
+
+	public Void call() throws Exception {
+		calls.m0();
+		return null;
+	}
+
+	interface Calls {
+
+		void tick();
+
+		// 4 ^ 0 == 1 times
+		default void m0() {
+			m1();
+			m1();
+			m1();
+			m1();
+			tick();
+		}
+
+		// 4 ^ 1 == 4 times
+		default void m1() {
+			m2();
+			m2();
+			m2();
+			m2();
+			tick();
+		}
+
+		// 4 ^ 2 == 16 times
+		default void m2() {
+			m3();
+			m3();
+			m3();
+			m3();
+			tick();
+		}
+
+		// 4 ^ 3 == 64 times
+		default void m3() {
+			m4();
+			m4();
+			m4();
+			m4();
+			tick();
+		}
+
+		// 4 ^ 4 == 256 times
+		default void m4() {
+			m5();
+			m5();
+			m5();
+			m5();
+			tick();
+		}
+
+		// 4 ^ 5 == 1,024 times
+		default void m5() {
+			m6();
+			m6();
+			m6();
+			m6();
+			tick();
+		}
+
+		// 4 ^ 6 == 4,096 times
+		default void m6() {
+			m7();
+			m7();
+			m7();
+			m7();
+			tick();
+		}
+
+		// 4 ^ 7 == 16,384 times
+		default void m7() {
+			m8();
+			m8();
+			m8();
+			m8();
+			tick();
+		}
+
+		// 4 ^ 8 == 65,536 times
+		default void m8() {
+			m9();
+			m9();
+			m9();
+			m9();
+			tick();
+		}
+
+		// 4 ^ 9 == 262,144 times
+		default void m9() {
+			m10();
+			m10();
+			m10();
+			m10();
+			tick();
+		}
+
+		// 4 ^ 10 == 1,048,576 times
+		default void m10() {
+			m11();
+			m11();
+			m11();
+			m11();
+			tick();
+		}
+
+		// 4 ^ 11 == 4,194,304 times
+		default void m11() {
+			tick();
+		}
+
+	}
+
+}
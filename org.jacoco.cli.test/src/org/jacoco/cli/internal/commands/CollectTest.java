@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.cli.internal.commands;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.jacoco.cli.internal.CommandTestBase;
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.SessionInfo;
+import org.jacoco.core.runtime.IRemoteCommandVisitor;
+import org.jacoco.core.runtime.RemoteControlReader;
+import org.jacoco.core.runtime.RemoteControlWriter;
+import org.jacoco.core.tools.ExecFileLoader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link Collect}.
+ */
+public class CollectTest extends CommandTestBase {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	private ExecutorService executor;
+
+	@Before
+	public void setup() {
+		executor = Executors.newSingleThreadExecutor();
+	}
+
+	@After
+	public void teardown() {
+		executor.shutdown();
+	}
+
+	@Test
+	public void should_print_usage_when_no_argument_is_given()
+			throws Exception {
+		execute("collect");
+		assertFailure();
+		assertContains("\"--destfile\"", err);
+		assertContains("java -jar jacococli.jar collect [--address <address>]",
+				err);
+	}
+
+	@Test
+	public void should_write_execution_data_of_connected_agents()
+			throws Exception {
+		final File execfile = new File(tmp.getRoot(), "jacoco.exec");
+		final int port = unusedPort();
+
+		final Future<Integer> result = executor.submit(new Callable<Integer>() {
+			public Integer call() throws Exception {
+				return Integer.valueOf(execute("collect", "--destfile",
+						execfile.getAbsolutePath(), "--port",
+						String.valueOf(port), "--duration", "3", "--interval",
+						"1"));
+			}
+		});
+		final Socket socket = connect(port);
+		serveRequests(socket);
+
+		assertEquals(0, result.get().intValue());
+		socket.close();
+		assertContains("[INFO] Listening on port " + port, out);
+		assertContains("[INFO] Writing execution data to "
+				+ execfile.getAbsolutePath(), out);
+		final ExecFileLoader loader = new ExecFileLoader();
+		loader.load(execfile);
+		assertEquals("Foo",
+				loader.getExecutionDataStore().get(0x1234).getName());
+		assertEquals("agent",
+				loader.getSessionInfoStore().getInfos().get(0).getId());
+	}
+
+	private Socket connect(int port) throws Exception {
+		for (int i = 0; i < 100; i++) {
+			try {
+				return new Socket(InetAddress.getByName(null), port);
+			} catch (ConnectException e) {
+				Thread.sleep(50);
+			}
+		}
+		throw new ConnectException();
+	}
+
+	private void serveRequests(Socket socket) throws IOException {
+		final RemoteControlWriter writer = new RemoteControlWriter(
+				socket.getOutputStream());
+		final RemoteControlReader reader = new RemoteControlReader(
+				socket.getInputStream());
+		reader.setRemoteCommandVisitor(new IRemoteCommandVisitor() {
+
+			public void visitDumpCommand(boolean dump, boolean reset)
+					throws IOException {
+				writer.visitSessionInfo(new SessionInfo("agent", 1, 2));
+				writer.visitClassExecution(new ExecutionData(0x1234, "Foo",
+						new boolean[] { true }));
+				writer.sendCmdOk();
+			}
+
+			public void visitDeltaDumpCommand(String client)
+					throws IOException {
+				writer.sendCmdOk();
+			}
+		});
+		while (reader.read()) {
+		}
+	}
+
+	private int unusedPort() throws IOException {
+		final ServerSocket serverSocket = new ServerSocket(0, 0,
+				InetAddress.getByName(null));
+		final int port = serverSocket.getLocalPort();
+		serverSocket.close();
+		return port;
+	}
+
+}
@@ -64,7 +64,7 @@ public class InstrumentTest extends CommandTestBase {
 				getClassPath());
 
 		assertOk();
-		assertContains("[INFO] 14 classes instrumented to "
+		assertContains("[INFO] 17 classes instrumented to "
 				+ destdir.getAbsolutePath(), out);
 
 		// non class-file resources are copied:
@@ -76,6 +76,21 @@ public class InstrumentTest extends CommandTestBase {
 				"org/jacoco/cli/internal/commands/InstrumentTest.class"));
 	}
 
+	@Test
+	public void should_instrument_class_files_sequentially_when_one_thread_is_given()
+			throws Exception {
+		File destdir = tmp.getRoot();
+
+		execute("instrument", "--dest", destdir.getAbsolutePath(), "--threads",
+				"1", getClassPath());
+
+		assertOk();
+		assertContains("[INFO] 17 classes instrumented to "
+				+ destdir.getAbsolutePath(), out);
+		assertInstrumented(new File(destdir,
+				"org/jacoco/cli/internal/commands/InstrumentTest.class"));
+	}
+
 	@Test
 	public void should_instrument_class_files_to_dest_folder_when_class_files_are_given()
 			throws Exception {
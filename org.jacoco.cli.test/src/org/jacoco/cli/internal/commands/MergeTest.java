@@ -13,6 +13,7 @@
 package org.jacoco.cli.internal.commands;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.io.FileOutputStream;
@@ -75,6 +76,39 @@ public class MergeTest extends CommandTestBase {
 		assertEquals(new HashSet<String>(Arrays.asList("a", "b", "c")), names);
 	}
 
+	@Test
+	public void should_merge_exec_files_with_single_thread() throws Exception {
+		File a = createExecFile("a");
+		File b = createExecFile("b");
+		File dest = new File(tmp.getRoot(), "merged.exec");
+
+		execute("merge", "--destfile", dest.getAbsolutePath(), "--threads", "1",
+				a.getAbsolutePath(), b.getAbsolutePath());
+
+		assertOk();
+		Set<String> names = loadExecFile(dest);
+		assertEquals(new HashSet<String>(Arrays.asList("a", "b")), names);
+	}
+
+	@Test
+	public void should_fail_for_invalid_exec_file() throws Exception {
+		File a = createExecFile("a");
+		File invalid = new File(tmp.getRoot(), "invalid.exec");
+		final FileOutputStream execout = new FileOutputStream(invalid);
+		execout.write("invalid".getBytes());
+		execout.close();
+		File dest = new File(tmp.getRoot(), "merged.exec");
+
+		try {
+			execute("merge", "--destfile", dest.getAbsolutePath(),
+					a.getAbsolutePath(), invalid.getAbsolutePath());
+			fail("exception expected");
+		} catch (IOException e) {
+			assertEquals("Unable to read " + invalid.getAbsolutePath(),
+					e.getMessage());
+		}
+	}
+
 	private File createExecFile(String name) throws IOException {
 		File file = new File(tmp.getRoot(), name + ".exec");
 		final FileOutputStream execout = new FileOutputStream(file);
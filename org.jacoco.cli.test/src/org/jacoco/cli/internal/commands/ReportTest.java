@@ -12,14 +12,20 @@
  *******************************************************************************/
 package org.jacoco.cli.internal.commands;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 
 import org.jacoco.cli.internal.CommandTestBase;
 import org.jacoco.core.data.ExecutionData;
 import org.jacoco.core.data.ExecutionDataWriter;
+import org.jacoco.core.internal.InputStreams;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
@@ -57,7 +63,44 @@ public class ReportTest extends CommandTestBase {
 		execute("report", "--classfiles", getClassPath());
 
 		assertOk();
-		assertContains("[INFO] Analyzing 14 classes.", out);
+		assertContains("[INFO] Analyzing 17 classes.", out);
+	}
+
+	@Test
+	public void should_only_analyze_executed_classes_when_executedonly_option_is_provided()
+			throws Exception {
+		execute("report", "--classfiles", getClassPath(), "--executedonly");
+
+		assertOk();
+		assertContains("[INFO] Analyzing 0 classes.", out);
+	}
+
+	@Test
+	public void should_use_analysis_cache_when_analysiscache_option_is_provided()
+			throws Exception {
+		final File cache = new File(tmp.getRoot(), "cache");
+		final File xml1 = new File(tmp.getRoot(), "coverage1.xml");
+		final File xml2 = new File(tmp.getRoot(), "coverage2.xml");
+
+		execute("report", "--classfiles", getClassPath(), "--analysiscache",
+				cache.getAbsolutePath(), "--xml", xml1.getAbsolutePath());
+		assertOk();
+		execute("report", "--classfiles", getClassPath(), "--analysiscache",
+				cache.getAbsolutePath(), "--xml", xml2.getAbsolutePath());
+		assertOk();
+
+		assertEquals(1, cache.listFiles().length);
+		assertEquals(17, cache.listFiles()[0].listFiles().length);
+		assertArrayEquals(readFully(xml1), readFully(xml2));
+	}
+
+	private static byte[] readFully(final File file) throws IOException {
+		final InputStream in = new FileInputStream(file);
+		try {
+			return InputStreams.readFully(in);
+		} finally {
+			in.close();
+		}
 	}
 
 	@Test
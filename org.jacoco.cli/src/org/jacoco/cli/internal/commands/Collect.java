@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.cli.internal.commands;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+
+import org.jacoco.cli.internal.Command;
+import org.jacoco.core.runtime.AgentOptions;
+import org.jacoco.core.tools.ExecCollector;
+import org.kohsuke.args4j.Option;
+
+/**
+ * The <code>collect</code> command.
+ */
+public class Collect extends Command {
+
+	@Option(name = "--address", usage = "host name or ip address to listen on, * for all interfaces (default localhost)", metaVar = "<address>")
+	String address = AgentOptions.DEFAULT_ADDRESS;
+
+	@Option(name = "--port", usage = "the port to listen on (default 6300)", metaVar = "<port>")
+	int port = AgentOptions.DEFAULT_PORT;
+
+	@Option(name = "--destfile", usage = "file to write execution data to", metaVar = "<path>", required = true)
+	File destfile;
+
+	@Option(name = "--interval", usage = "seconds between requesting and writing execution data (default 60)", metaVar = "<seconds>")
+	int interval = 60;
+
+	@Option(name = "--delta", usage = "only request execution data added since the previous request")
+	boolean delta = false;
+
+	@Option(name = "--duration", usage = "seconds after which collecting stops (default until terminated)", metaVar = "<seconds>")
+	int duration = 0;
+
+	@Option(name = "--threads", usage = "number of threads reading execution data (default number of processors)", metaVar = "<n>")
+	int threads = Runtime.getRuntime().availableProcessors();
+
+	@Override
+	public String description() {
+		return "Collect execution data from multiple JaCoCo agents running in 'tcpclient' output mode.";
+	}
+
+	@Override
+	public int execute(final PrintWriter out, final PrintWriter err)
+			throws Exception {
+		final ExecCollector collector = new ExecCollector(threads) {
+			@Override
+			protected void onError(final Exception exception) {
+				err.printf("[WARN] %s.%n", exception.getMessage());
+			}
+		};
+		collector.setDelta(delta);
+		final int localPort = collector.bind(getInetAddress(), port);
+		out.printf("[INFO] Listening on port %s.%n",
+				Integer.valueOf(localPort));
+		out.flush();
+
+		final Thread runner = new Thread() {
+			@Override
+			public void run() {
+				try {
+					collector.run();
+				} catch (final IOException e) {
+					err.printf("[ERROR] %s.%n", e.getMessage());
+				}
+			}
+		};
+		runner.start();
+		final Thread hook = new Thread() {
+			@Override
+			public void run() {
+				shutdown(collector, runner, out);
+			}
+		};
+		Runtime.getRuntime().addShutdownHook(hook);
+
+		final long end = duration > 0
+				? System.currentTimeMillis() + duration * 1000L
+				: Long.MAX_VALUE;
+		long now;
+		while ((now = System.currentTimeMillis()) < end) {
+			if (end - now <= interval * 1000L) {
+				Thread.sleep(end - now);
+				break;
+			}
+			Thread.sleep(interval * 1000L);
+			out.printf("[INFO] %s agents connected.%n",
+					Integer.valueOf(collector.getConnectionCount()));
+			save(collector, out);
+			collector.requestDump();
+		}
+
+		Runtime.getRuntime().removeShutdownHook(hook);
+		shutdown(collector, runner, out);
+		return 0;
+	}
+
+	private InetAddress getInetAddress() throws IOException {
+		return "*".equals(address) ? null : InetAddress.getByName(address);
+	}
+
+	private void shutdown(final ExecCollector collector, final Thread runner,
+			final PrintWriter out) {
+		collector.close();
+		try {
+			runner.join();
+			save(collector, out);
+		} catch (final Exception e) {
+			out.printf("[ERROR] %s.%n", e.getMessage());
+		}
+		out.flush();
+	}
+
+	private synchronized void save(final ExecCollector collector,
+			final PrintWriter out) throws IOException {
+		out.printf("[INFO] Writing execution data to %s.%n",
+				destfile.getAbsolutePath());
+		out.flush();
+		collector.getSnapshot().save(destfile, false);
+	}
+
+}
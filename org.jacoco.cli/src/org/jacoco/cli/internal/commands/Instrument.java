@@ -14,17 +14,22 @@
 package org.jacoco.cli.internal.commands;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.jacoco.cli.internal.Command;
 import org.jacoco.core.instr.Instrumenter;
+import org.jacoco.core.internal.Futures;
 import org.jacoco.core.runtime.OfflineInstrumentationAccessGenerator;
 import org.kohsuke.args4j.Argument;
 import org.kohsuke.args4j.Option;
@@ -40,6 +45,9 @@ public class Instrument extends Command {
 	@Argument(usage = "list of folder or files to instrument recusively", metaVar = "<sourcefiles>")
 	List<File> source = new ArrayList<File>();
 
+	@Option(name = "--threads", usage = "number of files and archive entries instrumented in parallel (default number of processors)", metaVar = "<n>")
+	int threads = Runtime.getRuntime().availableProcessors();
+
 	private Instrumenter instrumenter;
 
 	@Override
@@ -53,40 +61,75 @@ public class Instrument extends Command {
 		final File absoluteDest = dest.getAbsoluteFile();
 		instrumenter = new Instrumenter(
 				new OfflineInstrumentationAccessGenerator());
-		int total = 0;
+		final Map<File, File> files = new LinkedHashMap<File, File>();
 		for (final File s : source) {
 			if (s.isFile()) {
-				total += instrument(s, new File(absoluteDest, s.getName()));
+				files.put(s, new File(absoluteDest, s.getName()));
 			} else {
-				total += instrumentRecursive(s, absoluteDest);
+				collectRecursive(s, absoluteDest, files);
 			}
 		}
+		final int total = threads <= 1 ? instrument(files)
+				: instrumentParallel(files);
 		out.printf("[INFO] %s classes instrumented to %s.%n",
 				Integer.valueOf(total), absoluteDest);
 		return 0;
 	}
 
-	private int instrumentRecursive(final File src, final File dest)
-			throws IOException {
-		int total = 0;
+	private void collectRecursive(final File src, final File dest,
+			final Map<File, File> files) {
 		if (src.isDirectory()) {
 			for (final File child : src.listFiles()) {
-				total += instrumentRecursive(child,
-						new File(dest, child.getName()));
+				collectRecursive(child, new File(dest, child.getName()), files);
 			}
 		} else {
-			total += instrument(src, dest);
+			files.put(src, dest);
+		}
+	}
+
+	private int instrument(final Map<File, File> files) throws IOException {
+		int total = 0;
+		for (final Map.Entry<File, File> e : files.entrySet()) {
+			total += instrument(e.getKey(), e.getValue());
 		}
 		return total;
 	}
 
+	/**
+	 * Instruments different files in parallel. The same executor is used for
+	 * entries of archives, which is safe as the instrumenter processes entries
+	 * on the waiting thread if no executor thread is available.
+	 */
+	private int instrumentParallel(final Map<File, File> files)
+			throws IOException {
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		instrumenter.setExecutor(executor);
+		try {
+			final List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+			for (final Map.Entry<File, File> e : files.entrySet()) {
+				results.add(executor.submit(new Callable<Integer>() {
+					public Integer call() throws IOException {
+						return Integer
+								.valueOf(instrument(e.getKey(), e.getValue()));
+					}
+				}));
+			}
+			int total = 0;
+			for (final Future<Integer> result : results) {
+				total += Futures.get(result).intValue();
+			}
+			return total;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
 	private int instrument(final File src, final File dest) throws IOException {
 		dest.getParentFile().mkdirs();
-		final InputStream input = new FileInputStream(src);
+		final OutputStream output = new FileOutputStream(dest);
 		try {
-			final OutputStream output = new FileOutputStream(dest);
 			try {
-				return instrumenter.instrumentAll(input, output,
+				return instrumenter.instrumentAll(src, output,
 						src.getAbsolutePath());
 			} finally {
 				output.close();
@@ -94,8 +137,6 @@ public class Instrument extends Command {
 		} catch (final IOException e) {
 			dest.delete();
 			throw e;
-		} finally {
-			input.close();
 		}
 	}
 
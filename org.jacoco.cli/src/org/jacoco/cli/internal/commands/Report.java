@@ -22,18 +22,18 @@ import java.util.Collection;
 import java.util.List;
 
 import org.jacoco.cli.internal.Command;
+import org.jacoco.core.analysis.AnalysisCache;
 import org.jacoco.core.analysis.Analyzer;
 import org.jacoco.core.analysis.CoverageBuilder;
 import org.jacoco.core.analysis.IBundleCoverage;
 import org.jacoco.core.analysis.IClassCoverage;
 import org.jacoco.core.data.ExecutionDataStore;
 import org.jacoco.core.tools.ExecFileLoader;
-import org.jacoco.report.DirectorySourceFileLocator;
 import org.jacoco.report.FileMultiReportOutput;
 import org.jacoco.report.IReportVisitor;
 import org.jacoco.report.ISourceFileLocator;
+import org.jacoco.report.IndexedSourceFileLocator;
 import org.jacoco.report.MultiReportVisitor;
-import org.jacoco.report.MultiSourceFileLocator;
 import org.jacoco.report.csv.CSVFormatter;
 import org.jacoco.report.html.HTMLFormatter;
 import org.jacoco.report.xml.XMLFormatter;
@@ -45,6 +45,9 @@ import org.kohsuke.args4j.Option;
  */
 public class Report extends Command {
 
+	/** Maximum number of source files kept in memory */
+	private static final int SOURCE_CACHE_SIZE = 16;
+
 	@Argument(usage = "list of JaCoCo *.exec files to read", metaVar = "<execfiles>")
 	List<File> execfiles = new ArrayList<File>();
 
@@ -63,6 +66,12 @@ public class Report extends Command {
 	@Option(name = "--encoding", usage = "source file encoding (by default platform encoding is used)", metaVar = "<charset>")
 	String encoding;
 
+	@Option(name = "--executedonly", usage = "only include classes with execution data")
+	boolean executedonly = false;
+
+	@Option(name = "--analysiscache", usage = "directory to cache the analysis of class files in", metaVar = "<dir>")
+	File analysiscache;
+
 	@Option(name = "--xml", usage = "output file for the XML report", metaVar = "<file>")
 	File xml;
 
@@ -106,6 +115,10 @@ public class Report extends Command {
 			final PrintWriter out) throws IOException {
 		final CoverageBuilder builder = new CoverageBuilder();
 		final Analyzer analyzer = new Analyzer(data, builder);
+		analyzer.setExecutedOnly(executedonly);
+		if (analysiscache != null) {
+			analyzer.setCache(new AnalysisCache(analysiscache));
+		}
 		for (final File f : classfiles) {
 			analyzer.analyzeAll(f);
 		}
@@ -163,12 +176,12 @@ public class Report extends Command {
 	}
 
 	private ISourceFileLocator getSourceLocator() {
-		final MultiSourceFileLocator multi = new MultiSourceFileLocator(
-				tabwidth);
+		final IndexedSourceFileLocator locator = new IndexedSourceFileLocator(
+				encoding, tabwidth, SOURCE_CACHE_SIZE);
 		for (final File f : sourcefiles) {
-			multi.add(new DirectorySourceFileLocator(f, encoding, tabwidth));
+			locator.add(f);
 		}
-		return multi;
+		return locator;
 	}
 
 }
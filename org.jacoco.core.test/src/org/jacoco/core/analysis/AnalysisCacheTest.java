@@ -0,0 +1,194 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.analysis;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.jacoco.core.JaCoCo;
+import org.jacoco.core.internal.InputStreams;
+import org.jacoco.core.internal.analysis.ClassAnalyzer;
+import org.jacoco.core.internal.analysis.ClassCoverageImpl;
+import org.jacoco.core.internal.analysis.ClassStructure;
+import org.jacoco.core.internal.analysis.StringPool;
+import org.jacoco.core.internal.data.CRC64;
+import org.jacoco.core.internal.flow.ClassProbesAdapter;
+import org.jacoco.core.internal.instr.InstrSupport;
+import org.jacoco.core.test.TargetLoader;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.objectweb.asm.ClassReader;
+
+/**
+ * Unit tests for {@link AnalysisCache}.
+ */
+public class AnalysisCacheTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File dir;
+
+	private AnalysisCache cache;
+
+	private StringPool stringPool;
+
+	private ClassStructure structure;
+
+	@Before
+	public void setup() throws IOException {
+		dir = folder.newFolder("cache");
+		cache = new AnalysisCache(dir);
+		stringPool = new StringPool();
+		final byte[] bytes = TargetLoader
+				.getClassDataAsBytes(AnalysisCacheTest.class);
+		final ClassReader reader = InstrSupport.classReaderFor(bytes);
+		final ClassCoverageImpl coverage = new ClassCoverageImpl(
+				reader.getClassName(), CRC64.classId(bytes), false);
+		structure = new ClassStructure();
+		reader.accept(new ClassProbesAdapter(
+				new ClassAnalyzer(coverage, null, stringPool, structure),
+				false), 0);
+		structure.setClassInfo(coverage);
+	}
+
+	@Test
+	public void get_should_return_null_when_entry_does_not_exist() {
+		assertNull(cache.get(structure.getId(), stringPool));
+	}
+
+	@Test
+	public void get_should_return_stored_structure() throws IOException {
+		cache.put(structure);
+
+		final ClassStructure actual = cache.get(structure.getId(), stringPool);
+
+		assertEquals(structure.getId(), actual.getId());
+		assertEquals("org/jacoco/core/analysis/AnalysisCacheTest",
+				actual.getName());
+		assertEquals(structure.getCoverage(null, false).getInstructionCounter(),
+				actual.getCoverage(null, false).getInstructionCounter());
+	}
+
+	@Test
+	public void put_should_store_entry_in_version_directory()
+			throws IOException {
+		cache.put(structure);
+
+		final File location = new File(dir, JaCoCo.VERSION);
+		assertArrayEquals(new String[] { String.format("%016x.analysis",
+				Long.valueOf(structure.getId())) }, location.list());
+	}
+
+	@Test
+	public void put_should_keep_existing_entry() throws IOException {
+		cache.put(structure);
+		cache.put(structure);
+
+		assertEquals(1, new File(dir, JaCoCo.VERSION).list().length);
+	}
+
+	@Test
+	public void get_should_return_null_when_entry_is_corrupt()
+			throws IOException {
+		cache.put(structure);
+		final File file = new File(new File(dir, JaCoCo.VERSION),
+				new File(dir, JaCoCo.VERSION).list()[0]);
+		final FileOutputStream out = new FileOutputStream(file);
+		out.write(new byte[] { 1, 2, 3 });
+		out.close();
+
+		assertNull(cache.get(structure.getId(), stringPool));
+	}
+
+	@Test
+	public void get_should_return_null_when_format_version_does_not_match()
+			throws IOException {
+		cache.put(structure);
+		final byte[] content = readEntry();
+		content[5]++;
+		writeEntry(content);
+
+		assertNull(cache.get(structure.getId(), stringPool));
+	}
+
+	@Test
+	public void get_should_return_null_when_entry_is_truncated()
+			throws IOException {
+		cache.put(structure);
+		final byte[] content = readEntry();
+		final byte[] truncated = new byte[content.length - 1];
+		System.arraycopy(content, 0, truncated, 0, truncated.length);
+		writeEntry(truncated);
+
+		assertNull(cache.get(structure.getId(), stringPool));
+	}
+
+	@Test
+	public void get_should_return_null_when_checksum_does_not_match()
+			throws IOException {
+		cache.put(structure);
+		final byte[] content = readEntry();
+		content[content.length - 1]++;
+		writeEntry(content);
+
+		assertNull(cache.get(structure.getId(), stringPool));
+	}
+
+	@Test
+	public void get_should_return_null_when_id_does_not_match()
+			throws IOException {
+		cache.put(structure);
+		final File location = new File(dir, JaCoCo.VERSION);
+		final File file = new File(location, location.list()[0]);
+		assertTrue(file.renameTo(new File(location,
+				String.format("%016x.analysis", Long.valueOf(42)))));
+
+		assertNull(cache.get(42, stringPool));
+	}
+
+	private File getEntry() {
+		return new File(new File(dir, JaCoCo.VERSION), String
+				.format("%016x.analysis", Long.valueOf(structure.getId())));
+	}
+
+	private byte[] readEntry() throws IOException {
+		final InputStream in = new FileInputStream(getEntry());
+		try {
+			return InputStreams.readFully(in);
+		} finally {
+			in.close();
+		}
+	}
+
+	private void writeEntry(final byte[] content) throws IOException {
+		final OutputStream out = new FileOutputStream(getEntry());
+		try {
+			out.write(content);
+		} finally {
+			out.close();
+		}
+	}
+
+}
@@ -26,17 +26,27 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.zip.GZIPOutputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
+import org.jacoco.core.JaCoCo;
+import org.jacoco.core.data.ExecutionData;
 import org.jacoco.core.data.ExecutionDataStore;
+import org.jacoco.core.data.MappedExecutionData;
+import org.jacoco.core.data.MappedExecutionDataWriter;
 import org.jacoco.core.internal.Pack200Streams;
 import org.jacoco.core.internal.data.CRC64;
 import org.jacoco.core.test.TargetLoader;
@@ -164,18 +174,83 @@ public class AnalyzerTest {
 		final byte[] bytes = TargetLoader
 				.getClassDataAsBytes(AnalyzerTest.class);
 		executionData.get(Long.valueOf(CRC64.classId(bytes)),
-				"org/jacoco/core/analysis/AnalyzerTest", 200);
+				"org/jacoco/core/analysis/AnalyzerTest", 400);
 		analyzer.analyzeClass(bytes, "Test");
 		assertFalse(classes.get("org/jacoco/core/analysis/AnalyzerTest")
 				.isNoMatch());
 	}
 
+	@Test
+	public void analyzeClass_should_lookup_execution_data_by_id()
+			throws IOException {
+		final byte[] bytes = TargetLoader
+				.getClassDataAsBytes(AnalyzerTest.class);
+		final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		final MappedExecutionDataWriter writer = new MappedExecutionDataWriter(
+				buffer);
+		final boolean[] probes = new boolean[400];
+		probes[0] = true;
+		writer.visitClassExecution(new ExecutionData(CRC64.classId(bytes),
+				"org/jacoco/core/analysis/AnalyzerTest", probes));
+		writer.finish();
+		analyzer = new Analyzer(
+				new MappedExecutionData(ByteBuffer.wrap(buffer.toByteArray())),
+				new EmptyStructureVisitor());
+
+		analyzer.analyzeClass(bytes, "Test");
+
+		final IClassCoverage coverage = classes
+				.get("org/jacoco/core/analysis/AnalyzerTest");
+		assertFalse(coverage.isNoMatch());
+		assertEquals(1, coverage.getMethodCounter().getCoveredCount());
+	}
+
 	@Test
 	public void testAnalyzeClassNoIdMatch() throws IOException {
 		executionData.get(Long.valueOf(0),
-				"org/jacoco/core/analysis/AnalyzerTest", 200);
+				"org/jacoco/core/analysis/AnalyzerTest", 400);
+		analyzer.analyzeClass(
+				TargetLoader.getClassDataAsBytes(AnalyzerTest.class), "Test");
+		assertTrue(classes.get("org/jacoco/core/analysis/AnalyzerTest")
+				.isNoMatch());
+	}
+
+	@Test
+	public void analyzeClass_should_skip_classes_without_execution_data_when_executedOnly_is_set()
+			throws IOException {
+		analyzer.setExecutedOnly(true);
+
+		analyzer.analyzeClass(
+				TargetLoader.getClassDataAsBytes(AnalyzerTest.class), "Test");
+
+		assertTrue(classes.isEmpty());
+	}
+
+	@Test
+	public void analyzeClass_should_analyze_classes_with_execution_data_when_executedOnly_is_set()
+			throws IOException {
+		final byte[] bytes = TargetLoader
+				.getClassDataAsBytes(AnalyzerTest.class);
+		executionData.get(Long.valueOf(CRC64.classId(bytes)),
+				"org/jacoco/core/analysis/AnalyzerTest", 400);
+		analyzer.setExecutedOnly(true);
+
+		analyzer.analyzeClass(bytes, "Test");
+
+		assertFalse(classes.get("org/jacoco/core/analysis/AnalyzerTest")
+				.isNoMatch());
+	}
+
+	@Test
+	public void analyzeClass_should_report_no_match_when_executedOnly_is_set()
+			throws IOException {
+		executionData.get(Long.valueOf(0),
+				"org/jacoco/core/analysis/AnalyzerTest", 400);
+		analyzer.setExecutedOnly(true);
+
 		analyzer.analyzeClass(
 				TargetLoader.getClassDataAsBytes(AnalyzerTest.class), "Test");
+
 		assertTrue(classes.get("org/jacoco/core/analysis/AnalyzerTest")
 				.isNoMatch());
 	}
@@ -353,6 +428,55 @@ public class AnalyzerTest {
 		assertClasses("org/jacoco/core/analysis/AnalyzerTest");
 	}
 
+	@Test
+	public void analyzeAll_should_analyze_zip_file() throws IOException {
+		final ByteArrayOutputStream nested = new ByteArrayOutputStream();
+		final ZipOutputStream nestedZip = new ZipOutputStream(nested);
+		nestedZip.putNextEntry(
+				new ZipEntry("org/jacoco/core/analysis/Analyzer.class"));
+		nestedZip.write(TargetLoader.getClassDataAsBytes(Analyzer.class));
+		nestedZip.finish();
+
+		final File file = new File(folder.getRoot(), "test.jar");
+		final ZipOutputStream zip = new ZipOutputStream(
+				new FileOutputStream(file));
+		zip.putNextEntry(new ZipEntry("org/"));
+		zip.putNextEntry(
+				new ZipEntry("org/jacoco/core/analysis/AnalyzerTest.class"));
+		zip.write(TargetLoader.getClassDataAsBytes(AnalyzerTest.class));
+		zip.putNextEntry(new ZipEntry("readme.txt"));
+		zip.write(new byte[10000]);
+		zip.putNextEntry(new ZipEntry("lib/nested.jar"));
+		zip.write(nested.toByteArray());
+		zip.close();
+
+		final int count = analyzer.analyzeAll(file);
+
+		assertEquals(2, count);
+		assertClasses("org/jacoco/core/analysis/Analyzer",
+				"org/jacoco/core/analysis/AnalyzerTest");
+	}
+
+	@Test
+	public void analyzeAll_should_analyze_zip_file_without_central_directory()
+			throws IOException {
+		final File file = new File(folder.getRoot(), "test.jar");
+		final OutputStream out = new FileOutputStream(file);
+		final ZipOutputStream zip = new ZipOutputStream(out);
+		zip.putNextEntry(
+				new ZipEntry("org/jacoco/core/analysis/AnalyzerTest.class"));
+		zip.write(TargetLoader.getClassDataAsBytes(AnalyzerTest.class));
+		zip.closeEntry();
+		zip.flush();
+		// close without central directory
+		out.close();
+
+		final int count = analyzer.analyzeAll(file);
+
+		assertEquals(1, count);
+		assertClasses("org/jacoco/core/analysis/AnalyzerTest");
+	}
+
 	@Test
 	public void testAnalyzeAll_Path() throws IOException {
 		createClassfile("bin1", Analyzer.class);
@@ -437,6 +561,197 @@ public class AnalyzerTest {
 		}
 	}
 
+	@Test
+	public void analyzeAll_should_report_classes_in_order_when_executor_is_set()
+			throws IOException {
+		final List<String> names = new ArrayList<String>();
+		analyzer = new Analyzer(executionData, new ICoverageVisitor() {
+			public void visitCoverage(final IClassCoverage coverage) {
+				names.add(coverage.getName());
+			}
+		});
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		analyzer.setExecutor(executor);
+		final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		final ZipOutputStream zip = new ZipOutputStream(buffer);
+		final List<String> expected = new ArrayList<String>();
+		for (int i = 0; i < 100; i++) {
+			final String name = "Foo" + i;
+			zip.putNextEntry(new ZipEntry(name + ".class"));
+			final ClassWriter cw = new ClassWriter(0);
+			cw.visit(Opcodes.V1_5, 0, name, null, "java/lang/Object", null);
+			cw.visitEnd();
+			zip.write(cw.toByteArray());
+			expected.add(name);
+		}
+		zip.finish();
+
+		try {
+			final int count = analyzer.analyzeAll(
+					new ByteArrayInputStream(buffer.toByteArray()), "Test");
+			assertEquals(100, count);
+		} finally {
+			executor.shutdown();
+		}
+
+		assertEquals(expected, names);
+	}
+
+	@Test
+	public void analyzeAll_should_throw_exception_for_broken_class_when_executor_is_set()
+			throws IOException {
+		final ExecutorService executor = Executors.newFixedThreadPool(2);
+		analyzer.setExecutor(executor);
+		final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		final ZipOutputStream zip = new ZipOutputStream(buffer);
+		zip.putNextEntry(new ZipEntry("Foo.class"));
+		zip.write(createClass(Opcodes.V1_5));
+		zip.putNextEntry(new ZipEntry("Broken.class"));
+		zip.write(createClass(Opcodes.V17 + 2));
+		zip.finish();
+
+		try {
+			analyzer.analyzeAll(new ByteArrayInputStream(buffer.toByteArray()),
+					"test.zip");
+			fail("exception expected");
+		} catch (IOException e) {
+			assertEquals("Error while analyzing test.zip@Broken.class.",
+					e.getMessage());
+		} finally {
+			executor.shutdown();
+		}
+		assertClasses("Foo");
+	}
+
+	@Test
+	public void analyzeClass_should_wrap_exception_when_executor_rejects_task()
+			throws IOException {
+		final ExecutorService executor = Executors.newFixedThreadPool(1);
+		executor.shutdown();
+		analyzer.setExecutor(executor);
+
+		try {
+			analyzer.analyzeClass(createClass(Opcodes.V1_5), "Foo");
+			fail("exception expected");
+		} catch (IOException e) {
+			assertEquals("Error while analyzing Foo.", e.getMessage());
+			assertTrue(e.getCause() instanceof RejectedExecutionException);
+		}
+	}
+
+	@Test
+	public void analyzeClass_should_wrap_exceptions_from_visitor()
+			throws IOException {
+		analyzer = new Analyzer(executionData, new ICoverageVisitor() {
+			public void visitCoverage(final IClassCoverage coverage) {
+				throw new IllegalStateException("visitor");
+			}
+		});
+		try {
+			analyzer.analyzeClass(createClass(Opcodes.V1_5), "Foo.class");
+			fail("exception expected");
+		} catch (IOException e) {
+			assertEquals("Error while analyzing Foo.class.", e.getMessage());
+			assertEquals("visitor", e.getCause().getMessage());
+		}
+	}
+
+	@Test
+	public void analyzeClass_should_create_cache_entry_when_cache_is_set()
+			throws IOException {
+		final File dir = folder.newFolder("cache");
+		analyzer.setCache(new AnalysisCache(dir));
+		final byte[] bytes = TargetLoader
+				.getClassDataAsBytes(AnalyzerTest.class);
+
+		analyzer.analyzeClass(bytes, "Test");
+
+		assertTrue(new File(new File(dir, JaCoCo.VERSION), String
+				.format("%016x.analysis", Long.valueOf(CRC64.classId(bytes))))
+						.isFile());
+		assertClasses("org/jacoco/core/analysis/AnalyzerTest");
+	}
+
+	@Test
+	public void analyzeClass_should_ignore_cache_write_failure()
+			throws IOException {
+		analyzer.setCache(new AnalysisCache(folder.newFile("cache")));
+		final byte[] bytes = TargetLoader
+				.getClassDataAsBytes(AnalyzerTest.class);
+
+		analyzer.analyzeClass(bytes, "Test");
+
+		assertClasses("org/jacoco/core/analysis/AnalyzerTest");
+	}
+
+	@Test
+	public void analyzeClass_should_calculate_coverage_from_cache_when_cache_is_set()
+			throws IOException {
+		final AnalysisCache cache = new AnalysisCache(
+				folder.newFolder("cache"));
+		final byte[] bytes = TargetLoader
+				.getClassDataAsBytes(AnalyzerTest.class);
+		analyzer.setCache(cache);
+		analyzer.analyzeClass(bytes, "Test");
+
+		final boolean[] probes = new boolean[400];
+		probes[0] = true;
+		probes[3] = true;
+		executionData.put(new ExecutionData(CRC64.classId(bytes),
+				"org/jacoco/core/analysis/AnalyzerTest", probes));
+		classes.clear();
+		analyzer = new Analyzer(executionData, new EmptyStructureVisitor());
+		analyzer.analyzeClass(bytes, "Test");
+		final IClassCoverage expected = classes
+				.get("org/jacoco/core/analysis/AnalyzerTest");
+
+		classes.clear();
+		analyzer.setCache(cache);
+		analyzer.analyzeClass(bytes, "Test");
+		final IClassCoverage actual = classes
+				.get("org/jacoco/core/analysis/AnalyzerTest");
+
+		assertFalse(actual.isNoMatch());
+		for (final ICoverageNode.CounterEntity entity : ICoverageNode.CounterEntity
+				.values()) {
+			assertEquals(expected.getCounter(entity),
+					actual.getCounter(entity));
+		}
+		assertEquals(expected.getMethods().size(), actual.getMethods().size());
+	}
+
+	@Test
+	public void analyzeClass_should_report_no_match_from_cache_when_cache_is_set()
+			throws IOException {
+		final byte[] bytes = TargetLoader
+				.getClassDataAsBytes(AnalyzerTest.class);
+		analyzer.setCache(new AnalysisCache(folder.newFolder("cache")));
+		analyzer.analyzeClass(bytes, "Test");
+		classes.clear();
+		executionData.get(Long.valueOf(0),
+				"org/jacoco/core/analysis/AnalyzerTest", 400);
+
+		analyzer.analyzeClass(bytes, "Test");
+
+		assertTrue(classes.get("org/jacoco/core/analysis/AnalyzerTest")
+				.isNoMatch());
+	}
+
+	@Test
+	public void analyzeClass_should_skip_cached_classes_without_execution_data_when_executedOnly_is_set()
+			throws IOException {
+		final byte[] bytes = TargetLoader
+				.getClassDataAsBytes(AnalyzerTest.class);
+		analyzer.setCache(new AnalysisCache(folder.newFolder("cache")));
+		analyzer.analyzeClass(bytes, "Test");
+		classes.clear();
+		analyzer.setExecutedOnly(true);
+
+		analyzer.analyzeClass(bytes, "Test");
+
+		assertTrue(classes.isEmpty());
+	}
+
 	private void createClassfile(final String dir, final Class<?> source)
 			throws IOException {
 		File file = new File(folder.getRoot(), dir);
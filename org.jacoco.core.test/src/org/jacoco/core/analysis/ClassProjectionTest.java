@@ -0,0 +1,203 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.analysis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+import org.jacoco.core.analysis.ICoverageNode.CounterEntity;
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.ExecutionDataStore;
+import org.jacoco.core.internal.data.CRC64;
+import org.jacoco.core.test.TargetLoader;
+import org.junit.Before;
+import org.junit.Test;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * Unit tests for {@link ClassProjection}.
+ */
+public class ClassProjectionTest {
+
+	private static final String NAME = "org/jacoco/core/analysis/ClassProjectionTest";
+
+	private byte[] bytes;
+
+	private long id;
+
+	private ClassProjection projection;
+
+	@Before
+	public void setup() throws IOException {
+		bytes = TargetLoader.getClassDataAsBytes(ClassProjectionTest.class);
+		id = CRC64.classId(bytes);
+		projection = ClassProjection.compile(bytes, "Test");
+	}
+
+	@Test
+	public void compile_should_determine_id_and_name() {
+		assertEquals(id, projection.getId());
+		assertEquals(NAME, projection.getName());
+	}
+
+	@Test
+	public void compile_should_read_class_from_stream() throws IOException {
+		projection = ClassProjection.compile(new ByteArrayInputStream(bytes),
+				"Test");
+
+		assertEquals(id, projection.getId());
+	}
+
+	@Test
+	public void compile_should_ignore_module_info() throws IOException {
+		final ClassWriter cw = new ClassWriter(0);
+		cw.visit(Opcodes.V9, Opcodes.ACC_MODULE, "module-info", null, null,
+				null);
+		cw.visitModule("module", 0, null).visitEnd();
+		cw.visitEnd();
+
+		assertNull(ClassProjection.compile(cw.toByteArray(), "Test"));
+	}
+
+	@Test
+	public void compile_should_ignore_synthetic_classes() throws IOException {
+		final ClassWriter cw = new ClassWriter(0);
+		cw.visit(Opcodes.V1_5, Opcodes.ACC_SYNTHETIC, "Foo", null,
+				"java/lang/Object", null);
+		cw.visitEnd();
+
+		assertNull(ClassProjection.compile(cw.toByteArray(), "Test"));
+	}
+
+	@Test
+	public void compile_should_throw_exception_for_broken_class() {
+		bytes[10] = 0x23;
+		try {
+			ClassProjection.compile(bytes, "Broken.class");
+			fail("exception expected");
+		} catch (final IOException e) {
+			assertEquals("Error while analyzing Broken.class.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void compile_should_throw_exception_for_broken_stream() {
+		try {
+			ClassProjection.compile(new InputStream() {
+				@Override
+				public int read() throws IOException {
+					throw new IOException();
+				}
+			}, "BrokenStream");
+			fail("exception expected");
+		} catch (final IOException e) {
+			assertEquals("Error while analyzing BrokenStream.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void evaluate_should_calculate_same_coverage_as_analyzer()
+			throws IOException {
+		final int probeCount = 400;
+		for (int p = 0; p < probeCount; p += 7) {
+			final boolean[] probes = new boolean[probeCount];
+			for (int i = p; i < probeCount; i += 13) {
+				probes[i] = true;
+			}
+			final ExecutionDataStore store = new ExecutionDataStore();
+			store.put(new ExecutionData(id, NAME, probes));
+
+			final IClassCoverage expected = analyze(store);
+			assertCoverage(expected,
+					projection.evaluate(new ExecutionData(id, NAME, probes)));
+			assertCoverage(expected, projection.evaluate(store));
+		}
+	}
+
+	@Test
+	public void evaluate_should_report_missed_class_without_execution_data()
+			throws IOException {
+		final IClassCoverage expected = analyze(new ExecutionDataStore());
+
+		final IClassCoverage actual = projection.evaluate((ExecutionData) null);
+
+		assertCoverage(expected, actual);
+		assertFalse(actual.isNoMatch());
+		assertEquals(0, actual.getInstructionCounter().getCoveredCount());
+		assertCoverage(expected, projection.evaluate(new ExecutionDataStore()));
+	}
+
+	@Test
+	public void evaluate_should_report_no_match_for_different_id() {
+		final IClassCoverage actual = projection
+				.evaluate(new ExecutionData(0, NAME, new boolean[] { true }));
+
+		assertTrue(actual.isNoMatch());
+		assertEquals(0, actual.getInstructionCounter().getCoveredCount());
+	}
+
+	@Test
+	public void evaluate_should_report_no_match_when_lookup_contains_different_id() {
+		final ExecutionDataStore store = new ExecutionDataStore();
+		store.get(Long.valueOf(0), NAME, 1);
+
+		final IClassCoverage actual = projection.evaluate(store);
+
+		assertTrue(actual.isNoMatch());
+		assertEquals(0, actual.getInstructionCounter().getCoveredCount());
+	}
+
+	private IClassCoverage analyze(final ExecutionDataStore store)
+			throws IOException {
+		final CoverageBuilder builder = new CoverageBuilder();
+		new Analyzer(store, builder).analyzeClass(bytes, "Test");
+		return builder.getClasses().iterator().next();
+	}
+
+	private static void assertCoverage(final IClassCoverage expected,
+			final IClassCoverage actual) {
+		assertEquals(expected.getId(), actual.getId());
+		assertEquals(expected.getName(), actual.getName());
+		assertEquals(expected.getSourceFileName(), actual.getSourceFileName());
+		assertCounters(expected, actual);
+		assertEquals(expected.getMethods().size(), actual.getMethods().size());
+		final Iterator<IMethodCoverage> actualMethods = actual.getMethods()
+				.iterator();
+		for (final IMethodCoverage m : expected.getMethods()) {
+			assertCounters(m, actualMethods.next());
+		}
+		for (int nr = expected.getFirstLine(); nr <= expected
+				.getLastLine(); nr++) {
+			assertEquals(expected.getLine(nr).getStatus(),
+					actual.getLine(nr).getStatus());
+		}
+	}
+
+	private static void assertCounters(final ICoverageNode expected,
+			final ICoverageNode actual) {
+		for (final CounterEntity entity : CounterEntity.values()) {
+			assertEquals(expected.getName() + " " + entity,
+					expected.getCounter(entity), actual.getCounter(entity));
+		}
+	}
+
+}
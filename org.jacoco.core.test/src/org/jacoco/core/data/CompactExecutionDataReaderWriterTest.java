@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ExecutionDataReader} and {@link ExecutionDataWriter}
+ * with the compact format. All tests of the standard format are executed with
+ * the compact format as well.
+ */
+public class CompactExecutionDataReaderWriterTest
+		extends ExecutionDataReaderWriterTest {
+
+	@Override
+	protected ExecutionDataWriter createWriter(OutputStream out)
+			throws IOException {
+		return new ExecutionDataWriter(out, true, false);
+	}
+
+	@Test
+	public void should_write_compact_header() throws IOException {
+		final byte[] header = buffer.toByteArray();
+		assertEquals(6, header.length);
+		final char version = ExecutionDataWriter.COMPACT_FORMAT_VERSION;
+		assertEquals(version >> 8, 0xFF & header[3]);
+		assertEquals(version & 0xFF, 0xFF & header[4]);
+		assertEquals(0, header[5]);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void should_not_allow_compression_without_compact_format()
+			throws IOException {
+		new ExecutionDataWriter(new ByteArrayOutputStream(), false, true);
+	}
+
+	@Test
+	public void should_fail_for_unknown_header_flags() throws IOException {
+		buffer.reset();
+		final ExecutionDataWriter writer = new ExecutionDataWriter(buffer, true,
+				false);
+		writer.flush();
+		final byte[] content = buffer.toByteArray();
+		content[5] = 0x42;
+		try {
+			new ExecutionDataReader(new ByteArrayInputStream(content)).read();
+			fail("IOException expected");
+		} catch (IOException e) {
+			assertEquals("Unknown header flags 42.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void should_read_names_with_and_without_package()
+			throws IOException {
+		final ExecutionDataWriter writer = createWriter(buffer);
+		writer.visitClassExecution(new ExecutionData(1, "a/b/A", hits(3)));
+		writer.visitClassExecution(new ExecutionData(2, "a/b/B", hits(3)));
+		writer.visitClassExecution(new ExecutionData(3, "a/b/A", hits(3)));
+		writer.visitClassExecution(new ExecutionData(4, "C", hits(3)));
+		writer.visitClassExecution(new ExecutionData(5, "/D", hits(3)));
+
+		final List<String> names = read(buffer.toByteArray());
+
+		assertEquals(Arrays.asList("a/b/A", "a/b/B", "a/b/A", "C", "/D"),
+				names);
+	}
+
+	@Test
+	public void should_be_smaller_than_standard_format() throws IOException {
+		final ByteArrayOutputStream standard = new ByteArrayOutputStream();
+		final ByteArrayOutputStream compact = new ByteArrayOutputStream();
+		final ExecutionDataWriter standardWriter = new ExecutionDataWriter(
+				standard);
+		final ExecutionDataWriter compactWriter = new ExecutionDataWriter(
+				compact, true, false);
+		for (int i = 0; i < 100; i++) {
+			final boolean[] probes = new boolean[400];
+			probes[i] = true;
+			final ExecutionData data = new ExecutionData(i,
+					"org/jacoco/example/Class" + i, probes);
+			standardWriter.visitClassExecution(data);
+			compactWriter.visitClassExecution(data);
+		}
+
+		assertTrue(compact.size() * 2 < standard.size());
+		assertEquals(100, read(compact.toByteArray()).size());
+	}
+
+	@Test
+	public void should_read_compressed_content() throws IOException {
+		final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		final ExecutionDataWriter writer = new ExecutionDataWriter(compressed,
+				true, true);
+		writer.visitSessionInfo(new SessionInfo("session", 1, 2));
+		for (int i = 0; i < 1000; i++) {
+			writer.visitClassExecution(new ExecutionData(i,
+					"org/jacoco/example/Class" + i, hits(50)));
+		}
+		writer.finish();
+
+		final List<String> names = read(compressed.toByteArray());
+
+		assertEquals(1000, names.size());
+		assertEquals("org/jacoco/example/Class999", names.get(999));
+	}
+
+	@Test
+	public void should_read_concatenated_formats() throws IOException {
+		buffer.reset();
+		ExecutionDataWriter writer = new ExecutionDataWriter(buffer, true,
+				true);
+		writer.visitClassExecution(new ExecutionData(1, "a/A", hits(5)));
+		writer.finish();
+		writer = new ExecutionDataWriter(buffer);
+		writer.visitClassExecution(new ExecutionData(2, "a/B", hits(5)));
+		writer = new ExecutionDataWriter(buffer, true, false);
+		writer.visitClassExecution(new ExecutionData(3, "a/C", hits(5)));
+		writer = new ExecutionDataWriter(buffer, true, true);
+		writer.visitClassExecution(new ExecutionData(4, "a/D", hits(5)));
+		writer.finish();
+
+		final List<String> names = read(buffer.toByteArray());
+
+		assertEquals(Arrays.asList("a/A", "a/B", "a/C", "a/D"), names);
+	}
+
+	private static boolean[] hits(final int count) {
+		final boolean[] probes = new boolean[count];
+		probes[count / 2] = true;
+		return probes;
+	}
+
+	private static List<String> read(final byte[] content) throws IOException {
+		final List<String> names = new ArrayList<String>();
+		final ExecutionDataReader reader = new ExecutionDataReader(
+				new ByteArrayInputStream(content));
+		reader.setSessionInfoVisitor(new ISessionInfoVisitor() {
+			public void visitSessionInfo(final SessionInfo info) {
+			}
+		});
+		reader.setExecutionDataVisitor(new IExecutionDataVisitor() {
+			public void visitClassExecution(final ExecutionData data) {
+				assertTrue(data.hasHits());
+				names.add(data.getName());
+			}
+		});
+		assertFalse(reader.read());
+		return names;
+	}
+
+}
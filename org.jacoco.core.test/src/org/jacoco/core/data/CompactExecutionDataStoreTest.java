@@ -0,0 +1,270 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.data;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link CompactExecutionDataStore}.
+ */
+public class CompactExecutionDataStoreTest implements IExecutionDataVisitor {
+
+	private CompactExecutionDataStore store;
+
+	private Map<Long, ExecutionData> dataOutput;
+
+	@Before
+	public void setup() {
+		store = new CompactExecutionDataStore();
+		dataOutput = new HashMap<Long, ExecutionData>();
+	}
+
+	@Test
+	public void testEmpty() {
+		assertNull(store.get(123));
+		assertFalse(store.contains("org/jacoco/example/Foo"));
+		assertEquals(0, store.size());
+		store.accept(this);
+		assertTrue(dataOutput.isEmpty());
+	}
+
+	@Test
+	public void testPut() {
+		final boolean[] probes = new boolean[] { false, false, true };
+		store.put(new ExecutionData(1000, "Sample", probes));
+
+		final ExecutionData data = store.get(1000);
+		assertEquals(1000, data.getId());
+		assertEquals("Sample", data.getName());
+		assertArrayEquals(probes, data.getProbes());
+		assertTrue(store.contains("Sample"));
+		assertEquals(1, store.size());
+		store.accept(this);
+		assertEquals(1, dataOutput.size());
+		assertArrayEquals(probes,
+				dataOutput.get(Long.valueOf(1000)).getProbes());
+	}
+
+	@Test
+	public void testPutZeroId() {
+		store.put(new ExecutionData(0, "Zero", new boolean[] { true }));
+
+		assertEquals("Zero", store.get(0).getName());
+		assertNull(store.get(1));
+	}
+
+	@Test
+	public void testPutMany() {
+		for (int i = 0; i < 1000; i++) {
+			final boolean[] probes = new boolean[i % 130 + 1];
+			probes[i % probes.length] = true;
+			store.put(
+					new ExecutionData(i * 0x100000000L, "Sample" + i, probes));
+		}
+
+		assertEquals(1000, store.size());
+		for (int i = 0; i < 1000; i++) {
+			final ExecutionData data = store.get(i * 0x100000000L);
+			assertEquals("Sample" + i, data.getName());
+			assertTrue(data.getProbes()[i % data.getProbes().length]);
+		}
+		assertTrue(store.contains("Sample999"));
+	}
+
+	@Test
+	public void testConcurrentLookups() throws Exception {
+		for (int i = 0; i < 1000; i++) {
+			store.put(new ExecutionData(i, "Sample" + i, new boolean[1]));
+		}
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			final List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+			for (int t = 0; t < 4; t++) {
+				results.add(executor.submit(new Callable<Boolean>() {
+					public Boolean call() {
+						for (int i = 0; i < 1000; i++) {
+							if (!store.contains("Sample" + i)
+									|| store.get(i) == null) {
+								return Boolean.FALSE;
+							}
+						}
+						return Boolean.TRUE;
+					}
+				}));
+			}
+			for (final Future<Boolean> result : results) {
+				assertTrue(result.get().booleanValue());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testAcceptInIdOrder() {
+		store.put(new ExecutionData(3, "C", new boolean[] { true }));
+		store.put(new ExecutionData(-1, "A", new boolean[] { true }));
+		store.put(new ExecutionData(2, "B", new boolean[] { true }));
+		final List<String> names = new ArrayList<String>();
+
+		store.accept(new IExecutionDataVisitor() {
+			public void visitClassExecution(final ExecutionData data) {
+				names.add(data.getName());
+			}
+		});
+
+		assertEquals(Arrays.asList("A", "B", "C"), names);
+	}
+
+	@Test
+	public void testGetReturnsCopy() {
+		store.put(new ExecutionData(1000, "Sample", new boolean[] { false }));
+
+		store.get(1000).getProbes()[0] = true;
+
+		assertFalse(store.get(1000).getProbes()[0]);
+	}
+
+	@Test
+	public void testMergeData() {
+		store.put(new ExecutionData(1000, "Sample",
+				new boolean[] { false, true, false, true }));
+		store.put(new ExecutionData(1000, "Sample",
+				new boolean[] { false, false, true, true }));
+
+		assertArrayEquals(new boolean[] { false, true, true, true },
+				store.get(1000).getProbes());
+		assertEquals(1, store.size());
+	}
+
+	@Test
+	public void testMergeStores() {
+		final CompactExecutionDataStore other = new CompactExecutionDataStore();
+		store.put(new ExecutionData(1000, "Sample1",
+				new boolean[] { true, false }));
+		other.put(new ExecutionData(1000, "Sample1",
+				new boolean[] { false, true }));
+		other.put(new ExecutionData(1001, "Sample2", new boolean[] { true }));
+
+		store.merge(other);
+
+		assertArrayEquals(new boolean[] { true, true },
+				store.get(1000).getProbes());
+		assertArrayEquals(new boolean[] { true }, store.get(1001).getProbes());
+		assertTrue(store.contains("Sample2"));
+
+		// the merged store must not share bitsets with the source
+		other.reset();
+		assertArrayEquals(new boolean[] { true }, store.get(1001).getProbes());
+	}
+
+	@Test
+	public void testSubtract() {
+		store.put(new ExecutionData(1000, "Sample",
+				new boolean[] { false, true, false, true }));
+		store.subtract(new ExecutionData(1000, "Sample",
+				new boolean[] { false, false, true, true }));
+		store.subtract(
+				new ExecutionData(1001, "Other", new boolean[] { true }));
+
+		assertArrayEquals(new boolean[] { false, true, false, false },
+				store.get(1000).getProbes());
+		assertNull(store.get(1001));
+	}
+
+	@Test
+	public void testSubtractStore() {
+		final CompactExecutionDataStore other = new CompactExecutionDataStore();
+		store.put(new ExecutionData(1000, "Sample",
+				new boolean[] { true, true }));
+		other.put(new ExecutionData(1000, "Sample",
+				new boolean[] { false, true }));
+
+		store.subtract(other);
+
+		assertArrayEquals(new boolean[] { true, false },
+				store.get(1000).getProbes());
+	}
+
+	@Test
+	public void testReset() {
+		store.put(new ExecutionData(1000, "Sample",
+				new boolean[] { true, true }));
+
+		store.reset();
+
+		assertArrayEquals(new boolean[] { false, false },
+				store.get(1000).getProbes());
+	}
+
+	@Test
+	public void testVisitClassExecution() {
+		store.visitClassExecution(
+				new ExecutionData(1000, "Sample", new boolean[] { true }));
+
+		assertTrue(store.contains("Sample"));
+	}
+
+	@Test
+	public void testNegative1() {
+		store.put(new ExecutionData(1000, "Sample1", new boolean[] { true }));
+		try {
+			store.put(
+					new ExecutionData(1000, "Sample2", new boolean[] { true }));
+			fail("exception expected");
+		} catch (IllegalStateException e) {
+			assertEquals(
+					"Different class names Sample1 and Sample2 for id 00000000000003e8.",
+					e.getMessage());
+		}
+	}
+
+	@Test
+	public void testNegative2() {
+		store.put(new ExecutionData(1000, "Sample", new boolean[] { true }));
+		try {
+			store.subtract(new ExecutionData(1000, "Sample",
+					new boolean[] { true, false }));
+			fail("exception expected");
+		} catch (IllegalStateException e) {
+			assertEquals(
+					"Incompatible execution data for class Sample with id 00000000000003e8.",
+					e.getMessage());
+		}
+	}
+
+	// === IExecutionDataVisitor ===
+
+	public void visitClassExecution(ExecutionData data) {
+		dataOutput.put(Long.valueOf(data.getId()), data);
+	}
+
+}
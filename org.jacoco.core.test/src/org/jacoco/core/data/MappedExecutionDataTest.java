@@ -0,0 +1,258 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.data;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link MappedExecutionDataWriter} and
+ * {@link MappedExecutionData}.
+ */
+public class MappedExecutionDataTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private ByteArrayOutputStream buffer;
+
+	private MappedExecutionDataWriter writer;
+
+	@Before
+	public void setup() {
+		buffer = new ByteArrayOutputStream();
+		writer = new MappedExecutionDataWriter(buffer);
+	}
+
+	@Test
+	public void should_read_empty_data() throws IOException {
+		final MappedExecutionData data = finish();
+
+		assertEquals(0, data.getSize());
+		assertNull(data.get(42));
+		assertFalse(data.contains("Foo"));
+	}
+
+	@Test
+	public void should_lookup_classes_by_id() throws IOException {
+		writer.visitClassExecution(
+				new ExecutionData(3, "Three", new boolean[] { true }));
+		writer.visitClassExecution(new ExecutionData(-1, "MinusOne",
+				new boolean[] { false, true }));
+		writer.visitClassExecution(new ExecutionData(Long.MAX_VALUE, "Max",
+				new boolean[] { true, false, false, false, false, false, false,
+						false, true, true }));
+
+		final MappedExecutionData data = finish();
+
+		assertEquals(3, data.getSize());
+		assertEquals("Three", data.get(3).getName());
+		assertArrayEquals(new boolean[] { true }, data.get(3).getProbes());
+		assertEquals("MinusOne", data.get(-1).getName());
+		assertArrayEquals(new boolean[] { false, true },
+				data.get(-1).getProbes());
+		assertEquals(Long.MAX_VALUE, data.get(Long.MAX_VALUE).getId());
+		assertArrayEquals(
+				new boolean[] { true, false, false, false, false, false, false,
+						false, true, true },
+				data.get(Long.MAX_VALUE).getProbes());
+		assertNull(data.get(0));
+		assertNull(data.get(Long.MIN_VALUE));
+		assertTrue(data.contains("Max"));
+		assertFalse(data.contains("Other"));
+	}
+
+	@Test
+	public void should_lookup_many_classes() throws IOException {
+		final Random random = new Random(5);
+		final long[] ids = new long[1000];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = random.nextLong();
+			final boolean[] probes = new boolean[i + 1];
+			probes[i] = true;
+			writer.visitClassExecution(
+					new ExecutionData(ids[i], "Class" + i, probes));
+		}
+
+		final MappedExecutionData data = finish();
+
+		for (int i = 0; i < ids.length; i++) {
+			final ExecutionData d = data.get(ids[i]);
+			assertEquals("Class" + i, d.getName());
+			assertEquals(i + 1, d.getProbes().length);
+			assertTrue(d.getProbes()[i]);
+		}
+	}
+
+	@Test
+	public void should_merge_and_skip_classes_without_hits()
+			throws IOException {
+		writer.visitClassExecution(
+				new ExecutionData(1, "Foo", new boolean[] { true, false }));
+		writer.visitClassExecution(
+				new ExecutionData(1, "Foo", new boolean[] { false, true }));
+		writer.visitClassExecution(
+				new ExecutionData(2, "Bar", new boolean[] { false }));
+
+		final MappedExecutionData data = finish();
+
+		assertEquals(1, data.getSize());
+		assertArrayEquals(new boolean[] { true, true },
+				data.get(1).getProbes());
+		assertFalse(data.contains("Bar"));
+	}
+
+	@Test
+	public void should_read_non_ascii_names() throws IOException {
+		writer.visitClassExecution(new ExecutionData(1, "\u00e4\u0000\u20ac",
+				new boolean[] { true }));
+
+		assertEquals("\u00e4\u0000\u20ac", finish().get(1).getName());
+	}
+
+	@Test
+	public void should_map_file() throws IOException {
+		final File file = new File(folder.getRoot(), "test.idx");
+		final FileOutputStream out = new FileOutputStream(file);
+		writer = new MappedExecutionDataWriter(out);
+		writer.visitClassExecution(
+				new ExecutionData(1, "Foo", new boolean[] { true }));
+		writer.finish();
+		out.close();
+
+		final MappedExecutionData data = new MappedExecutionData(file);
+
+		assertEquals("Foo", data.get(1).getName());
+	}
+
+	@Test
+	public void should_throw_exception_for_invalid_header() {
+		try {
+			new MappedExecutionData(ByteBuffer.wrap(new byte[] { 0x01,
+					(byte) 0xC0, (byte) 0xC0, 0x10, 0x07, 0, 0, 0 }));
+			fail("exception expected");
+		} catch (IOException e) {
+			assertEquals("Invalid execution data file.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void should_throw_exception_for_truncated_index() {
+		try {
+			new MappedExecutionData(ByteBuffer.wrap(new byte[] { (byte) 0xC0,
+					(byte) 0xC0, 0x00, 0x01, 0, 0, 0, 1 }));
+			fail("exception expected");
+		} catch (IOException e) {
+			assertEquals("Invalid execution data file.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void should_throw_exception_for_truncated_data() throws IOException {
+		writer.visitClassExecution(
+				new ExecutionData(0x12, "Foo", new boolean[] { true }));
+		writer.finish();
+		final byte[] bytes = buffer.toByteArray();
+		final byte[] truncated = new byte[bytes.length - 1];
+		System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+		try {
+			new MappedExecutionData(ByteBuffer.wrap(truncated));
+			fail("exception expected");
+		} catch (IOException e) {
+			assertEquals(
+					"Invalid execution data file: Data of class 0000000000000012 exceeds file size.",
+					e.getMessage());
+		}
+	}
+
+	@Test
+	public void should_throw_exception_for_invalid_data_offset()
+			throws IOException {
+		writer.visitClassExecution(
+				new ExecutionData(0x12, "Foo", new boolean[] { true }));
+		writer.finish();
+		final ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+		bytes.putInt(MappedExecutionDataWriter.HEADER_SIZE + 12, 1000);
+		try {
+			new MappedExecutionData(bytes);
+			fail("exception expected");
+		} catch (IOException e) {
+			assertEquals(
+					"Invalid execution data file: Data of class 0000000000000012 exceeds file size.",
+					e.getMessage());
+		}
+	}
+
+	@Test
+	public void should_throw_exception_for_unsorted_index() throws IOException {
+		writer.visitClassExecution(
+				new ExecutionData(0x12, "Foo", new boolean[] { true }));
+		writer.visitClassExecution(
+				new ExecutionData(0x34, "Bar", new boolean[] { true }));
+		writer.finish();
+		final ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+		bytes.putLong(MappedExecutionDataWriter.HEADER_SIZE
+				+ MappedExecutionDataWriter.SLOT_SIZE, 0x01);
+		try {
+			new MappedExecutionData(bytes);
+			fail("exception expected");
+		} catch (IOException e) {
+			assertEquals(
+					"Invalid execution data file: Class id 0000000000000001 not sorted.",
+					e.getMessage());
+		}
+	}
+
+	@Test
+	public void should_throw_exception_for_incompatible_version() {
+		try {
+			new MappedExecutionData(ByteBuffer.wrap(new byte[] { (byte) 0xC0,
+					(byte) 0xC0, 0x00, 0x02, 0, 0, 0, 0 }));
+			fail("exception expected");
+		} catch (IOException e) {
+			assertEquals("Cannot read indexed execution data version 0x2.",
+					e.getMessage());
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void exec_reader_should_reject_indexed_format() throws IOException {
+		writer.finish();
+		final ExecutionDataReader reader = new ExecutionDataReader(
+				new ByteArrayInputStream(buffer.toByteArray()));
+		reader.read();
+	}
+
+	private MappedExecutionData finish() throws IOException {
+		writer.finish();
+		return new MappedExecutionData(ByteBuffer.wrap(buffer.toByteArray()));
+	}
+
+}
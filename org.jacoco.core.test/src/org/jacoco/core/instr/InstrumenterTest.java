@@ -19,13 +19,23 @@ import static org.junit.Assert.fail;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.jar.Attributes;
+import java.util.jar.Manifest;
 import java.util.zip.CRC32;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
@@ -34,6 +44,7 @@ import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
 import org.jacoco.core.analysis.AnalyzerTest;
+import org.jacoco.core.internal.InputStreams;
 import org.jacoco.core.internal.Pack200Streams;
 import org.jacoco.core.internal.data.CRC64;
 import org.jacoco.core.internal.instr.InstrSupport;
@@ -41,7 +52,9 @@ import org.jacoco.core.runtime.IExecutionDataAccessorGenerator;
 import org.jacoco.core.test.TargetLoader;
 import org.junit.AssumptionViolatedException;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.objectweb.asm.ClassWriter;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
@@ -51,6 +64,9 @@ import org.objectweb.asm.Opcodes;
  */
 public class InstrumenterTest {
 
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
 	// no serialVersionUID to enforce calculation
 	@SuppressWarnings("serial")
 	public static class SerializationTarget implements Serializable {
@@ -286,6 +302,203 @@ public class InstrumenterTest {
 		assertNull(zipin.getNextEntry());
 	}
 
+	@Test
+	public void instrumentAll_should_instrument_zip_file() throws IOException {
+		final byte[] bytes = TargetLoader.getClassDataAsBytes(getClass());
+		final File file = folder.newFile("test.jar");
+		final ZipOutputStream zipout = new ZipOutputStream(
+				new FileOutputStream(file));
+		ZipEntry entry = new ZipEntry("TestCompressed.class");
+		zipout.putNextEntry(entry);
+		zipout.write(bytes);
+		zipout.putNextEntry(new ZipEntry("META-INF/ALIAS.SF"));
+		zipout.putNextEntry(new ZipEntry("readme.txt"));
+		zipout.write("Hello".getBytes("UTF-8"));
+		entry = new ZipEntry("TestUncompressed.class");
+		entry.setMethod(ZipEntry.STORED);
+		entry.setSize(bytes.length);
+		final CRC32 crc = new CRC32();
+		crc.update(bytes);
+		entry.setCrc(crc.getValue());
+		zipout.putNextEntry(entry);
+		zipout.write(bytes);
+		zipout.close();
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		final int count = instrumenter.instrumentAll(file, out, "Test");
+
+		assertEquals(2, count);
+		final ZipInputStream zipin = new ZipInputStream(
+				new ByteArrayInputStream(out.toByteArray()));
+		entry = zipin.getNextEntry();
+		assertEquals("TestCompressed.class", entry.getName());
+		assertEquals(ZipEntry.DEFLATED, entry.getMethod());
+		entry = zipin.getNextEntry();
+		assertEquals("readme.txt", entry.getName());
+		assertArrayEquals("Hello".getBytes("UTF-8"),
+				InputStreams.readFully(zipin));
+		entry = zipin.getNextEntry();
+		assertEquals("TestUncompressed.class", entry.getName());
+		assertEquals(ZipEntry.STORED, entry.getMethod());
+		assertNull(zipin.getNextEntry());
+	}
+
+	@Test
+	public void instrumentAll_should_instrument_class_file()
+			throws IOException {
+		final File file = folder.newFile("Test.class");
+		final OutputStream fileout = new FileOutputStream(file);
+		fileout.write(TargetLoader.getClassDataAsBytes(getClass()));
+		fileout.close();
+
+		final int count = instrumenter.instrumentAll(file,
+				new ByteArrayOutputStream(), "Test");
+
+		assertEquals(1, count);
+	}
+
+	@Test
+	public void instrumentAll_should_produce_same_zip_in_parallel()
+			throws IOException {
+		final File file = createArchive();
+		final List<String> expected = instrumentAll(file);
+		assertEquals(603, expected.size());
+
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			instrumenter.setExecutor(executor);
+			assertEquals(expected, instrumentAll(file));
+
+			final ByteArrayOutputStream out = new ByteArrayOutputStream();
+			final InputStream in = new FileInputStream(file);
+			final int count = instrumenter.instrumentAll(in, out, "Test");
+			in.close();
+			assertEquals(601, count);
+			assertEquals(expected, entries(out.toByteArray()));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void instrumentAll_should_process_entries_on_calling_thread_when_not_started_by_executor()
+			throws IOException {
+		final File file = createArchive();
+		final List<String> expected = instrumentAll(file);
+
+		instrumenter.setExecutor(new Executor() {
+			public void execute(final Runnable command) {
+				// never runs any task
+			}
+		});
+
+		assertEquals(expected, instrumentAll(file));
+	}
+
+	@Test
+	public void instrumentAll_should_process_entries_on_calling_thread_when_rejected_by_executor()
+			throws IOException {
+		final File file = createArchive();
+		final List<String> expected = instrumentAll(file);
+
+		final ExecutorService executor = Executors.newFixedThreadPool(1);
+		executor.shutdown();
+		instrumenter.setExecutor(executor);
+
+		assertEquals(expected, instrumentAll(file));
+	}
+
+	@Test
+	public void instrumentAll_should_report_broken_class_in_parallel()
+			throws IOException {
+		final File file = folder.newFile("test.zip");
+		final ZipOutputStream zipout = new ZipOutputStream(
+				new FileOutputStream(file));
+		zipout.putNextEntry(new ZipEntry("Test.class"));
+		final byte[] brokenclass = TargetLoader.getClassDataAsBytes(getClass());
+		brokenclass[10] = 0x23;
+		zipout.write(brokenclass);
+		zipout.close();
+		final ExecutorService executor = Executors.newFixedThreadPool(2);
+		instrumenter.setExecutor(executor);
+
+		try {
+			instrumenter.instrumentAll(file, new ByteArrayOutputStream(),
+					"test.zip");
+			fail("exception expected");
+		} catch (IOException e) {
+			assertEquals("Error while instrumenting test.zip@Test.class.",
+					e.getMessage());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private File createArchive() throws IOException {
+		final byte[] bytes = TargetLoader.getClassDataAsBytes(getClass());
+		final File file = folder.newFile("test.jar");
+		final ZipOutputStream zipout = new ZipOutputStream(
+				new FileOutputStream(file));
+		zipout.putNextEntry(new ZipEntry("META-INF/MANIFEST.MF"));
+		final Manifest manifest = new Manifest();
+		manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION,
+				"1.0");
+		final Attributes attributes = new Attributes();
+		attributes.putValue("SHA1-Digest", "xxx");
+		manifest.getEntries().put("Test.class", attributes);
+		manifest.write(zipout);
+		zipout.putNextEntry(new ZipEntry("META-INF/ALIAS.SF"));
+		for (int i = 0; i < 300; i++) {
+			zipout.putNextEntry(new ZipEntry("Test" + i + ".class"));
+			zipout.write(bytes);
+			final ZipEntry entry = new ZipEntry("Stored" + i + ".class");
+			entry.setMethod(ZipEntry.STORED);
+			entry.setSize(bytes.length);
+			final CRC32 crc = new CRC32();
+			crc.update(bytes);
+			entry.setCrc(crc.getValue());
+			zipout.putNextEntry(entry);
+			zipout.write(bytes);
+		}
+		zipout.putNextEntry(new ZipEntry("nested.jar"));
+		final ZipOutputStream nested = new ZipOutputStream(zipout);
+		nested.putNextEntry(new ZipEntry("Nested.class"));
+		nested.write(bytes);
+		nested.finish();
+		zipout.putNextEntry(new ZipEntry("readme.txt"));
+		zipout.write("Hello".getBytes("UTF-8"));
+		zipout.close();
+		return file;
+	}
+
+	private List<String> instrumentAll(final File file) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		assertEquals(601, instrumenter.instrumentAll(file, out, "Test"));
+		return entries(out.toByteArray());
+	}
+
+	/**
+	 * Describes the entries of the given archive. Nested archives are only
+	 * described by name as they contain time stamps.
+	 */
+	private static List<String> entries(final byte[] archive)
+			throws IOException {
+		final List<String> entries = new ArrayList<String>();
+		final ZipInputStream zipin = new ZipInputStream(
+				new ByteArrayInputStream(archive));
+		ZipEntry entry;
+		while ((entry = zipin.getNextEntry()) != null) {
+			String description = entry.getName() + ":" + entry.getMethod();
+			if (!entry.getName().endsWith(".jar")) {
+				final CRC32 crc = new CRC32();
+				crc.update(InputStreams.readFully(zipin));
+				description += ":" + crc.getValue();
+			}
+			entries.add(description);
+		}
+		return entries;
+	}
+
 	/**
 	 * Triggers exception in
 	 * {@link org.jacoco.core.internal.ContentTypeDetector#ContentTypeDetector(InputStream)}.
@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link Futures}.
+ */
+public class FuturesTest {
+
+	@Test
+	public void get_should_return_result() throws IOException {
+		assertEquals("result", Futures.get(run(new Callable<String>() {
+			public String call() {
+				return "result";
+			}
+		})));
+	}
+
+	@Test
+	public void get_should_throw_IOException() {
+		final IOException expected = new IOException();
+		try {
+			Futures.get(run(failing(expected)));
+			fail("exception expected");
+		} catch (final IOException e) {
+			assertSame(expected, e);
+		}
+	}
+
+	@Test
+	public void get_should_throw_RuntimeException() throws IOException {
+		final RuntimeException expected = new IllegalStateException();
+		try {
+			Futures.get(run(failing(expected)));
+			fail("exception expected");
+		} catch (final RuntimeException e) {
+			assertSame(expected, e);
+		}
+	}
+
+	@Test
+	public void get_should_throw_Error() throws IOException {
+		final Error expected = new AssertionError();
+		try {
+			Futures.get(run(new Callable<Void>() {
+				public Void call() {
+					throw expected;
+				}
+			}));
+			fail("exception expected");
+		} catch (final Error e) {
+			assertSame(expected, e);
+		}
+	}
+
+	@Test
+	public void get_should_wrap_other_exceptions() {
+		final Exception expected = new Exception("failed");
+		try {
+			Futures.get(run(failing(expected)));
+			fail("exception expected");
+		} catch (final IOException e) {
+			assertEquals("failed", e.getMessage());
+			assertSame(expected, e.getCause());
+		}
+	}
+
+	@Test
+	public void get_should_restore_interrupt_status() {
+		Thread.currentThread().interrupt();
+		try {
+			Futures.get(new FutureTask<Void>(failing(new Exception())));
+			fail("exception expected");
+		} catch (final InterruptedIOException e) {
+			assertTrue(e.getCause() instanceof InterruptedException);
+		} catch (final IOException e) {
+			fail("InterruptedIOException expected");
+		}
+		assertTrue(Thread.interrupted());
+	}
+
+	private static <T> FutureTask<T> run(final Callable<T> callable) {
+		final FutureTask<T> task = new FutureTask<T>(callable);
+		task.run();
+		return task;
+	}
+
+	private static Callable<Void> failing(final Exception exception) {
+		return new Callable<Void>() {
+			public Void call() throws Exception {
+				throw exception;
+			}
+		};
+	}
+
+}
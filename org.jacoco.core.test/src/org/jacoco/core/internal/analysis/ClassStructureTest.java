@@ -0,0 +1,295 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.internal.analysis;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.analysis.ICoverageNode.CounterEntity;
+import org.jacoco.core.analysis.IMethodCoverage;
+import org.jacoco.core.analysis.ISourceNode;
+import org.jacoco.core.internal.data.CRC64;
+import org.jacoco.core.internal.data.ProbeBits;
+import org.jacoco.core.internal.flow.ClassProbesAdapter;
+import org.jacoco.core.internal.instr.InstrSupport;
+import org.jacoco.core.test.TargetLoader;
+import org.junit.Test;
+import org.objectweb.asm.ClassReader;
+
+/**
+ * Unit tests for {@link ClassStructure}.
+ */
+public class ClassStructureTest {
+
+	private static final Class<?>[] TARGETS = { java.lang.String.class,
+			java.util.HashMap.class, java.util.TreeMap.class,
+			java.util.concurrent.ConcurrentHashMap.class,
+			java.util.regex.Pattern.class, java.util.Formatter.class,
+			java.io.ObjectInputStream.class, ClassStructure.class,
+			ClassAnalyzer.class, ClassStructureTest.class };
+
+	private final StringPool stringPool = new StringPool();
+
+	@Test
+	public void getCoverage_should_calculate_same_coverage_as_analysis()
+			throws IOException {
+		final Random random = new Random(42);
+		for (final Class<?> target : TARGETS) {
+			final byte[] bytes = bytes(target);
+			final ClassStructure structure = new ClassStructure();
+			final int probeCount = analyze(bytes, null, structure).probeCount;
+			final ClassStructure copy = copy(structure);
+			for (final double density : new double[] { 0.0, 0.05, 0.3, 0.7,
+					0.95, 1.0 }) {
+				final boolean[] probes = new boolean[probeCount];
+				for (int i = 0; i < probeCount; i++) {
+					probes[i] = random.nextDouble() < density;
+				}
+				final IClassCoverage expected = analyze(bytes, probes,
+						null).coverage;
+				assertCoverage(expected,
+						structure.getCoverage(ProbeBits.pack(probes), false));
+				assertCoverage(expected,
+						copy.getCoverage(ProbeBits.pack(probes), false));
+			}
+		}
+	}
+
+	@Test
+	public void getCoverage_should_calculate_same_coverage_as_analysis_for_single_probes()
+			throws IOException {
+		final byte[] bytes = bytes(java.util.TreeMap.class);
+		final ClassStructure structure = new ClassStructure();
+		final int probeCount = analyze(bytes, null, structure).probeCount;
+		for (int p = 0; p < probeCount; p++) {
+			final boolean[] probes = new boolean[probeCount];
+			probes[p] = true;
+			assertCoverage(analyze(bytes, probes, null).coverage,
+					structure.getCoverage(ProbeBits.pack(probes), false));
+		}
+	}
+
+	@Test
+	public void getCoverage_should_calculate_coverage_without_probes()
+			throws IOException {
+		final byte[] bytes = bytes(ClassStructureTest.class);
+		final ClassStructure structure = new ClassStructure();
+		final IClassCoverage expected = analyze(bytes, null,
+				structure).coverage;
+
+		final ClassCoverageImpl actual = structure.getCoverage(null, true);
+
+		assertCoverage(expected, actual);
+		assertEquals(true, actual.isNoMatch());
+	}
+
+	@Test
+	public void read_should_restore_class_info() throws IOException {
+		final byte[] bytes = bytes(java.util.HashMap.class);
+		final ClassStructure structure = new ClassStructure();
+		analyze(bytes, null, structure);
+
+		final ClassStructure copy = copy(structure);
+
+		assertEquals(CRC64.classId(bytes), copy.getId());
+		assertEquals("java/util/HashMap", copy.getName());
+		final ClassCoverageImpl coverage = copy.getCoverage(null, false);
+		assertEquals("java/util/AbstractMap", coverage.getSuperName());
+		assertEquals("HashMap.java", coverage.getSourceFileName());
+		assertEquals(
+				"<K:Ljava/lang/Object;V:Ljava/lang/Object;>Ljava/util/AbstractMap<TK;TV;>;Ljava/util/Map<TK;TV;>;Ljava/lang/Cloneable;Ljava/io/Serializable;",
+				coverage.getSignature());
+		assertArrayEquals(new String[] { "java/util/Map", "java/lang/Cloneable",
+				"java/io/Serializable" }, coverage.getInterfaceNames());
+		assertSame(stringPool.get("java/util/HashMap"), copy.getName());
+	}
+
+	@Test
+	public void read_should_reject_invalid_probe_set_index()
+			throws IOException {
+		final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		final DataOutputStream out = writeHeader(buffer, 1);
+		out.writeInt(3);
+		out.writeInt(1);
+		out.writeInt(1);
+		out.writeInt(1);
+
+		assertInvalid(buffer);
+	}
+
+	@Test
+	public void read_should_reject_negative_length() throws IOException {
+		final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		final DataOutputStream out = writeHeader(buffer, 1);
+		out.writeInt(-3);
+
+		assertInvalid(buffer);
+	}
+
+	@Test
+	public void read_should_reject_more_covered_branches_than_branches()
+			throws IOException {
+		final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		final DataOutputStream out = writeHeader(buffer, 1);
+		out.writeInt(0);
+		out.writeInt(1);
+		out.writeInt(4);
+		out.writeInt(1);
+		out.writeInt(1);
+		out.writeInt(0);
+		out.writeInt(0);
+
+		assertInvalid(buffer);
+	}
+
+	/**
+	 * Writes a class with one probe set and a method up to its instructions.
+	 */
+	private static DataOutputStream writeHeader(
+			final ByteArrayOutputStream buffer, final int setCount)
+			throws IOException {
+		final DataOutputStream out = new DataOutputStream(buffer);
+		out.writeLong(42);
+		out.writeUTF("Foo");
+		out.writeBoolean(false);
+		out.writeBoolean(false);
+		out.writeInt(-1);
+		out.writeBoolean(false);
+		out.writeInt(setCount);
+		for (int i = 0; i < setCount; i++) {
+			out.writeInt(1);
+			out.writeLong(1);
+		}
+		out.writeInt(1);
+		out.writeUTF("foo");
+		out.writeUTF("()V");
+		out.writeBoolean(false);
+		out.writeInt(1);
+		out.writeInt(1);
+		return out;
+	}
+
+	private void assertInvalid(final ByteArrayOutputStream buffer) {
+		try {
+			ClassStructure.read(
+					new DataInputStream(
+							new ByteArrayInputStream(buffer.toByteArray())),
+					stringPool);
+			fail("exception expected");
+		} catch (final IOException e) {
+			assertEquals("Invalid class structure.", e.getMessage());
+		}
+	}
+
+	private static byte[] bytes(final Class<?> target) throws IOException {
+		// JDK classes are loaded by the bootstrap loader
+		return TargetLoader.getClassDataAsBytes(
+				ClassStructureTest.class.getClassLoader(), target.getName());
+	}
+
+	private static class Result {
+		ClassCoverageImpl coverage;
+		int probeCount;
+	}
+
+	private Result analyze(final byte[] bytes, final boolean[] probes,
+			final ClassStructure structure) {
+		final ClassReader reader = InstrSupport.classReaderFor(bytes);
+		final Result result = new Result();
+		result.coverage = new ClassCoverageImpl(reader.getClassName(),
+				CRC64.classId(bytes), false);
+		final ClassAnalyzer analyzer = new ClassAnalyzer(result.coverage,
+				probes, stringPool, structure) {
+			@Override
+			public void visitTotalProbeCount(final int count) {
+				result.probeCount = count;
+			}
+		};
+		reader.accept(new ClassProbesAdapter(analyzer, false), 0);
+		if (structure != null) {
+			structure.setClassInfo(result.coverage);
+		}
+		return result;
+	}
+
+	private ClassStructure copy(final ClassStructure structure)
+			throws IOException {
+		final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		structure.write(new DataOutputStream(buffer));
+		return ClassStructure.read(
+				new DataInputStream(
+						new ByteArrayInputStream(buffer.toByteArray())),
+				stringPool);
+	}
+
+	private static void assertCoverage(final IClassCoverage expected,
+			final IClassCoverage actual) {
+		assertEquals(expected.getName(), actual.getName());
+		assertEquals(expected.getId(), actual.getId());
+		assertEquals(expected.getSignature(), actual.getSignature());
+		assertEquals(expected.getSuperName(), actual.getSuperName());
+		assertArrayEquals(expected.getInterfaceNames(),
+				actual.getInterfaceNames());
+		assertEquals(expected.getSourceFileName(), actual.getSourceFileName());
+		assertNode(expected, actual);
+		assertEquals(expected.getMethods().size(), actual.getMethods().size());
+		final Iterator<IMethodCoverage> actualMethods = actual.getMethods()
+				.iterator();
+		for (final IMethodCoverage e : expected.getMethods()) {
+			final IMethodCoverage a = actualMethods.next();
+			assertEquals(e.getName(), a.getName());
+			assertEquals(e.getDesc(), a.getDesc());
+			assertEquals(e.getSignature(), a.getSignature());
+			assertNode(e, a);
+		}
+	}
+
+	private static void assertNode(final ISourceNode expected,
+			final ISourceNode actual) {
+		final String name = expected.getName();
+		assertEquals(name, counters(expected), counters(actual));
+		assertEquals(name, expected.getFirstLine(), actual.getFirstLine());
+		assertEquals(name, expected.getLastLine(), actual.getLastLine());
+		for (int nr = expected.getFirstLine(); nr <= expected
+				.getLastLine(); nr++) {
+			assertEquals(name + ":" + nr,
+					expected.getLine(nr).getInstructionCounter(),
+					actual.getLine(nr).getInstructionCounter());
+			assertEquals(name + ":" + nr,
+					expected.getLine(nr).getBranchCounter(),
+					actual.getLine(nr).getBranchCounter());
+		}
+	}
+
+	private static List<String> counters(final ISourceNode node) {
+		final List<String> result = new ArrayList<String>();
+		for (final CounterEntity entity : CounterEntity.values()) {
+			result.add(entity + "=" + node.getCounter(entity));
+		}
+		return result;
+	}
+
+}
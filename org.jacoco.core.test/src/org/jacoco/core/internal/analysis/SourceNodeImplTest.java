@@ -14,7 +14,9 @@ package org.jacoco.core.internal.analysis;
 
 import static org.junit.Assert.assertEquals;
 
+import org.jacoco.core.analysis.CoverageNodeImpl;
 import org.jacoco.core.analysis.ICoverageNode.ElementType;
+import org.jacoco.core.analysis.ILine;
 import org.jacoco.core.analysis.ISourceNode;
 import org.junit.Test;
 
@@ -223,4 +225,97 @@ public class SourceNodeImplTest {
 		assertEquals(CounterImpl.getInstance(0, 1), node.getLineCounter());
 	}
 
+	@Test
+	public void testIncrementChildWithLinesFromOtherImplementation() {
+		final SourceNodeImpl node = new SourceNodeImpl(ElementType.CLASS,
+				"Foo");
+		final SourceNodeImpl lines = new SourceNodeImpl(ElementType.CLASS,
+				"Foo");
+		lines.increment(CounterImpl.getInstance(1, 11),
+				CounterImpl.getInstance(3, 33), 5);
+		lines.increment(CounterImpl.getInstance(2, 0), CounterImpl.COUNTER_0_0,
+				7);
+
+		node.increment(new DelegatingSourceNode(lines));
+
+		assertEquals(CounterImpl.getInstance(1, 1), node.getLineCounter());
+		assertEquals(5, node.getFirstLine());
+		assertEquals(7, node.getLastLine());
+		assertEquals(CounterImpl.getInstance(1, 11),
+				node.getLine(5).getInstructionCounter());
+		assertEquals(CounterImpl.getInstance(3, 33),
+				node.getLine(5).getBranchCounter());
+		assertEquals(LineImpl.EMPTY, node.getLine(6));
+		assertEquals(CounterImpl.getInstance(2, 0),
+				node.getLine(7).getInstructionCounter());
+	}
+
+	@Test
+	public void testIncrementChildWithLinesBeforeExistingLines() {
+		final SourceNodeImpl node = new SourceNodeImpl(ElementType.CLASS,
+				"Foo");
+		node.increment(CounterImpl.getInstance(0, 1), CounterImpl.COUNTER_0_0,
+				20);
+		final SourceNodeImpl child = new SourceNodeImpl(ElementType.CLASS,
+				"Foo");
+		child.increment(CounterImpl.getInstance(1, 0), CounterImpl.COUNTER_0_0,
+				10);
+		child.increment(CounterImpl.getInstance(1, 0), CounterImpl.COUNTER_0_0,
+				20);
+
+		node.increment(child);
+
+		assertEquals(10, node.getFirstLine());
+		assertEquals(20, node.getLastLine());
+		assertEquals(CounterImpl.getInstance(1, 1), node.getLineCounter());
+		assertEquals(CounterImpl.getInstance(1, 0),
+				node.getLine(10).getInstructionCounter());
+		assertEquals(CounterImpl.getInstance(1, 1),
+				node.getLine(20).getInstructionCounter());
+	}
+
+	@Test
+	public void testGetLineWithLargeCounters() {
+		final SourceNodeImpl node = new SourceNodeImpl(ElementType.CLASS,
+				"Foo");
+		node.increment(CounterImpl.getInstance(100, 200),
+				CounterImpl.getInstance(300, 400), 5);
+		node.increment(CounterImpl.getInstance(100, 200),
+				CounterImpl.getInstance(300, 400), 5);
+
+		final ILine line = node.getLine(5);
+		assertEquals(CounterImpl.getInstance(200, 400),
+				line.getInstructionCounter());
+		assertEquals(CounterImpl.getInstance(600, 800),
+				line.getBranchCounter());
+	}
+
+	/**
+	 * {@link ISourceNode} which is not a {@link SourceNodeImpl}.
+	 */
+	private static class DelegatingSourceNode extends CoverageNodeImpl
+			implements ISourceNode {
+
+		private final ISourceNode delegate;
+
+		DelegatingSourceNode(final ISourceNode delegate) {
+			super(delegate.getElementType(), delegate.getName());
+			this.delegate = delegate;
+			increment(delegate);
+		}
+
+		public int getFirstLine() {
+			return delegate.getFirstLine();
+		}
+
+		public int getLastLine() {
+			return delegate.getLastLine();
+		}
+
+		public ILine getLine(final int nr) {
+			return delegate.getLine(nr);
+		}
+
+	}
+
 }
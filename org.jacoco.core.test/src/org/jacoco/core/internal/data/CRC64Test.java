@@ -15,6 +15,7 @@ package org.jacoco.core.internal.data;
 import static org.junit.Assert.assertEquals;
 
 import java.io.UnsupportedEncodingException;
+import java.util.Random;
 
 import org.jacoco.core.data.ExecutionDataWriter;
 import org.junit.Test;
@@ -95,4 +96,61 @@ public class CRC64Test {
 		assertEquals(0xD8016B38AAD48308L, sum);
 	}
 
+	@Test
+	public void should_calculate_same_checksum_as_bitwise_implementation() {
+		final Random random = new Random(42);
+		for (int length = 0; length < 100; length++) {
+			final byte[] bytes = new byte[length];
+			random.nextBytes(bytes);
+			if (length > 7 && bytes[6] == 0x00 && bytes[7] == Opcodes.V9) {
+				bytes[6] = 0x01;
+			}
+			assertEquals(String.valueOf(length), bitwise(bytes, 0, length),
+					CRC64.classId(bytes));
+		}
+	}
+
+	@Test
+	public void should_calculate_same_checksum_as_bitwise_implementation_for_java_9() {
+		final Random random = new Random(42);
+		for (int length = 8; length < 100; length++) {
+			final byte[] bytes = new byte[length];
+			random.nextBytes(bytes);
+			bytes[6] = 0x00;
+			bytes[7] = Opcodes.V9;
+			final byte[] java8 = bytes.clone();
+			java8[7] = Opcodes.V1_8;
+			assertEquals(String.valueOf(length), bitwise(java8, 0, length),
+					CRC64.classId(bytes));
+		}
+	}
+
+	@Test
+	public void should_calculate_same_checksum_as_bitwise_implementation_for_class_files() {
+		for (final int version : new int[] { Opcodes.V1_5, Opcodes.V1_8,
+				Opcodes.V11, Opcodes.V17 }) {
+			final byte[] bytes = createClass(version);
+			assertEquals(bitwise(bytes, 0, bytes.length), CRC64.classId(bytes));
+		}
+	}
+
+	/**
+	 * Reference implementation which processes every bit individually.
+	 */
+	private static long bitwise(final byte[] bytes, final int from,
+			final int to) {
+		long sum = 0;
+		for (int i = from; i < to; i++) {
+			sum ^= bytes[i] & 0xff;
+			for (int j = 0; j < 8; j++) {
+				if ((sum & 1) == 1) {
+					sum = (sum >>> 1) ^ 0xd800000000000000L;
+				} else {
+					sum = sum >>> 1;
+				}
+			}
+		}
+		return sum;
+	}
+
 }
@@ -13,10 +13,16 @@
 package org.jacoco.core.internal.data;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
+import java.util.Arrays;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -116,4 +122,139 @@ public class CompactDataInputOutputTest {
 		}
 	}
 
+	@Test
+	public void writeCompactBooleanArray_should_use_sparse_encoding_for_few_hits()
+			throws IOException {
+		final boolean[] values = new boolean[1000];
+		values[3] = true;
+		values[500] = true;
+		values[999] = true;
+
+		final byte[] bytes = writeCompactBooleanArray(values);
+
+		assertTrue(bytes.length < 16);
+		assertTrue(Arrays.equals(values, readCompactBooleanArray(bytes)));
+	}
+
+	@Test
+	public void writeCompactBooleanArray_should_use_bitset_encoding_for_many_hits()
+			throws IOException {
+		final boolean[] values = new boolean[1000];
+		for (int i = 0; i < values.length; i += 3) {
+			values[i] = true;
+		}
+
+		final byte[] bytes = writeCompactBooleanArray(values);
+
+		assertEquals(1 + 2 + 125, bytes.length);
+		assertTrue(Arrays.equals(values, readCompactBooleanArray(bytes)));
+	}
+
+	@Test
+	public void writeCompactBooleanArray_should_write_empty_array()
+			throws IOException {
+		final boolean[] values = new boolean[0];
+
+		final byte[] bytes = writeCompactBooleanArray(values);
+
+		assertTrue(Arrays.equals(values, readCompactBooleanArray(bytes)));
+	}
+
+	@Test
+	public void readCompactBooleanArray_should_fail_for_unknown_encoding() {
+		try {
+			readCompactBooleanArray(new byte[] { 0x42 });
+			fail("IOException expected");
+		} catch (final IOException e) {
+			assertEquals("Unknown encoding 42.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void readCompactBooleanArray_should_fail_for_invalid_index() {
+		try {
+			readCompactBooleanArray(new byte[] { 0x01, 0x02, 0x01, 0x05 });
+			fail("IOException expected");
+		} catch (final IOException e) {
+			assertEquals("Invalid probe index.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void startInflate_should_read_deflated_data_followed_by_plain_data()
+			throws IOException {
+		final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		final CompactDataOutput out = new CompactDataOutput(buffer);
+		out.writeUTF("plain1");
+		out.startDeflate();
+		for (int i = 0; i < 10000; i++) {
+			out.writeVarInt(i);
+		}
+		out.finishDeflate();
+		out.writeUTF("plain2");
+		out.startDeflate();
+		out.writeUTF("deflated");
+		out.finishDeflate();
+		out.writeUTF("plain3");
+
+		final CompactDataInput in = new CompactDataInput(
+				new ByteArrayInputStream(buffer.toByteArray()));
+		assertEquals("plain1", in.readUTF());
+		in.startInflate();
+		for (int i = 0; i < 10000; i++) {
+			assertEquals(i, in.readVarInt());
+		}
+		assertEquals("plain2", in.readUTF());
+		in.startInflate();
+		assertEquals("deflated", in.readUTF());
+		assertEquals("plain3", in.readUTF());
+		assertEquals(-1, in.read());
+	}
+
+	@Test(expected = EOFException.class)
+	public void startInflate_should_fail_for_truncated_data()
+			throws IOException {
+		final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		final CompactDataOutput out = new CompactDataOutput(buffer);
+		out.startDeflate();
+		out.writeUTF("deflated");
+		out.finishDeflate();
+		final byte[] bytes = buffer.toByteArray();
+
+		final CompactDataInput in = new CompactDataInput(
+				new ByteArrayInputStream(bytes, 0, bytes.length - 1));
+		in.startInflate();
+		in.readUTF();
+		in.read();
+	}
+
+	@Test
+	public void startInflate_should_fail_for_invalid_data() {
+		final CompactDataInput in = new CompactDataInput(
+				new ByteArrayInputStream(new byte[] { -1, -1, -1, -1 }));
+		in.startInflate();
+		try {
+			in.read();
+			fail("IOException expected");
+		} catch (final IOException e) {
+			assertEquals("Invalid compressed data.", e.getMessage());
+		}
+	}
+
+	private static byte[] writeCompactBooleanArray(final boolean[] values)
+			throws IOException {
+		final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		new CompactDataOutput(buffer).writeCompactBooleanArray(values);
+		return buffer.toByteArray();
+	}
+
+	private static boolean[] readCompactBooleanArray(final byte[] bytes)
+			throws IOException {
+		final CompactDataInput in = new CompactDataInput(
+				new ByteArrayInputStream(bytes));
+		final boolean[] values = in.readCompactBooleanArray();
+		assertEquals(-1, in.read());
+		return values;
+	}
+
 }
@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.internal.data;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ProbeBits}.
+ */
+public class ProbeBitsTest {
+
+	@Test
+	public void words_should_return_number_of_required_words() {
+		assertEquals(0, ProbeBits.words(0));
+		assertEquals(1, ProbeBits.words(1));
+		assertEquals(1, ProbeBits.words(64));
+		assertEquals(2, ProbeBits.words(65));
+	}
+
+	@Test
+	public void pack_and_unpack_should_preserve_probes() {
+		final boolean[] probes = new boolean[130];
+		probes[0] = true;
+		probes[63] = true;
+		probes[64] = true;
+		probes[129] = true;
+
+		final long[] bits = ProbeBits.pack(probes);
+
+		assertArrayEquals(
+				new long[] { 0x8000000000000001L, 0x0000000000000001L, 0x2L },
+				bits);
+		assertArrayEquals(probes, ProbeBits.unpack(bits, 130));
+	}
+
+	@Test
+	public void hasHits_should_check_for_set_bits() {
+		assertFalse(ProbeBits.hasHits(new long[0]));
+		assertFalse(ProbeBits.hasHits(new long[] { 0, 0 }));
+		assertTrue(ProbeBits.hasHits(new long[] { 0, 4 }));
+	}
+
+	@Test
+	public void intersects_should_check_for_common_bits() {
+		assertFalse(ProbeBits.intersects(new long[0], new long[] { 1 }));
+		assertFalse(ProbeBits.intersects(new long[] { 0x1, 0x2 },
+				new long[] { 0x2, 0x1 }));
+		assertFalse(ProbeBits.intersects(new long[] { 0x1 },
+				new long[] { 0x2, 0x1 }));
+		assertTrue(ProbeBits.intersects(new long[] { 0x1, 0x2 },
+				new long[] { 0x2, 0x3 }));
+		assertTrue(ProbeBits.intersects(new long[] { 0x3 },
+				new long[] { 0x2, 0x3 }));
+	}
+
+	@Test
+	public void or_should_set_bits() {
+		final long[] target = new long[] { 0x1, 0x10 };
+
+		ProbeBits.or(target, new long[] { 0x2, 0x10 });
+
+		assertArrayEquals(new long[] { 0x3, 0x10 }, target);
+	}
+
+	@Test
+	public void andNot_should_clear_bits() {
+		final long[] target = new long[] { 0x3, 0x11 };
+
+		ProbeBits.andNot(target, new long[] { 0x2, 0x10 });
+
+		assertArrayEquals(new long[] { 0x1, 0x01 }, target);
+	}
+
+}
@@ -52,7 +52,10 @@ public class AgentOptionsTest {
 		assertEquals(AgentOptions.DEFAULT_ADDRESS, options.getAddress());
 		assertEquals(AgentOptions.DEFAULT_PORT, options.getPort());
 		assertNull(options.getClassDumpDir());
+		assertNull(options.getCacheDir());
+		assertEquals(AgentOptions.DEFAULT_CACHESIZE, options.getCacheSize());
 		assertFalse(options.getJmx());
+		assertFalse(options.getCompact());
 
 		assertEquals("", options.toString());
 	}
@@ -85,7 +88,10 @@ public class AgentOptionsTest {
 		properties.put("address", "remotehost");
 		properties.put("port", "1234");
 		properties.put("classdumpdir", "target/dump");
+		properties.put("cachedir", "target/cache");
+		properties.put("cachesize", "42");
 		properties.put("jmx", "true");
+		properties.put("compact", "true");
 
 		AgentOptions options = new AgentOptions(properties);
 
@@ -103,7 +109,10 @@ public class AgentOptionsTest {
 		assertEquals("remotehost", options.getAddress());
 		assertEquals(1234, options.getPort());
 		assertEquals("target/dump", options.getClassDumpDir());
+		assertEquals("target/cache", options.getCacheDir());
+		assertEquals(42, options.getCacheSize());
 		assertTrue(options.getJmx());
+		assertTrue(options.getCompact());
 	}
 
 	@Test
@@ -388,6 +397,45 @@ public class AgentOptionsTest {
 		assertEquals("classdumpdir=target/dump", options.toString());
 	}
 
+	@Test
+	public void testGetCacheDir() {
+		AgentOptions options = new AgentOptions("cachedir=target/cache");
+		assertEquals("target/cache", options.getCacheDir());
+	}
+
+	@Test
+	public void testSetCacheDir() {
+		AgentOptions options = new AgentOptions();
+		options.setCacheDir("target/cache");
+		assertEquals("target/cache", options.getCacheDir());
+		assertEquals("cachedir=target/cache", options.toString());
+	}
+
+	@Test
+	public void testGetCacheSize() {
+		AgentOptions options = new AgentOptions("cachesize=42");
+		assertEquals(42, options.getCacheSize());
+	}
+
+	@Test
+	public void testSetCacheSize() {
+		AgentOptions options = new AgentOptions();
+		options.setCacheSize(42);
+		assertEquals(42, options.getCacheSize());
+		assertEquals("cachesize=42", options.toString());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidCacheSizeOptionValue() {
+		new AgentOptions("cachesize=-1");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSetNegativeCacheSize() {
+		AgentOptions options = new AgentOptions();
+		options.setCacheSize(-1);
+	}
+
 	@Test
 	public void testGetJmx() {
 		AgentOptions options = new AgentOptions("jmx=true");
@@ -401,6 +449,20 @@ public class AgentOptionsTest {
 		assertTrue(options.getJmx());
 	}
 
+	@Test
+	public void testGetCompact() {
+		AgentOptions options = new AgentOptions("compact=true");
+		assertTrue(options.getCompact());
+	}
+
+	@Test
+	public void testSetCompact() {
+		AgentOptions options = new AgentOptions();
+		options.setCompact(true);
+		assertTrue(options.getCompact());
+		assertEquals("compact=true", options.toString());
+	}
+
 	@Test
 	public void testGetVMArgumentWithNoOptions() {
 		AgentOptions options = new AgentOptions();
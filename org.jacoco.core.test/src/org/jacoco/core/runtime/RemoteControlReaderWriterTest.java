@@ -80,11 +80,42 @@ public class RemoteControlReaderWriterTest
 			public void visitDumpCommand(boolean dump, boolean reset) {
 				calls.append("cmd(" + dump + "," + reset + ")");
 			}
+
+			public void visitDeltaDumpCommand(String client) {
+				calls.append("delta(" + client + ")");
+			}
 		});
 		assertFalse(reader.read());
 		assertEquals("cmd(" + doDump + "," + doReset + ")", calls.toString());
 	}
 
+	@Test
+	public void testVisitDeltaDump() throws IOException {
+		writer.visitDeltaDumpCommand("client");
+		final RemoteControlReader reader = createReader();
+		final StringBuilder calls = new StringBuilder();
+		reader.setRemoteCommandVisitor(new IRemoteCommandVisitor() {
+
+			public void visitDumpCommand(boolean dump, boolean reset) {
+				calls.append("cmd(" + dump + "," + reset + ")");
+			}
+
+			public void visitDeltaDumpCommand(String client) {
+				calls.append("delta(" + client + ")");
+			}
+		});
+		assertFalse(reader.read());
+		assertEquals("delta(client)", calls.toString());
+	}
+
+	@Test(expected = IOException.class)
+	public void testVisitDeltaDumpWithoutRemoteCommandVisitor()
+			throws IOException {
+		writer.visitDeltaDumpCommand("client");
+		final RemoteControlReader reader = createReader();
+		reader.read();
+	}
+
 	@Test
 	public void testSendCmdOk() throws IOException {
 		writer.sendCmdOk();
@@ -12,14 +12,23 @@
  *******************************************************************************/
 package org.jacoco.core.runtime;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.IExecutionDataVisitor;
 import org.jacoco.core.test.TargetLoader;
 import org.junit.Before;
 import org.junit.Test;
@@ -64,10 +73,19 @@ public class RuntimeDataTest {
 		assertFalse(data[0]);
 		assertFalse(data[1]);
 		assertFalse(data[2]);
-		assertSame(storage.getData(123).getProbes(), data);
+		assertArrayEquals(data, storage.getData(123).getProbes());
 		assertEquals("Foo", storage.getData(123).getName());
 	}
 
+	@Test
+	public void testGetProbesWithoutArgumentArray() {
+		final boolean[] probes = data.getProbes(123, "Foo", 3);
+
+		assertEquals(3, probes.length);
+		assertSame(probes,
+				data.getExecutionData(Long.valueOf(123), "Foo", 3).getProbes());
+	}
+
 	@Test
 	public void testCollectEmpty() {
 		data.collect(storage, storage, false);
@@ -87,6 +105,124 @@ public class RuntimeDataTest {
 		assertEquals("testsession", storage.getSessionInfo().getId());
 	}
 
+	@Test
+	public void testCollectWithResetWritesSnapshot() {
+		boolean[] probes = data.getExecutionData(Long.valueOf(123), "Foo", 2)
+				.getProbes();
+		probes[0] = true;
+
+		data.collect(storage, storage, true);
+
+		final boolean[] collected = storage.getData(123).getProbes();
+		assertTrue(collected[0]);
+		assertFalse(collected[1]);
+		assertFalse(probes[0]);
+		assertSame(probes,
+				data.getExecutionData(Long.valueOf(123), "Foo", 2).getProbes());
+	}
+
+	@Test
+	public void testCollectWithoutResetWritesSnapshot() {
+		boolean[] probes = data.getExecutionData(Long.valueOf(123), "Foo", 2)
+				.getProbes();
+		probes[0] = true;
+
+		data.collect(storage, storage, false);
+		data.reset();
+
+		final boolean[] collected = storage.getData(123).getProbes();
+		assertTrue(collected[0]);
+		assertFalse(collected[1]);
+		assertFalse(probes[0]);
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")
+	public void testStoreContainsExecutionData() {
+		final ExecutionData entry = data.getExecutionData(Long.valueOf(123),
+				"Foo", 2);
+
+		synchronized (data.store) {
+			assertSame(entry, data.store.get(123));
+		}
+	}
+
+	@Test
+	public void testCollectDeltaForgetsLeastRecentlyActiveClient() {
+		data.getExecutionData(Long.valueOf(123), "Foo", 1)
+				.getProbes()[0] = true;
+		for (int i = 0; i <= RuntimeData.MAX_DELTA_CLIENTS; i++) {
+			data.collectDelta("client" + i, new TestStorage(),
+					new TestStorage());
+		}
+
+		final TestStorage recent = new TestStorage();
+		data.collectDelta("client" + RuntimeData.MAX_DELTA_CLIENTS, recent,
+				recent);
+		recent.assertSize(0);
+		data.collectDelta("client0", storage, storage);
+		storage.assertSize(1);
+	}
+
+	@Test
+	public void testCollectDoesNotBlockGetExecutionData() throws Exception {
+		data.getExecutionData(Long.valueOf(123), "Foo", 1);
+		final ExecutorService executor = Executors.newSingleThreadExecutor();
+		final List<Future<ExecutionData>> results = new ArrayList<Future<ExecutionData>>();
+		try {
+			data.collect(new IExecutionDataVisitor() {
+				public void visitClassExecution(final ExecutionData ed) {
+					final Future<ExecutionData> result = executor
+							.submit(new Callable<ExecutionData>() {
+								public ExecutionData call() {
+									return data.getExecutionData(
+											Long.valueOf(456), "Bar", 2);
+								}
+							});
+					results.add(result);
+					try {
+						// Would time out if registration was blocked:
+						result.get(10, TimeUnit.SECONDS);
+					} catch (final Exception e) {
+						throw new AssertionError(e);
+					}
+				}
+			}, storage, true);
+		} finally {
+			executor.shutdown();
+		}
+
+		assertEquals(1, results.size());
+		assertEquals("Bar", results.get(0).get().getName());
+	}
+
+	@Test
+	public void testGetExecutionDataConcurrently() throws Exception {
+		final ExecutorService executor = Executors.newFixedThreadPool(8);
+		final List<Future<ExecutionData>> results = new ArrayList<Future<ExecutionData>>();
+		try {
+			for (int i = 0; i < 100; i++) {
+				results.add(executor.submit(new Callable<ExecutionData>() {
+					public ExecutionData call() {
+						return data.getExecutionData(Long.valueOf(123), "Foo",
+								3);
+					}
+				}));
+			}
+			for (final Future<ExecutionData> r : results) {
+				assertSame(results.get(0).get(), r.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testGetExecutionDataIncompatible() {
+		data.getExecutionData(Long.valueOf(123), "Foo", 3);
+		data.getExecutionData(Long.valueOf(123), "Foo", 4);
+	}
+
 	@Test
 	public void testCollectWithoutReset() {
 		data.setSessionId("testsession");
@@ -100,6 +236,90 @@ public class RuntimeDataTest {
 		assertEquals("testsession", storage.getSessionInfo().getId());
 	}
 
+	@Test
+	public void testCollectDeltaReportsNewProbesOnly() {
+		data.setSessionId("testsession");
+		boolean[] probes = data.getExecutionData(Long.valueOf(123), "Foo", 3)
+				.getProbes();
+		data.getExecutionData(Long.valueOf(456), "Bar", 1);
+		probes[0] = true;
+
+		data.collectDelta("client", storage, storage);
+
+		storage.assertSize(1);
+		assertTrue(storage.getData(123).getProbes()[0]);
+		assertEquals("testsession", storage.getSessionInfo().getId());
+
+		probes[1] = true;
+		storage = new TestStorage();
+		data.collectDelta("client", storage, storage);
+
+		storage.assertSize(1);
+		final boolean[] delta = storage.getData(123).getProbes();
+		assertFalse(delta[0]);
+		assertTrue(delta[1]);
+		assertFalse(delta[2]);
+		assertTrue(probes[0]);
+
+		storage = new TestStorage();
+		data.collectDelta("client", storage, storage);
+
+		storage.assertSize(0);
+		assertNotNull(storage.getSessionInfo());
+	}
+
+	@Test
+	public void testCollectDeltaPerClient() {
+		boolean[] probes = data.getExecutionData(Long.valueOf(123), "Foo", 2)
+				.getProbes();
+		probes[0] = true;
+		data.collectDelta("client1", storage, storage);
+		probes[1] = true;
+
+		storage = new TestStorage();
+		data.collectDelta("client2", storage, storage);
+
+		final boolean[] delta = storage.getData(123).getProbes();
+		assertTrue(delta[0]);
+		assertTrue(delta[1]);
+
+		storage = new TestStorage();
+		data.collectDelta("client1", storage, storage);
+
+		assertFalse(storage.getData(123).getProbes()[0]);
+		assertTrue(storage.getData(123).getProbes()[1]);
+	}
+
+	@Test
+	public void testCollectDeltaAfterReset() {
+		boolean[] probes = data.getExecutionData(Long.valueOf(123), "Foo", 1)
+				.getProbes();
+		probes[0] = true;
+		data.collectDelta("client", storage, storage);
+		data.reset();
+		probes[0] = true;
+
+		storage = new TestStorage();
+		data.collectDelta("client", storage, storage);
+
+		assertTrue(storage.getData(123).getProbes()[0]);
+	}
+
+	@Test
+	public void testCollectDeltaAfterCollectWithReset() {
+		boolean[] probes = data.getExecutionData(Long.valueOf(123), "Foo", 1)
+				.getProbes();
+		probes[0] = true;
+		data.collectDelta("client", storage, storage);
+		data.collect(new TestStorage(), new TestStorage(), true);
+		probes[0] = true;
+
+		storage = new TestStorage();
+		data.collectDelta("client", storage, storage);
+
+		assertTrue(storage.getData(123).getProbes()[0]);
+	}
+
 	@Test
 	public void testEquals() {
 		assertTrue(data.equals(data));
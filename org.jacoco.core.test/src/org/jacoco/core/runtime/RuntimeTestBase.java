@@ -13,6 +13,7 @@
 package org.jacoco.core.runtime;
 
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -58,8 +59,10 @@ public abstract class RuntimeTestBase {
 	public void testDataAccessor()
 			throws InstantiationException, IllegalAccessException {
 		ITarget t = generateAndInstantiateClass(1234);
-		data.collect(storage, storage, false);
-		storage.assertData(1234, t.get());
+		assertSame(
+				data.getProbes(1234,
+						"org/jacoco/test/targets/RuntimeTestTarget_1234", 2),
+				t.get());
 	}
 
 	@Test
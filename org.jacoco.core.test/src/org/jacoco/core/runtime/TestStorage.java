@@ -13,7 +13,6 @@
 package org.jacoco.core.runtime;
 
 import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertSame;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -41,10 +40,6 @@ class TestStorage implements IExecutionDataVisitor, ISessionInfoVisitor {
 		return info;
 	}
 
-	public void assertData(long classId, boolean[] expected) {
-		assertSame(expected, getData(classId).getProbes());
-	}
-
 	// === ICoverageDataVisitor ===
 
 	public void visitClassExecution(final ExecutionData ed) {
@@ -12,9 +12,13 @@
  *******************************************************************************/
 package org.jacoco.core.runtime;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Random;
+import java.util.regex.Pattern;
+
 import org.junit.Test;
 
 public class WildcardMatcherTest {
@@ -75,4 +79,65 @@ public class WildcardMatcherTest {
 				.matches("org/example/Enity$$$generated123"));
 	}
 
+	@Test
+	public void should_match_expressions_with_common_prefix() {
+		final WildcardMatcher matcher = new WildcardMatcher(
+				"org/example/*Test:org/example/Foo:org/example/gen/*:org/exa?ple/X*Y");
+		assertTrue(matcher.matches("org/example/FooTest"));
+		assertTrue(matcher.matches("org/example/sub/BarTest"));
+		assertTrue(matcher.matches("org/example/Foo"));
+		assertTrue(matcher.matches("org/example/gen/Bar"));
+		assertTrue(matcher.matches("org/exaXple/XaY"));
+		assertFalse(matcher.matches("org/example/Fo"));
+		assertFalse(matcher.matches("org/example/FooBar"));
+		assertFalse(matcher.matches("org/exam/BarTest"));
+		assertFalse(matcher.matches("org/example/XaYZ"));
+	}
+
+	@Test
+	public void should_match_like_regular_expression() {
+		final Random random = new Random(42);
+		for (int i = 0; i < 10000; i++) {
+			final String expression = randomString(random, "ab*?:", 8);
+			final String s = randomString(random, "ab", 8);
+			assertEquals(expression + " / " + s,
+					toRegex(expression).matcher(s).matches(),
+					new WildcardMatcher(expression).matches(s));
+		}
+	}
+
+	private static String randomString(final Random random,
+			final String alphabet, final int maxLength) {
+		final StringBuilder sb = new StringBuilder();
+		final int length = random.nextInt(maxLength + 1);
+		for (int i = 0; i < length; i++) {
+			sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Reference implementation based on regular expressions.
+	 */
+	private static Pattern toRegex(final String expression) {
+		final StringBuilder regex = new StringBuilder();
+		for (final String part : expression.split("\\:")) {
+			if (regex.length() > 0) {
+				regex.append('|');
+			}
+			regex.append('(');
+			for (final char c : part.toCharArray()) {
+				if (c == '?') {
+					regex.append('.');
+				} else if (c == '*') {
+					regex.append(".*");
+				} else {
+					regex.append(Pattern.quote(String.valueOf(c)));
+				}
+			}
+			regex.append(')');
+		}
+		return Pattern.compile(regex.toString());
+	}
+
 }
@@ -0,0 +1,293 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.tools;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.SessionInfo;
+import org.jacoco.core.runtime.IRemoteCommandVisitor;
+import org.jacoco.core.runtime.RemoteControlReader;
+import org.jacoco.core.runtime.RemoteControlWriter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ExecCollector}.
+ */
+public class ExecCollectorTest {
+
+	private ExecCollector collector;
+
+	private List<Exception> errors;
+
+	private List<MockAgent> agents;
+
+	private Thread runner;
+
+	private int port;
+
+	@Before
+	public void setup() throws IOException {
+		errors = new ArrayList<Exception>();
+		agents = new ArrayList<MockAgent>();
+		collector = new ExecCollector(2) {
+			@Override
+			protected void onError(Exception exception) {
+				synchronized (errors) {
+					errors.add(exception);
+				}
+			}
+		};
+		port = collector.bind(InetAddress.getByName(null), 0);
+		runner = new Thread() {
+			@Override
+			public void run() {
+				try {
+					collector.run();
+				} catch (IOException e) {
+					throw new RuntimeException(e);
+				}
+			}
+		};
+		runner.start();
+	}
+
+	@After
+	public void teardown() throws Exception {
+		collector.close();
+		runner.join(10000);
+		for (MockAgent agent : agents) {
+			agent.socket.close();
+		}
+	}
+
+	@Test
+	public void should_request_dump_when_agent_connects() throws Exception {
+		final MockAgent agent = new MockAgent(1, "Foo", 0);
+
+		waitFor(new Condition() {
+			public boolean isTrue() {
+				return collector.getSnapshot().getExecutionDataStore()
+						.get(1) != null;
+			}
+		});
+
+		final ExecFileLoader snapshot = collector.getSnapshot();
+		assertEquals("Foo", snapshot.getExecutionDataStore().get(1).getName());
+		assertEquals("agent1",
+				snapshot.getSessionInfoStore().getInfos().get(0).getId());
+		assertEquals(1, agent.dumps);
+		assertEquals(1, collector.getConnectionCount());
+	}
+
+	@Test
+	public void should_merge_execution_data_of_multiple_agents()
+			throws Exception {
+		for (int i = 0; i < 20; i++) {
+			new MockAgent(1, "Foo", i % 4);
+		}
+
+		waitFor(new Condition() {
+			public boolean isTrue() {
+				return collector.getSnapshot().getSessionInfoStore().getInfos()
+						.size() == 20;
+			}
+		});
+
+		final ExecutionData data = collector.getSnapshot()
+				.getExecutionDataStore().get(1);
+		assertArrayEquals(new boolean[] { true, true, true, true },
+				data.getProbes());
+		assertEquals(20, collector.getConnectionCount());
+	}
+
+	@Test
+	public void should_request_dump_from_all_agents() throws Exception {
+		final MockAgent agent1 = new MockAgent(1, "Foo", 0);
+		final MockAgent agent2 = new MockAgent(2, "Bar", 0);
+		waitFor(new Condition() {
+			public boolean isTrue() {
+				return agent1.dumps == 1 && agent2.dumps == 1;
+			}
+		});
+
+		collector.requestDump();
+
+		waitFor(new Condition() {
+			public boolean isTrue() {
+				return agent1.dumps == 2 && agent2.dumps == 2;
+			}
+		});
+		assertNull(agent1.deltaClient);
+	}
+
+	@Test
+	public void should_request_delta_dumps_when_enabled() throws Exception {
+		collector.setDelta(true);
+		final MockAgent agent = new MockAgent(1, "Foo", 0);
+
+		waitFor(new Condition() {
+			public boolean isTrue() {
+				return agent.deltaClient != null;
+			}
+		});
+
+		assertTrue(agent.deltaClient.startsWith(ExecCollector.class.getName()));
+		assertEquals(0, agent.dumps);
+	}
+
+	@Test
+	public void should_close_connection_when_agent_disconnects()
+			throws Exception {
+		final MockAgent agent = new MockAgent(1, "Foo", 0);
+		waitFor(new Condition() {
+			public boolean isTrue() {
+				return agent.dumps == 1;
+			}
+		});
+
+		agent.socket.close();
+
+		waitFor(new Condition() {
+			public boolean isTrue() {
+				return collector.getConnectionCount() == 0;
+			}
+		});
+		assertTrue(errors.isEmpty());
+	}
+
+	@Test
+	public void should_report_error_for_invalid_data() throws Exception {
+		final Socket socket = new Socket(InetAddress.getByName(null), port);
+		final OutputStream out = socket.getOutputStream();
+		out.write(new byte[] { 0x01, (byte) 0xC0, (byte) 0xC0, 0x10, 0x07,
+				0x42 });
+		out.flush();
+
+		waitFor(new Condition() {
+			public boolean isTrue() {
+				synchronized (errors) {
+					return !errors.isEmpty();
+				}
+			}
+		});
+		assertEquals("Unknown block type 42.", errors.get(0).getMessage());
+		assertEquals(0, collector.getConnectionCount());
+		socket.close();
+	}
+
+	@Test
+	public void should_stop_when_closed() throws Exception {
+		final MockAgent agent = new MockAgent(1, "Foo", 0);
+		waitFor(new Condition() {
+			public boolean isTrue() {
+				return collector.getSnapshot().getExecutionDataStore()
+						.get(1) != null;
+			}
+		});
+
+		collector.close();
+		runner.join(10000);
+
+		assertFalse(runner.isAlive());
+		assertEquals(-1, agent.socket.getInputStream().read());
+		assertEquals("Foo", collector.getSnapshot().getExecutionDataStore()
+				.get(1).getName());
+	}
+
+	private interface Condition {
+		boolean isTrue();
+	}
+
+	private void waitFor(Condition condition) throws InterruptedException {
+		final long end = System.currentTimeMillis() + 10000;
+		while (!condition.isTrue()) {
+			if (System.currentTimeMillis() > end) {
+				fail("Timeout");
+			}
+			Thread.sleep(10);
+		}
+	}
+
+	private class MockAgent implements IRemoteCommandVisitor {
+
+		final Socket socket;
+
+		volatile int dumps;
+
+		volatile String deltaClient;
+
+		private final RemoteControlWriter writer;
+
+		private final ExecutionData data;
+
+		private final String sessionId;
+
+		MockAgent(long id, String name, int probe) throws IOException {
+			final boolean[] probes = new boolean[4];
+			probes[probe] = true;
+			data = new ExecutionData(id, name, probes);
+			sessionId = "agent" + (agents.size() + 1);
+			socket = new Socket(InetAddress.getByName(null), port);
+			writer = new RemoteControlWriter(socket.getOutputStream());
+			final RemoteControlReader reader = new RemoteControlReader(
+					socket.getInputStream());
+			reader.setRemoteCommandVisitor(this);
+			agents.add(this);
+			new Thread() {
+				@Override
+				public void run() {
+					try {
+						while (reader.read()) {
+						}
+					} catch (IOException e) {
+						// closed
+					}
+				}
+			}.start();
+		}
+
+		public void visitDumpCommand(boolean dump, boolean reset)
+				throws IOException {
+			dumps++;
+			respond();
+		}
+
+		public void visitDeltaDumpCommand(String client) throws IOException {
+			deltaClient = client;
+			respond();
+		}
+
+		private void respond() throws IOException {
+			writer.visitSessionInfo(new SessionInfo(sessionId, 1, 2));
+			writer.visitClassExecution(data);
+			writer.sendCmdOk();
+		}
+
+	}
+
+}
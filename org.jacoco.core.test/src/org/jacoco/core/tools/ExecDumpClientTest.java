@@ -45,6 +45,7 @@ public class ExecDumpClientTest {
 
 	private boolean dumpRequested;
 	private boolean resetRequested;
+	private String deltaRequested;
 
 	private ServerSocket server;
 
@@ -128,6 +129,18 @@ public class ExecDumpClientTest {
 		assertTrue(resetRequested);
 	}
 
+	@Test
+	public void testDeltaDump() throws IOException {
+		int port = createExecServer();
+		client.setDeltaClient("collector");
+		ExecFileLoader loader = client.dump((String) null, port);
+		assertFalse(dumpRequested);
+		assertEquals("collector", deltaRequested);
+
+		List<SessionInfo> infos = loader.getSessionInfoStore().getInfos();
+		assertEquals(1, infos.size());
+	}
+
 	@Test
 	public void should_throw_IOException_when_server_closes_connection_without_response()
 			throws IOException {
@@ -178,6 +191,13 @@ public class ExecDumpClientTest {
 				}
 				writer.sendCmdOk();
 			}
+
+			public void visitDeltaDumpCommand(String client)
+					throws IOException {
+				deltaRequested = client;
+				writer.visitSessionInfo(new SessionInfo("TestId", 100, 200));
+				writer.sendCmdOk();
+			}
 		});
 		reader.read();
 	}
@@ -27,6 +27,7 @@ import org.jacoco.core.data.ExecutionData;
 import org.jacoco.core.data.ExecutionDataReader;
 import org.jacoco.core.data.ExecutionDataStore;
 import org.jacoco.core.data.ExecutionDataWriter;
+import org.jacoco.core.data.MappedExecutionData;
 import org.jacoco.core.data.SessionInfo;
 import org.jacoco.core.data.SessionInfoStore;
 import org.junit.Before;
@@ -114,6 +115,20 @@ public class ExecFileLoaderTest {
 		assertFileContents(file, "a");
 	}
 
+	@Test
+	public void testSaveMapped() throws IOException {
+		final File file = new File(sourceFolder.getRoot(), "a/target.idx");
+
+		loader.load(createFile("a"));
+		loader.load(createFile("bb"));
+		loader.saveMapped(file);
+
+		final MappedExecutionData data = new MappedExecutionData(file);
+		assertEquals(2, data.getSize());
+		assertEquals("a", data.get(1).getName());
+		assertEquals("bb", data.get(2).getName());
+	}
+
 	private File createFile(String id) throws IOException {
 		final File file = new File(sourceFolder.getRoot(), id + ".exec");
 		final FileOutputStream out = new FileOutputStream(file);
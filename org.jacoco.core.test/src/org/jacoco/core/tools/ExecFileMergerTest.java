@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.tools;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.ExecutionDataWriter;
+import org.jacoco.core.data.SessionInfo;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link ExecFileMerger}.
+ */
+public class ExecFileMergerTest {
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	private ExecFileMerger merger;
+
+	@Before
+	public void setup() {
+		merger = new ExecFileMerger();
+	}
+
+	@Test
+	public void should_be_empty_initially() {
+		assertTrue(merger.isEmpty());
+		assertEquals(0, merger.getClassCount());
+	}
+
+	@Test
+	public void loadAll_should_merge_probes_of_all_files() throws IOException {
+		final List<File> files = new ArrayList<File>();
+		for (int i = 0; i < 20; i++) {
+			final boolean[] probes = new boolean[20];
+			probes[i] = true;
+			files.add(createFile("s" + i, new ExecutionData(1, "Foo", probes),
+					new ExecutionData(100 + i, "Bar" + i,
+							new boolean[] { true })));
+		}
+
+		merger.loadAll(files, 4);
+
+		assertFalse(merger.isEmpty());
+		assertEquals(21, merger.getClassCount());
+		final ExecFileLoader loader = save();
+		final boolean[] expected = new boolean[20];
+		Arrays.fill(expected, true);
+		assertArrayEquals(expected,
+				loader.getExecutionDataStore().get(1).getProbes());
+		assertEquals(20, loader.getSessionInfoStore().getInfos().size());
+	}
+
+	@Test
+	public void loadAll_should_read_sequentially_with_one_thread()
+			throws IOException {
+		final List<File> files = new ArrayList<File>();
+		files.add(createFile("a",
+				new ExecutionData(1, "Foo", new boolean[] { true, false })));
+		files.add(createFile("b",
+				new ExecutionData(1, "Foo", new boolean[] { false, true })));
+
+		merger.loadAll(files, 1);
+
+		assertArrayEquals(new boolean[] { true, true },
+				save().getExecutionDataStore().get(1).getProbes());
+	}
+
+	@Test
+	public void loadAll_should_identify_broken_file() throws IOException {
+		final List<File> files = new ArrayList<File>();
+		files.add(createFile("a",
+				new ExecutionData(1, "Foo", new boolean[] { true })));
+		final File broken = new File(folder.getRoot(), "broken.exec");
+		final FileWriter writer = new FileWriter(broken);
+		writer.write("Invalid Content");
+		writer.close();
+		files.add(broken);
+
+		try {
+			merger.loadAll(files, 2);
+			fail("exception expected");
+		} catch (IOException e) {
+			assertEquals("Unable to read " + broken.getAbsolutePath(),
+					e.getMessage());
+			assertEquals("Invalid execution data file.",
+					e.getCause().getMessage());
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void loadAll_should_fail_for_incompatible_data() throws IOException {
+		final List<File> files = new ArrayList<File>();
+		files.add(createFile("a",
+				new ExecutionData(1, "Foo", new boolean[] { true })));
+		files.add(createFile("b",
+				new ExecutionData(1, "Foo", new boolean[] { true, true })));
+
+		merger.loadAll(files, 2);
+	}
+
+	@Test
+	public void save_should_append_to_existing_file() throws IOException {
+		final File file = createFile("a",
+				new ExecutionData(1, "Foo", new boolean[] { true }));
+		merger.load(createFile("b",
+				new ExecutionData(2, "Bar", new boolean[] { true })));
+
+		merger.save(file, true);
+
+		final ExecFileLoader loader = new ExecFileLoader();
+		loader.load(file);
+		assertEquals(2, loader.getExecutionDataStore().getContents().size());
+	}
+
+	private File createFile(final String id, final ExecutionData... data)
+			throws IOException {
+		final File file = new File(folder.getRoot(), id + ".exec");
+		final FileOutputStream out = new FileOutputStream(file);
+		final ExecutionDataWriter writer = new ExecutionDataWriter(out);
+		writer.visitSessionInfo(new SessionInfo(id, 1, 2));
+		for (final ExecutionData d : data) {
+			writer.visitClassExecution(d);
+		}
+		out.close();
+		return file;
+	}
+
+	private ExecFileLoader save() throws IOException {
+		final File file = new File(folder.getRoot(), "sub/merged.exec");
+		merger.save(file, false);
+		final ExecFileLoader loader = new ExecFileLoader();
+		loader.load(file);
+		return loader;
+	}
+
+}
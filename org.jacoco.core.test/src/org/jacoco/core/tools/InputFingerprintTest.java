@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link InputFingerprint}.
+ */
+public class InputFingerprintTest {
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void getValue_should_return_sha256_hex_string() {
+		final InputFingerprint fingerprint = new InputFingerprint();
+
+		assertEquals(
+				"e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855",
+				fingerprint.getValue());
+	}
+
+	@Test
+	public void add_should_separate_values() {
+		assertFalse(fingerprint("ab", "c").equals(fingerprint("a", "bc")));
+	}
+
+	@Test
+	public void addFile_should_detect_modified_size() throws IOException {
+		final File file = createFile(folder.getRoot(), "a", "1");
+		final String before = fingerprintFile(folder.getRoot());
+		write(file, "22");
+		file.setLastModified(0);
+
+		assertFalse(before.equals(fingerprintFile(folder.getRoot())));
+	}
+
+	@Test
+	public void addFile_should_include_files_of_sub_directories()
+			throws IOException {
+		final File dir = folder.newFolder("dir");
+		final String before = fingerprintFile(folder.getRoot());
+		createFile(dir, "a", "1");
+
+		assertFalse(before.equals(fingerprintFile(folder.getRoot())));
+	}
+
+	@Test
+	public void addFile_should_accept_missing_file() {
+		final File file = new File(folder.getRoot(), "missing");
+
+		assertEquals(fingerprintFile(file), fingerprintFile(file));
+	}
+
+	@Test
+	public void addContent_should_detect_modification_with_same_size_and_time()
+			throws IOException {
+		final File file = createFile(folder.getRoot(), "a", "1");
+		file.setLastModified(10000);
+		final InputFingerprint before = new InputFingerprint();
+		before.addContent(file);
+		final String beforeMetadata = fingerprintFile(file);
+		write(file, "2");
+		file.setLastModified(10000);
+		final InputFingerprint after = new InputFingerprint();
+		after.addContent(file);
+
+		assertEquals(beforeMetadata, fingerprintFile(file));
+		assertFalse(before.getValue().equals(after.getValue()));
+	}
+
+	@Test
+	public void addContent_should_separate_streams() throws IOException {
+		final InputFingerprint f1 = new InputFingerprint();
+		f1.addContent(new ByteArrayInputStream(new byte[] { 1, 2 }));
+		f1.addContent(new ByteArrayInputStream(new byte[] { 3 }));
+		final InputFingerprint f2 = new InputFingerprint();
+		f2.addContent(new ByteArrayInputStream(new byte[] { 1 }));
+		f2.addContent(new ByteArrayInputStream(new byte[] { 2, 3 }));
+
+		assertFalse(f1.getValue().equals(f2.getValue()));
+	}
+
+	private static String fingerprint(final String... values) {
+		final InputFingerprint fingerprint = new InputFingerprint();
+		for (final String v : values) {
+			fingerprint.add(v);
+		}
+		return fingerprint.getValue();
+	}
+
+	private static String fingerprintFile(final File file) {
+		final InputFingerprint fingerprint = new InputFingerprint();
+		fingerprint.addFile(file);
+		return fingerprint.getValue();
+	}
+
+	private static File createFile(final File dir, final String name,
+			final String content) throws IOException {
+		final File file = new File(dir, name);
+		write(file, content);
+		return file;
+	}
+
+	private static void write(final File file, final String content)
+			throws IOException {
+		final OutputStream out = new FileOutputStream(file);
+		out.write(content.getBytes("UTF-8"));
+		out.close();
+	}
+
+}
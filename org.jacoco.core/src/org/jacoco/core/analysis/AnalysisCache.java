@@ -0,0 +1,178 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.analysis;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.zip.CRC32;
+
+import org.jacoco.core.JaCoCo;
+import org.jacoco.core.internal.analysis.ClassStructure;
+import org.jacoco.core.internal.analysis.StringPool;
+
+/**
+ * On-disk cache for the structural analysis of class files which can be set for
+ * an {@link Analyzer}. For every analyzed class the filtered instructions,
+ * branches and lines are stored together with the probes covering them. If a
+ * class file is analyzed again its coverage is calculated from the cached
+ * structure for the current execution data without parsing the class file.
+ *
+ * Entries are named by the CRC64 class identifier of the class file and stored
+ * in a sub-directory for the JaCoCo version, as the version determines the
+ * analysis and the filters. The cache directory may be shared by multiple
+ * processes: Entries are written to temporary files first and then atomically
+ * renamed, so readers never see partial content.
+ *
+ * Every entry starts with a header containing a format version, the length and
+ * a checksum of the content. Entries which can't be read, do not match the
+ * header or do not contain a valid structure are treated as missing.
+ *
+ * Entries are never removed: The cache directory grows with the number of
+ * distinct class files analyzed and keeps the entries of previous JaCoCo
+ * versions. The directory can be deleted at any time to reclaim its space.
+ */
+public class AnalysisCache {
+
+	private static final String SUFFIX = ".analysis";
+
+	private static final int MAGIC = 0xC0C0A5A5;
+
+	private static final char FORMAT_VERSION = 0x1001;
+
+	/** Size of magic number, format version, length and checksum */
+	private static final int HEADER_SIZE = 4 + 2 + 4 + 8;
+
+	private final File location;
+
+	/**
+	 * Creates a new cache in the given directory.
+	 *
+	 * @param directory
+	 *            cache directory, will be created if it does not exist
+	 */
+	public AnalysisCache(final File directory) {
+		this.location = new File(directory, JaCoCo.VERSION);
+	}
+
+	/**
+	 * Returns the cached structure of the class with the given identifier.
+	 *
+	 * @param id
+	 *            class identifier
+	 * @param stringPool
+	 *            pool to normalize strings of the structure
+	 * @return cached structure or <code>null</code> if not available
+	 */
+	ClassStructure get(final long id, final StringPool stringPool) {
+		final File file = getFile(id);
+		if (!file.isFile()) {
+			return null;
+		}
+		try {
+			final ClassStructure structure = read(file, stringPool);
+			return structure != null && structure.getId() == id ? structure
+					: null;
+		} catch (final IOException e) {
+			// Concurrently evicted or corrupt entry
+			return null;
+		} catch (final RuntimeException e) {
+			// Corrupt entry
+			return null;
+		}
+	}
+
+	private static ClassStructure read(final File file,
+			final StringPool stringPool) throws IOException {
+		final DataInputStream in = new DataInputStream(
+				new FileInputStream(file));
+		final byte[] content;
+		final long checksum;
+		try {
+			if (in.readInt() != MAGIC || in.readChar() != FORMAT_VERSION) {
+				return null;
+			}
+			final int length = in.readInt();
+			if (length != file.length() - HEADER_SIZE) {
+				return null;
+			}
+			checksum = in.readLong();
+			content = new byte[length];
+			in.readFully(content);
+		} finally {
+			in.close();
+		}
+		if (checksum(content) != checksum) {
+			return null;
+		}
+		final ByteArrayInputStream buffer = new ByteArrayInputStream(content);
+		final ClassStructure structure = ClassStructure
+				.read(new DataInputStream(buffer), stringPool);
+		return buffer.available() == 0 ? structure : null;
+	}
+
+	/**
+	 * Stores the structure of a class.
+	 *
+	 * @param structure
+	 *            structure to store
+	 * @throws IOException
+	 *             in case of problems while writing the entry
+	 */
+	void put(final ClassStructure structure) throws IOException {
+		final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		structure.write(new DataOutputStream(buffer));
+		final byte[] content = buffer.toByteArray();
+
+		location.mkdirs();
+		final File file = getFile(structure.getId());
+		final File tmp = File.createTempFile(file.getName(), ".tmp", location);
+		final DataOutputStream out = new DataOutputStream(
+				new FileOutputStream(tmp));
+		try {
+			try {
+				out.writeInt(MAGIC);
+				out.writeChar(FORMAT_VERSION);
+				out.writeInt(content.length);
+				out.writeLong(checksum(content));
+				out.write(content);
+			} finally {
+				out.close();
+			}
+		} catch (final IOException e) {
+			tmp.delete();
+			throw e;
+		}
+		if (!tmp.renameTo(file)) {
+			// Entry has been written by another process in the meantime
+			tmp.delete();
+		}
+	}
+
+	private static long checksum(final byte[] content) {
+		final CRC32 crc = new CRC32();
+		crc.update(content);
+		return crc.getValue();
+	}
+
+	private File getFile(final long id) {
+		return new File(location,
+				String.format("%016x%s", Long.valueOf(id), SUFFIX));
+	}
+
+}
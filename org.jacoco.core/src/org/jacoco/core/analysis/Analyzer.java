@@ -16,20 +16,33 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Enumeration;
+import java.util.LinkedList;
 import java.util.StringTokenizer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 
 import org.jacoco.core.data.ExecutionData;
 import org.jacoco.core.data.ExecutionDataStore;
+import org.jacoco.core.data.IExecutionDataLookup;
+import org.jacoco.core.data.MappedExecutionData;
 import org.jacoco.core.internal.ContentTypeDetector;
+import org.jacoco.core.internal.Futures;
 import org.jacoco.core.internal.InputStreams;
 import org.jacoco.core.internal.Pack200Streams;
+import org.jacoco.core.internal.ZipFiles;
 import org.jacoco.core.internal.analysis.ClassAnalyzer;
 import org.jacoco.core.internal.analysis.ClassCoverageImpl;
+import org.jacoco.core.internal.analysis.ClassStructure;
 import org.jacoco.core.internal.analysis.StringPool;
 import org.jacoco.core.internal.data.CRC64;
+import org.jacoco.core.internal.data.ProbeBits;
 import org.jacoco.core.internal.flow.ClassProbesAdapter;
 import org.jacoco.core.internal.instr.InstrSupport;
 import org.objectweb.asm.ClassReader;
@@ -40,18 +53,38 @@ import org.objectweb.asm.Opcodes;
  * An {@link Analyzer} instance processes a set of Java class files and
  * calculates coverage data for them. For each class file the result is reported
  * to a given {@link ICoverageVisitor} instance. In addition the
- * {@link Analyzer} requires a {@link ExecutionDataStore} instance that holds
- * the execution data for the classes to analyze. The {@link Analyzer} offers
- * several methods to analyze classes from a variety of sources.
+ * {@link Analyzer} requires a {@link ExecutionDataStore} or another
+ * {@link IExecutionDataLookup} instance that holds the execution data for the
+ * classes to analyze. The {@link Analyzer} offers several methods to analyze
+ * classes from a variety of sources.
+ *
+ * Optionally the analysis of class files can be distributed to an
+ * {@link Executor}, see {@link #setExecutor(Executor)}. Instances of this class
+ * itself are not thread-safe, i.e. the analyze methods must not be called
+ * concurrently.
  */
 public class Analyzer {
 
-	private final ExecutionDataStore executionData;
+	/**
+	 * Maximum number of class files which are buffered while waiting for their
+	 * analysis in parallel mode.
+	 */
+	private static final int MAX_PENDING_TASKS = 1024;
+
+	private final IExecutionDataLookup executionData;
 
 	private final ICoverageVisitor coverageVisitor;
 
 	private final StringPool stringPool;
 
+	private final LinkedList<AnalysisTask> pending;
+
+	private Executor executor;
+
+	private boolean executedOnly;
+
+	private AnalysisCache cache;
+
 	/**
 	 * Creates a new analyzer reporting to the given output.
 	 *
@@ -63,57 +96,239 @@ public class Analyzer {
 	 */
 	public Analyzer(final ExecutionDataStore executionData,
 			final ICoverageVisitor coverageVisitor) {
+		this((IExecutionDataLookup) executionData, coverageVisitor);
+	}
+
+	/**
+	 * Creates a new analyzer reporting to the given output. Execution data is
+	 * only looked up for the analyzed classes, which allows to use random
+	 * access implementations like {@link MappedExecutionData}.
+	 *
+	 * @param executionData
+	 *            execution data
+	 * @param coverageVisitor
+	 *            the output instance that will coverage data for every analyzed
+	 *            class
+	 */
+	public Analyzer(final IExecutionDataLookup executionData,
+			final ICoverageVisitor coverageVisitor) {
 		this.executionData = executionData;
 		this.coverageVisitor = coverageVisitor;
 		this.stringPool = new StringPool();
+		this.pending = new LinkedList<AnalysisTask>();
+	}
+
+	/**
+	 * Sets an optional executor for parallel analysis. If an executor is set
+	 * class files are still read and decoded on the calling thread but their
+	 * analysis is delegated to the executor. Results are reported to the
+	 * {@link ICoverageVisitor} on the calling thread in the order in which the
+	 * class files have been found, i.e. the output is deterministic and the
+	 * visitor does not need to be thread-safe. Any executor can be used, for
+	 * example a work-stealing <code>ForkJoinPool</code>. The executor is not
+	 * shut down by this analyzer. Default is <code>null</code> which means
+	 * classes are analyzed on the calling thread.
+	 *
+	 * @param executor
+	 *            executor for analysis tasks or <code>null</code>
+	 */
+	public void setExecutor(final Executor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Restricts analysis to classes with execution data. If set, only the class
+	 * identifier and the class name are determined for class files without
+	 * execution data and such classes are not reported to the
+	 * {@link ICoverageVisitor}. Classes with execution data for a different
+	 * class identifier are still reported as not matching. Default is
+	 * <code>false</code>, which means all classes are analyzed.
+	 *
+	 * @param executedOnly
+	 *            <code>true</code> if classes without execution data should be
+	 *            skipped
+	 */
+	public void setExecutedOnly(final boolean executedOnly) {
+		this.executedOnly = executedOnly;
+	}
+
+	/**
+	 * Sets an optional cache for the structural analysis of class files. Class
+	 * files found in the cache are not parsed again, their coverage is
+	 * calculated from the cached structure instead. The result is identical to
+	 * the analysis of the class file. Default is <code>null</code> which means
+	 * every class file is analyzed.
+	 *
+	 * @param cache
+	 *            cache for analysis results or <code>null</code>
+	 */
+	public void setCache(final AnalysisCache cache) {
+		this.cache = cache;
 	}
 
 	/**
 	 * Creates an ASM class visitor for analysis.
 	 *
-	 * @param classid
-	 *            id of the class calculated with {@link CRC64}
-	 * @param className
-	 *            VM name of the class
+	 * @param coverage
+	 *            coverage node to write analysis results to
+	 * @param probes
+	 *            probe data or <code>null</code> if the class was not executed
+	 * @param structure
+	 *            structure to record the analysis to or <code>null</code>
 	 * @return ASM visitor to write class definition to
 	 */
-	private ClassVisitor createAnalyzingVisitor(final long classid,
-			final String className) {
-		final ExecutionData data = executionData.get(classid);
+	private ClassVisitor createAnalyzingVisitor(
+			final ClassCoverageImpl coverage, final boolean[] probes,
+			final ClassStructure structure) {
+		final ClassAnalyzer analyzer = new ClassAnalyzer(coverage, probes,
+				stringPool, structure);
+		return new ClassProbesAdapter(analyzer, false);
+	}
+
+	private ClassCoverageImpl analyzeClass(final byte[] source)
+			throws IOException {
+		final long classId = CRC64.classId(source);
+		if (cache != null) {
+			final ClassStructure structure = cache.get(classId, stringPool);
+			if (structure != null) {
+				return analyzeStructure(structure);
+			}
+		}
+		final ClassReader reader = InstrSupport.classReaderFor(source);
+		if ((reader.getAccess() & Opcodes.ACC_MODULE) != 0) {
+			return null;
+		}
+		if ((reader.getAccess() & Opcodes.ACC_SYNTHETIC) != 0) {
+			return null;
+		}
+		final String className = reader.getClassName();
+		final ExecutionData data = executionData.get(classId);
 		final boolean[] probes;
 		final boolean noMatch;
 		if (data == null) {
 			probes = null;
 			noMatch = executionData.contains(className);
+			if (executedOnly && !noMatch) {
+				return null;
+			}
 		} else {
 			probes = data.getProbes();
 			noMatch = false;
 		}
 		final ClassCoverageImpl coverage = new ClassCoverageImpl(className,
-				classid, noMatch);
-		final ClassAnalyzer analyzer = new ClassAnalyzer(coverage, probes,
-				stringPool) {
-			@Override
-			public void visitEnd() {
-				super.visitEnd();
-				coverageVisitor.visitCoverage(coverage);
+				classId, noMatch);
+		final ClassStructure structure = cache == null ? null
+				: new ClassStructure();
+		reader.accept(createAnalyzingVisitor(coverage, probes, structure), 0);
+		if (structure != null) {
+			structure.setClassInfo(coverage);
+			try {
+				cache.put(structure);
+			} catch (final IOException e) {
+				// The cache is an optimization only, the coverage has been
+				// calculated anyways
 			}
-		};
-		return new ClassProbesAdapter(analyzer, false);
+		}
+		return coverage;
 	}
 
-	private void analyzeClass(final byte[] source) {
-		final long classId = CRC64.classId(source);
-		final ClassReader reader = InstrSupport.classReaderFor(source);
-		if ((reader.getAccess() & Opcodes.ACC_MODULE) != 0) {
-			return;
+	private ClassCoverageImpl analyzeStructure(final ClassStructure structure) {
+		final ExecutionData data = executionData.get(structure.getId());
+		if (data == null) {
+			final boolean noMatch = executionData.contains(structure.getName());
+			if (executedOnly && !noMatch) {
+				return null;
+			}
+			return structure.getCoverage(null, noMatch);
 		}
-		if ((reader.getAccess() & Opcodes.ACC_SYNTHETIC) != 0) {
-			return;
+		return structure.getCoverage(ProbeBits.pack(data.getProbes()), false);
+	}
+
+	/**
+	 * Schedules the analysis of the given class definition. Results of tasks
+	 * completed so far are reported immediately.
+	 */
+	private void submit(final byte[] buffer, final String location)
+			throws IOException {
+		final AnalysisTask task = new AnalysisTask(
+				new Callable<ClassCoverageImpl>() {
+					public ClassCoverageImpl call() throws IOException {
+						return analyzeClass(buffer);
+					}
+				}, location);
+		pending.add(task);
+		if (executor == null) {
+			task.run();
+			deliver(0);
+		} else {
+			try {
+				executor.execute(task);
+			} catch (final RejectedExecutionException e) {
+				throw analyzerError(location, e);
+			}
+			deliver(MAX_PENDING_TASKS);
+		}
+	}
+
+	/**
+	 * Reports results of completed tasks in submission order. Blocks as long as
+	 * more than the given number of tasks are pending.
+	 */
+	private void deliver(final int limit) throws IOException {
+		while (!pending.isEmpty()) {
+			final AnalysisTask task = pending.getFirst();
+			if (pending.size() <= limit && !task.isDone()) {
+				return;
+			}
+			pending.removeFirst();
+			final ClassCoverageImpl coverage = task.getCoverage();
+			if (coverage != null) {
+				try {
+					coverageVisitor.visitCoverage(coverage);
+				} catch (final RuntimeException cause) {
+					throw analyzerError(task.location, cause);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Waits for all pending tasks and reports their results.
+	 */
+	private void complete() throws IOException {
+		deliver(0);
+	}
+
+	/**
+	 * Discards all pending tasks, e.g. after a failure.
+	 */
+	private void cancel() {
+		for (final AnalysisTask task : pending) {
+			task.cancel(false);
+		}
+		pending.clear();
+	}
+
+	private class AnalysisTask extends FutureTask<ClassCoverageImpl> {
+
+		private final String location;
+
+		AnalysisTask(final Callable<ClassCoverageImpl> analysis,
+				final String location) {
+			super(analysis);
+			this.location = location;
 		}
-		final ClassVisitor visitor = createAnalyzingVisitor(classId,
-				reader.getClassName());
-		reader.accept(visitor, 0);
+
+		ClassCoverageImpl getCoverage() throws IOException {
+			try {
+				return Futures.get(this);
+			} catch (final IOException e) {
+				throw analyzerError(location, e);
+			} catch (final RuntimeException e) {
+				throw analyzerError(location, e);
+			}
+		}
+
 	}
 
 	/**
@@ -129,9 +344,10 @@ public class Analyzer {
 	public void analyzeClass(final byte[] buffer, final String location)
 			throws IOException {
 		try {
-			analyzeClass(buffer);
-		} catch (final RuntimeException cause) {
-			throw analyzerError(location, cause);
+			submit(buffer, location);
+			complete();
+		} finally {
+			cancel();
 		}
 	}
 
@@ -148,16 +364,26 @@ public class Analyzer {
 	 */
 	public void analyzeClass(final InputStream input, final String location)
 			throws IOException {
+		try {
+			readClass(input, location);
+			complete();
+		} finally {
+			cancel();
+		}
+	}
+
+	private void readClass(final InputStream input, final String location)
+			throws IOException {
 		final byte[] buffer;
 		try {
 			buffer = InputStreams.readFully(input);
 		} catch (final IOException e) {
 			throw analyzerError(location, e);
 		}
-		analyzeClass(buffer, location);
+		submit(buffer, location);
 	}
 
-	private IOException analyzerError(final String location,
+	static IOException analyzerError(final String location,
 			final Exception cause) {
 		final IOException ex = new IOException(
 				String.format("Error while analyzing %s.", location));
@@ -182,15 +408,34 @@ public class Analyzer {
 	 */
 	public int analyzeAll(final InputStream input, final String location)
 			throws IOException {
-		final ContentTypeDetector detector;
 		try {
-			detector = new ContentTypeDetector(input);
+			final int count = analyzeStream(input, location);
+			complete();
+			return count;
+		} finally {
+			cancel();
+		}
+	}
+
+	private int analyzeStream(final InputStream input, final String location)
+			throws IOException {
+		return analyzeContent(detect(input, location), location);
+	}
+
+	private static ContentTypeDetector detect(final InputStream input,
+			final String location) throws IOException {
+		try {
+			return new ContentTypeDetector(input);
 		} catch (final IOException e) {
 			throw analyzerError(location, e);
 		}
+	}
+
+	private int analyzeContent(final ContentTypeDetector detector,
+			final String location) throws IOException {
 		switch (detector.getType()) {
 		case ContentTypeDetector.CLASSFILE:
-			analyzeClass(detector.getInputStream(), location);
+			readClass(detector.getInputStream(), location);
 			return 1;
 		case ContentTypeDetector.ZIPFILE:
 			return analyzeZip(detector.getInputStream(), location);
@@ -206,7 +451,9 @@ public class Analyzer {
 	/**
 	 * Analyzes all class files contained in the given file or folder. Class
 	 * files as well as ZIP files are considered. Folders are searched
-	 * recursively.
+	 * recursively. Every file is opened once. ZIP files are accessed through
+	 * their central directory. The beginning of every entry is still read to
+	 * detect its content type.
 	 *
 	 * @param file
 	 *            file or folder to look for class files
@@ -215,20 +462,41 @@ public class Analyzer {
 	 *             if the file can't be read or a class can't be analyzed
 	 */
 	public int analyzeAll(final File file) throws IOException {
+		try {
+			final int count = analyzeFile(file);
+			complete();
+			return count;
+		} finally {
+			cancel();
+		}
+	}
+
+	private int analyzeFile(final File file) throws IOException {
 		int count = 0;
 		if (file.isDirectory()) {
 			for (final File f : file.listFiles()) {
-				count += analyzeAll(f);
+				count += analyzeFile(f);
 			}
-		} else {
-			final InputStream in = new FileInputStream(file);
-			try {
-				count += analyzeAll(in, file.getPath());
-			} finally {
-				in.close();
+			return count;
+		}
+		final String location = file.getPath();
+		final InputStream in = new FileInputStream(file);
+		try {
+			final ContentTypeDetector detector = detect(in, location);
+			if (detector.getType() == ContentTypeDetector.ZIPFILE) {
+				final ZipFile zip = ZipFiles.open(file);
+				if (zip != null) {
+					try {
+						return analyzeZip(zip, location);
+					} finally {
+						zip.close();
+					}
+				}
 			}
+			return analyzeContent(detector, location);
+		} finally {
+			in.close();
 		}
-		return count;
 	}
 
 	/**
@@ -247,13 +515,18 @@ public class Analyzer {
 	 */
 	public int analyzeAll(final String path, final File basedir)
 			throws IOException {
-		int count = 0;
-		final StringTokenizer st = new StringTokenizer(path,
-				File.pathSeparator);
-		while (st.hasMoreTokens()) {
-			count += analyzeAll(new File(basedir, st.nextToken()));
+		try {
+			int count = 0;
+			final StringTokenizer st = new StringTokenizer(path,
+					File.pathSeparator);
+			while (st.hasMoreTokens()) {
+				count += analyzeFile(new File(basedir, st.nextToken()));
+			}
+			complete();
+			return count;
+		} finally {
+			cancel();
 		}
-		return count;
 	}
 
 	private int analyzeZip(final InputStream input, final String location)
@@ -262,7 +535,32 @@ public class Analyzer {
 		ZipEntry entry;
 		int count = 0;
 		while ((entry = nextEntry(zip, location)) != null) {
-			count += analyzeAll(zip, location + "@" + entry.getName());
+			count += analyzeStream(zip, location + "@" + entry.getName());
+		}
+		return count;
+	}
+
+	private int analyzeZip(final ZipFile zip, final String location)
+			throws IOException {
+		final Enumeration<? extends ZipEntry> entries = zip.entries();
+		int count = 0;
+		while (entries.hasMoreElements()) {
+			final ZipEntry entry = entries.nextElement();
+			if (entry.isDirectory()) {
+				continue;
+			}
+			final String entryLocation = location + "@" + entry.getName();
+			final InputStream in;
+			try {
+				in = zip.getInputStream(entry);
+			} catch (final IOException e) {
+				throw analyzerError(entryLocation, e);
+			}
+			try {
+				count += analyzeStream(in, entryLocation);
+			} finally {
+				in.close();
+			}
 		}
 		return count;
 	}
@@ -284,7 +582,7 @@ public class Analyzer {
 		} catch (final IOException e) {
 			throw analyzerError(location, e);
 		}
-		return analyzeAll(gzipInputStream, location);
+		return analyzeStream(gzipInputStream, location);
 	}
 
 	private int analyzePack200(final InputStream input, final String location)
@@ -295,7 +593,7 @@ public class Analyzer {
 		} catch (final IOException e) {
 			throw analyzerError(location, e);
 		}
-		return analyzeAll(unpackedInput, location);
+		return analyzeStream(unpackedInput, location);
 	}
 
 }
@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.analysis;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.IExecutionDataLookup;
+import org.jacoco.core.internal.InputStreams;
+import org.jacoco.core.internal.analysis.ClassAnalyzer;
+import org.jacoco.core.internal.analysis.ClassCoverageImpl;
+import org.jacoco.core.internal.analysis.ClassStructure;
+import org.jacoco.core.internal.analysis.StringPool;
+import org.jacoco.core.internal.data.CRC64;
+import org.jacoco.core.internal.data.ProbeBits;
+import org.jacoco.core.internal.flow.ClassProbesAdapter;
+import org.jacoco.core.internal.instr.InstrSupport;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * Pre-compiled projection of a class file from probes to coverage counters. A
+ * projection is created once per class file and then allows to calculate the
+ * coverage for any number of execution data sets, e.g. for the execution data
+ * of every single test, without processing the class file again.
+ *
+ * Internally the projection holds the distinct sets of probes which mark
+ * instructions and branches of the class as covered, together with the
+ * instruction, branch and line counters each set contributes to. Evaluating
+ * execution data is a scan over these sets in bitset representation. The result
+ * is identical to the coverage calculated by {@link Analyzer}.
+ *
+ * Instances are immutable and can be evaluated concurrently.
+ */
+public final class ClassProjection {
+
+	private final ClassStructure structure;
+
+	private ClassProjection(final ClassStructure structure) {
+		this.structure = structure;
+	}
+
+	/**
+	 * Compiles the projection for the class definition from a given in-memory
+	 * buffer.
+	 *
+	 * @param buffer
+	 *            class definition
+	 * @param location
+	 *            a location description used for exception messages
+	 * @return projection of the class or <code>null</code> for module
+	 *         descriptors and synthetic classes which are not subject to
+	 *         coverage analysis
+	 * @throws IOException
+	 *             if the class can't be analyzed
+	 */
+	public static ClassProjection compile(final byte[] buffer,
+			final String location) throws IOException {
+		try {
+			return compile(buffer);
+		} catch (final RuntimeException cause) {
+			throw Analyzer.analyzerError(location, cause);
+		}
+	}
+
+	/**
+	 * Compiles the projection for the class definition from a given input
+	 * stream. The provided {@link InputStream} is not closed by this method.
+	 *
+	 * @param input
+	 *            stream to read class definition from
+	 * @param location
+	 *            a location description used for exception messages
+	 * @return projection of the class or <code>null</code> for module
+	 *         descriptors and synthetic classes which are not subject to
+	 *         coverage analysis
+	 * @throws IOException
+	 *             if the stream can't be read or the class can't be analyzed
+	 */
+	public static ClassProjection compile(final InputStream input,
+			final String location) throws IOException {
+		final byte[] buffer;
+		try {
+			buffer = InputStreams.readFully(input);
+		} catch (final IOException e) {
+			throw Analyzer.analyzerError(location, e);
+		}
+		return compile(buffer, location);
+	}
+
+	private static ClassProjection compile(final byte[] buffer) {
+		final ClassReader reader = InstrSupport.classReaderFor(buffer);
+		if ((reader.getAccess()
+				& (Opcodes.ACC_MODULE | Opcodes.ACC_SYNTHETIC)) != 0) {
+			return null;
+		}
+		final ClassCoverageImpl coverage = new ClassCoverageImpl(
+				reader.getClassName(), CRC64.classId(buffer), false);
+		final ClassStructure structure = new ClassStructure();
+		final ClassAnalyzer analyzer = new ClassAnalyzer(coverage, null,
+				new StringPool(), structure);
+		reader.accept(new ClassProbesAdapter(analyzer, false), 0);
+		structure.setClassInfo(coverage);
+		return new ClassProjection(structure);
+	}
+
+	/**
+	 * Returns the identifier of the class.
+	 *
+	 * @return class identifier
+	 */
+	public long getId() {
+		return structure.getId();
+	}
+
+	/**
+	 * Returns the VM name of the class.
+	 *
+	 * @return VM name of the class
+	 */
+	public String getName() {
+		return structure.getName();
+	}
+
+	/**
+	 * Calculates the coverage of the class for the given execution data. If the
+	 * identifier of the execution data does not match the class identifier, the
+	 * class is reported as not matching without coverage.
+	 *
+	 * @param data
+	 *            execution data for this class or <code>null</code> if the
+	 *            class has not been executed
+	 * @return coverage of the class
+	 */
+	public IClassCoverage evaluate(final ExecutionData data) {
+		if (data == null) {
+			return structure.getCoverage(null, false);
+		}
+		if (data.getId() != structure.getId()) {
+			return structure.getCoverage(null, true);
+		}
+		return structure.getCoverage(ProbeBits.pack(data.getProbes()), false);
+	}
+
+	/**
+	 * Calculates the coverage of the class for the execution data contained in
+	 * the given lookup. The class is reported as not matching if the lookup
+	 * only contains execution data for a class with the same name but a
+	 * different identifier, in the same way as {@link Analyzer} does.
+	 *
+	 * @param executionData
+	 *            execution data to look up the probes of this class in
+	 * @return coverage of the class
+	 */
+	public IClassCoverage evaluate(final IExecutionDataLookup executionData) {
+		final ExecutionData data = executionData.get(structure.getId());
+		if (data == null) {
+			return structure.getCoverage(null,
+					executionData.contains(structure.getName()));
+		}
+		return evaluate(data);
+	}
+
+}
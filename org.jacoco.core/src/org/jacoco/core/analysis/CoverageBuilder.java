@@ -34,6 +34,9 @@ import org.jacoco.core.internal.analysis.SourceFileCoverageImpl;
  *     +-- {@link IClassCoverage}*
  *     +-- {@link ISourceFileCoverage}*
  * </pre>
+ *
+ * Instances of this class are thread-safe, i.e. a builder may receive nodes
+ * from multiple concurrent analyzers.
  */
 public class CoverageBuilder implements ICoverageVisitor {
 
@@ -55,8 +58,9 @@ public class CoverageBuilder implements ICoverageVisitor {
 	 *
 	 * @return all class nodes
 	 */
-	public Collection<IClassCoverage> getClasses() {
-		return Collections.unmodifiableCollection(classes.values());
+	public synchronized Collection<IClassCoverage> getClasses() {
+		return Collections.unmodifiableCollection(
+				new ArrayList<IClassCoverage>(classes.values()));
 	}
 
 	/**
@@ -64,8 +68,9 @@ public class CoverageBuilder implements ICoverageVisitor {
 	 *
 	 * @return all source file nodes
 	 */
-	public Collection<ISourceFileCoverage> getSourceFiles() {
-		return Collections.unmodifiableCollection(sourcefiles.values());
+	public synchronized Collection<ISourceFileCoverage> getSourceFiles() {
+		return Collections.unmodifiableCollection(
+				new ArrayList<ISourceFileCoverage>(sourcefiles.values()));
 	}
 
 	/**
@@ -75,7 +80,7 @@ public class CoverageBuilder implements ICoverageVisitor {
 	 *            Name of the bundle
 	 * @return bundle containing all classes and source files
 	 */
-	public IBundleCoverage getBundle(final String name) {
+	public synchronized IBundleCoverage getBundle(final String name) {
 		return new BundleCoverageImpl(name, classes.values(),
 				sourcefiles.values());
 	}
@@ -86,7 +91,7 @@ public class CoverageBuilder implements ICoverageVisitor {
 	 * @see IClassCoverage#isNoMatch()
 	 * @return collection of classes with non-matching execution data
 	 */
-	public Collection<IClassCoverage> getNoMatchClasses() {
+	public synchronized Collection<IClassCoverage> getNoMatchClasses() {
 		final Collection<IClassCoverage> result = new ArrayList<IClassCoverage>();
 		for (final IClassCoverage c : classes.values()) {
 			if (c.isNoMatch()) {
@@ -98,7 +103,7 @@ public class CoverageBuilder implements ICoverageVisitor {
 
 	// === ICoverageVisitor ===
 
-	public void visitCoverage(final IClassCoverage coverage) {
+	public synchronized void visitCoverage(final IClassCoverage coverage) {
 		final String name = coverage.getName();
 		final IClassCoverage dup = classes.put(name, coverage);
 		if (dup != null) {
@@ -0,0 +1,318 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.data;
+
+import static java.lang.String.format;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.jacoco.core.internal.data.ProbeBits;
+
+/**
+ * Memory efficient in-memory data store for execution data. In contrast to
+ * {@link ExecutionDataStore} probes are stored as bitsets in
+ * <code>long[]</code> words and entries are kept in an open addressing hash
+ * table with primitive <code>long</code> keys. Merging and subtracting stores
+ * is performed word-wise. The data can be added through its
+ * {@link IExecutionDataVisitor} interface, execution data provided multiple
+ * times for the same class is merged. {@link ExecutionData} instances returned
+ * by this store are copies, i.e. modifications of their probes are not
+ * reflected in the store. An instance of this class is not thread safe with
+ * respect to modifications. Once all data has been added the lookup methods
+ * {@link #get(long)} and {@link #contains(String)} may be called concurrently,
+ * e.g. by a parallel analysis.
+ */
+public final class CompactExecutionDataStore
+		implements IExecutionDataVisitor, IExecutionDataLookup {
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	private long[] ids;
+
+	private String[] names;
+
+	private int[] probeCounts;
+
+	/** Probe bitsets, <code>null</code> marks an empty slot. */
+	private long[][] bits;
+
+	private int size;
+
+	private Set<String> nameSet;
+
+	/**
+	 * Creates a new empty store.
+	 */
+	public CompactExecutionDataStore() {
+		allocate(INITIAL_CAPACITY);
+	}
+
+	private void allocate(final int capacity) {
+		ids = new long[capacity];
+		names = new String[capacity];
+		probeCounts = new int[capacity];
+		bits = new long[capacity][];
+	}
+
+	/**
+	 * Adds the given {@link ExecutionData} object into the store. If there is
+	 * already execution data with this same class id, this structure is merged
+	 * with the given one.
+	 *
+	 * @param data
+	 *            execution data to add or merge
+	 * @throws IllegalStateException
+	 *             if the given {@link ExecutionData} object is not compatible
+	 *             to a corresponding one, that is already contained
+	 * @see ExecutionData#assertCompatibility(long, String, int)
+	 */
+	public void put(final ExecutionData data) throws IllegalStateException {
+		final boolean[] probes = data.getProbes();
+		put(data.getId(), data.getName(), probes.length,
+				ProbeBits.pack(probes));
+	}
+
+	private void put(final long id, final String name, final int probeCount,
+			final long[] probes) {
+		final int slot = find(id);
+		if (bits[slot] == null) {
+			insert(slot, id, name, probeCount, probes);
+		} else {
+			assertCompatibility(slot, id, name, probeCount);
+			ProbeBits.or(bits[slot], probes);
+		}
+	}
+
+	/**
+	 * Merges all entries of the given store into this store.
+	 *
+	 * @param store
+	 *            execution data store to merge
+	 * @throws IllegalStateException
+	 *             if the entries of the given store are not compatible to
+	 *             corresponding ones in this store
+	 */
+	public void merge(final CompactExecutionDataStore store)
+			throws IllegalStateException {
+		for (int i = 0; i < store.bits.length; i++) {
+			if (store.bits[i] != null) {
+				put(store.ids[i], store.names[i], store.probeCounts[i],
+						store.bits[i].clone());
+			}
+		}
+	}
+
+	/**
+	 * Subtracts the probes in the given {@link ExecutionData} object from the
+	 * store. I.e. for all set probes in the given data object the corresponding
+	 * probes in this store will be unset. If there is no execution data with id
+	 * of the given data object this operation will have no effect.
+	 *
+	 * @param data
+	 *            execution data to subtract
+	 * @throws IllegalStateException
+	 *             if the given {@link ExecutionData} object is not compatible
+	 *             to a corresponding one, that is already contained
+	 */
+	public void subtract(final ExecutionData data)
+			throws IllegalStateException {
+		final boolean[] probes = data.getProbes();
+		subtract(data.getId(), data.getName(), probes.length,
+				ProbeBits.pack(probes));
+	}
+
+	/**
+	 * Subtracts all probes in the given execution data store from this store.
+	 *
+	 * @param store
+	 *            execution data store to subtract
+	 * @see #subtract(ExecutionData)
+	 */
+	public void subtract(final CompactExecutionDataStore store) {
+		for (int i = 0; i < store.bits.length; i++) {
+			if (store.bits[i] != null) {
+				subtract(store.ids[i], store.names[i], store.probeCounts[i],
+						store.bits[i]);
+			}
+		}
+	}
+
+	private void subtract(final long id, final String name,
+			final int probeCount, final long[] probes) {
+		final int slot = find(id);
+		if (bits[slot] != null) {
+			assertCompatibility(slot, id, name, probeCount);
+			ProbeBits.andNot(bits[slot], probes);
+		}
+	}
+
+	/**
+	 * Returns a copy of the {@link ExecutionData} entry with the given id if it
+	 * exists in this store.
+	 *
+	 * @param id
+	 *            class id
+	 * @return execution data or <code>null</code>
+	 */
+	public ExecutionData get(final long id) {
+		final int slot = find(id);
+		if (bits[slot] == null) {
+			return null;
+		}
+		return toExecutionData(slot);
+	}
+
+	/**
+	 * Checks whether execution data for classes with the given name are
+	 * contained in the store.
+	 *
+	 * @param name
+	 *            VM name
+	 * @return <code>true</code> if at least one class with the name is
+	 *         contained.
+	 */
+	public synchronized boolean contains(final String name) {
+		// The name index is created lazily and guarded for concurrent lookups
+		if (nameSet == null) {
+			nameSet = new HashSet<String>();
+			for (int i = 0; i < bits.length; i++) {
+				if (bits[i] != null) {
+					nameSet.add(names[i]);
+				}
+			}
+		}
+		return nameSet.contains(name);
+	}
+
+	/**
+	 * Returns the number of classes contained in this store.
+	 *
+	 * @return number of classes
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Resets all execution data probes, i.e. marks them as not executed. The
+	 * entries itself are not removed.
+	 */
+	public void reset() {
+		for (final long[] b : bits) {
+			if (b != null) {
+				for (int i = 0; i < b.length; i++) {
+					b[i] = 0;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes the content of the store to the given visitor interface. Entries
+	 * are emitted in ascending order of their class ids, i.e. the output does
+	 * not depend on the order in which data was added.
+	 *
+	 * @param visitor
+	 *            interface to write content to
+	 */
+	public void accept(final IExecutionDataVisitor visitor) {
+		final long[] sorted = new long[size];
+		int idx = 0;
+		for (int i = 0; i < bits.length; i++) {
+			if (bits[i] != null) {
+				sorted[idx++] = ids[i];
+			}
+		}
+		Arrays.sort(sorted);
+		for (final long id : sorted) {
+			visitor.visitClassExecution(toExecutionData(find(id)));
+		}
+	}
+
+	// === IExecutionDataVisitor ===
+
+	public void visitClassExecution(final ExecutionData data) {
+		put(data);
+	}
+
+	// === Hash table ===
+
+	/**
+	 * Returns the slot of the given id or the empty slot where it should be
+	 * inserted.
+	 */
+	private int find(final long id) {
+		final int mask = bits.length - 1;
+		int slot = hash(id) & mask;
+		while (bits[slot] != null && ids[slot] != id) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private static int hash(final long id) {
+		final int h = (int) (id ^ (id >>> 32));
+		return h ^ (h >>> 16);
+	}
+
+	private void insert(final int slot, final long id, final String name,
+			final int probeCount, final long[] probes) {
+		ids[slot] = id;
+		names[slot] = name;
+		probeCounts[slot] = probeCount;
+		bits[slot] = probes;
+		nameSet = null;
+		if (++size * 2 > bits.length) {
+			rehash();
+		}
+	}
+
+	private void rehash() {
+		final long[] oldIds = ids;
+		final String[] oldNames = names;
+		final int[] oldProbeCounts = probeCounts;
+		final long[][] oldBits = bits;
+		allocate(oldBits.length * 2);
+		for (int i = 0; i < oldBits.length; i++) {
+			if (oldBits[i] != null) {
+				final int slot = find(oldIds[i]);
+				ids[slot] = oldIds[i];
+				names[slot] = oldNames[i];
+				probeCounts[slot] = oldProbeCounts[i];
+				bits[slot] = oldBits[i];
+			}
+		}
+	}
+
+	private ExecutionData toExecutionData(final int slot) {
+		return new ExecutionData(ids[slot], names[slot],
+				ProbeBits.unpack(bits[slot], probeCounts[slot]));
+	}
+
+	private void assertCompatibility(final int slot, final long id,
+			final String name, final int probeCount) {
+		if (!names[slot].equals(name)) {
+			throw new IllegalStateException(
+					format("Different class names %s and %s for id %016x.",
+							names[slot], name, Long.valueOf(id)));
+		}
+		if (probeCounts[slot] != probeCount) {
+			throw new IllegalStateException(format(
+					"Incompatible execution data for class %s with id %016x.",
+					name, Long.valueOf(id)));
+		}
+	}
+
+}
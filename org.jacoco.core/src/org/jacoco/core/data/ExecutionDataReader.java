@@ -16,11 +16,16 @@ import static java.lang.String.format;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.jacoco.core.internal.data.CompactDataInput;
 
 /**
- * Deserialization of execution data from binary streams.
+ * Deserialization of execution data from binary streams. Streams in the format
+ * version {@link ExecutionDataWriter#FORMAT_VERSION} and in the compact format
+ * version {@link ExecutionDataWriter#COMPACT_FORMAT_VERSION} can be read, also
+ * if both are concatenated.
  */
 public class ExecutionDataReader {
 
@@ -33,6 +38,12 @@ public class ExecutionDataReader {
 
 	private boolean firstBlock = true;
 
+	private boolean compact = false;
+
+	private final List<String> names = new ArrayList<String>();
+
+	private final List<String> packages = new ArrayList<String>();
+
 	/**
 	 * Creates a new reader based on the given input stream input. Depending on
 	 * the nature of the underlying stream input should be buffered as most data
@@ -126,11 +137,29 @@ public class ExecutionDataReader {
 			throw new IOException("Invalid execution data file.");
 		}
 		final char version = in.readChar();
-		if (version != ExecutionDataWriter.FORMAT_VERSION) {
+		if (version == ExecutionDataWriter.FORMAT_VERSION) {
+			compact = false;
+		} else if (version == ExecutionDataWriter.COMPACT_FORMAT_VERSION) {
+			compact = true;
+			names.clear();
+			packages.clear();
+			readCompactHeader();
+		} else {
 			throw new IncompatibleExecDataVersionException(version);
 		}
 	}
 
+	private void readCompactHeader() throws IOException {
+		final int flags = in.readByte();
+		if ((flags & ~ExecutionDataWriter.FLAG_DEFLATE) != 0) {
+			throw new IOException(
+					format("Unknown header flags %x.", Integer.valueOf(flags)));
+		}
+		if ((flags & ExecutionDataWriter.FLAG_DEFLATE) != 0) {
+			in.startInflate();
+		}
+	}
+
 	private void readSessionInfo() throws IOException {
 		if (sessionInfoVisitor == null) {
 			throw new IOException("No session info visitor.");
@@ -146,10 +175,40 @@ public class ExecutionDataReader {
 			throw new IOException("No execution data visitor.");
 		}
 		final long id = in.readLong();
-		final String name = in.readUTF();
-		final boolean[] probes = in.readBooleanArray();
+		final String name;
+		final boolean[] probes;
+		if (compact) {
+			name = readName();
+			probes = in.readCompactBooleanArray();
+		} else {
+			name = in.readUTF();
+			probes = in.readBooleanArray();
+		}
 		executionDataVisitor
 				.visitClassExecution(new ExecutionData(id, name, probes));
 	}
 
+	private String readName() throws IOException {
+		final int index = in.readVarInt();
+		if (index < names.size()) {
+			return names.get(index);
+		}
+		if (index != names.size()) {
+			throw new IOException("Invalid class name reference.");
+		}
+		final int packageIndex = in.readVarInt();
+		final String packageName;
+		if (packageIndex < packages.size()) {
+			packageName = packages.get(packageIndex);
+		} else if (packageIndex == packages.size()) {
+			packageName = in.readUTF();
+			packages.add(packageName);
+		} else {
+			throw new IOException("Invalid package name reference.");
+		}
+		final String name = packageName + in.readUTF();
+		names.add(name);
+		return name;
+	}
+
 }
@@ -15,11 +15,18 @@ package org.jacoco.core.data;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.jacoco.core.internal.data.CompactDataOutput;
 
 /**
- * Serialization of execution data into binary streams.
+ * Serialization of execution data into binary streams. By default data is
+ * written in the format version {@link #FORMAT_VERSION}. Optionally the compact
+ * format version {@link #COMPACT_FORMAT_VERSION} can be used, which encodes
+ * probe arrays with only a few hits as list of hit indices and replaces
+ * repeated class and package names with references to previously written names.
+ * Additionally the content of compact streams can be compressed.
  */
 public class ExecutionDataWriter
 		implements ISessionInfoVisitor, IExecutionDataVisitor {
@@ -34,6 +41,16 @@ public class ExecutionDataWriter
 		FORMAT_VERSION = 0x1007;
 	}
 
+	/**
+	 * Version of the compact file format which is written optionally.
+	 */
+	public static final char COMPACT_FORMAT_VERSION;
+
+	static {
+		// Runtime initialize to ensure javac does not inline the value.
+		COMPACT_FORMAT_VERSION = 0x1008;
+	}
+
 	/** Magic number in header for file format identification. */
 	public static final char MAGIC_NUMBER = 0xC0C0;
 
@@ -46,9 +63,20 @@ public class ExecutionDataWriter
 	/** Block identifier for execution data of a single class. */
 	public static final byte BLOCK_EXECUTIONDATA = 0x11;
 
+	/** Header flag of the compact format for compressed content. */
+	static final int FLAG_DEFLATE = 0x01;
+
 	/** Underlying data output */
 	protected final CompactDataOutput out;
 
+	private final boolean compact;
+
+	private final boolean compress;
+
+	private final Map<String, Integer> names;
+
+	private final Map<String, Integer> packages;
+
 	/**
 	 * Creates a new writer based on the given output stream. Depending on the
 	 * nature of the underlying stream output should be buffered as most data is
@@ -60,7 +88,37 @@ public class ExecutionDataWriter
 	 *             if the header can't be written
 	 */
 	public ExecutionDataWriter(final OutputStream output) throws IOException {
+		this(output, false, false);
+	}
+
+	/**
+	 * Creates a new writer based on the given output stream which optionally
+	 * uses the compact format. Compressed content is only complete after
+	 * {@link #finish()} has been called, therefore compression is not suitable
+	 * for interactive protocols.
+	 *
+	 * @param output
+	 *            binary stream to write execution data to
+	 * @param compact
+	 *            <code>true</code> to write the compact format version
+	 *            {@link #COMPACT_FORMAT_VERSION}
+	 * @param compress
+	 *            <code>true</code> to compress the content after the header,
+	 *            only supported for the compact format
+	 * @throws IOException
+	 *             if the header can't be written
+	 */
+	public ExecutionDataWriter(final OutputStream output, final boolean compact,
+			final boolean compress) throws IOException {
+		if (compress && !compact) {
+			throw new IllegalArgumentException(
+					"Compression requires the compact format.");
+		}
 		this.out = new CompactDataOutput(output);
+		this.compact = compact;
+		this.compress = compress;
+		this.names = new HashMap<String, Integer>();
+		this.packages = new HashMap<String, Integer>();
 		writeHeader();
 	}
 
@@ -73,7 +131,15 @@ public class ExecutionDataWriter
 	private void writeHeader() throws IOException {
 		out.writeByte(BLOCK_HEADER);
 		out.writeChar(MAGIC_NUMBER);
-		out.writeChar(FORMAT_VERSION);
+		if (compact) {
+			out.writeChar(COMPACT_FORMAT_VERSION);
+			out.writeByte(compress ? FLAG_DEFLATE : 0);
+			if (compress) {
+				out.startDeflate();
+			}
+		} else {
+			out.writeChar(FORMAT_VERSION);
+		}
 	}
 
 	/**
@@ -86,6 +152,20 @@ public class ExecutionDataWriter
 		out.flush();
 	}
 
+	/**
+	 * Completes the written content and flushes the underlying stream. This is
+	 * required for compressed content, no data must be written afterwards.
+	 *
+	 * @throws IOException
+	 *             if the content can't be written
+	 */
+	public void finish() throws IOException {
+		if (compress) {
+			out.finishDeflate();
+		}
+		out.flush();
+	}
+
 	public void visitSessionInfo(final SessionInfo info) {
 		try {
 			out.writeByte(BLOCK_SESSIONINFO);
@@ -102,14 +182,56 @@ public class ExecutionDataWriter
 			try {
 				out.writeByte(BLOCK_EXECUTIONDATA);
 				out.writeLong(data.getId());
-				out.writeUTF(data.getName());
-				out.writeBooleanArray(data.getProbes());
+				if (compact) {
+					writeName(data.getName());
+					out.writeCompactBooleanArray(data.getProbes());
+				} else {
+					out.writeUTF(data.getName());
+					out.writeBooleanArray(data.getProbes());
+				}
 			} catch (final IOException e) {
 				throw new RuntimeException(e);
 			}
 		}
 	}
 
+	/**
+	 * Writes a class name in the compact format: Names and package names which
+	 * have been written before are replaced by their index.
+	 */
+	private void writeName(final String name) throws IOException {
+		if (writeReference(names, name)) {
+			return;
+		}
+		// Package name including the trailing separator, if any
+		final int pos = name.lastIndexOf('/') + 1;
+		final String packageName = name.substring(0, pos);
+		if (!writeReference(packages, packageName)) {
+			out.writeUTF(packageName);
+		}
+		out.writeUTF(name.substring(pos));
+	}
+
+	/**
+	 * Writes the index of the given value within the given dictionary. If the
+	 * value is not contained in the dictionary yet it is added and the new
+	 * index is written.
+	 *
+	 * @return <code>true</code> if the value was already contained
+	 */
+	private boolean writeReference(final Map<String, Integer> dictionary,
+			final String value) throws IOException {
+		final Integer index = dictionary.get(value);
+		if (index != null) {
+			out.writeVarInt(index.intValue());
+			return true;
+		}
+		final int size = dictionary.size();
+		dictionary.put(value, Integer.valueOf(size));
+		out.writeVarInt(size);
+		return false;
+	}
+
 	/**
 	 * Returns the first bytes of a file that represents a valid execution data
 	 * file. In any case every execution data file starts with the three bytes
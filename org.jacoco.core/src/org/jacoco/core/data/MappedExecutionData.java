@@ -0,0 +1,225 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.data;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Read-only random access to execution data stored in the format written by
+ * {@link MappedExecutionDataWriter}. The file is mapped into memory and probe
+ * data is only decoded for the classes actually requested through
+ * {@link #get(long)}, i.e. the heap consumption does not depend on the size of
+ * the file. Every call of {@link #get(long)} returns a new
+ * {@link ExecutionData} instance, modifications of its probes are not written
+ * back. The index is validated against the size of the file when it is opened,
+ * so truncated or corrupt files are rejected upfront. Instances of this class
+ * are thread-safe.
+ */
+public final class MappedExecutionData implements IExecutionDataLookup {
+
+	private final ByteBuffer buffer;
+
+	private final int count;
+
+	private Set<String> names;
+
+	/**
+	 * Maps the given file into memory.
+	 *
+	 * @param file
+	 *            file in the format written by
+	 *            {@link MappedExecutionDataWriter}
+	 * @throws IOException
+	 *             if the file can't be read or has an invalid format
+	 */
+	public MappedExecutionData(final File file) throws IOException {
+		this(map(file));
+	}
+
+	/**
+	 * Creates random access to the given buffer. The content of the buffer must
+	 * not be modified while this instance is in use.
+	 *
+	 * @param buffer
+	 *            buffer in the format written by
+	 *            {@link MappedExecutionDataWriter}
+	 * @throws IOException
+	 *             if the buffer has an invalid format
+	 */
+	public MappedExecutionData(final ByteBuffer buffer) throws IOException {
+		this.buffer = buffer;
+		if (buffer.limit() < MappedExecutionDataWriter.HEADER_SIZE || buffer
+				.getChar(0) != MappedExecutionDataWriter.MAGIC_NUMBER) {
+			throw new IOException("Invalid execution data file.");
+		}
+		final char version = buffer.getChar(2);
+		if (version != MappedExecutionDataWriter.FORMAT_VERSION) {
+			throw new IOException(String.format(
+					"Cannot read indexed execution data version 0x%x.",
+					Integer.valueOf(version)));
+		}
+		count = buffer.getInt(4);
+		if (count < 0 || MappedExecutionDataWriter.HEADER_SIZE + (long) count
+				* MappedExecutionDataWriter.SLOT_SIZE > buffer.limit()) {
+			throw new IOException("Invalid execution data file.");
+		}
+		checkSlots();
+	}
+
+	/**
+	 * Checks that the slots are sorted by class id and that the data of every
+	 * slot lies within the buffer, so lookups never read beyond its limit.
+	 */
+	private void checkSlots() throws IOException {
+		final int dataStart = slotPosition(count);
+		final int limit = buffer.limit();
+		for (int i = 0; i < count; i++) {
+			final int position = slotPosition(i);
+			final long id = buffer.getLong(position);
+			if (i > 0 && MappedExecutionDataWriter.compareIds(
+					buffer.getLong(
+							position - MappedExecutionDataWriter.SLOT_SIZE),
+					id) >= 0) {
+				throw new IOException(String.format(
+						"Invalid execution data file: Class id %016x not sorted.",
+						Long.valueOf(id)));
+			}
+			final int probeCount = buffer.getInt(position + 8);
+			final int offset = buffer.getInt(position + 12);
+			if (probeCount < 0 || offset < dataStart || offset > limit - 2
+					|| (long) offset + 2 + buffer.getChar(offset)
+							+ (probeCount + 7L) / 8 > limit) {
+				throw new IOException(String.format(
+						"Invalid execution data file: Data of class %016x exceeds file size.",
+						Long.valueOf(id)));
+			}
+		}
+	}
+
+	private static ByteBuffer map(final File file) throws IOException {
+		final RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			final FileChannel channel = raf.getChannel();
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("Execution data exceeds maximum size.");
+			}
+			// The mapping stays valid after the channel has been closed
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0,
+					channel.size());
+		} finally {
+			raf.close();
+		}
+	}
+
+	/**
+	 * Returns the number of classes contained in this execution data.
+	 *
+	 * @return number of classes
+	 */
+	public int getSize() {
+		return count;
+	}
+
+	public ExecutionData get(final long id) {
+		final int slot = findSlot(id);
+		if (slot < 0) {
+			return null;
+		}
+		final int probeCount = buffer.getInt(slot + 8);
+		final int offset = buffer.getInt(slot + 12);
+		final int nameLength = buffer.getChar(offset);
+		final String name = readName(offset, nameLength);
+		final boolean[] probes = new boolean[probeCount];
+		final int bits = offset + 2 + nameLength;
+		int b = 0;
+		for (int i = 0; i < probeCount; i++) {
+			if ((i % 8) == 0) {
+				b = buffer.get(bits + i / 8);
+			}
+			probes[i] = (b & 0x01) != 0;
+			b >>>= 1;
+		}
+		return new ExecutionData(id, name, probes);
+	}
+
+	/**
+	 * Checks whether execution data for classes with the given name is
+	 * contained. The names of all classes are read on the first call of this
+	 * method.
+	 */
+	public boolean contains(final String name) {
+		return getNames().contains(name);
+	}
+
+	private synchronized Set<String> getNames() {
+		if (names == null) {
+			final Set<String> set = new HashSet<String>();
+			for (int i = 0; i < count; i++) {
+				final int offset = buffer.getInt(slotPosition(i) + 12);
+				set.add(readName(offset, buffer.getChar(offset)));
+			}
+			names = set;
+		}
+		return names;
+	}
+
+	/**
+	 * Binary search for the slot of the given class id.
+	 *
+	 * @return buffer position of the slot or -1 if not found
+	 */
+	private int findSlot(final long id) {
+		int low = 0;
+		int high = count - 1;
+		while (low <= high) {
+			final int mid = (low + high) >>> 1;
+			final int position = slotPosition(mid);
+			final int c = MappedExecutionDataWriter
+					.compareIds(buffer.getLong(position), id);
+			if (c < 0) {
+				low = mid + 1;
+			} else if (c > 0) {
+				high = mid - 1;
+			} else {
+				return position;
+			}
+		}
+		return -1;
+	}
+
+	private static int slotPosition(final int index) {
+		return MappedExecutionDataWriter.HEADER_SIZE
+				+ index * MappedExecutionDataWriter.SLOT_SIZE;
+	}
+
+	private String readName(final int offset, final int length) {
+		final byte[] utf = new byte[length + 2];
+		for (int i = 0; i < utf.length; i++) {
+			utf[i] = buffer.get(offset + i);
+		}
+		try {
+			return new DataInputStream(new ByteArrayInputStream(utf)).readUTF();
+		} catch (final IOException e) {
+			throw new IllegalStateException("Invalid execution data file.", e);
+		}
+	}
+
+}
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.data;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Serialization of execution data into an indexed binary format which allows
+ * random access by class id, see {@link MappedExecutionData}. As the index is
+ * sorted by class id all execution data is collected through the
+ * {@link IExecutionDataVisitor} interface first and written when
+ * {@link #finish()} is called. Like {@link ExecutionDataWriter} only classes
+ * with at least one executed probe are written.
+ *
+ * The file starts with a header followed by a table of fixed size slots, one
+ * per class, sorted by class id. Each slot holds the class id, the number of
+ * probes and the offset of the class name and probe bitset in the data section:
+ *
+ * <pre>
+ * char   MAGIC_NUMBER
+ * char   FORMAT_VERSION
+ * int    slot count
+ * slot*  { long id, int probe count, int data offset }
+ * data*  { UTF name, byte[(probe count + 7) / 8] probes }
+ * </pre>
+ */
+public class MappedExecutionDataWriter implements IExecutionDataVisitor {
+
+	/**
+	 * File format version, will be incremented for each incompatible change.
+	 */
+	public static final char FORMAT_VERSION;
+
+	static {
+		// Runtime initialize to ensure javac does not inline the value.
+		FORMAT_VERSION = 0x0001;
+	}
+
+	/** Magic number in header for file format identification. */
+	public static final char MAGIC_NUMBER = 0xC0C0;
+
+	/** Size of the file header in bytes. */
+	static final int HEADER_SIZE = 8;
+
+	/** Size of an index slot in bytes. */
+	static final int SLOT_SIZE = 16;
+
+	private final OutputStream output;
+
+	private final ExecutionDataStore store;
+
+	/**
+	 * Creates a new writer which will write to the given stream on
+	 * {@link #finish()}.
+	 *
+	 * @param output
+	 *            binary stream to write execution data to
+	 */
+	public MappedExecutionDataWriter(final OutputStream output) {
+		this.output = output;
+		this.store = new ExecutionDataStore();
+	}
+
+	public void visitClassExecution(final ExecutionData data) {
+		if (data.hasHits()) {
+			store.put(data);
+		}
+	}
+
+	/**
+	 * Writes all collected execution data to the underlying stream. The stream
+	 * is flushed but not closed.
+	 *
+	 * @throws IOException
+	 *             if the data can't be written or exceeds the maximum file size
+	 *             of the format
+	 */
+	public void finish() throws IOException {
+		final List<ExecutionData> contents = new ArrayList<ExecutionData>(
+				store.getContents());
+		Collections.sort(contents, new Comparator<ExecutionData>() {
+			public int compare(final ExecutionData d1, final ExecutionData d2) {
+				return compareIds(d1.getId(), d2.getId());
+			}
+		});
+
+		final ByteArrayOutputStream dataBuffer = new ByteArrayOutputStream();
+		final DataOutputStream data = new DataOutputStream(dataBuffer);
+		final int[] offsets = new int[contents.size()];
+		final long dataStart = HEADER_SIZE + (long) SLOT_SIZE * contents.size();
+		int i = 0;
+		for (final ExecutionData d : contents) {
+			final long offset = dataStart + data.size();
+			if (offset > Integer.MAX_VALUE) {
+				throw new IOException("Execution data exceeds maximum size.");
+			}
+			offsets[i++] = (int) offset;
+			data.writeUTF(d.getName());
+			writeBits(data, d.getProbes());
+		}
+
+		final DataOutputStream out = new DataOutputStream(output);
+		out.writeChar(MAGIC_NUMBER);
+		out.writeChar(FORMAT_VERSION);
+		out.writeInt(contents.size());
+		i = 0;
+		for (final ExecutionData d : contents) {
+			out.writeLong(d.getId());
+			out.writeInt(d.getProbes().length);
+			out.writeInt(offsets[i++]);
+		}
+		dataBuffer.writeTo(out);
+		out.flush();
+	}
+
+	private static void writeBits(final DataOutputStream out,
+			final boolean[] probes) throws IOException {
+		int buffer = 0;
+		int bufferSize = 0;
+		for (final boolean b : probes) {
+			if (b) {
+				buffer |= 0x01 << bufferSize;
+			}
+			if (++bufferSize == 8) {
+				out.writeByte(buffer);
+				buffer = 0;
+				bufferSize = 0;
+			}
+		}
+		if (bufferSize > 0) {
+			out.writeByte(buffer);
+		}
+	}
+
+	/**
+	 * Defines the order of class ids in the index.
+	 */
+	static int compareIds(final long id1, final long id2) {
+		return id1 < id2 ? -1 : (id1 == id2 ? 0 : 1);
+	}
+
+}
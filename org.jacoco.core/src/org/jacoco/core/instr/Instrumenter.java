@@ -12,20 +12,33 @@
  *******************************************************************************/
 package org.jacoco.core.instr;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.util.Enumeration;
+import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.zip.CRC32;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
 import org.jacoco.core.internal.ContentTypeDetector;
+import org.jacoco.core.internal.Futures;
 import org.jacoco.core.internal.InputStreams;
 import org.jacoco.core.internal.Pack200Streams;
+import org.jacoco.core.internal.ZipFiles;
 import org.jacoco.core.internal.data.CRC64;
 import org.jacoco.core.internal.flow.ClassProbesAdapter;
 import org.jacoco.core.internal.instr.ClassInstrumenter;
@@ -40,13 +53,25 @@ import org.objectweb.asm.ClassWriter;
 
 /**
  * Several APIs to instrument Java class definitions for coverage tracing.
+ * Optionally entries of archives can be instrumented by an {@link Executor},
+ * see {@link #setExecutor(Executor)}. Instances of this class itself are not
+ * thread-safe with respect to their configuration, but the instrument methods
+ * may be called concurrently.
  */
 public class Instrumenter {
 
+	/**
+	 * Maximum number of archive entries per archive which are buffered while
+	 * waiting for their instrumentation in parallel mode.
+	 */
+	private static final int MAX_PENDING_ENTRIES = 256;
+
 	private final IExecutionDataAccessorGenerator accessorGenerator;
 
 	private final SignatureRemover signatureRemover;
 
+	private Executor executor;
+
 	/**
 	 * Creates a new instance based on the given runtime.
 	 *
@@ -71,6 +96,25 @@ public class Instrumenter {
 		signatureRemover.setActive(flag);
 	}
 
+	/**
+	 * Sets an optional executor for parallel instrumentation of archive
+	 * entries. If an executor is set the entries of ZIP archives are inflated,
+	 * instrumented and filtered by the executor while the calling thread writes
+	 * the results in the original order of the entries. The output is therefore
+	 * identical to sequential instrumentation. Entries which have not been
+	 * started by the executor when their result is required are processed on
+	 * the calling thread, i.e. the same executor can also be used to instrument
+	 * different files in parallel. The executor is not shut down by this
+	 * instrumenter. Default is <code>null</code> which means archives are
+	 * instrumented on the calling thread.
+	 *
+	 * @param executor
+	 *            executor for instrumentation tasks or <code>null</code>
+	 */
+	public void setExecutor(final Executor executor) {
+		this.executor = executor;
+	}
+
 	private byte[] instrument(final byte[] source) {
 		final long classId = CRC64.classId(source);
 		final ClassReader reader = InstrSupport.classReaderFor(source);
@@ -183,12 +227,20 @@ public class Instrumenter {
 	 */
 	public int instrumentAll(final InputStream input, final OutputStream output,
 			final String name) throws IOException {
-		final ContentTypeDetector detector;
+		return instrumentContent(detect(input, name), output, name);
+	}
+
+	private ContentTypeDetector detect(final InputStream input,
+			final String name) throws IOException {
 		try {
-			detector = new ContentTypeDetector(input);
+			return new ContentTypeDetector(input);
 		} catch (final IOException e) {
 			throw instrumentError(name, e);
 		}
+	}
+
+	private int instrumentContent(final ContentTypeDetector detector,
+			final OutputStream output, final String name) throws IOException {
 		switch (detector.getType()) {
 		case ContentTypeDetector.CLASSFILE:
 			instrument(detector.getInputStream(), output, name);
@@ -205,44 +257,271 @@ public class Instrumenter {
 		}
 	}
 
+	/**
+	 * Creates a instrumented version of the given file depending on its type.
+	 * Class files and the content of archive files are instrumented. All other
+	 * files are copied without modification. ZIP files are accessed through
+	 * their central directory instead of being read as a stream. The provided
+	 * {@link OutputStream} is not closed by this method.
+	 *
+	 * @param file
+	 *            file to read the contents from
+	 * @param output
+	 *            stream to write the instrumented version of the contents
+	 * @param name
+	 *            a name used for exception messages
+	 * @return number of instrumented classes
+	 * @throws IOException
+	 *             if reading data from the file fails or a class can't be
+	 *             instrumented
+	 */
+	public int instrumentAll(final File file, final OutputStream output,
+			final String name) throws IOException {
+		final InputStream input = new FileInputStream(file);
+		try {
+			final ContentTypeDetector detector = detect(input, name);
+			if (detector.getType() == ContentTypeDetector.ZIPFILE) {
+				final ZipFile zip = ZipFiles.open(file);
+				if (zip != null) {
+					try {
+						return instrumentZip(zip, output, name);
+					} finally {
+						zip.close();
+					}
+				}
+			}
+			return instrumentContent(detector, output, name);
+		} finally {
+			input.close();
+		}
+	}
+
 	private int instrumentZip(final InputStream input,
 			final OutputStream output, final String name) throws IOException {
 		final ZipInputStream zipin = new ZipInputStream(input);
-		final ZipOutputStream zipout = new ZipOutputStream(output);
-		ZipEntry entry;
-		int count = 0;
-		while ((entry = nextEntry(zipin, name)) != null) {
+		final ArchiveWriter writer = new ArchiveWriter(output, name);
+		try {
+			ZipEntry entry;
+			while ((entry = nextEntry(zipin, name)) != null) {
+				if (executor == null) {
+					writer.write(entry, zipin);
+				} else {
+					// The stream can only be inflated sequentially
+					final byte[] bytes = readEntry(zipin,
+							name + "@" + entry.getName());
+					writer.submit(entry, new Callable<InputStream>() {
+						public InputStream call() {
+							return new ByteArrayInputStream(bytes);
+						}
+					});
+				}
+			}
+			return writer.finish();
+		} finally {
+			writer.cancel();
+		}
+	}
+
+	private int instrumentZip(final ZipFile zip, final OutputStream output,
+			final String name) throws IOException {
+		final ArchiveWriter writer = new ArchiveWriter(output, name);
+		try {
+			final Enumeration<? extends ZipEntry> entries = zip.entries();
+			while (entries.hasMoreElements()) {
+				final ZipEntry entry = entries.nextElement();
+				if (executor == null) {
+					final InputStream in = openEntry(zip, entry, name);
+					try {
+						writer.write(entry, in);
+					} finally {
+						in.close();
+					}
+				} else {
+					// Entries are inflated by the executor as well
+					writer.submit(entry, new Callable<InputStream>() {
+						public InputStream call() throws IOException {
+							return openEntry(zip, entry, name);
+						}
+					});
+				}
+			}
+			return writer.finish();
+		} finally {
+			writer.cancel();
+		}
+	}
+
+	private InputStream openEntry(final ZipFile zip, final ZipEntry entry,
+			final String name) throws IOException {
+		try {
+			return zip.getInputStream(entry);
+		} catch (final IOException e) {
+			throw instrumentError(name + "@" + entry.getName(), e);
+		}
+	}
+
+	private byte[] readEntry(final InputStream in, final String name)
+			throws IOException {
+		try {
+			return InputStreams.readFully(in);
+		} catch (final IOException e) {
+			throw instrumentError(name, e);
+		}
+	}
+
+	/**
+	 * Writes the entries of an archive in their original order. Entries can
+	 * either be written directly or be submitted for instrumentation by the
+	 * executor. Results of submitted entries are written as soon as all
+	 * previous entries have been written.
+	 */
+	private class ArchiveWriter {
+
+		private final ZipOutputStream zipout;
+
+		private final String name;
+
+		private final LinkedList<EntryTask> pending;
+
+		private int count;
+
+		ArchiveWriter(final OutputStream output, final String name) {
+			this.zipout = new ZipOutputStream(output);
+			this.name = name;
+			this.pending = new LinkedList<EntryTask>();
+		}
+
+		void write(final ZipEntry entry, final InputStream in)
+				throws IOException {
 			final String entryName = entry.getName();
 			if (signatureRemover.removeEntry(entryName)) {
-				continue;
+				return;
 			}
-
-			final ZipEntry newEntry = new ZipEntry(entryName);
-			newEntry.setMethod(entry.getMethod());
 			switch (entry.getMethod()) {
 			case ZipEntry.DEFLATED:
-				zipout.putNextEntry(newEntry);
-				count += filterOrInstrument(zipin, zipout, name, entryName);
+				zipout.putNextEntry(newEntry(entry, null));
+				count += filterOrInstrument(in, zipout, name, entryName);
+				zipout.closeEntry();
 				break;
 			case ZipEntry.STORED:
-				// Uncompressed entries must be processed in-memory to calculate
-				// mandatory entry size and CRC
+				// Uncompressed entries must be processed in-memory to
+				// calculate mandatory entry size and CRC
 				final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-				count += filterOrInstrument(zipin, buffer, name, entryName);
-				final byte[] bytes = buffer.toByteArray();
-				newEntry.setSize(bytes.length);
-				newEntry.setCompressedSize(bytes.length);
-				newEntry.setCrc(crc(bytes));
-				zipout.putNextEntry(newEntry);
-				zipout.write(bytes);
+				count += filterOrInstrument(in, buffer, name, entryName);
+				write(entry, buffer.toByteArray());
 				break;
 			default:
 				throw new AssertionError(entry.getMethod());
 			}
+		}
+
+		private void write(final ZipEntry entry, final byte[] bytes)
+				throws IOException {
+			zipout.putNextEntry(newEntry(entry, bytes));
+			zipout.write(bytes);
 			zipout.closeEntry();
 		}
-		zipout.finish();
-		return count;
+
+		void submit(final ZipEntry entry, final Callable<InputStream> source)
+				throws IOException {
+			if (signatureRemover.removeEntry(entry.getName())) {
+				return;
+			}
+			final EntryTask task = new EntryTask(entry, source, name);
+			pending.add(task);
+			try {
+				executor.execute(task);
+			} catch (final RejectedExecutionException e) {
+				// The task is processed on this thread by flush()
+			}
+			flush(MAX_PENDING_ENTRIES);
+		}
+
+		/**
+		 * Writes the results of completed tasks in submission order. Blocks as
+		 * long as more than the given number of tasks are pending.
+		 */
+		private void flush(final int limit) throws IOException {
+			while (!pending.isEmpty()) {
+				final EntryTask task = pending.getFirst();
+				if (pending.size() <= limit && !task.isDone()) {
+					return;
+				}
+				pending.removeFirst();
+				// Process the entry on this thread if it has not been started
+				// yet, so waiting never depends on free executor threads
+				task.run();
+				count += task.getCount();
+				write(task.entry, task.content.toByteArray());
+			}
+		}
+
+		int finish() throws IOException {
+			flush(0);
+			zipout.finish();
+			return count;
+		}
+
+		void cancel() {
+			for (final EntryTask task : pending) {
+				task.cancel(false);
+			}
+			pending.clear();
+		}
+
+	}
+
+	private class EntryTask extends FutureTask<Integer> {
+
+		private final ZipEntry entry;
+
+		private final ByteArrayOutputStream content;
+
+		private final String location;
+
+		EntryTask(final ZipEntry entry, final Callable<InputStream> source,
+				final String name) {
+			this(entry, source, name, new ByteArrayOutputStream());
+		}
+
+		private EntryTask(final ZipEntry entry,
+				final Callable<InputStream> source, final String name,
+				final ByteArrayOutputStream content) {
+			super(new Callable<Integer>() {
+				public Integer call() throws Exception {
+					final InputStream in = source.call();
+					try {
+						return Integer.valueOf(filterOrInstrument(in, content,
+								name, entry.getName()));
+					} finally {
+						in.close();
+					}
+				}
+			});
+			this.entry = entry;
+			this.content = content;
+			this.location = name + "@" + entry.getName();
+		}
+
+		int getCount() throws IOException {
+			try {
+				return Futures.get(this).intValue();
+			} catch (final InterruptedIOException e) {
+				throw instrumentError(location, e);
+			}
+		}
+
+	}
+
+	private static ZipEntry newEntry(final ZipEntry entry, final byte[] bytes) {
+		final ZipEntry newEntry = new ZipEntry(entry.getName());
+		newEntry.setMethod(entry.getMethod());
+		if (entry.getMethod() == ZipEntry.STORED) {
+			newEntry.setSize(bytes.length);
+			newEntry.setCompressedSize(bytes.length);
+			newEntry.setCrc(crc(bytes));
+		}
+		return newEntry;
 	}
 
 	private int filterOrInstrument(final InputStream in, final OutputStream out,
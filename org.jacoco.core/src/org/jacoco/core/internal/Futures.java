@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.internal;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Utilities for {@link Future}s.
+ */
+public final class Futures {
+
+	private Futures() {
+	}
+
+	/**
+	 * Waits for the result of the given future. If the computation failed the
+	 * original exception is thrown: {@link IOException}s, runtime exceptions
+	 * and errors are thrown as is, other checked exceptions are wrapped in an
+	 * {@link IOException}. If the current thread is interrupted while waiting
+	 * its interrupt status is restored and an {@link InterruptedIOException} is
+	 * thrown.
+	 *
+	 * @param future
+	 *            future to wait for
+	 * @param <T>
+	 *            type of the result
+	 * @return result of the computation
+	 * @throws IOException
+	 *             if the computation failed with a checked exception or the
+	 *             current thread has been interrupted
+	 */
+	public static <T> T get(final Future<T> future) throws IOException {
+		try {
+			return future.get();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			final IOException ex = new InterruptedIOException("Interrupted");
+			ex.initCause(e);
+			throw ex;
+		} catch (final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			final IOException ex = new IOException(cause.getMessage());
+			ex.initCause(cause);
+			throw ex;
+		}
+	}
+
+}
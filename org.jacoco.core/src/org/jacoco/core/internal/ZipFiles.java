@@ -0,0 +1,49 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.zip.ZipFile;
+
+/**
+ * Utilities for {@link ZipFile}s. Opening archive files with {@link ZipFile}
+ * gives random access to the entries through the central directory instead of
+ * reading the archive as a stream of local entries.
+ */
+public final class ZipFiles {
+
+	private ZipFiles() {
+	}
+
+	/**
+	 * Opens the given file as {@link ZipFile}. The file is expected to be
+	 * detected as ZIP archive by {@link ContentTypeDetector} before.
+	 *
+	 * @param file
+	 *            file to open
+	 * @return opened archive or <code>null</code> if the file can't be opened
+	 *         with {@link ZipFile}, e.g. because it has no valid central
+	 *         directory
+	 */
+	public static ZipFile open(final File file) {
+		try {
+			return new ZipFile(file);
+		} catch (final IOException e) {
+			// Archives without valid central directory can still be processed
+			// as a stream of local entries.
+			return null;
+		}
+	}
+
+}
@@ -36,6 +36,7 @@ public class ClassAnalyzer extends ClassProbesVisitor
 	private final ClassCoverageImpl coverage;
 	private final boolean[] probes;
 	private final StringPool stringPool;
+	private final ClassStructure structure;
 
 	private final Set<String> classAnnotations = new HashSet<String>();
 
@@ -57,9 +58,30 @@ public class ClassAnalyzer extends ClassProbesVisitor
 	 */
 	public ClassAnalyzer(final ClassCoverageImpl coverage,
 			final boolean[] probes, final StringPool stringPool) {
+		this(coverage, probes, stringPool, null);
+	}
+
+	/**
+	 * Creates a new analyzer that builds coverage data for a class and
+	 * additionally records the structure of its methods.
+	 *
+	 * @param coverage
+	 *            coverage node for the analyzed class data
+	 * @param probes
+	 *            execution data for this class or <code>null</code>
+	 * @param stringPool
+	 *            shared pool to minimize the number of {@link String} instances
+	 * @param structure
+	 *            structure to record the analyzed methods to or
+	 *            <code>null</code>
+	 */
+	public ClassAnalyzer(final ClassCoverageImpl coverage,
+			final boolean[] probes, final StringPool stringPool,
+			final ClassStructure structure) {
 		this.coverage = coverage;
 		this.probes = probes;
 		this.stringPool = stringPool;
+		this.structure = structure;
 		this.filter = Filters.all();
 	}
 
@@ -97,7 +119,8 @@ public class ClassAnalyzer extends ClassProbesVisitor
 
 		InstrSupport.assertNotInstrumented(name, coverage.getName());
 
-		final InstructionsBuilder builder = new InstructionsBuilder(probes);
+		final InstructionsBuilder builder = new InstructionsBuilder(probes,
+				structure != null);
 
 		return new MethodAnalyzer(builder) {
 
@@ -125,6 +148,9 @@ public class ClassAnalyzer extends ClassProbesVisitor
 		if (mc.containsCode()) {
 			// Only consider methods that actually contain code
 			coverage.addMethod(mc);
+			if (structure != null) {
+				structure.addMethod(mc, mcc.getFilteredInstructions());
+			}
 		}
 
 	}
@@ -0,0 +1,462 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.internal.analysis;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jacoco.core.analysis.ICounter;
+import org.jacoco.core.internal.data.ProbeBits;
+
+/**
+ * Result of the structural analysis of a class which allows to calculate its
+ * coverage for any probe array without processing the class file again. The
+ * structure contains the filtered instructions of all methods together with the
+ * probes which mark them as covered. Instructions without branches are
+ * aggregated per line and set of probes.
+ *
+ * Instances are filled by {@link ClassAnalyzer} and can be serialized for later
+ * use. For the same probe array the coverage calculated from the structure is
+ * identical to the result of {@link ClassAnalyzer}.
+ */
+public class ClassStructure {
+
+	private long id;
+
+	private String name;
+
+	private String signature;
+
+	private String superName;
+
+	private String[] interfaces;
+
+	private String sourceFileName;
+
+	/** Distinct sets of probes as bitset words referenced by index */
+	private final List<long[]> probeSets;
+
+	/** Index of probe sets, only used while the structure is recorded */
+	private final Map<BitSet, Integer> probeSetIndex;
+
+	private final List<MethodStructure> methods;
+
+	/**
+	 * Creates an empty structure to record the analysis of a class to.
+	 */
+	public ClassStructure() {
+		this.probeSets = new ArrayList<long[]>();
+		this.probeSetIndex = new HashMap<BitSet, Integer>();
+		this.methods = new ArrayList<MethodStructure>();
+	}
+
+	/**
+	 * Takes the class level information from the given coverage node after
+	 * analysis.
+	 *
+	 * @param coverage
+	 *            coverage node of the analyzed class
+	 */
+	public void setClassInfo(final ClassCoverageImpl coverage) {
+		this.id = coverage.getId();
+		this.name = coverage.getName();
+		this.signature = coverage.getSignature();
+		this.superName = coverage.getSuperName();
+		this.interfaces = coverage.getInterfaceNames();
+		this.sourceFileName = coverage.getSourceFileName();
+	}
+
+	/**
+	 * Records an analyzed method.
+	 *
+	 * @param coverage
+	 *            coverage of the method
+	 * @param instructions
+	 *            filtered instructions of the method which track their probes
+	 */
+	void addMethod(final MethodCoverageImpl coverage,
+			final Collection<Instruction> instructions) {
+		final MethodStructure method = new MethodStructure(coverage.getName(),
+				coverage.getDesc(), coverage.getSignature(),
+				coverage.getFirstLine(), coverage.getLastLine());
+		final Map<Long, int[]> simple = new LinkedHashMap<Long, int[]>();
+		final List<int[]> branches = new ArrayList<int[]>();
+		for (final Instruction i : instructions) {
+			if (i.getBranches() < 2) {
+				final long key = ((long) i.getLine() << 32)
+						| getProbeSetIndex(i.getProbes());
+				final int[] entry = simple.get(Long.valueOf(key));
+				if (entry == null) {
+					simple.put(Long.valueOf(key), new int[] { i.getLine(),
+							getProbeSetIndex(i.getProbes()), 1 });
+				} else {
+					entry[2]++;
+				}
+			} else {
+				branches.add(branchEntry(i));
+			}
+		}
+		method.simple = flatten(simple.values(), 3);
+		method.branches = branches.toArray(new int[branches.size()][]);
+		methods.add(method);
+	}
+
+	private int[] branchEntry(final Instruction i) {
+		final List<Integer> slots = new ArrayList<Integer>();
+		for (final BitSet p : i.getBranchProbes()) {
+			if (p != null && !p.isEmpty()) {
+				slots.add(Integer.valueOf(getProbeSetIndex(p)));
+			}
+		}
+		final int[] entry = new int[2 + slots.size()];
+		entry[0] = i.getLine();
+		entry[1] = i.getBranches();
+		for (int s = 0; s < slots.size(); s++) {
+			entry[2 + s] = slots.get(s).intValue();
+		}
+		return entry;
+	}
+
+	private int getProbeSetIndex(final BitSet probes) {
+		final Integer index = probeSetIndex.get(probes);
+		if (index != null) {
+			return index.intValue();
+		}
+		probeSetIndex.put((BitSet) probes.clone(),
+				Integer.valueOf(probeSets.size()));
+		probeSets.add(toWords(probes));
+		return probeSets.size() - 1;
+	}
+
+	private static long[] toWords(final BitSet set) {
+		final long[] words = new long[ProbeBits.words(set.length())];
+		for (int i = set.nextSetBit(0); i >= 0; i = set.nextSetBit(i + 1)) {
+			words[i >>> 6] |= 1L << i;
+		}
+		return words;
+	}
+
+	private static int[] flatten(final Collection<int[]> entries,
+			final int size) {
+		final int[] result = new int[entries.size() * size];
+		int pos = 0;
+		for (final int[] e : entries) {
+			System.arraycopy(e, 0, result, pos, size);
+			pos += size;
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the identifier of the class.
+	 *
+	 * @return class identifier
+	 */
+	public long getId() {
+		return id;
+	}
+
+	/**
+	 * Returns the VM name of the class.
+	 *
+	 * @return VM name of the class
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Calculates the coverage of the class for the given probes in bitset
+	 * representation.
+	 *
+	 * @param probes
+	 *            execution data for this class as bitset words, see
+	 *            {@link ProbeBits}, or <code>null</code>
+	 * @param noMatch
+	 *            <code>true</code>, if class id does not match with execution
+	 *            data
+	 * @return coverage node for the class
+	 */
+	public ClassCoverageImpl getCoverage(final long[] probes,
+			final boolean noMatch) {
+		final boolean[] hits = new boolean[probeSets.size()];
+		if (probes != null) {
+			for (int s = 0; s < hits.length; s++) {
+				hits[s] = ProbeBits.intersects(probeSets.get(s), probes);
+			}
+		}
+		final ClassCoverageImpl coverage = new ClassCoverageImpl(name, id,
+				noMatch);
+		coverage.setSignature(signature);
+		coverage.setSuperName(superName);
+		coverage.setInterfaces(interfaces);
+		coverage.setSourceFileName(sourceFileName);
+		for (final MethodStructure m : methods) {
+			coverage.addMethod(m.getCoverage(hits));
+		}
+		return coverage;
+	}
+
+	/**
+	 * Writes this structure to the given output.
+	 *
+	 * @param out
+	 *            output to write to
+	 * @throws IOException
+	 *             in case of problems with the output
+	 */
+	public void write(final DataOutput out) throws IOException {
+		out.writeLong(id);
+		out.writeUTF(name);
+		writeOptional(out, signature);
+		writeOptional(out, superName);
+		if (interfaces == null) {
+			out.writeInt(-1);
+		} else {
+			out.writeInt(interfaces.length);
+			for (final String i : interfaces) {
+				out.writeUTF(i);
+			}
+		}
+		writeOptional(out, sourceFileName);
+		out.writeInt(probeSets.size());
+		for (final long[] p : probeSets) {
+			writeProbeSet(out, p);
+		}
+		out.writeInt(methods.size());
+		for (final MethodStructure m : methods) {
+			m.write(out);
+		}
+	}
+
+	/**
+	 * Reads a structure which has been written with {@link #write(DataOutput)}.
+	 *
+	 * @param in
+	 *            input to read from
+	 * @param stringPool
+	 *            shared pool to minimize the number of {@link String} instances
+	 * @return structure read from the input
+	 * @throws IOException
+	 *             in case of problems with the input or if the input does not
+	 *             contain a valid structure
+	 */
+	public static ClassStructure read(final DataInput in,
+			final StringPool stringPool) throws IOException {
+		final ClassStructure s = new ClassStructure();
+		s.id = in.readLong();
+		s.name = stringPool.get(in.readUTF());
+		s.signature = stringPool.get(readOptional(in));
+		s.superName = stringPool.get(readOptional(in));
+		final int interfaceCount = in.readInt();
+		if (interfaceCount < -1) {
+			throw invalid();
+		}
+		if (interfaceCount >= 0) {
+			s.interfaces = new String[interfaceCount];
+			for (int i = 0; i < interfaceCount; i++) {
+				s.interfaces[i] = stringPool.get(in.readUTF());
+			}
+		}
+		s.sourceFileName = stringPool.get(readOptional(in));
+		final int setCount = readCount(in);
+		for (int i = 0; i < setCount; i++) {
+			s.probeSets.add(readProbeSet(in));
+		}
+		final int methodCount = readCount(in);
+		for (int i = 0; i < methodCount; i++) {
+			s.methods.add(MethodStructure.read(in, stringPool, setCount));
+		}
+		return s;
+	}
+
+	private static int readCount(final DataInput in) throws IOException {
+		final int count = in.readInt();
+		if (count < 0) {
+			throw invalid();
+		}
+		return count;
+	}
+
+	private static IOException invalid() {
+		return new IOException("Invalid class structure.");
+	}
+
+	private static void writeProbeSet(final DataOutput out, final long[] set)
+			throws IOException {
+		out.writeInt(set.length);
+		for (final long word : set) {
+			out.writeLong(word);
+		}
+	}
+
+	private static long[] readProbeSet(final DataInput in) throws IOException {
+		final long[] set = new long[readCount(in)];
+		for (int w = 0; w < set.length; w++) {
+			set[w] = in.readLong();
+		}
+		return set;
+	}
+
+	private static void writeOptional(final DataOutput out, final String s)
+			throws IOException {
+		out.writeBoolean(s != null);
+		if (s != null) {
+			out.writeUTF(s);
+		}
+	}
+
+	private static String readOptional(final DataInput in) throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+
+	private static int[] readInts(final DataInput in) throws IOException {
+		final int[] result = new int[readCount(in)];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = in.readInt();
+		}
+		return result;
+	}
+
+	private static void writeInts(final DataOutput out, final int[] values)
+			throws IOException {
+		out.writeInt(values.length);
+		for (final int v : values) {
+			out.writeInt(v);
+		}
+	}
+
+	private static class MethodStructure {
+
+		private final String name;
+
+		private final String desc;
+
+		private final String signature;
+
+		private final int firstLine;
+
+		private final int lastLine;
+
+		/**
+		 * Instructions without branches as triples of line, probe set and
+		 * number of instructions.
+		 */
+		private int[] simple;
+
+		/**
+		 * Instructions with branches as line, number of branches and the probe
+		 * sets of the individual branches.
+		 */
+		private int[][] branches;
+
+		MethodStructure(final String name, final String desc,
+				final String signature, final int firstLine,
+				final int lastLine) {
+			this.name = name;
+			this.desc = desc;
+			this.signature = signature;
+			this.firstLine = firstLine;
+			this.lastLine = lastLine;
+		}
+
+		MethodCoverageImpl getCoverage(final boolean[] hits) {
+			final MethodCoverageImpl coverage = new MethodCoverageImpl(name,
+					desc, signature);
+			coverage.ensureCapacity(firstLine, lastLine);
+			for (int i = 0; i < simple.length; i += 3) {
+				final int count = simple[i + 2];
+				final ICounter instructions = hits[simple[i + 1]]
+						? CounterImpl.getInstance(0, count)
+						: CounterImpl.getInstance(count, 0);
+				coverage.increment(instructions, CounterImpl.COUNTER_0_0,
+						simple[i]);
+			}
+			for (final int[] b : branches) {
+				int covered = 0;
+				for (int s = 2; s < b.length; s++) {
+					if (hits[b[s]]) {
+						covered++;
+					}
+				}
+				coverage.increment(
+						covered == 0 ? CounterImpl.COUNTER_1_0
+								: CounterImpl.COUNTER_0_1,
+						CounterImpl.getInstance(b[1] - covered, covered), b[0]);
+			}
+			coverage.incrementMethodCounter();
+			return coverage;
+		}
+
+		void write(final DataOutput out) throws IOException {
+			out.writeUTF(name);
+			out.writeUTF(desc);
+			writeOptional(out, signature);
+			out.writeInt(firstLine);
+			out.writeInt(lastLine);
+			writeInts(out, simple);
+			out.writeInt(branches.length);
+			for (final int[] b : branches) {
+				writeInts(out, b);
+			}
+		}
+
+		static MethodStructure read(final DataInput in,
+				final StringPool stringPool, final int setCount)
+				throws IOException {
+			final MethodStructure m = new MethodStructure(
+					stringPool.get(in.readUTF()), stringPool.get(in.readUTF()),
+					stringPool.get(readOptional(in)), in.readInt(),
+					in.readInt());
+			m.simple = readInts(in);
+			if (m.simple.length % 3 != 0) {
+				throw invalid();
+			}
+			for (int i = 0; i < m.simple.length; i += 3) {
+				checkSet(m.simple[i + 1], setCount);
+				if (m.simple[i + 2] < 0) {
+					throw invalid();
+				}
+			}
+			m.branches = new int[readCount(in)][];
+			for (int i = 0; i < m.branches.length; i++) {
+				final int[] b = readInts(in);
+				if (b.length < 2 || b[1] < b.length - 2) {
+					throw invalid();
+				}
+				for (int s = 2; s < b.length; s++) {
+					checkSet(b[s], setCount);
+				}
+				m.branches[i] = b;
+			}
+			return m;
+		}
+
+		private static void checkSet(final int index, final int setCount)
+				throws IOException {
+			if (index < 0 || index >= setCount) {
+				throw invalid();
+			}
+		}
+
+	}
+
+}
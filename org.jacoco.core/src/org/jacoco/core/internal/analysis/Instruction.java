@@ -52,6 +52,11 @@ import org.jacoco.core.analysis.ICounter;
  * <li>{@link #merge(Instruction)}</li>
  * <li>{@link #replaceBranches(Collection)}</li>
  * </ul>
+ *
+ * Optionally every instruction can additionally track the probes which mark its
+ * branches as covered, independently of the actual probe values. A branch is
+ * covered if any of its probes has been executed. This allows to calculate the
+ * coverage for other probe arrays later without building the CFG again.
  */
 public class Instruction {
 
@@ -65,6 +70,12 @@ public class Instruction {
 
 	private int predecessorBranch;
 
+	/** All probes covering this instruction or <code>null</code> */
+	private final BitSet probes;
+
+	/** Probes covering the individual branches */
+	private BitSet[] branchProbes;
+
 	/**
 	 * New instruction at the given line.
 	 *
@@ -72,9 +83,24 @@ public class Instruction {
 	 *            source line this instruction belongs to
 	 */
 	public Instruction(final int line) {
+		this(line, false);
+	}
+
+	/**
+	 * New instruction at the given line which optionally tracks the probes
+	 * covering it.
+	 *
+	 * @param line
+	 *            source line this instruction belongs to
+	 * @param trackProbes
+	 *            whether the probes covering this instruction should be tracked
+	 */
+	public Instruction(final int line, final boolean trackProbes) {
 		this.line = line;
 		this.branches = 0;
 		this.coveredBranches = new BitSet();
+		this.probes = trackProbes ? new BitSet() : null;
+		this.branchProbes = trackProbes ? new BitSet[2] : null;
 	}
 
 	/**
@@ -98,6 +124,9 @@ public class Instruction {
 		if (!target.coveredBranches.isEmpty()) {
 			propagateExecutedBranch(this, branch);
 		}
+		if (probes != null && !target.probes.isEmpty()) {
+			propagateProbes(this, branch, target.probes);
+		}
 	}
 
 	/**
@@ -133,6 +162,57 @@ public class Instruction {
 		}
 	}
 
+	/**
+	 * Records the probe of a branch which has been added with
+	 * {@link #addBranch(boolean, int)} before. The probe is also recorded for
+	 * the predecessors of this instruction. Only has an effect if this
+	 * instruction tracks probes.
+	 *
+	 * @param probeId
+	 *            index in the probe array
+	 * @param branch
+	 *            branch identifier unique for this instruction
+	 */
+	public void addProbe(final int probeId, final int branch) {
+		if (probes != null) {
+			final BitSet p = new BitSet();
+			p.set(probeId);
+			propagateProbes(this, branch, p);
+		}
+	}
+
+	private static void propagateProbes(Instruction insn, int branch,
+			BitSet probes) {
+		// Predecessors already know the probes known by an instruction
+		while (insn != null) {
+			insn.getBranchProbes(branch).or(probes);
+			final BitSet unknown = (BitSet) probes.clone();
+			unknown.andNot(insn.probes);
+			if (unknown.isEmpty()) {
+				break;
+			}
+			insn.probes.or(unknown);
+			probes = unknown;
+			branch = insn.predecessorBranch;
+			insn = insn.predecessor;
+		}
+	}
+
+	private BitSet getBranchProbes(final int branch) {
+		if (branch >= branchProbes.length) {
+			final BitSet[] newBranchProbes = new BitSet[branch + 1];
+			System.arraycopy(branchProbes, 0, newBranchProbes, 0,
+					branchProbes.length);
+			branchProbes = newBranchProbes;
+		}
+		BitSet p = branchProbes[branch];
+		if (p == null) {
+			p = new BitSet();
+			branchProbes[branch] = p;
+		}
+		return p;
+	}
+
 	/**
 	 * Returns the source line this instruction belongs to.
 	 *
@@ -151,10 +231,14 @@ public class Instruction {
 	 * @return new instance with merged branches
 	 */
 	public Instruction merge(final Instruction other) {
-		final Instruction result = new Instruction(this.line);
+		final Instruction result = new Instruction(this.line, probes != null);
 		result.branches = this.branches;
 		result.coveredBranches.or(this.coveredBranches);
 		result.coveredBranches.or(other.coveredBranches);
+		if (probes != null) {
+			result.mergeProbes(this);
+			result.mergeProbes(other);
+		}
 		return result;
 	}
 
@@ -169,7 +253,7 @@ public class Instruction {
 	 */
 	public Instruction replaceBranches(
 			final Collection<Instruction> newBranches) {
-		final Instruction result = new Instruction(this.line);
+		final Instruction result = new Instruction(this.line, probes != null);
 		result.branches = newBranches.size();
 		int idx = 0;
 		for (final Instruction b : newBranches) {
@@ -177,9 +261,26 @@ public class Instruction {
 				result.coveredBranches.set(idx++);
 			}
 		}
+		if (probes != null) {
+			int branch = 0;
+			for (final Instruction b : newBranches) {
+				result.getBranchProbes(branch++).or(b.probes);
+				result.probes.or(b.probes);
+			}
+		}
 		return result;
 	}
 
+	private void mergeProbes(final Instruction other) {
+		probes.or(other.probes);
+		for (int branch = 0; branch < other.branchProbes.length; branch++) {
+			final BitSet p = other.branchProbes[branch];
+			if (p != null) {
+				getBranchProbes(branch).or(p);
+			}
+		}
+	}
+
 	/**
 	 * Returns the instruction coverage counter of this instruction. It is
 	 * always 1 instruction which is covered or not.
@@ -205,4 +306,36 @@ public class Instruction {
 		return CounterImpl.getInstance(branches - covered, covered);
 	}
 
+	/**
+	 * Returns the number of outgoing branches of this instruction.
+	 *
+	 * @return number of branches
+	 */
+	int getBranches() {
+		return branches;
+	}
+
+	/**
+	 * Returns the probes which cover this instruction, i.e. the instruction is
+	 * covered if any of these probes has been executed. Only available if this
+	 * instruction tracks probes.
+	 *
+	 * @return probes covering this instruction
+	 */
+	BitSet getProbes() {
+		return probes;
+	}
+
+	/**
+	 * Returns the probes covering the individual branches of this instruction.
+	 * The number of covered branches is the number of entries with executed
+	 * probes. Entries may be <code>null</code>. Only available if this
+	 * instruction tracks probes.
+	 *
+	 * @return probes covering the individual branches
+	 */
+	BitSet[] getBranchProbes() {
+		return branchProbes;
+	}
+
 }
@@ -33,6 +33,9 @@ class InstructionsBuilder {
 	/** Probe array of the class the analyzed method belongs to. */
 	private final boolean[] probes;
 
+	/** Whether the instructions should track the probes covering them. */
+	private final boolean trackProbes;
+
 	/** The line which belong to subsequently added instructions. */
 	private int currentLine;
 
@@ -67,7 +70,22 @@ class InstructionsBuilder {
 	 *            coverage status of every instruction.
 	 */
 	InstructionsBuilder(final boolean[] probes) {
+		this(probes, false);
+	}
+
+	/**
+	 * Creates a new builder instance which can be used to analyze a single
+	 * method and optionally tracks the probes covering every instruction.
+	 *
+	 * @param probes
+	 *            probe array of the corresponding class used to determine the
+	 *            coverage status of every instruction.
+	 * @param trackProbes
+	 *            whether the instructions should track the probes covering them
+	 */
+	InstructionsBuilder(final boolean[] probes, final boolean trackProbes) {
 		this.probes = probes;
+		this.trackProbes = trackProbes;
 		this.currentLine = ISourceNode.UNKNOWN_LINE;
 		this.currentInsn = null;
 		this.instructions = new HashMap<AbstractInsnNode, Instruction>();
@@ -101,7 +119,7 @@ class InstructionsBuilder {
 	 * previous instruction unless specified otherwise.
 	 */
 	void addInstruction(final AbstractInsnNode node) {
-		final Instruction insn = new Instruction(currentLine);
+		final Instruction insn = new Instruction(currentLine, trackProbes);
 		final int labelCount = currentLabel.size();
 		if (labelCount > 0) {
 			for (int i = labelCount; --i >= 0;) {
@@ -148,6 +166,7 @@ class InstructionsBuilder {
 	void addProbe(final int probeId, final int branch) {
 		final boolean executed = probes != null && probes[probeId];
 		currentInsn.addBranch(executed, branch);
+		currentInsn.addProbe(probeId, branch);
 	}
 
 	/**
@@ -82,6 +82,24 @@ class MethodCoverageCalculator implements IFilterOutput {
 		coverage.incrementMethodCounter();
 	}
 
+	/**
+	 * Returns the instructions which are considered for the coverage result
+	 * after all filtering commands have been applied. May only be called after
+	 * {@link #calculate(MethodCoverageImpl)}.
+	 *
+	 * @return filtered instructions
+	 */
+	List<Instruction> getFilteredInstructions() {
+		final List<Instruction> result = new ArrayList<Instruction>();
+		for (final Entry<AbstractInsnNode, Instruction> entry : instructions
+				.entrySet()) {
+			if (!ignored.contains(entry.getKey())) {
+				result.add(entry.getValue());
+			}
+		}
+		return result;
+	}
+
 	private void applyMerges() {
 		// Merge to the representative:
 		for (final Entry<AbstractInsnNode, AbstractInsnNode> entry : merged
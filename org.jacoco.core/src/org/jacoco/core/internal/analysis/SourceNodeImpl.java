@@ -22,7 +22,26 @@ import org.jacoco.core.analysis.ISourceNode;
  */
 public class SourceNodeImpl extends CoverageNodeImpl implements ISourceNode {
 
-	private LineImpl[] lines;
+	/** number of values stored per line in {@link #lines} */
+	private static final int LINE_SIZE = 4;
+
+	private static final int INSTRUCTIONS_MISSED = 0;
+	private static final int INSTRUCTIONS_COVERED = 1;
+	private static final int BRANCHES_MISSED = 2;
+	private static final int BRANCHES_COVERED = 3;
+
+	/**
+	 * Counter values of all lines. To avoid line objects while coverage data is
+	 * aggregated the values are stored as {@link #LINE_SIZE} consecutive
+	 * entries per line. {@link ILine} instances are only created on request.
+	 *
+	 * This trades memory for less allocation: Every line takes 16 bytes, while
+	 * an array of references to shared {@link LineImpl} instances takes 4 or 8
+	 * bytes per line. Also every call of {@link #getLine(int)} for a line with
+	 * counter values outside the range of the {@link LineImpl} singletons
+	 * creates a new instance.
+	 */
+	private int[] lines;
 
 	/** first line number in {@link #lines} */
 	private int offset;
@@ -57,15 +76,15 @@ public class SourceNodeImpl extends CoverageNodeImpl implements ISourceNode {
 		}
 		if (lines == null) {
 			offset = first;
-			lines = new LineImpl[last - first + 1];
+			lines = new int[(last - first + 1) * LINE_SIZE];
 		} else {
 			final int newFirst = Math.min(getFirstLine(), first);
 			final int newLast = Math.max(getLastLine(), last);
-			final int newLength = newLast - newFirst + 1;
+			final int newLength = (newLast - newFirst + 1) * LINE_SIZE;
 			if (newLength > lines.length) {
-				final LineImpl[] newLines = new LineImpl[newLength];
-				System.arraycopy(lines, 0, newLines, offset - newFirst,
-						lines.length);
+				final int[] newLines = new int[newLength];
+				System.arraycopy(lines, 0, newLines,
+						(offset - newFirst) * LINE_SIZE, lines.length);
 				offset = newFirst;
 				lines = newLines;
 			}
@@ -92,10 +111,30 @@ public class SourceNodeImpl extends CoverageNodeImpl implements ISourceNode {
 		if (firstLine != UNKNOWN_LINE) {
 			final int lastLine = child.getLastLine();
 			ensureCapacity(firstLine, lastLine);
-			for (int i = firstLine; i <= lastLine; i++) {
-				final ILine line = child.getLine(i);
-				incrementLine(line.getInstructionCounter(),
-						line.getBranchCounter(), i);
+			if (child instanceof SourceNodeImpl) {
+				incrementLines(((SourceNodeImpl) child).lines, firstLine);
+			} else {
+				for (int i = firstLine; i <= lastLine; i++) {
+					final ILine line = child.getLine(i);
+					final ICounter instructions = line.getInstructionCounter();
+					final ICounter branches = line.getBranchCounter();
+					incrementLine(instructions.getMissedCount(),
+							instructions.getCoveredCount(),
+							branches.getMissedCount(),
+							branches.getCoveredCount(), i);
+				}
+			}
+		}
+	}
+
+	private void incrementLines(final int[] childLines, final int firstLine) {
+		for (int i = 0; i < childLines.length; i += LINE_SIZE) {
+			final int im = childLines[i + INSTRUCTIONS_MISSED];
+			final int ic = childLines[i + INSTRUCTIONS_COVERED];
+			final int bm = childLines[i + BRANCHES_MISSED];
+			final int bc = childLines[i + BRANCHES_COVERED];
+			if ((im | ic | bm | bc) != 0) {
+				incrementLine(im, ic, bm, bc, firstLine + i / LINE_SIZE);
 			}
 		}
 	}
@@ -115,23 +154,29 @@ public class SourceNodeImpl extends CoverageNodeImpl implements ISourceNode {
 	public void increment(final ICounter instructions, final ICounter branches,
 			final int line) {
 		if (line != UNKNOWN_LINE) {
-			incrementLine(instructions, branches, line);
+			incrementLine(instructions.getMissedCount(),
+					instructions.getCoveredCount(), branches.getMissedCount(),
+					branches.getCoveredCount(), line);
 		}
 		instructionCounter = instructionCounter.increment(instructions);
 		branchCounter = branchCounter.increment(branches);
 	}
 
-	private void incrementLine(final ICounter instructions,
-			final ICounter branches, final int line) {
+	private void incrementLine(final int instructionsMissed,
+			final int instructionsCovered, final int branchesMissed,
+			final int branchesCovered, final int line) {
 		ensureCapacity(line, line);
-		final LineImpl l = getLine(line);
-		final int oldTotal = l.getInstructionCounter().getTotalCount();
-		final int oldCovered = l.getInstructionCounter().getCoveredCount();
-		lines[line - offset] = l.increment(instructions, branches);
+		final int i = (line - offset) * LINE_SIZE;
+		final int oldCovered = lines[i + INSTRUCTIONS_COVERED];
+		final int oldTotal = lines[i + INSTRUCTIONS_MISSED] + oldCovered;
+		lines[i + INSTRUCTIONS_MISSED] += instructionsMissed;
+		lines[i + INSTRUCTIONS_COVERED] += instructionsCovered;
+		lines[i + BRANCHES_MISSED] += branchesMissed;
+		lines[i + BRANCHES_COVERED] += branchesCovered;
 
 		// Increment line counter:
-		if (instructions.getTotalCount() > 0) {
-			if (instructions.getCoveredCount() == 0) {
+		if (instructionsMissed + instructionsCovered > 0) {
+			if (instructionsCovered == 0) {
 				if (oldTotal == 0) {
 					lineCounter = lineCounter
 							.increment(CounterImpl.COUNTER_1_0);
@@ -156,15 +201,19 @@ public class SourceNodeImpl extends CoverageNodeImpl implements ISourceNode {
 	}
 
 	public int getLastLine() {
-		return lines == null ? UNKNOWN_LINE : (offset + lines.length - 1);
+		return lines == null ? UNKNOWN_LINE
+				: (offset + lines.length / LINE_SIZE - 1);
 	}
 
 	public LineImpl getLine(final int nr) {
 		if (lines == null || nr < getFirstLine() || nr > getLastLine()) {
 			return LineImpl.EMPTY;
 		}
-		final LineImpl line = lines[nr - offset];
-		return line == null ? LineImpl.EMPTY : line;
+		final int i = (nr - offset) * LINE_SIZE;
+		// New instance for counter values outside the singleton range
+		return LineImpl.getInstance(lines[i + INSTRUCTIONS_MISSED],
+				lines[i + INSTRUCTIONS_COVERED], lines[i + BRANCHES_MISSED],
+				lines[i + BRANCHES_COVERED]);
 	}
 
 }
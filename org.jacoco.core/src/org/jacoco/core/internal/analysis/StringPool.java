@@ -13,8 +13,8 @@
  *******************************************************************************/
 package org.jacoco.core.internal.analysis;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Utility to normalize {@link String} instances in a way that if
@@ -22,13 +22,15 @@ import java.util.Map;
  * represented the same instance. While this is exactly what
  * {@link String#intern()} does, this implementation avoids VM specific side
  * effects and is supposed to be faster, as neither native code is called nor
- * synchronization is required for concurrent lookup.
+ * synchronization is required for concurrent lookup. Instances of this class
+ * are thread-safe and can be shared by parallel analysis tasks.
  */
 public final class StringPool {
 
 	private static final String[] EMPTY_ARRAY = new String[0];
 
-	private final Map<String, String> pool = new HashMap<String, String>(1024);
+	private final ConcurrentMap<String, String> pool = new ConcurrentHashMap<String, String>(
+			1024);
 
 	/**
 	 * Returns a normalized instance that is equal to the given {@link String} .
@@ -41,12 +43,8 @@ public final class StringPool {
 		if (s == null) {
 			return null;
 		}
-		final String norm = pool.get(s);
-		if (norm == null) {
-			pool.put(s, s);
-			return s;
-		}
-		return norm;
+		final String norm = pool.putIfAbsent(s, s);
+		return norm == null ? s : norm;
 	}
 
 	/**
@@ -22,15 +22,24 @@ import org.objectweb.asm.Opcodes;
  * <li>http://en.wikipedia.org/wiki/Cyclic_redundancy_check</li>
  * <li>http://www.geocities.com/SiliconValley/Pines/8659/crc.htm</li>
  * </ul>
+ *
+ * For performance reasons eight bytes are processed at once with eight lookup
+ * tables ("slicing-by-8"), which results in the same checksum as processing
+ * each byte individually.
  */
 public final class CRC64 {
 
 	private static final long POLY64REV = 0xd800000000000000L;
 
+	/**
+	 * Eight consecutive lookup tables with 256 entries each. The first table is
+	 * the classic byte-wise lookup table, table <code>k</code> contains the
+	 * checksum update for a byte followed by <code>k</code> zero bytes.
+	 */
 	private static final long[] LOOKUPTABLE;
 
 	static {
-		LOOKUPTABLE = new long[0x100];
+		LOOKUPTABLE = new long[8 * 0x100];
 		for (int i = 0; i < 0x100; i++) {
 			long v = i;
 			for (int j = 0; j < 8; j++) {
@@ -42,6 +51,10 @@ public final class CRC64 {
 			}
 			LOOKUPTABLE[i] = v;
 		}
+		for (int i = 0x100; i < LOOKUPTABLE.length; i++) {
+			final long v = LOOKUPTABLE[i - 0x100];
+			LOOKUPTABLE[i] = (v >>> 8) ^ LOOKUPTABLE[(int) v & 0xff];
+		}
 	}
 
 	/**
@@ -73,7 +86,23 @@ public final class CRC64 {
 	 */
 	private static long update(long sum, final byte[] bytes,
 			final int fromIndexInclusive, final int toIndexExclusive) {
-		for (int i = fromIndexInclusive; i < toIndexExclusive; i++) {
+		final long[] t = LOOKUPTABLE;
+		int i = fromIndexInclusive;
+		final int limit = toIndexExclusive - 7;
+		while (i < limit) {
+			final int lo = (bytes[i] & 0xff) | (bytes[i + 1] & 0xff) << 8
+					| (bytes[i + 2] & 0xff) << 16 | bytes[i + 3] << 24;
+			final int hi = (bytes[i + 4] & 0xff) | (bytes[i + 5] & 0xff) << 8
+					| (bytes[i + 6] & 0xff) << 16 | bytes[i + 7] << 24;
+			final int x = (int) sum ^ lo;
+			final int y = (int) (sum >>> 32) ^ hi;
+			sum = t[0x700 | (x & 0xff)] ^ t[0x600 | ((x >>> 8) & 0xff)]
+					^ t[0x500 | ((x >>> 16) & 0xff)] ^ t[0x400 | (x >>> 24)]
+					^ t[0x300 | (y & 0xff)] ^ t[0x200 | ((y >>> 8) & 0xff)]
+					^ t[0x100 | ((y >>> 16) & 0xff)] ^ t[y >>> 24];
+			i += 8;
+		}
+		for (; i < toIndexExclusive; i++) {
 			sum = update(sum, bytes[i]);
 		}
 		return sum;
@@ -13,8 +13,12 @@
 package org.jacoco.core.internal.data;
 
 import java.io.DataInputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
 
 /**
  * Additional data input methods for compact storage of data structures.
@@ -23,6 +27,8 @@ import java.io.InputStream;
  */
 public class CompactDataInput extends DataInputStream {
 
+	private static final int BUFFER_SIZE = 512;
+
 	/**
 	 * Creates a new {@link CompactDataInput} that uses the specified underlying
 	 * input stream.
@@ -69,4 +75,125 @@ public class CompactDataInput extends DataInputStream {
 		return value;
 	}
 
+	/**
+	 * Reads a boolean array written by
+	 * {@link CompactDataOutput#writeCompactBooleanArray(boolean[])}.
+	 *
+	 * @return boolean array
+	 * @throws IOException
+	 *             if thrown by the underlying stream or the encoding is unknown
+	 */
+	public boolean[] readCompactBooleanArray() throws IOException {
+		final int encoding = readByte();
+		switch (encoding) {
+		case CompactDataOutput.ENCODING_BITSET:
+			return readBooleanArray();
+		case CompactDataOutput.ENCODING_SPARSE:
+			final boolean[] value = new boolean[readVarInt()];
+			final int count = readVarInt();
+			int index = -1;
+			for (int i = 0; i < count; i++) {
+				index += readVarInt() + 1;
+				if (index >= value.length) {
+					throw new IOException("Invalid probe index.");
+				}
+				value[index] = true;
+			}
+			return value;
+		default:
+			throw new IOException(String.format("Unknown encoding %x.",
+					Integer.valueOf(encoding)));
+		}
+	}
+
+	/**
+	 * Decompresses all data read from now on with the deflate algorithm. The
+	 * compressed data must have been written with
+	 * {@link CompactDataOutput#startDeflate()}. At the end of the compressed
+	 * data reading continues with the uncompressed underlying stream.
+	 */
+	public void startInflate() {
+		final PushbackInputStream source = in instanceof PushbackInputStream
+				? (PushbackInputStream) in
+				: new PushbackInputStream(in, BUFFER_SIZE);
+		in = new InflatingInput(source);
+	}
+
+	private class InflatingInput extends InputStream {
+
+		private final PushbackInputStream source;
+
+		private final Inflater inflater;
+
+		private final byte[] buffer;
+
+		private final byte[] single;
+
+		private int length;
+
+		private boolean ended;
+
+		InflatingInput(final PushbackInputStream source) {
+			this.source = source;
+			this.inflater = new Inflater();
+			this.buffer = new byte[BUFFER_SIZE];
+			this.single = new byte[1];
+		}
+
+		@Override
+		public int read() throws IOException {
+			return read(single, 0, 1) == -1 ? -1 : 0xFF & single[0];
+		}
+
+		@Override
+		public int read(final byte[] b, final int off, final int len)
+				throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+			if (ended) {
+				// DataInputStream may hold a reference to this stream
+				return source.read(b, off, len);
+			}
+			try {
+				int n;
+				while ((n = inflater.inflate(b, off, len)) == 0) {
+					if (inflater.finished()) {
+						return end().read(b, off, len);
+					}
+					if (inflater.needsDictionary()) {
+						throw new IOException("Invalid compressed data.");
+					}
+					if (inflater.needsInput()) {
+						length = source.read(buffer);
+						if (length == -1) {
+							throw new EOFException();
+						}
+						inflater.setInput(buffer, 0, length);
+					}
+				}
+				return n;
+			} catch (final DataFormatException e) {
+				final IOException ex = new IOException(
+						"Invalid compressed data.");
+				ex.initCause(e);
+				throw ex;
+			}
+		}
+
+		/**
+		 * Returns unused input to the underlying stream and continues reading
+		 * from it.
+		 */
+		private InputStream end() throws IOException {
+			final int remaining = inflater.getRemaining();
+			source.unread(buffer, length - remaining, remaining);
+			inflater.end();
+			ended = true;
+			in = source;
+			return source;
+		}
+
+	}
+
 }
@@ -15,6 +15,8 @@ package org.jacoco.core.internal.data;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
 
 /**
  * Additional data output methods for compact storage of data structures.
@@ -23,6 +25,16 @@ import java.io.OutputStream;
  */
 public class CompactDataOutput extends DataOutputStream {
 
+	/** Encoding of boolean arrays as bitset */
+	static final int ENCODING_BITSET = 0;
+
+	/** Encoding of boolean arrays as list of indices of true values */
+	static final int ENCODING_SPARSE = 1;
+
+	private OutputStream plain;
+
+	private Deflater deflater;
+
 	/**
 	 * Creates a new {@link CompactDataOutput} instance that writes data to the
 	 * specified underlying output stream
@@ -81,4 +93,77 @@ public class CompactDataOutput extends DataOutputStream {
 		}
 	}
 
+	/**
+	 * Writes a boolean array in the more compact of two encodings: Either as
+	 * bitset like {@link #writeBooleanArray(boolean[])} or as the list of
+	 * distances between the indices of <code>true</code> values, which is
+	 * smaller for arrays with only a few <code>true</code> values.
+	 *
+	 * @param value
+	 *            boolean array
+	 * @throws IOException
+	 *             if thrown by the underlying stream
+	 */
+	public void writeCompactBooleanArray(final boolean[] value)
+			throws IOException {
+		int count = 0;
+		int sparseSize = 0;
+		int last = -1;
+		for (int i = 0; i < value.length; i++) {
+			if (value[i]) {
+				count++;
+				sparseSize += varIntSize(i - last - 1);
+				last = i;
+			}
+		}
+		sparseSize += varIntSize(count);
+		if (sparseSize < (value.length + 7) / 8) {
+			writeByte(ENCODING_SPARSE);
+			writeVarInt(value.length);
+			writeVarInt(count);
+			last = -1;
+			for (int i = 0; i < value.length; i++) {
+				if (value[i]) {
+					writeVarInt(i - last - 1);
+					last = i;
+				}
+			}
+		} else {
+			writeByte(ENCODING_BITSET);
+			writeBooleanArray(value);
+		}
+	}
+
+	private static int varIntSize(final int value) {
+		int size = 1;
+		for (int v = value >>> 7; v != 0; v >>>= 7) {
+			size++;
+		}
+		return size;
+	}
+
+	/**
+	 * Compresses all data written from now on with the deflate algorithm until
+	 * {@link #finishDeflate()} is called.
+	 */
+	public void startDeflate() {
+		plain = out;
+		deflater = new Deflater();
+		out = new DeflaterOutputStream(plain, deflater);
+	}
+
+	/**
+	 * Completes compressed data started with {@link #startDeflate()}. All data
+	 * written afterwards is not compressed any more.
+	 *
+	 * @throws IOException
+	 *             if thrown by the underlying stream
+	 */
+	public void finishDeflate() throws IOException {
+		((DeflaterOutputStream) out).finish();
+		deflater.end();
+		deflater = null;
+		out = plain;
+	}
+
 }
@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.internal.data;
+
+/**
+ * Utilities for probe arrays stored as bitsets in <code>long[]</code> words.
+ * Probe <code>i</code> is stored in bit <code>i % 64</code> of word
+ * <code>i / 64</code>.
+ */
+public final class ProbeBits {
+
+	private ProbeBits() {
+	}
+
+	/**
+	 * Returns the number of words required for the given number of probes.
+	 *
+	 * @param probeCount
+	 *            number of probes
+	 * @return number of <code>long</code> words
+	 */
+	public static int words(final int probeCount) {
+		return (probeCount + 63) >>> 6;
+	}
+
+	/**
+	 * Packs the given probe array into a bitset.
+	 *
+	 * @param probes
+	 *            probe array
+	 * @return new bitset
+	 */
+	public static long[] pack(final boolean[] probes) {
+		final long[] bits = new long[words(probes.length)];
+		for (int i = 0; i < probes.length; i++) {
+			if (probes[i]) {
+				bits[i >>> 6] |= 1L << i;
+			}
+		}
+		return bits;
+	}
+
+	/**
+	 * Unpacks the given bitset into a new probe array.
+	 *
+	 * @param bits
+	 *            bitset
+	 * @param probeCount
+	 *            number of probes
+	 * @return new probe array
+	 */
+	public static boolean[] unpack(final long[] bits, final int probeCount) {
+		final boolean[] probes = new boolean[probeCount];
+		for (int i = 0; i < probeCount; i++) {
+			probes[i] = (bits[i >>> 6] & (1L << i)) != 0;
+		}
+		return probes;
+	}
+
+	/**
+	 * Checks whether at least one bit is set.
+	 *
+	 * @param bits
+	 *            bitset
+	 * @return <code>true</code> if at least one bit is set
+	 */
+	public static boolean hasHits(final long[] bits) {
+		for (final long w : bits) {
+			if (w != 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Checks whether both bitsets have at least one bit in common. The bitsets
+	 * may have different lengths.
+	 *
+	 * @param a
+	 *            first bitset
+	 * @param b
+	 *            second bitset
+	 * @return <code>true</code> if at least one bit is set in both bitsets
+	 */
+	public static boolean intersects(final long[] a, final long[] b) {
+		final int length = Math.min(a.length, b.length);
+		for (int i = 0; i < length; i++) {
+			if ((a[i] & b[i]) != 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Sets all bits in the target which are set in the source.
+	 *
+	 * @param target
+	 *            bitset to modify
+	 * @param source
+	 *            bits to set
+	 */
+	public static void or(final long[] target, final long[] source) {
+		for (int i = 0; i < target.length; i++) {
+			target[i] |= source[i];
+		}
+	}
+
+	/**
+	 * Clears all bits in the target which are set in the source.
+	 *
+	 * @param target
+	 *            bitset to modify
+	 * @param source
+	 *            bits to clear
+	 */
+	public static void andNot(final long[] target, final long[] source) {
+		for (int i = 0; i < target.length; i++) {
+			target[i] &= ~source[i];
+		}
+	}
+
+}
@@ -183,16 +183,44 @@ public final class AgentOptions {
 	 */
 	public static final String CLASSDUMPDIR = "classdumpdir";
 
+	/**
+	 * Specifies a directory where the agent caches instrumented class files.
+	 * The cache can be shared by multiple JVMs running the same agent version.
+	 * The location is specified as a relative path to the working directory.
+	 * Default is <code>null</code> (no cache).
+	 */
+	public static final String CACHEDIR = "cachedir";
+
+	/**
+	 * Maximum size of the cache directory in megabytes. When the agent starts
+	 * and the cache exceeds this size, least recently used entries are removed.
+	 * Default is defined by {@link #DEFAULT_CACHESIZE}.
+	 */
+	public static final String CACHESIZE = "cachesize";
+
+	/**
+	 * Default value for the "cachesize" agent option.
+	 */
+	public static final int DEFAULT_CACHESIZE = 100;
+
 	/**
 	 * Specifies whether the agent should expose functionality via JMX under the
 	 * name "org.jacoco:type=Runtime". Default is <code>false</code>.
 	 */
 	public static final String JMX = "jmx";
 
+	/**
+	 * Specifies whether execution data is written in the compact format. In
+	 * file output mode the content is additionally compressed. Default is
+	 * <code>false</code>.
+	 */
+	public static final String COMPACT = "compact";
+
 	private static final Collection<String> VALID_OPTIONS = Arrays.asList(
 			DESTFILE, APPEND, INCLUDES, EXCLUDES, EXCLCLASSLOADER,
 			INCLBOOTSTRAPCLASSES, INCLNOLOCATIONCLASSES, SESSIONID, DUMPONEXIT,
-			OUTPUT, ADDRESS, PORT, CLASSDUMPDIR, JMX);
+			OUTPUT, ADDRESS, PORT, CLASSDUMPDIR, CACHEDIR, CACHESIZE, JMX,
+			COMPACT);
 
 	private final Map<String, String> options;
 
@@ -250,6 +278,7 @@ public final class AgentOptions {
 
 	private void validateAll() {
 		validatePort(getPort());
+		validateCacheSize(getCacheSize());
 		getOutput();
 	}
 
@@ -259,6 +288,13 @@ public final class AgentOptions {
 		}
 	}
 
+	private void validateCacheSize(final int size) {
+		if (size < 0) {
+			throw new IllegalArgumentException(
+					"cachesize must not be negative");
+		}
+	}
+
 	/**
 	 * Returns the output file location.
 	 *
@@ -538,6 +574,46 @@ public final class AgentOptions {
 		setOption(CLASSDUMPDIR, location);
 	}
 
+	/**
+	 * Returns the location of the directory where instrumented class files are
+	 * cached.
+	 *
+	 * @return cache location or <code>null</code> (no cache)
+	 */
+	public String getCacheDir() {
+		return getOption(CACHEDIR, null);
+	}
+
+	/**
+	 * Sets the directory where instrumented class files are cached.
+	 *
+	 * @param location
+	 *            cache location or <code>null</code> (no cache)
+	 */
+	public void setCacheDir(final String location) {
+		setOption(CACHEDIR, location);
+	}
+
+	/**
+	 * Returns the maximum size of the cache directory.
+	 *
+	 * @return maximum size in megabytes
+	 */
+	public int getCacheSize() {
+		return getOption(CACHESIZE, DEFAULT_CACHESIZE);
+	}
+
+	/**
+	 * Sets the maximum size of the cache directory.
+	 *
+	 * @param size
+	 *            maximum size in megabytes
+	 */
+	public void setCacheSize(final int size) {
+		validateCacheSize(size);
+		setOption(CACHESIZE, size);
+	}
+
 	/**
 	 * Returns whether the agent exposes functionality via JMX.
 	 *
@@ -557,6 +633,25 @@ public final class AgentOptions {
 		setOption(JMX, jmx);
 	}
 
+	/**
+	 * Returns whether execution data is written in the compact format.
+	 *
+	 * @return <code>true</code>, when the compact format is used
+	 */
+	public boolean getCompact() {
+		return getOption(COMPACT, false);
+	}
+
+	/**
+	 * Sets whether execution data should be written in the compact format.
+	 *
+	 * @param compact
+	 *            <code>true</code> if the compact format should be used
+	 */
+	public void setCompact(final boolean compact) {
+		setOption(COMPACT, compact);
+	}
+
 	private void setOption(final String key, final int value) {
 		setOption(key, Integer.toString(value));
 	}
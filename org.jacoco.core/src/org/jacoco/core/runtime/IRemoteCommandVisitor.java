@@ -31,4 +31,15 @@ public interface IRemoteCommandVisitor {
 	 */
 	void visitDumpCommand(boolean dump, boolean reset) throws IOException;
 
+	/**
+	 * Requests a dump of the execution data which has been added since the
+	 * previous delta dump for the given client.
+	 *
+	 * @param client
+	 *            identifier of the client the delta is tracked for
+	 * @throws IOException
+	 *             in case of problems with the remote connection
+	 */
+	void visitDeltaDumpCommand(String client) throws IOException;
+
 }
@@ -12,7 +12,9 @@
  *******************************************************************************/
 package org.jacoco.core.runtime;
 
+import org.jacoco.core.internal.instr.InstrSupport;
 import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Handle;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
 
@@ -21,12 +23,28 @@ import org.objectweb.asm.Opcodes;
  * {@code java.lang.invoke.MethodHandles.Lookup.defineClass} introduced in Java
  * 9. Module where class will be defined must be opened to at least module of
  * this class.
+ * <p>
+ * The defined class provides a static accessor method which delegates to
+ * {@link RuntimeData#getProbes(long, String, int)} through an
+ * <code>invokedynamic</code> instruction. Its call site is bound once to a
+ * constant method handle, so the JIT can inline the call. The generated code
+ * neither allocates an argument array nor boxes the arguments.
  */
 public class InjectedClassRuntime extends AbstractRuntime {
 
 	private static final String FIELD_NAME = "data";
 
-	private static final String FIELD_TYPE = "Ljava/lang/Object;";
+	private static final String FIELD_TYPE = "Ljava/lang/invoke/MethodHandle;";
+
+	private static final String METHOD_NAME = "getProbes";
+
+	private static final String METHOD_DESC = "(JLjava/lang/String;I)[Z";
+
+	private static final String BOOTSTRAP_NAME = "bootstrap";
+
+	private static final String BOOTSTRAP_DESC = "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/invoke/MethodType;)Ljava/lang/invoke/CallSite;";
+
+	private static final String CALL_SITE_TYPE = "java/lang/invoke/ConstantCallSite";
 
 	private final Class<?> locator;
 
@@ -55,7 +73,7 @@ public class InjectedClassRuntime extends AbstractRuntime {
 				.privateLookupIn(locator, Lookup.lookup()) //
 				.defineClass(createClass(injectedClassName)) //
 				.getField(FIELD_NAME) //
-				.set(null, data);
+				.set(null, Lookup.lookup().findGetProbes(data));
 	}
 
 	public void shutdown() {
@@ -64,20 +82,51 @@ public class InjectedClassRuntime extends AbstractRuntime {
 
 	public int generateDataAccessor(final long classid, final String classname,
 			final int probecount, final MethodVisitor mv) {
-		mv.visitFieldInsn(Opcodes.GETSTATIC, injectedClassName, FIELD_NAME,
-				FIELD_TYPE);
-
-		RuntimeData.generateAccessCall(classid, classname, probecount, mv);
+		mv.visitLdcInsn(Long.valueOf(classid));
+		mv.visitLdcInsn(classname);
+		InstrSupport.push(mv, probecount);
+		mv.visitMethodInsn(Opcodes.INVOKESTATIC, injectedClassName, METHOD_NAME,
+				METHOD_DESC, false);
 
-		return 6;
+		return 4;
 	}
 
 	private static byte[] createClass(final String name) {
 		final ClassWriter cw = new ClassWriter(0);
 		cw.visit(Opcodes.V9, Opcodes.ACC_SYNTHETIC | Opcodes.ACC_PUBLIC,
 				name.replace('.', '/'), null, "java/lang/Object", null);
+		// Only read once when the call site is linked
 		cw.visitField(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, FIELD_NAME,
 				FIELD_TYPE, null, null);
+
+		MethodVisitor mv = cw.visitMethod(
+				Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, METHOD_NAME,
+				METHOD_DESC, null, null);
+		mv.visitCode();
+		mv.visitVarInsn(Opcodes.LLOAD, 0);
+		mv.visitVarInsn(Opcodes.ALOAD, 2);
+		mv.visitVarInsn(Opcodes.ILOAD, 3);
+		mv.visitInvokeDynamicInsn(METHOD_NAME, METHOD_DESC,
+				new Handle(Opcodes.H_INVOKESTATIC, name, BOOTSTRAP_NAME,
+						BOOTSTRAP_DESC, false));
+		mv.visitInsn(Opcodes.ARETURN);
+		mv.visitMaxs(4, 4);
+		mv.visitEnd();
+
+		mv = cw.visitMethod(
+				Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC
+						| Opcodes.ACC_SYNTHETIC,
+				BOOTSTRAP_NAME, BOOTSTRAP_DESC, null, null);
+		mv.visitCode();
+		mv.visitTypeInsn(Opcodes.NEW, CALL_SITE_TYPE);
+		mv.visitInsn(Opcodes.DUP);
+		mv.visitFieldInsn(Opcodes.GETSTATIC, name, FIELD_NAME, FIELD_TYPE);
+		mv.visitMethodInsn(Opcodes.INVOKESPECIAL, CALL_SITE_TYPE, "<init>",
+				"(Ljava/lang/invoke/MethodHandle;)V", false);
+		mv.visitInsn(Opcodes.ARETURN);
+		mv.visitMaxs(3, 3);
+		mv.visitEnd();
+
 		cw.visitEnd();
 		return cw.toByteArray();
 	}
@@ -137,6 +186,33 @@ public class InjectedClassRuntime extends AbstractRuntime {
 					.invoke(this.instance, new Object[] { bytes });
 		}
 
+		/**
+		 * Creates a method handle for
+		 * {@link RuntimeData#getProbes(long, String, int)} bound to the given
+		 * instance.
+		 *
+		 * @param data
+		 *            runtime data instance
+		 * @return method handle
+		 */
+		Object findGetProbes(final RuntimeData data) throws Exception {
+			final Class<?> methodType = Class
+					.forName("java.lang.invoke.MethodType");
+			final Object type = methodType
+					.getMethod("methodType", Class.class, Class[].class)
+					.invoke(null, boolean[].class, new Class<?>[] { long.class,
+							String.class, int.class });
+			final Object handle = Class //
+					.forName("java.lang.invoke.MethodHandles$Lookup")
+					.getMethod("findVirtual", Class.class, String.class,
+							methodType)
+					.invoke(this.instance, RuntimeData.class, METHOD_NAME,
+							type);
+			return Class //
+					.forName("java.lang.invoke.MethodHandle")
+					.getMethod("bindTo", Object.class).invoke(handle, data);
+		}
+
 	}
 
 }
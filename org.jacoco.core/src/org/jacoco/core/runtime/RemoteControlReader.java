@@ -42,6 +42,9 @@ public class RemoteControlReader extends ExecutionDataReader {
 		case RemoteControlWriter.BLOCK_CMDDUMP:
 			readDumpCommand();
 			return true;
+		case RemoteControlWriter.BLOCK_CMDDELTADUMP:
+			readDeltaDumpCommand();
+			return true;
 		case RemoteControlWriter.BLOCK_CMDOK:
 			return false;
 		default:
@@ -68,4 +71,11 @@ public class RemoteControlReader extends ExecutionDataReader {
 		remoteCommandVisitor.visitDumpCommand(dump, reset);
 	}
 
+	private void readDeltaDumpCommand() throws IOException {
+		if (remoteCommandVisitor == null) {
+			throw new IOException("No remote command visitor.");
+		}
+		remoteCommandVisitor.visitDeltaDumpCommand(in.readUTF());
+	}
+
 }
@@ -29,6 +29,9 @@ public class RemoteControlWriter extends ExecutionDataWriter
 	/** Block identifier for dump command */
 	public static final byte BLOCK_CMDDUMP = 0x40;
 
+	/** Block identifier for delta dump command */
+	public static final byte BLOCK_CMDDELTADUMP = 0x41;
+
 	/**
 	 * Creates a new writer based on the given output stream.
 	 *
@@ -41,6 +44,24 @@ public class RemoteControlWriter extends ExecutionDataWriter
 		super(output);
 	}
 
+	/**
+	 * Creates a new writer based on the given output stream which optionally
+	 * uses the compact format for execution data. Compression is not supported
+	 * for remote control streams.
+	 *
+	 * @param output
+	 *            stream to write commands to
+	 * @param compact
+	 *            <code>true</code> to write the compact format version
+	 *            {@link ExecutionDataWriter#COMPACT_FORMAT_VERSION}
+	 * @throws IOException
+	 *             if the header can't be written
+	 */
+	public RemoteControlWriter(final OutputStream output, final boolean compact)
+			throws IOException {
+		super(output, compact, false);
+	}
+
 	/**
 	 * Sends a confirmation that a commands has been successfully executed and
 	 * the response is completed.
@@ -59,4 +80,9 @@ public class RemoteControlWriter extends ExecutionDataWriter
 		out.writeBoolean(reset);
 	}
 
+	public void visitDeltaDumpCommand(final String client) throws IOException {
+		out.writeByte(RemoteControlWriter.BLOCK_CMDDELTADUMP);
+		out.writeUTF(client);
+	}
+
 }
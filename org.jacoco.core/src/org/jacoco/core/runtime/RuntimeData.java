@@ -12,6 +12,14 @@
  *******************************************************************************/
 package org.jacoco.core.runtime;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 import org.jacoco.core.data.ExecutionData;
 import org.jacoco.core.data.ExecutionDataStore;
 import org.jacoco.core.data.IExecutionDataVisitor;
@@ -23,22 +31,54 @@ import org.objectweb.asm.Opcodes;
 
 /**
  * Container for runtime execution and meta data. All access to the runtime data
- * is thread safe.
+ * is thread safe. Retrieving execution data for classes does not block, also
+ * not while execution data is collected.
  */
 public class RuntimeData {
 
-	/** store for execution data */
+	/** maximum number of clients for which deltas are tracked */
+	static final int MAX_DELTA_CLIENTS = 32;
+
+	/**
+	 * Store for execution data. Contains the same entries as this runtime for
+	 * compatibility with existing subclasses, but is not used by this class any
+	 * more. Access must be synchronized on the store.
+	 *
+	 * @deprecated execution data is retrieved and collected through the methods
+	 *             of this class
+	 */
+	@Deprecated
 	protected final ExecutionDataStore store;
 
-	private long startTimeStamp;
+	/** execution data by class id */
+	private final ConcurrentMap<Long, ExecutionData> entries;
+
+	/** serializes collect and reset operations */
+	private final Object lock = new Object();
+
+	/** probes already collected as delta by client, guarded by lock */
+	private final Map<String, Map<Long, boolean[]>> deltas;
 
-	private String sessionId;
+	private volatile long startTimeStamp;
+
+	private volatile String sessionId;
 
 	/**
 	 * Creates a new runtime.
 	 */
 	public RuntimeData() {
 		store = new ExecutionDataStore();
+		entries = new ConcurrentHashMap<Long, ExecutionData>();
+		deltas = new LinkedHashMap<String, Map<Long, boolean[]>>(16, 0.75f,
+				true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(
+					final Map.Entry<String, Map<Long, boolean[]>> eldest) {
+				return size() > MAX_DELTA_CLIENTS;
+			}
+		};
 		sessionId = "<none>";
 		startTimeStamp = System.currentTimeMillis();
 	}
@@ -69,7 +109,11 @@ public class RuntimeData {
 
 	/**
 	 * Collects the current execution data and writes it to the given
-	 * {@link IExecutionDataVisitor} object.
+	 * {@link IExecutionDataVisitor} object. The set of classes is determined
+	 * when this method is called. A copy of the probes is taken at the same
+	 * time, before they are cleared if the data is also reset. The visitors are
+	 * called with the copy without blocking other threads retrieving execution
+	 * data.
 	 *
 	 * @param executionDataVisitor
 	 *            handler to write coverage data to
@@ -81,23 +125,107 @@ public class RuntimeData {
 	 */
 	public final void collect(final IExecutionDataVisitor executionDataVisitor,
 			final ISessionInfoVisitor sessionInfoVisitor, final boolean reset) {
-		synchronized (store) {
-			final SessionInfo info = new SessionInfo(sessionId, startTimeStamp,
+		final SessionInfo info;
+		final Collection<ExecutionData> snapshot = new ArrayList<ExecutionData>();
+		synchronized (lock) {
+			info = new SessionInfo(sessionId, startTimeStamp,
 					System.currentTimeMillis());
-			sessionInfoVisitor.visitSessionInfo(info);
-			store.accept(executionDataVisitor);
+			for (final ExecutionData entry : entries.values()) {
+				snapshot.add(new ExecutionData(entry.getId(), entry.getName(),
+						entry.getProbes().clone()));
+			}
 			if (reset) {
-				reset();
+				for (final ExecutionData entry : entries.values()) {
+					entry.reset();
+				}
+				deltas.clear();
+				startTimeStamp = System.currentTimeMillis();
+			}
+		}
+		sessionInfoVisitor.visitSessionInfo(info);
+		for (final ExecutionData entry : snapshot) {
+			executionDataVisitor.visitClassExecution(entry);
+		}
+	}
+
+	/**
+	 * Collects the execution data which has been added since the previous delta
+	 * for the given client and writes it to the given
+	 * {@link IExecutionDataVisitor} object. Only classes with newly executed
+	 * probes are reported and only the new probes are set. The first delta of a
+	 * client contains all current execution data. As resetting the execution
+	 * data also resets the state of all clients, the next delta after a reset
+	 * again contains all executed probes. The state is kept for a limited
+	 * number of recently active clients only. If a client has been inactive
+	 * while many other clients collected deltas, its next delta also contains
+	 * all executed probes. The visitors are called without blocking other
+	 * threads retrieving execution data.
+	 *
+	 * @param client
+	 *            identifier of the client the delta is tracked for
+	 * @param executionDataVisitor
+	 *            handler to write coverage data to
+	 * @param sessionInfoVisitor
+	 *            handler to write session information to
+	 */
+	public final void collectDelta(final String client,
+			final IExecutionDataVisitor executionDataVisitor,
+			final ISessionInfoVisitor sessionInfoVisitor) {
+		final SessionInfo info;
+		final Collection<ExecutionData> snapshot = new ArrayList<ExecutionData>();
+		synchronized (lock) {
+			info = new SessionInfo(sessionId, startTimeStamp,
+					System.currentTimeMillis());
+			Map<Long, boolean[]> collected = deltas.get(client);
+			if (collected == null) {
+				collected = new HashMap<Long, boolean[]>();
+				deltas.put(client, collected);
+			}
+			for (final ExecutionData entry : entries.values()) {
+				final ExecutionData delta = delta(entry, collected);
+				if (delta != null) {
+					snapshot.add(delta);
+				}
+			}
+		}
+		sessionInfoVisitor.visitSessionInfo(info);
+		for (final ExecutionData entry : snapshot) {
+			executionDataVisitor.visitClassExecution(entry);
+		}
+	}
+
+	private static ExecutionData delta(final ExecutionData entry,
+			final Map<Long, boolean[]> collected) {
+		final Long id = Long.valueOf(entry.getId());
+		final boolean[] probes = entry.getProbes();
+		boolean[] previous = collected.get(id);
+		if (previous == null) {
+			previous = new boolean[probes.length];
+			collected.put(id, previous);
+		}
+		boolean[] delta = null;
+		for (int i = 0; i < probes.length; i++) {
+			if (probes[i] && !previous[i]) {
+				if (delta == null) {
+					delta = new boolean[probes.length];
+				}
+				delta[i] = true;
+				previous[i] = true;
 			}
 		}
+		return delta == null ? null
+				: new ExecutionData(entry.getId(), entry.getName(), delta);
 	}
 
 	/**
 	 * Resets all coverage information.
 	 */
 	public final void reset() {
-		synchronized (store) {
-			store.reset();
+		synchronized (lock) {
+			for (final ExecutionData entry : entries.values()) {
+				entry.reset();
+			}
+			deltas.clear();
 			startTimeStamp = System.currentTimeMillis();
 		}
 	}
@@ -105,7 +233,8 @@ public class RuntimeData {
 	/**
 	 * Returns the coverage data for the class with the given identifier. If
 	 * there is no data available under the given id a new entry is created.
-	 * This is a synchronized access to the underlying store.
+	 * This method does not block, concurrent calls for the same class return
+	 * the same instance.
 	 *
 	 * @param id
 	 *            class identifier
@@ -117,8 +246,24 @@ public class RuntimeData {
 	 */
 	public ExecutionData getExecutionData(final Long id, final String name,
 			final int probecount) {
+		ExecutionData entry = entries.get(id);
+		if (entry == null) {
+			final ExecutionData created = new ExecutionData(id.longValue(),
+					name, probecount);
+			entry = entries.putIfAbsent(id, created);
+			if (entry == null) {
+				addToStore(created);
+				return created;
+			}
+		}
+		entry.assertCompatibility(id.longValue(), name, probecount);
+		return entry;
+	}
+
+	@SuppressWarnings("deprecation")
+	private void addToStore(final ExecutionData entry) {
 		synchronized (store) {
-			return store.get(id, name, probecount);
+			store.put(entry);
 		}
 	}
 
@@ -149,6 +294,25 @@ public class RuntimeData {
 		args[0] = getExecutionData(classid, name, probecount).getProbes();
 	}
 
+	/**
+	 * Retrieves the execution probe array for a given class. Unlike
+	 * {@link #getProbes(Object[])} this method does not require boxed arguments
+	 * and can be used by runtimes which can call it directly, e.g. through a
+	 * method handle.
+	 *
+	 * @param id
+	 *            class identifier
+	 * @param name
+	 *            VM name of the class
+	 * @param probecount
+	 *            probe data length
+	 * @return probe array
+	 */
+	public boolean[] getProbes(final long id, final String name,
+			final int probecount) {
+		return getExecutionData(Long.valueOf(id), name, probecount).getProbes();
+	}
+
 	/**
 	 * In violation of the regular semantic of {@link Object#equals(Object)}
 	 * this implementation is used as the interface to the execution data store.
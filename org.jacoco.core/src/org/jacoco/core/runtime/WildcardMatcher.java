@@ -12,17 +12,20 @@
  *******************************************************************************/
 package org.jacoco.core.runtime;
 
-import java.util.regex.Pattern;
-
 /**
  * Matches strings against glob like wildcard expressions where <code>?</code>
  * matches any single character and <code>*</code> matches any number of any
  * character. Multiple expressions can be separated with a colon (:). In this
  * case the expression matches if at least one part matches.
+ * <p>
+ * The expressions are compiled into a prefix tree of their literal prefixes.
+ * Matching a string walks the tree once and only the remainders of expressions
+ * which share the prefix of the string are matched. Therefore the effort of
+ * matching hardly depends on the number of expressions.
  */
 public class WildcardMatcher {
 
-	private final Pattern pattern;
+	private final Node root;
 
 	/**
 	 * Creates a new matcher with the given expression.
@@ -31,35 +34,46 @@ public class WildcardMatcher {
 	 *            wildcard expressions
 	 */
 	public WildcardMatcher(final String expression) {
+		root = new Node();
 		final String[] parts = expression.split("\\:");
-		final StringBuilder regex = new StringBuilder(expression.length() * 2);
-		boolean next = false;
+		if (parts.length == 0) {
+			// Only separators, which matches the empty string only
+			add("");
+		}
 		for (final String part : parts) {
-			if (next) {
-				regex.append('|');
-			}
-			regex.append('(').append(toRegex(part)).append(')');
-			next = true;
+			add(part);
 		}
-		pattern = Pattern.compile(regex.toString());
 	}
 
-	private static CharSequence toRegex(final String expression) {
-		final StringBuilder regex = new StringBuilder(expression.length() * 2);
-		for (final char c : expression.toCharArray()) {
-			switch (c) {
-			case '?':
-				regex.append(".");
-				break;
-			case '*':
-				regex.append(".*");
-				break;
-			default:
-				regex.append(Pattern.quote(String.valueOf(c)));
+	private void add(final String expression) {
+		int wildcard = 0;
+		Node node = root;
+		for (; wildcard < expression.length(); wildcard++) {
+			final char c = expression.charAt(wildcard);
+			if (c == '*' || c == '?') {
 				break;
 			}
+			node = node.getOrCreateChild(c);
+		}
+		if (wildcard == expression.length()) {
+			node.exact = true;
+			return;
+		}
+		final String remainder = expression.substring(wildcard);
+		if (isAsterisksOnly(remainder)) {
+			node.any = true;
+		} else {
+			node.addGlob(remainder);
+		}
+	}
+
+	private static boolean isAsterisksOnly(final String s) {
+		for (int i = 0; i < s.length(); i++) {
+			if (s.charAt(i) != '*') {
+				return false;
+			}
 		}
-		return regex;
+		return true;
 	}
 
 	/**
@@ -70,7 +84,125 @@ public class WildcardMatcher {
 	 * @return <code>true</code>, if the expression matches
 	 */
 	public boolean matches(final String s) {
-		return pattern.matcher(s).matches();
+		final int length = s.length();
+		Node node = root;
+		for (int i = 0;; i++) {
+			if (node.any) {
+				return true;
+			}
+			if (node.globs != null) {
+				for (final String glob : node.globs) {
+					if (matches(glob, s, i)) {
+						return true;
+					}
+				}
+			}
+			if (i == length) {
+				return node.exact;
+			}
+			node = node.getChild(s.charAt(i));
+			if (node == null) {
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Matches the given glob against the string starting at the given offset.
+	 * On a mismatch the last <code>*</code> is extended by one character, so no
+	 * nested backtracking is required.
+	 */
+	private static boolean matches(final String glob, final String s,
+			final int offset) {
+		int g = 0;
+		int i = offset;
+		int star = -1;
+		int mark = 0;
+		while (i < s.length()) {
+			if (g < glob.length()) {
+				final char c = glob.charAt(g);
+				if (c == '*') {
+					star = g++;
+					mark = i;
+					continue;
+				}
+				if (c == '?' || c == s.charAt(i)) {
+					g++;
+					i++;
+					continue;
+				}
+			}
+			if (star == -1) {
+				return false;
+			}
+			g = star + 1;
+			i = ++mark;
+		}
+		while (g < glob.length() && glob.charAt(g) == '*') {
+			g++;
+		}
+		return g == glob.length();
+	}
+
+	/**
+	 * Node of the prefix tree. The path to a node is the literal prefix of all
+	 * expressions registered at this node.
+	 */
+	private static final class Node {
+
+		private static final Node[] NO_CHILDREN = new Node[0];
+
+		private char[] chars = new char[0];
+
+		private Node[] children = NO_CHILDREN;
+
+		/** an expression without wildcards ends here */
+		boolean exact;
+
+		/** an expression ends with <code>*</code> only here */
+		boolean any;
+
+		/** remainders of expressions starting with a wildcard */
+		String[] globs;
+
+		Node getChild(final char c) {
+			final char[] chars = this.chars;
+			for (int i = 0; i < chars.length; i++) {
+				if (chars[i] == c) {
+					return children[i];
+				}
+			}
+			return null;
+		}
+
+		Node getOrCreateChild(final char c) {
+			Node child = getChild(c);
+			if (child == null) {
+				child = new Node();
+				final int length = chars.length;
+				final char[] newChars = new char[length + 1];
+				final Node[] newChildren = new Node[length + 1];
+				System.arraycopy(chars, 0, newChars, 0, length);
+				System.arraycopy(children, 0, newChildren, 0, length);
+				newChars[length] = c;
+				newChildren[length] = child;
+				chars = newChars;
+				children = newChildren;
+			}
+			return child;
+		}
+
+		void addGlob(final String glob) {
+			if (globs == null) {
+				globs = new String[] { glob };
+			} else {
+				final String[] newGlobs = new String[globs.length + 1];
+				System.arraycopy(globs, 0, newGlobs, 0, globs.length);
+				newGlobs[globs.length] = glob;
+				globs = newGlobs;
+			}
+		}
+
 	}
 
 }
@@ -0,0 +1,541 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.tools;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.ExecutionDataStore;
+import org.jacoco.core.data.IExecutionDataVisitor;
+import org.jacoco.core.data.ISessionInfoVisitor;
+import org.jacoco.core.data.SessionInfo;
+import org.jacoco.core.runtime.RemoteControlReader;
+import org.jacoco.core.runtime.RemoteControlWriter;
+
+/**
+ * A server which collects execution data from many agents running in
+ * <code>tcpclient</code> output mode. All connections are multiplexed with a
+ * single {@link Selector}, idle connections do not occupy a thread. Only while
+ * an agent transmits execution data its response is read by one of the worker
+ * threads. Received execution data is merged into a store which is sharded by
+ * class id, so that responses of different agents can be merged concurrently.
+ * Each agent is requested to dump its execution data when it connects and on
+ * every call of {@link #requestDump()}.
+ */
+public class ExecCollector {
+
+	private static final int BUFFER_SIZE = 0x2000;
+
+	private final Selector selector;
+
+	private final ServerSocketChannel server;
+
+	private final ExecutorService workers;
+
+	private final List<Selector> workerSelectors;
+
+	private final ThreadLocal<Selector> workerSelector;
+
+	private final Queue<Connection> resumed;
+
+	private final AtomicInteger connectionCount;
+
+	private final ExecutionDataStore[] shards;
+
+	private final Map<String, SessionInfo> sessions;
+
+	private final String client;
+
+	private boolean delta;
+
+	private long timeout;
+
+	private volatile boolean dumpRequested;
+
+	private volatile boolean closed;
+
+	/**
+	 * Creates a new collector which reads responses of agents with the given
+	 * number of threads.
+	 *
+	 * @param threads
+	 *            number of worker threads
+	 * @throws IOException
+	 *             if the selector can't be opened
+	 */
+	public ExecCollector(final int threads) throws IOException {
+		this.selector = Selector.open();
+		this.server = ServerSocketChannel.open();
+		this.workers = Executors.newFixedThreadPool(threads);
+		this.workerSelectors = new ArrayList<Selector>();
+		this.workerSelector = new ThreadLocal<Selector>();
+		this.resumed = new ConcurrentLinkedQueue<Connection>();
+		this.connectionCount = new AtomicInteger();
+		this.shards = new ExecutionDataStore[threads * 4];
+		for (int i = 0; i < shards.length; i++) {
+			shards[i] = new ExecutionDataStore();
+		}
+		this.sessions = new HashMap<String, SessionInfo>();
+		this.client = getClass().getName() + "@"
+				+ Integer.toHexString(System.identityHashCode(this));
+		this.delta = false;
+		this.timeout = 60000;
+	}
+
+	/**
+	 * Specifies whether only the execution data added since the previous
+	 * request should be requested from the agents. This requires agents of
+	 * version 0.8.8 or later.
+	 *
+	 * @param delta
+	 *            <code>true</code> if delta dumps should be requested
+	 */
+	public void setDelta(final boolean delta) {
+		this.delta = delta;
+	}
+
+	/**
+	 * Sets the maximum time to wait for the next data of an agent while its
+	 * response is read. The connection to the agent is closed if the timeout
+	 * expires.
+	 *
+	 * @param timeout
+	 *            timeout in milliseconds
+	 */
+	public void setTimeout(final long timeout) {
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Binds the server socket of this collector to the given end-point.
+	 *
+	 * @param address
+	 *            local address to bind to or <code>null</code> for all
+	 *            interfaces
+	 * @param port
+	 *            port to bind to or 0 for any free port
+	 * @return port the server socket is bound to
+	 * @throws IOException
+	 *             if the server socket can't be bound
+	 */
+	public int bind(final InetAddress address, final int port)
+			throws IOException {
+		server.socket().setReuseAddress(true);
+		server.socket().bind(new InetSocketAddress(address, port));
+		server.configureBlocking(false);
+		server.register(selector, SelectionKey.OP_ACCEPT);
+		return server.socket().getLocalPort();
+	}
+
+	/**
+	 * Accepts connections and dispatches commands and responses until
+	 * {@link #close()} is called. All connections are closed before this method
+	 * returns.
+	 *
+	 * @throws IOException
+	 *             in case of problems with the server socket
+	 */
+	public void run() throws IOException {
+		try {
+			while (!closed) {
+				selector.select();
+				Connection c;
+				while ((c = resumed.poll()) != null) {
+					c.resume();
+				}
+				if (dumpRequested) {
+					dumpRequested = false;
+					for (final SelectionKey key : selector.keys()) {
+						if (key.attachment() != null) {
+							((Connection) key.attachment()).requestDump();
+						}
+					}
+				}
+				final Iterator<SelectionKey> i = selector.selectedKeys()
+						.iterator();
+				while (i.hasNext()) {
+					final SelectionKey key = i.next();
+					i.remove();
+					if (key.isValid() && key.isAcceptable()) {
+						accept();
+					}
+					if (key.isValid() && key.isWritable()) {
+						((Connection) key.attachment()).flush();
+					}
+					if (key.isValid() && key.isReadable()) {
+						((Connection) key.attachment()).dispatch();
+					}
+				}
+			}
+		} finally {
+			shutdown();
+		}
+	}
+
+	private void accept() throws IOException {
+		final SocketChannel channel = server.accept();
+		if (channel == null) {
+			return;
+		}
+		channel.configureBlocking(false);
+		final Connection connection = new Connection(channel);
+		connection.key = channel.register(selector, 0, connection);
+		connectionCount.incrementAndGet();
+		connection.requestDump();
+	}
+
+	private void shutdown() throws IOException {
+		workers.shutdownNow();
+		for (final SelectionKey key : selector.keys()) {
+			if (key.attachment() != null) {
+				((Connection) key.attachment()).close();
+			}
+		}
+		server.close();
+		selector.close();
+		synchronized (workerSelectors) {
+			for (final Selector s : workerSelectors) {
+				s.close();
+			}
+		}
+	}
+
+	/**
+	 * Requests all connected agents to dump their execution data. This method
+	 * may be called from any thread.
+	 */
+	public void requestDump() {
+		dumpRequested = true;
+		selector.wakeup();
+	}
+
+	/**
+	 * Stops a running collector. This method may be called from any thread.
+	 */
+	public void close() {
+		closed = true;
+		selector.wakeup();
+	}
+
+	/**
+	 * Returns the number of currently connected agents.
+	 *
+	 * @return number of connections
+	 */
+	public int getConnectionCount() {
+		return connectionCount.get();
+	}
+
+	/**
+	 * Returns a copy of the execution data and session infos collected so far.
+	 *
+	 * @return container for the collected data
+	 */
+	public ExecFileLoader getSnapshot() {
+		final ExecFileLoader loader = new ExecFileLoader();
+		synchronized (sessions) {
+			for (final SessionInfo info : sessions.values()) {
+				loader.getSessionInfoStore().visitSessionInfo(info);
+			}
+		}
+		for (final ExecutionDataStore shard : shards) {
+			synchronized (shard) {
+				for (final ExecutionData data : shard.getContents()) {
+					loader.getExecutionDataStore()
+							.put(new ExecutionData(data.getId(), data.getName(),
+									data.getProbes().clone()));
+				}
+			}
+		}
+		return loader;
+	}
+
+	/**
+	 * This method can be overwritten to get an event for problems with a single
+	 * connection. The connection is closed afterwards.
+	 *
+	 * @param exception
+	 *            connection error
+	 */
+	protected void onError(
+			@SuppressWarnings("unused") final Exception exception) {
+	}
+
+	private void merge(final ExecutionData data) {
+		final long id = data.getId();
+		final int hash = (int) (id ^ (id >>> 32)) & Integer.MAX_VALUE;
+		final ExecutionDataStore shard = shards[hash % shards.length];
+		synchronized (shard) {
+			shard.put(data);
+		}
+	}
+
+	private void merge(final SessionInfo info) {
+		synchronized (sessions) {
+			final SessionInfo previous = sessions.get(info.getId());
+			if (previous == null) {
+				sessions.put(info.getId(), info);
+			} else {
+				sessions.put(info.getId(),
+						new SessionInfo(info.getId(),
+								Math.min(previous.getStartTimeStamp(),
+										info.getStartTimeStamp()),
+								Math.max(previous.getDumpTimeStamp(),
+										info.getDumpTimeStamp())));
+			}
+		}
+	}
+
+	private Selector getWorkerSelector() throws IOException {
+		Selector s = workerSelector.get();
+		if (s == null) {
+			s = Selector.open();
+			workerSelector.set(s);
+			synchronized (workerSelectors) {
+				workerSelectors.add(s);
+			}
+		}
+		return s;
+	}
+
+	/**
+	 * State of a single agent connection. Commands are written by the selector
+	 * thread, responses are read by a worker thread. While a response is read
+	 * the connection is not selected for any operation.
+	 */
+	private class Connection extends InputStream
+			implements Runnable, IExecutionDataVisitor, ISessionInfoVisitor {
+
+		private final SocketChannel channel;
+
+		private final ByteArrayOutputStream commands;
+
+		private final RemoteControlWriter writer;
+
+		private final RemoteControlReader reader;
+
+		private final ByteBuffer input;
+
+		private ByteBuffer output;
+
+		private SelectionKey key;
+
+		private boolean busy;
+
+		private boolean dumpPending;
+
+		private boolean closed;
+
+		Connection(final SocketChannel channel) throws IOException {
+			this.channel = channel;
+			this.commands = new ByteArrayOutputStream();
+			this.writer = new RemoteControlWriter(commands);
+			this.reader = new RemoteControlReader(this);
+			this.reader.setExecutionDataVisitor(this);
+			this.reader.setSessionInfoVisitor(this);
+			this.input = ByteBuffer.allocate(BUFFER_SIZE);
+			this.input.flip();
+			this.output = ByteBuffer.allocate(0);
+		}
+
+		// === selector thread ===
+
+		void requestDump() throws IOException {
+			if (busy) {
+				dumpPending = true;
+				return;
+			}
+			if (delta) {
+				writer.visitDeltaDumpCommand(client);
+			} else {
+				writer.visitDumpCommand(true, false);
+			}
+			final ByteBuffer next = ByteBuffer
+					.allocate(output.remaining() + commands.size());
+			next.put(output);
+			next.put(commands.toByteArray());
+			next.flip();
+			commands.reset();
+			output = next;
+			flush();
+		}
+
+		void flush() {
+			try {
+				channel.write(output);
+			} catch (final IOException e) {
+				fail(e);
+				return;
+			}
+			updateInterest();
+		}
+
+		void dispatch() {
+			busy = true;
+			updateInterest();
+			workers.execute(this);
+		}
+
+		void resume() throws IOException {
+			busy = false;
+			if (dumpPending) {
+				dumpPending = false;
+				requestDump();
+			} else {
+				updateInterest();
+			}
+		}
+
+		private void updateInterest() {
+			if (key.isValid()) {
+				int ops = 0;
+				if (!busy) {
+					ops |= SelectionKey.OP_READ;
+					if (output.hasRemaining()) {
+						ops |= SelectionKey.OP_WRITE;
+					}
+				}
+				key.interestOps(ops);
+			}
+		}
+
+		// === worker thread ===
+
+		public void run() {
+			try {
+				do {
+					if (!reader.read()) {
+						close();
+						return;
+					}
+				} while (input.hasRemaining());
+			} catch (final Exception e) {
+				fail(e);
+				return;
+			}
+			resumed.add(this);
+			selector.wakeup();
+		}
+
+		public void visitClassExecution(final ExecutionData data) {
+			merge(data);
+		}
+
+		public void visitSessionInfo(final SessionInfo info) {
+			merge(info);
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (!fill()) {
+				return -1;
+			}
+			return input.get() & 0xFF;
+		}
+
+		@Override
+		public int read(final byte[] b, final int off, final int len)
+				throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+			if (!fill()) {
+				return -1;
+			}
+			final int n = Math.min(len, input.remaining());
+			input.get(b, off, n);
+			return n;
+		}
+
+		private boolean fill() throws IOException {
+			if (input.hasRemaining()) {
+				return true;
+			}
+			input.clear();
+			try {
+				int n;
+				while ((n = channel.read(input)) == 0) {
+					await();
+				}
+				return n > 0;
+			} finally {
+				input.flip();
+			}
+		}
+
+		private void await() throws IOException {
+			final Selector s = getWorkerSelector();
+			SelectionKey k = channel.keyFor(s);
+			if (k == null) {
+				k = channel.register(s, SelectionKey.OP_READ);
+			} else {
+				k.interestOps(SelectionKey.OP_READ);
+			}
+			try {
+				if (s.select(timeout) == 0) {
+					throw new SocketTimeoutException(
+							"No response from agent within timeout.");
+				}
+			} finally {
+				s.selectedKeys().clear();
+				if (k.isValid()) {
+					k.interestOps(0);
+				}
+			}
+		}
+
+		// === any thread ===
+
+		private void fail(final Exception e) {
+			if (!ExecCollector.this.closed) {
+				onError(e);
+			}
+			close();
+		}
+
+		@Override
+		public synchronized void close() {
+			if (!closed) {
+				closed = true;
+				connectionCount.decrementAndGet();
+				try {
+					channel.close();
+				} catch (final IOException e) {
+					// ignore, connection is given up anyways
+				}
+			}
+		}
+
+	}
+
+}
@@ -27,6 +27,7 @@ public class ExecDumpClient {
 
 	private boolean dump;
 	private boolean reset;
+	private String deltaClient;
 	private int retryCount;
 	private long retryDelay;
 
@@ -62,6 +63,19 @@ public class ExecDumpClient {
 		this.reset = reset;
 	}
 
+	/**
+	 * Specifies a client identifier to request only the execution data which
+	 * has been added since the previous delta dump for the same client. If set
+	 * the dump and reset flags are ignored.
+	 *
+	 * @param client
+	 *            identifier of the client the delta is tracked for or
+	 *            <code>null</code> to request a full dump
+	 */
+	public void setDeltaClient(final String client) {
+		this.deltaClient = client;
+	}
+
 	/**
 	 * Sets the number of retry attempts to connect to the target socket. This
 	 * allows to wait for a certain time until the target agent has initialized.
@@ -123,7 +137,11 @@ public class ExecDumpClient {
 			remoteReader
 					.setExecutionDataVisitor(loader.getExecutionDataStore());
 
-			remoteWriter.visitDumpCommand(dump, reset);
+			if (deltaClient == null) {
+				remoteWriter.visitDumpCommand(dump, reset);
+			} else {
+				remoteWriter.visitDeltaDumpCommand(deltaClient);
+			}
 
 			if (!remoteReader.read()) {
 				throw new IOException("Socket closed unexpectedly.");
@@ -24,6 +24,8 @@ import java.io.OutputStream;
 import org.jacoco.core.data.ExecutionDataReader;
 import org.jacoco.core.data.ExecutionDataStore;
 import org.jacoco.core.data.ExecutionDataWriter;
+import org.jacoco.core.data.MappedExecutionData;
+import org.jacoco.core.data.MappedExecutionDataWriter;
 import org.jacoco.core.data.SessionInfoStore;
 
 /**
@@ -121,6 +123,34 @@ public class ExecFileLoader {
 		}
 	}
 
+	/**
+	 * Saves the current execution data into the given file in the indexed
+	 * format which can be accessed with {@link MappedExecutionData}. Session
+	 * infos are not contained in this format. Parent directories are created as
+	 * needed.
+	 *
+	 * @param file
+	 *            file to save content to
+	 * @throws IOException
+	 *             in case of problems while writing to the file
+	 */
+	public void saveMapped(final File file) throws IOException {
+		final File folder = file.getParentFile();
+		if (folder != null) {
+			folder.mkdirs();
+		}
+		final OutputStream stream = new BufferedOutputStream(
+				new FileOutputStream(file));
+		try {
+			final MappedExecutionDataWriter writer = new MappedExecutionDataWriter(
+					stream);
+			executionData.accept(writer);
+			writer.finish();
+		} finally {
+			stream.close();
+		}
+	}
+
 	/**
 	 * Returns the session info store with all loaded sessions.
 	 *
@@ -0,0 +1,216 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.tools;
+
+import static java.lang.String.format;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.jacoco.core.data.CompactExecutionDataStore;
+import org.jacoco.core.data.ExecutionDataReader;
+import org.jacoco.core.data.ExecutionDataWriter;
+import org.jacoco.core.data.SessionInfoStore;
+import org.jacoco.core.internal.Futures;
+
+/**
+ * Utility to merge a large number of *.exec files. In contrast to
+ * {@link ExecFileLoader} execution data is kept in a
+ * {@link CompactExecutionDataStore}, i.e. probes of all inputs are combined
+ * into one bitset per class as the inputs are read. The memory consumption is
+ * therefore bounded by the number of distinct classes and not by the number of
+ * input files. Multiple files can be read concurrently. All methods of this
+ * class are thread-safe.
+ */
+public class ExecFileMerger {
+
+	private final SessionInfoStore sessionInfos;
+	private final CompactExecutionDataStore executionData;
+
+	/**
+	 * New instance to merge session infos and execution data from multiple
+	 * files.
+	 */
+	public ExecFileMerger() {
+		sessionInfos = new SessionInfoStore();
+		executionData = new CompactExecutionDataStore();
+	}
+
+	/**
+	 * Reads all data from given input stream and merges it with the data loaded
+	 * so far.
+	 *
+	 * @param stream
+	 *            Stream to read data from
+	 * @throws IOException
+	 *             in case of problems while reading from the stream
+	 */
+	public void load(final InputStream stream) throws IOException {
+		final SessionInfoStore localInfos = new SessionInfoStore();
+		final CompactExecutionDataStore localData = new CompactExecutionDataStore();
+		final ExecutionDataReader reader = new ExecutionDataReader(
+				new BufferedInputStream(stream));
+		reader.setExecutionDataVisitor(localData);
+		reader.setSessionInfoVisitor(localInfos);
+		reader.read();
+		synchronized (this) {
+			localInfos.accept(sessionInfos);
+			executionData.merge(localData);
+		}
+	}
+
+	/**
+	 * Reads all data from given file and merges it with the data loaded so far.
+	 *
+	 * @param file
+	 *            file to read data from
+	 * @throws IOException
+	 *             in case of problems while reading from the file
+	 */
+	public void load(final File file) throws IOException {
+		final InputStream stream = new FileInputStream(file);
+		try {
+			load(stream);
+		} finally {
+			stream.close();
+		}
+	}
+
+	/**
+	 * Reads the given files concurrently and merges their data with the data
+	 * loaded so far. If a file can't be read the remaining files are skipped
+	 * and an exception with a message identifying the file is thrown.
+	 *
+	 * @param files
+	 *            files to read data from
+	 * @param threads
+	 *            maximum number of files read in parallel
+	 * @throws IOException
+	 *             in case of problems while reading from a file
+	 */
+	public void loadAll(final List<File> files, final int threads)
+			throws IOException {
+		if (threads <= 1 || files.size() <= 1) {
+			for (final File file : files) {
+				loadFile(file);
+			}
+			return;
+		}
+		final ExecutorService executor = Executors
+				.newFixedThreadPool(Math.min(threads, files.size()));
+		try {
+			final List<Future<Void>> results = new ArrayList<Future<Void>>();
+			for (final File file : files) {
+				results.add(executor.submit(new Callable<Void>() {
+					public Void call() throws IOException {
+						loadFile(file);
+						return null;
+					}
+				}));
+			}
+			for (final Future<Void> result : results) {
+				Futures.get(result);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private void loadFile(final File file) throws IOException {
+		try {
+			load(file);
+		} catch (final IOException e) {
+			final IOException ex = new IOException(
+					format("Unable to read %s", file.getAbsolutePath()));
+			ex.initCause(e);
+			throw ex;
+		}
+	}
+
+	/**
+	 * Saves the merged content into the given output stream. Execution data is
+	 * written class by class in ascending order of class ids.
+	 *
+	 * @param stream
+	 *            stream to save content to
+	 * @throws IOException
+	 *             in case of problems while writing to the stream
+	 */
+	public synchronized void save(final OutputStream stream)
+			throws IOException {
+		final ExecutionDataWriter dataWriter = new ExecutionDataWriter(stream);
+		sessionInfos.accept(dataWriter);
+		executionData.accept(dataWriter);
+	}
+
+	/**
+	 * Saves the merged content into the given file. Parent directories are
+	 * created as needed. Also a files system lock is acquired to avoid
+	 * concurrent write access.
+	 *
+	 * @param file
+	 *            file to save content to
+	 * @param append
+	 *            <code>true</code> if the content should be appended, otherwise
+	 *            the file is overwritten.
+	 * @throws IOException
+	 *             in case of problems while writing to the stream
+	 */
+	public void save(final File file, final boolean append) throws IOException {
+		final File folder = file.getParentFile();
+		if (folder != null) {
+			folder.mkdirs();
+		}
+		final FileOutputStream fileStream = new FileOutputStream(file, append);
+		// Avoid concurrent writes from other processes:
+		fileStream.getChannel().lock();
+		final OutputStream bufferedStream = new BufferedOutputStream(
+				fileStream);
+		try {
+			save(bufferedStream);
+		} finally {
+			bufferedStream.close();
+		}
+	}
+
+	/**
+	 * Checks whether execution data for at least one class has been loaded.
+	 *
+	 * @return <code>true</code> if no execution data has been loaded
+	 */
+	public synchronized boolean isEmpty() {
+		return executionData.size() == 0;
+	}
+
+	/**
+	 * Returns the number of distinct classes loaded so far.
+	 *
+	 * @return number of classes
+	 */
+	public synchronized int getClassCount() {
+		return executionData.size();
+	}
+
+}
@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.tools;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Fingerprint of the inputs of an analysis, e.g. to decide whether a previous
+ * analysis result can be reused. The fingerprint is a SHA-256 digest of all
+ * values added in sequence. Files can either be added by their path, size and
+ * modification time, which is cheap but does not detect modifications which
+ * preserve size and time stamp, or by their content.
+ */
+public class InputFingerprint {
+
+	private final MessageDigest digest;
+
+	/**
+	 * Creates a new empty fingerprint.
+	 */
+	public InputFingerprint() {
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (final NoSuchAlgorithmException e) {
+			// Every Java platform is required to support SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Adds the given value.
+	 *
+	 * @param value
+	 *            value to add
+	 */
+	public void add(final String value) {
+		try {
+			digest.update(value.getBytes("UTF-8"));
+		} catch (final UnsupportedEncodingException e) {
+			// Every Java platform is required to support UTF-8
+			throw new IllegalStateException(e);
+		}
+		digest.update((byte) '\n');
+	}
+
+	/**
+	 * Adds the absolute path, size and modification time of the given file. For
+	 * directories all contained files are added recursively in the order of
+	 * their names, as modifications of contained files do not change the
+	 * directory itself.
+	 *
+	 * @param file
+	 *            file or directory to add
+	 */
+	public void addFile(final File file) {
+		if (file.isDirectory()) {
+			final File[] files = file.listFiles();
+			if (files == null) {
+				// Directory can not be listed
+				add(file.getAbsolutePath());
+				return;
+			}
+			Arrays.sort(files);
+			for (final File f : files) {
+				addFile(f);
+			}
+		} else {
+			add(file.getAbsolutePath() + '\t' + file.length() + '\t'
+					+ file.lastModified());
+		}
+	}
+
+	/**
+	 * Adds the absolute path and the content of the given file.
+	 *
+	 * @param file
+	 *            file to add
+	 * @throws IOException
+	 *             if the file can not be read
+	 */
+	public void addContent(final File file) throws IOException {
+		add(file.getAbsolutePath());
+		final InputStream in = new FileInputStream(file);
+		try {
+			addContent(in);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Adds the remaining content of the given stream. The stream is not closed.
+	 *
+	 * @param in
+	 *            stream to read the content from
+	 * @throws IOException
+	 *             if the stream can not be read
+	 */
+	public void addContent(final InputStream in) throws IOException {
+		final byte[] buffer = new byte[4096];
+		long size = 0;
+		int len;
+		while ((len = in.read(buffer)) != -1) {
+			digest.update(buffer, 0, len);
+			size += len;
+		}
+		add(String.valueOf(size));
+	}
+
+	/**
+	 * Returns the fingerprint of all values added so far as a hex string. The
+	 * fingerprint is reset to empty afterwards.
+	 *
+	 * @return fingerprint
+	 */
+	public String getValue() {
+		final StringBuilder result = new StringBuilder();
+		for (final byte b : digest.digest()) {
+			result.append(Integer.toHexString((b & 0xff) | 0x100).substring(1));
+		}
+		return result.toString();
+	}
+
+}
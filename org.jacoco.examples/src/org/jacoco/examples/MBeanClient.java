@@ -73,6 +73,8 @@ public final class MBeanClient {
 
 		byte[] getExecutionData(boolean reset);
 
+		byte[] getExecutionDataDelta(String client);
+
 		void dump(boolean reset);
 
 		void reset();
@@ -13,9 +13,13 @@
 package org.jacoco.report;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -52,6 +56,39 @@ public class FileMultiReportOutputTest {
 		actual.close();
 	}
 
+	@Test
+	public void testOpenFile() throws IOException {
+		final OutputStream out = new FileOutputStream(folder.newFile("test"));
+		out.write(42);
+		out.close();
+		final FileMultiReportOutput output = new FileMultiReportOutput(
+				folder.getRoot());
+
+		final InputStream in = output.openFile("test");
+		assertEquals(42, in.read());
+		assertEquals(-1, in.read());
+		in.close();
+	}
+
+	@Test
+	public void testOpenFileNotExisting() throws IOException {
+		final FileMultiReportOutput output = new FileMultiReportOutput(
+				folder.getRoot());
+
+		assertNull(output.openFile("a/test"));
+	}
+
+	@Test
+	public void testExists() throws IOException {
+		final FileMultiReportOutput output = new FileMultiReportOutput(
+				folder.getRoot());
+		output.createFile("a/test").close();
+
+		assertTrue(output.exists("a/test"));
+		assertFalse(output.exists("a/other"));
+		assertFalse(output.exists("a"));
+	}
+
 	@Test(expected = IOException.class)
 	public void testCreateFileNegative() throws IOException {
 		folder.newFile("a");
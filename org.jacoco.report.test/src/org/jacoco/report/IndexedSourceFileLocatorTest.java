@@ -0,0 +1,241 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.report;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link IndexedSourceFileLocator}.
+ */
+public class IndexedSourceFileLocatorTest {
+
+	@Rule
+	public final TemporaryFolder sourceFolder = new TemporaryFolder();
+
+	private File root1;
+
+	private File root2;
+
+	private IndexedSourceFileLocator locator;
+
+	@Before
+	public void setup() {
+		root1 = new File(sourceFolder.getRoot(), "root1");
+		root2 = new File(sourceFolder.getRoot(), "root2");
+		locator = new IndexedSourceFileLocator("UTF-8", 4, 2);
+		locator.add(root1);
+		locator.add(root2);
+	}
+
+	@Test
+	public void getTabWidth_should_return_configured_value() {
+		assertEquals(4, locator.getTabWidth());
+	}
+
+	@Test
+	public void getSourceFile_should_return_null_when_source_does_not_exist()
+			throws IOException {
+		assertNull(locator.getSourceFile("org/jacoco/example",
+				"DoesNotExist.java"));
+	}
+
+	@Test
+	public void getSourceFile_should_return_null_when_source_is_folder()
+			throws IOException {
+		new File(root1, "org/jacoco/example").mkdirs();
+
+		assertNull(locator.getSourceFile("org/jacoco", "example"));
+	}
+
+	@Test
+	public void getSourceFile_should_return_content_when_file_exists()
+			throws IOException {
+		createFile(root2, "org/jacoco/example/Test.java", "Source");
+
+		assertContent("Source",
+				locator.getSourceFile("org/jacoco/example", "Test.java"));
+	}
+
+	@Test
+	public void getSourceFile_should_return_content_for_default_package()
+			throws IOException {
+		createFile(root1, "Test.java", "Source");
+
+		assertContent("Source", locator.getSourceFile("", "Test.java"));
+	}
+
+	@Test
+	public void getSourceFile_should_prefer_directories_added_first()
+			throws IOException {
+		createFile(root1, "org/jacoco/example/Test.java", "Source1");
+		createFile(root2, "org/jacoco/example/Test.java", "Source2");
+
+		assertContent("Source1",
+				locator.getSourceFile("org/jacoco/example", "Test.java"));
+	}
+
+	@Test
+	public void getSourceFile_should_not_find_files_created_after_first_lookup()
+			throws IOException {
+		assertNull(locator.getSourceFile("org/jacoco/example", "Test.java"));
+		createFile(root1, "org/jacoco/example/Test.java", "Source");
+
+		assertNull(locator.getSourceFile("org/jacoco/example", "Test.java"));
+	}
+
+	@Test
+	public void add_should_rebuild_index() throws IOException {
+		assertNull(locator.getSourceFile("org/jacoco/example", "Test.java"));
+		final File root3 = new File(sourceFolder.getRoot(), "root3");
+		createFile(root3, "org/jacoco/example/Test.java", "Source");
+
+		locator.add(root3);
+
+		assertContent("Source",
+				locator.getSourceFile("org/jacoco/example", "Test.java"));
+	}
+
+	@Test
+	public void getSourceFile_should_ignore_cycles_of_symbolic_links()
+			throws Exception {
+		createFile(root1, "org/jacoco/example/Test.java", "Source");
+		final Process ln = Runtime.getRuntime()
+				.exec(new String[] { "ln", "-s", root1.getAbsolutePath(),
+						new File(root1, "org/jacoco/loop").getAbsolutePath() });
+		assumeTrue(ln.waitFor() == 0);
+
+		assertContent("Source",
+				locator.getSourceFile("org/jacoco/example", "Test.java"));
+		assertNull(locator.getSourceFile("org/jacoco/loop/org/jacoco/example",
+				"Test.java"));
+	}
+
+	@Test
+	public void getSourceFile_should_return_cached_content()
+			throws IOException {
+		final File file = createFile(root1, "Test.java", "Source");
+		assertContent("Source", locator.getSourceFile("", "Test.java"));
+		file.delete();
+
+		assertContent("Source", locator.getSourceFile("", "Test.java"));
+	}
+
+	@Test
+	public void getSourceFile_should_evict_least_recently_used_content()
+			throws IOException {
+		createFile(root1, "A.java", "A");
+		createFile(root1, "B.java", "B");
+		createFile(root1, "C.java", "C");
+		assertContent("A", locator.getSourceFile("", "A.java"));
+		assertContent("B", locator.getSourceFile("", "B.java"));
+		assertContent("A", locator.getSourceFile("", "A.java"));
+		assertContent("C", locator.getSourceFile("", "C.java"));
+		createFile(root1, "A.java", "A2");
+		createFile(root1, "B.java", "B2");
+
+		assertContent("A", locator.getSourceFile("", "A.java"));
+		assertContent("B2", locator.getSourceFile("", "B.java"));
+	}
+
+	@Test
+	public void getSourceFile_should_not_cache_content_when_cache_size_is_0()
+			throws IOException {
+		locator = new IndexedSourceFileLocator("UTF-8", 4, 0);
+		locator.add(root1);
+		createFile(root1, "Test.java", "Source");
+		assertContent("Source", locator.getSourceFile("", "Test.java"));
+		createFile(root1, "Test.java", "Modified");
+
+		assertContent("Modified", locator.getSourceFile("", "Test.java"));
+	}
+
+	@Test
+	public void getSourceFile_should_decode_with_given_encoding()
+			throws IOException {
+		locator = new IndexedSourceFileLocator("UTF-16", 4, 2);
+		locator.add(root1);
+		final File file = new File(root1, "Test.java");
+		root1.mkdirs();
+		final Writer writer = new OutputStreamWriter(new FileOutputStream(file),
+				"UTF-16");
+		writer.write("\u00e4\u00f6\u00fc");
+		writer.close();
+
+		assertContent("\u00e4\u00f6\u00fc",
+				locator.getSourceFile("", "Test.java"));
+	}
+
+	@Test
+	public void getSourceFile_should_use_platform_encoding_when_not_specified()
+			throws IOException {
+		locator = new IndexedSourceFileLocator(null, 4, 2);
+		locator.add(root1);
+		createFile(root1, "Test.java", "Source");
+
+		assertContent("Source", locator.getSourceFile("", "Test.java"));
+	}
+
+	@Test
+	public void getSourceFile_should_throw_exception_for_unknown_encoding()
+			throws IOException {
+		locator = new IndexedSourceFileLocator("does-not-exist", 4, 2);
+		locator.add(root1);
+		createFile(root1, "Test.java", "Source");
+
+		try {
+			locator.getSourceFile("", "Test.java");
+			fail("exception expected");
+		} catch (final UnsupportedEncodingException e) {
+			assertEquals("does-not-exist", e.getMessage());
+		}
+	}
+
+	private File createFile(final File root, final String path,
+			final String content) throws IOException {
+		final File file = new File(root, path);
+		file.getParentFile().mkdirs();
+		final Writer writer = new OutputStreamWriter(new FileOutputStream(file),
+				"UTF-8");
+		writer.write(content);
+		writer.close();
+		return file;
+	}
+
+	private void assertContent(final String expected, final Reader source)
+			throws IOException {
+		assertNotNull(source);
+		final BufferedReader buffer = new BufferedReader(source);
+		assertEquals(expected, buffer.readLine());
+		assertNull(buffer.readLine());
+		buffer.close();
+	}
+
+}
@@ -23,9 +23,11 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 
@@ -34,19 +36,22 @@ import java.util.Set;
  */
 public class MemoryMultiReportOutput implements IMultiReportOutput {
 
-	private final Map<String, ByteArrayOutputStream> files = new HashMap<String, ByteArrayOutputStream>();
+	private final Map<String, ByteArrayOutputStream> files = new LinkedHashMap<String, ByteArrayOutputStream>();
 
 	private final Set<String> open = new HashSet<String>();
 
 	private boolean closed = false;
 
-	public OutputStream createFile(final String path) throws IOException {
+	public synchronized OutputStream createFile(final String path)
+			throws IOException {
 		assertFalse("Duplicate output " + path, files.containsKey(path));
 		open.add(path);
 		final ByteArrayOutputStream out = new ByteArrayOutputStream() {
 			@Override
 			public void close() throws IOException {
-				open.remove(path);
+				synchronized (MemoryMultiReportOutput.this) {
+					open.remove(path);
+				}
 				super.close();
 			}
 		};
@@ -75,6 +80,11 @@ public class MemoryMultiReportOutput implements IMultiReportOutput {
 		assertEquals(Collections.singleton(path), files.keySet());
 	}
 
+	public void assertFilesInOrder(String... paths) {
+		assertEquals(Arrays.asList(paths),
+				new ArrayList<String>(files.keySet()));
+	}
+
 	public byte[] getFile(String path) {
 		assertFile(path);
 		return files.get(path).toByteArray();
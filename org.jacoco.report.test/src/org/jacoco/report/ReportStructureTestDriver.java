@@ -113,6 +113,10 @@ public class ReportStructureTestDriver {
 				Arrays.asList(packageCoverage, emptyPackage));
 	}
 
+	public BundleCoverageImpl getBundleCoverage() {
+		return bundleCoverage;
+	}
+
 	public void sendNestedGroups(IReportVisitor reportVisitor)
 			throws IOException {
 		reportVisitor.visitInfo(sessions, executionData);
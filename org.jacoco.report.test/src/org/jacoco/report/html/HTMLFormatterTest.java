@@ -12,27 +12,40 @@
  *******************************************************************************/
 package org.jacoco.report.html;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import org.jacoco.report.FileMultiReportOutput;
 import org.jacoco.report.ILanguageNames;
 import org.jacoco.report.MemoryMultiReportOutput;
 import org.jacoco.report.ReportStructureTestDriver;
 import org.junit.After;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 /**
  * Unit tests for {@link HTMLFormatter}.
  */
 public class HTMLFormatterTest {
 
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
 	private ReportStructureTestDriver driver;
 
 	private HTMLFormatter formatter;
@@ -98,6 +111,113 @@ public class HTMLFormatterTest {
 		output.assertNoFile("empty/Empty.java.html");
 	}
 
+	@Test
+	public void testParallel() throws IOException {
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			formatter.setExecutor(executor);
+			driver.sendGroup(formatter.createVisitor(output));
+		} finally {
+			executor.shutdown();
+		}
+
+		final MemoryMultiReportOutput expected = new MemoryMultiReportOutput();
+		driver.sendGroup(new HTMLFormatter().createVisitor(expected));
+		for (final String path : new String[] { "index.html",
+				"bundle/index.html", "bundle/org.jacoco.example/index.html",
+				"bundle/org.jacoco.example/index.source.html",
+				"bundle/org.jacoco.example/FooClass.html",
+				"bundle/org.jacoco.example/FooClass.java.html" }) {
+			assertArrayEquals(path, expected.getFile(path),
+					output.getFile(path));
+		}
+	}
+
+	@Test
+	public void testIncrementalCreatesFingerprints() throws IOException {
+		formatter.setIncremental(true);
+		driver.sendGroup(formatter.createVisitor(output));
+		output.assertFile("index.html");
+		output.assertFile("bundle/org.jacoco.example/FooClass.html");
+		output.assertFile("jacoco-fingerprints.txt");
+	}
+
+	@Test
+	public void testIncrementalSkipsUnmodifiedPages() throws IOException {
+		formatter.setIncremental(true);
+		driver.sendGroup(formatter
+				.createVisitor(new FileMultiReportOutput(folder.getRoot())));
+		mark("index.html");
+		mark("bundle/org.jacoco.example/FooClass.html");
+		mark("bundle/org.jacoco.example/FooClass.java.html");
+		mark("jacoco-sessions.html");
+
+		formatter = new HTMLFormatter();
+		formatter.setIncremental(true);
+		driver.sendGroup(formatter
+				.createVisitor(new FileMultiReportOutput(folder.getRoot())));
+
+		assertMarked(true, "index.html");
+		assertMarked(true, "bundle/org.jacoco.example/FooClass.html");
+		assertMarked(true, "bundle/org.jacoco.example/FooClass.java.html");
+		assertMarked(false, "jacoco-sessions.html");
+		output.close();
+	}
+
+	@Test
+	public void testIncrementalWritesModifiedPages() throws IOException {
+		formatter.setIncremental(true);
+		driver.sendGroup(formatter
+				.createVisitor(new FileMultiReportOutput(folder.getRoot())));
+		mark("index.html");
+		mark("bundle/org.jacoco.example/FooClass.html");
+
+		formatter = new HTMLFormatter();
+		formatter.setIncremental(true);
+		formatter.setFooterText("Modified");
+		driver.sendGroup(formatter
+				.createVisitor(new FileMultiReportOutput(folder.getRoot())));
+
+		assertMarked(false, "index.html");
+		assertMarked(false, "bundle/org.jacoco.example/FooClass.html");
+		output.close();
+	}
+
+	@Test
+	public void testIncrementalWritesDeletedPages() throws IOException {
+		formatter.setIncremental(true);
+		driver.sendGroup(formatter
+				.createVisitor(new FileMultiReportOutput(folder.getRoot())));
+		mark("index.html");
+		new File(folder.getRoot(), "bundle/org.jacoco.example/FooClass.html")
+				.delete();
+
+		formatter = new HTMLFormatter();
+		formatter.setIncremental(true);
+		driver.sendGroup(formatter
+				.createVisitor(new FileMultiReportOutput(folder.getRoot())));
+
+		assertMarked(true, "index.html");
+		assertMarked(false, "bundle/org.jacoco.example/FooClass.html");
+		output.close();
+	}
+
+	private void mark(String path) throws IOException {
+		final OutputStream out = new FileOutputStream(
+				new File(folder.getRoot(), path));
+		out.write('X');
+		out.close();
+	}
+
+	private void assertMarked(boolean expected, String path)
+			throws IOException {
+		final FileInputStream in = new FileInputStream(
+				new File(folder.getRoot(), path));
+		final boolean marked = in.read() == 'X' && in.read() == -1;
+		in.close();
+		assertEquals(path, Boolean.valueOf(expected), Boolean.valueOf(marked));
+	}
+
 	@Test
 	public void testDefaultEncoding() throws Exception {
 		driver.sendBundle(formatter.createVisitor(output));
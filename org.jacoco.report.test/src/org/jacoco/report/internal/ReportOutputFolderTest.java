@@ -65,6 +65,39 @@ public class ReportOutputFolderTest {
 		output.assertAllClosed();
 	}
 
+	@Test
+	public void testFileInBufferedSubFolder() throws IOException {
+		final ReportOutputFolder folder = root.bufferedSubFolder("folderA");
+		folder.createFile("b.html").close();
+		folder.subFolder("folderB").createFile("c.html").close();
+		output.assertEmpty();
+
+		folder.flush();
+
+		output.assertFile("folderA/b.html");
+		output.assertFile("folderA/folderB/c.html");
+	}
+
+	@Test
+	public void testBufferedSubfolderInstance() throws IOException {
+		final ReportOutputFolder folder1 = root.bufferedSubFolder("folder1");
+		final ReportOutputFolder folder2 = root.bufferedSubFolder("folder1");
+		assertSame(folder1, folder2);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testBufferedSubfolderForUnbufferedFolder() throws IOException {
+		root.subFolder("folder1");
+		root.bufferedSubFolder("folder1");
+	}
+
+	@Test
+	public void testRelativeLinkInBufferedSubFolder() throws IOException {
+		final ReportOutputFolder folder = root.bufferedSubFolder("f1");
+		assertEquals("f1/test.html", folder.getLink(root, "test.html"));
+		assertEquals("../test.html", root.getLink(folder, "test.html"));
+	}
+
 	@Test
 	public void testRelativeLinkInSameFolder() throws IOException {
 		final ReportOutputFolder base = root.subFolder("f1").subFolder("f2");
@@ -14,8 +14,13 @@ package org.jacoco.report.internal.html.page;
 
 import static org.junit.Assert.assertEquals;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.jacoco.core.analysis.IBundleCoverage;
 import org.jacoco.core.analysis.IClassCoverage;
@@ -26,6 +31,7 @@ import org.jacoco.core.internal.analysis.ClassCoverageImpl;
 import org.jacoco.core.internal.analysis.CounterImpl;
 import org.jacoco.core.internal.analysis.MethodCoverageImpl;
 import org.jacoco.core.internal.analysis.PackageCoverageImpl;
+import org.jacoco.report.internal.html.table.ITableItem;
 import org.junit.Before;
 import org.junit.Test;
 import org.w3c.dom.Document;
@@ -75,6 +81,93 @@ public class BundlePageTest extends PageTestBase {
 				support.findStr(doc, "count(/html/body/table[1]/tbody/tr)"));
 	}
 
+	@Test
+	public void should_write_files_in_package_order_when_rendered_by_executor()
+			throws Exception {
+		final List<Runnable> tasks = new ArrayList<Runnable>();
+		executor = new Executor() {
+			public void execute(final Runnable command) {
+				tasks.add(command);
+				if (tasks.size() == 2) {
+					// complete the tasks in reverse order
+					tasks.get(1).run();
+					tasks.get(0).run();
+				}
+			}
+		};
+		final IBundleCoverage node = new BundleCoverageImpl("bundle",
+				Arrays.asList(createPackage("a"), createPackage("b")));
+
+		final BundlePage page = new BundlePage(node, null, null, rootFolder,
+				context);
+		page.render();
+
+		output.assertFilesInOrder("a/Class.html", "a/index.html",
+				"b/Class.html", "b/index.html", "index.html");
+	}
+
+	@Test
+	public void should_render_packages_on_calling_thread_when_executor_rejects_tasks()
+			throws Exception {
+		final ExecutorService rejecting = Executors.newFixedThreadPool(1);
+		rejecting.shutdown();
+		executor = rejecting;
+		final IBundleCoverage node = new BundleCoverageImpl("bundle",
+				Arrays.asList(createPackage("a"), createPackage("b")));
+
+		final BundlePage page = new BundlePage(node, null, null, rootFolder,
+				context);
+		page.render();
+
+		output.assertFilesInOrder("a/Class.html", "a/index.html",
+				"b/Class.html", "b/index.html", "index.html");
+	}
+
+	@Test
+	public void should_limit_number_of_packages_rendered_in_advance()
+			throws Exception {
+		final List<IPackageCoverage> packages = new ArrayList<IPackageCoverage>();
+		for (int i = 0; i < 100; i++) {
+			packages.add(createPackage(String.format("p%03d", i)));
+		}
+		final List<Runnable> tasks = new ArrayList<Runnable>();
+		executor = new Executor() {
+			public void execute(final Runnable command) {
+				// tasks are never started by the executor
+				tasks.add(command);
+			}
+		};
+		final IBundleCoverage node = new BundleCoverageImpl("bundle", packages);
+
+		final BundlePage page = new BundlePage(node, null, null, rootFolder,
+				context) {
+			@Override
+			public void addItem(final ITableItem item) {
+				if (tasks.size() == 100) {
+					// first package has been written before the last one
+					output.assertFile("p000/index.html");
+				}
+				super.addItem(item);
+			}
+		};
+		page.render();
+
+		output.assertFile("p099/index.html");
+	}
+
+	private static IPackageCoverage createPackage(final String name) {
+		final ClassCoverageImpl classCoverage = new ClassCoverageImpl(
+				name + "/Class", 0, false);
+		final MethodCoverageImpl methodCoverage = new MethodCoverageImpl("m",
+				"()V", null);
+		methodCoverage.increment(CounterImpl.COUNTER_1_0,
+				CounterImpl.COUNTER_0_0, 42);
+		classCoverage.addMethod(methodCoverage);
+		return new PackageCoverageImpl(name,
+				Collections.<IClassCoverage> singleton(classCoverage),
+				Collections.<ISourceFileCoverage> emptySet());
+	}
+
 	@Test
 	public void should_render_message_when_no_class_files_specified()
 			throws Exception {
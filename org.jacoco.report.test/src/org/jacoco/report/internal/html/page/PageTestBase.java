@@ -14,11 +14,13 @@ package org.jacoco.report.internal.html.page;
 
 import java.io.IOException;
 import java.util.Locale;
+import java.util.concurrent.Executor;
 
 import org.jacoco.report.ILanguageNames;
 import org.jacoco.report.JavaNames;
 import org.jacoco.report.MemoryMultiReportOutput;
 import org.jacoco.report.internal.ReportOutputFolder;
+import org.jacoco.report.internal.html.FingerprintStore;
 import org.jacoco.report.internal.html.HTMLSupport;
 import org.jacoco.report.internal.html.IHTMLReportContext;
 import org.jacoco.report.internal.html.ILinkable;
@@ -43,6 +45,8 @@ public abstract class PageTestBase {
 
 	protected HTMLSupport support;
 
+	protected Executor executor;
+
 	protected void setup() throws Exception {
 		output = new MemoryMultiReportOutput();
 		rootFolder = new ReportOutputFolder(output);
@@ -87,6 +91,14 @@ public abstract class PageTestBase {
 				return Locale.ENGLISH;
 			}
 
+			public FingerprintStore getFingerprints() {
+				return null;
+			}
+
+			public Executor getExecutor() {
+				return executor;
+			}
+
 		};
 		support = new HTMLSupport();
 	}
@@ -120,6 +120,15 @@ public class XMLElementTest {
 		assertContent("<root>&lt;black&amp;white&quot;&gt;</root>");
 	}
 
+	@Test
+	public void text_should_quote_adjacent_characters() throws IOException {
+		root.text("&&a<<>>b\"\"");
+		root.text("");
+		root.text("plain");
+		assertContent(
+				"<root>&amp;&amp;a&lt;&lt;&gt;&gt;b&quot;&quot;plain</root>");
+	}
+
 	@Test
 	public void attr_should_ignore_call_when_value_is_null()
 			throws IOException {
@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.report.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.jacoco.core.analysis.IBundleCoverage;
+import org.jacoco.core.analysis.IPackageCoverage;
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.SessionInfo;
+import org.jacoco.report.IReportVisitor;
+import org.jacoco.report.MemoryOutput;
+import org.jacoco.report.ReportStructureTestDriver;
+import org.jacoco.report.internal.xml.XMLSupport;
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+/**
+ * Unit tests for {@link XMLBundleWriter}.
+ */
+public class XMLBundleWriterTest {
+
+	private ReportStructureTestDriver driver;
+
+	private XMLFormatter formatter;
+
+	private List<SessionInfo> infos;
+
+	@Before
+	public void setup() {
+		driver = new ReportStructureTestDriver();
+		formatter = new XMLFormatter();
+		infos = new ArrayList<SessionInfo>();
+		infos.add(new SessionInfo("session-1", 12345, 67890));
+	}
+
+	@Test
+	public void should_write_same_document_as_formatter_visitor()
+			throws Exception {
+		final IBundleCoverage bundle = driver.getBundleCoverage();
+
+		final MemoryOutput expected = new MemoryOutput();
+		final IReportVisitor visitor = formatter.createVisitor(expected);
+		visitor.visitInfo(infos, Collections.<ExecutionData> emptyList());
+		visitor.visitBundle(bundle, driver.sourceFileLocator);
+		visitor.visitEnd();
+
+		final MemoryOutput actual = new MemoryOutput();
+		final XMLBundleWriter writer = formatter.createBundleWriter(actual,
+				"bundle", infos);
+		for (final IPackageCoverage p : bundle.getPackages()) {
+			writer.visitPackage(p);
+		}
+		writer.visitEnd();
+
+		actual.assertClosed();
+		assertEquals(expected.toString("UTF-8"), actual.toString("UTF-8"));
+	}
+
+	@Test
+	public void should_write_counters_of_all_packages() throws Exception {
+		final MemoryOutput output = new MemoryOutput();
+		final XMLBundleWriter writer = formatter.createBundleWriter(output,
+				"bundle", infos);
+		for (final IPackageCoverage p : driver.getBundleCoverage()
+				.getPackages()) {
+			writer.visitPackage(p);
+		}
+		writer.visitEnd();
+
+		final XMLSupport support = new XMLSupport(XMLFormatter.class);
+		final Document document = support.parse(output);
+		assertEquals("bundle", support.findStr(document, "/report/@name"));
+		assertEquals("session-1",
+				support.findStr(document, "/report/sessioninfo/@id"));
+		assertEquals("2", support.findStr(document, "count(/report/package)"));
+		assertEquals("10", support.findStr(document,
+				"/report/counter[@type='INSTRUCTION']/@missed"));
+		assertEquals("15", support.findStr(document,
+				"/report/counter[@type='INSTRUCTION']/@covered"));
+	}
+
+	@Test
+	public void should_write_empty_report_without_packages() throws Exception {
+		final MemoryOutput output = new MemoryOutput();
+		final XMLBundleWriter writer = formatter.createBundleWriter(output,
+				"empty", Collections.<SessionInfo> emptyList());
+		writer.visitEnd();
+		writer.visitEnd();
+
+		output.assertClosed();
+		assertEquals(
+				"<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+						+ "<!DOCTYPE report PUBLIC \"-//JACOCO//DTD Report 1.1//EN\" \"report.dtd\">"
+						+ "<report name=\"empty\"/>",
+				output.toString("UTF-8"));
+	}
+
+	@Test
+	public void should_throw_exception_when_package_is_passed_after_end()
+			throws Exception {
+		final XMLBundleWriter writer = formatter
+				.createBundleWriter(new MemoryOutput(), "bundle", infos);
+		writer.visitEnd();
+		try {
+			writer.visitPackage(
+					driver.getBundleCoverage().getPackages().iterator().next());
+			fail("IOException expected");
+		} catch (final IOException e) {
+			assertEquals("Report already ended.", e.getMessage());
+		}
+	}
+
+}
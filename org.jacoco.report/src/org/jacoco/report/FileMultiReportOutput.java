@@ -14,17 +14,21 @@ package org.jacoco.report;
 
 import static java.lang.String.format;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 
 /**
  * Implementation of {@link IMultiReportOutput} that writes files directly to a
- * given directory.
+ * given directory. Files of a previous report in this directory can be read for
+ * incremental report creation.
  */
-public class FileMultiReportOutput implements IMultiReportOutput {
+public class FileMultiReportOutput implements IIncrementalReportOutput {
 
 	private final File basedir;
 
@@ -48,6 +52,18 @@ public class FileMultiReportOutput implements IMultiReportOutput {
 		return new BufferedOutputStream(new FileOutputStream(file));
 	}
 
+	public InputStream openFile(final String path) throws IOException {
+		final File file = new File(basedir, path);
+		if (!file.isFile()) {
+			return null;
+		}
+		return new BufferedInputStream(new FileInputStream(file));
+	}
+
+	public boolean exists(final String path) {
+		return new File(basedir, path).isFile();
+	}
+
 	public void close() throws IOException {
 		// nothing to do here
 	}
@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.report;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Output which also provides access to the files of a previous report at the
+ * same location. This allows formatters to create reports incrementally.
+ */
+public interface IIncrementalReportOutput extends IMultiReportOutput {
+
+	/**
+	 * Opens an existing file at the given local path.
+	 *
+	 * @param path
+	 *            local path to the existing document
+	 * @return input for the content or <code>null</code> if the file does not
+	 *         exist
+	 * @throws IOException
+	 *             if the file exists but can't be opened
+	 */
+	InputStream openFile(String path) throws IOException;
+
+	/**
+	 * Checks whether a file exists at the given local path.
+	 *
+	 * @param path
+	 *            local path to the file
+	 * @return <code>true</code> if the file exists
+	 */
+	boolean exists(String path);
+
+}
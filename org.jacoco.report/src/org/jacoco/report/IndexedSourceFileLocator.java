@@ -0,0 +1,191 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.report;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Locator for source files in any number of directories. Unlike a
+ * {@link MultiSourceFileLocator} with a {@link DirectorySourceFileLocator} per
+ * directory, which probes every directory for every source file, this locator
+ * lists the contents of all directories once on the first lookup and resolves
+ * source files from this index afterwards. Source files added to the
+ * directories after the first lookup are therefore not found. The index
+ * contains the names of all regular files in the directories, not only source
+ * files, so directories should not contain large numbers of other files.
+ * Directories reached through symbolic links are only traversed once per source
+ * directory.
+ *
+ * The content of source files is read through a {@link FileChannel} and kept in
+ * a bounded least-recently-used cache, so that repeated lookups of the same
+ * source file, e.g. by multiple HTML formatters, do not read and decode it
+ * again.
+ *
+ * Instances are thread-safe.
+ */
+public class IndexedSourceFileLocator implements ISourceFileLocator {
+
+	private final String encoding;
+
+	private final int tabWidth;
+
+	private final List<File> directories;
+
+	private final Map<File, String> cache;
+
+	private Map<String, File> index;
+
+	/**
+	 * Creates a new empty locator.
+	 *
+	 * @param encoding
+	 *            encoding of the source files, <code>null</code> for platform
+	 *            default encoding
+	 * @param tabWidth
+	 *            tab width in source files as number of blanks
+	 * @param cacheSize
+	 *            maximum number of source files kept in memory, <code>0</code>
+	 *            disables caching
+	 */
+	public IndexedSourceFileLocator(final String encoding, final int tabWidth,
+			final int cacheSize) {
+		this.encoding = encoding;
+		this.tabWidth = tabWidth;
+		this.directories = new ArrayList<File>();
+		this.cache = new LinkedHashMap<File, String>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(
+					final Map.Entry<File, String> eldest) {
+				return size() > cacheSize;
+			}
+		};
+	}
+
+	/**
+	 * Adds the given directory. Directories are searched in the sequence they
+	 * have been added. Directories which do not exist are ignored.
+	 *
+	 * @param directory
+	 *            source directory
+	 */
+	public synchronized void add(final File directory) {
+		directories.add(directory);
+		index = null;
+	}
+
+	public Reader getSourceFile(final String packageName, final String fileName)
+			throws IOException {
+		final String path;
+		if (packageName.length() > 0) {
+			path = packageName + "/" + fileName;
+		} else {
+			path = fileName;
+		}
+		final File file;
+		synchronized (this) {
+			if (index == null) {
+				index = new HashMap<String, File>();
+				for (final File d : directories) {
+					addToIndex(d, "", new HashSet<File>());
+				}
+			}
+			file = index.get(path);
+			if (file == null) {
+				return null;
+			}
+			final String content = cache.get(file);
+			if (content != null) {
+				return new StringReader(content);
+			}
+		}
+		final String content = read(file);
+		synchronized (this) {
+			cache.put(file, content);
+		}
+		return new StringReader(content);
+	}
+
+	private void addToIndex(final File directory, final String prefix,
+			final Set<File> visited) {
+		try {
+			if (!visited.add(directory.getCanonicalFile())) {
+				// Already indexed, e.g. cycle of symbolic links
+				return;
+			}
+		} catch (final IOException e) {
+			return;
+		}
+		final File[] files = directory.listFiles();
+		if (files == null) {
+			return;
+		}
+		for (final File f : files) {
+			final String path = prefix + f.getName();
+			if (f.isDirectory()) {
+				addToIndex(f, path + "/", visited);
+			} else if (f.isFile() && !index.containsKey(path)) {
+				index.put(path, f);
+			}
+		}
+	}
+
+	private String read(final File file) throws IOException {
+		final Charset charset = getCharset();
+		final FileInputStream in = new FileInputStream(file);
+		try {
+			final FileChannel channel = in.getChannel();
+			final ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+			while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+				// read until the buffer is full or the file has been truncated
+			}
+			buffer.flip();
+			return charset.decode(buffer).toString();
+		} finally {
+			in.close();
+		}
+	}
+
+	private Charset getCharset() throws UnsupportedEncodingException {
+		if (encoding == null) {
+			return Charset.defaultCharset();
+		}
+		try {
+			return Charset.forName(encoding);
+		} catch (final IllegalArgumentException e) {
+			// Same exception as thrown by InputStreamReader
+			throw new UnsupportedEncodingException(encoding);
+		}
+	}
+
+	public int getTabWidth() {
+		return tabWidth;
+	}
+
+}
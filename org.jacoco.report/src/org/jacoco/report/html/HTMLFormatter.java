@@ -13,14 +13,17 @@
 package org.jacoco.report.html;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.Executor;
 
 import org.jacoco.core.analysis.IBundleCoverage;
 import org.jacoco.core.analysis.ICoverageNode.CounterEntity;
 import org.jacoco.core.data.ExecutionData;
 import org.jacoco.core.data.SessionInfo;
+import org.jacoco.report.IIncrementalReportOutput;
 import org.jacoco.report.ILanguageNames;
 import org.jacoco.report.IMultiReportOutput;
 import org.jacoco.report.IReportGroupVisitor;
@@ -28,6 +31,7 @@ import org.jacoco.report.IReportVisitor;
 import org.jacoco.report.ISourceFileLocator;
 import org.jacoco.report.JavaNames;
 import org.jacoco.report.internal.ReportOutputFolder;
+import org.jacoco.report.internal.html.FingerprintStore;
 import org.jacoco.report.internal.html.HTMLGroupVisitor;
 import org.jacoco.report.internal.html.IHTMLReportContext;
 import org.jacoco.report.internal.html.ILinkable;
@@ -57,13 +61,17 @@ public class HTMLFormatter implements IHTMLReportContext {
 
 	private String outputEncoding = "UTF-8";
 
+	private boolean incremental = false;
+
+	private Executor executor;
+
 	private Resources resources;
 
 	private ElementIndex index;
 
 	private SessionsPage sessionsPage;
 
-	private Table table;
+	private FingerprintStore fingerprints;
 
 	/**
 	 * New instance with default settings.
@@ -113,6 +121,40 @@ public class HTMLFormatter implements IHTMLReportContext {
 		this.outputEncoding = outputEncoding;
 	}
 
+	/**
+	 * Enables incremental report creation. Fingerprints of all pages are stored
+	 * with the report. If the output provides the files of a previous report
+	 * (see {@link IIncrementalReportOutput}) only pages with modified content
+	 * or missing files are written. Note that source files are still read
+	 * completely to calculate the fingerprints of source pages, so this saves
+	 * rendering and writing but not reading of sources. Default is
+	 * <code>false</code>.
+	 *
+	 * @param incremental
+	 *            <code>true</code> to write modified pages only
+	 */
+	public void setIncremental(final boolean incremental) {
+		this.incremental = incremental;
+	}
+
+	/**
+	 * Sets an optional executor for parallel report rendering. If an executor
+	 * is set the pages of every package are rendered by a separate task. In
+	 * this case the {@link ISourceFileLocator} instances passed to the report
+	 * visitor must support concurrent access. The files of every package are
+	 * buffered in memory until all files of the previous packages have been
+	 * written, so the report and the sequence of its files do not depend on the
+	 * executor. The executor is not shut down by this formatter. Default is
+	 * <code>null</code> which means all pages are rendered on the calling
+	 * thread.
+	 *
+	 * @param executor
+	 *            executor for rendering tasks or <code>null</code>
+	 */
+	public void setExecutor(final Executor executor) {
+		this.executor = executor;
+	}
+
 	// === IHTMLReportContext ===
 
 	public ILanguageNames getLanguageNames() {
@@ -124,13 +166,6 @@ public class HTMLFormatter implements IHTMLReportContext {
 	}
 
 	public Table getTable() {
-		if (table == null) {
-			table = createTable();
-		}
-		return table;
-	}
-
-	private Table createTable() {
 		final Table t = new Table();
 		t.add("Element", null, new LabelColumn(), false);
 		t.add("Missed Instructions", Styles.BAR,
@@ -176,6 +211,14 @@ public class HTMLFormatter implements IHTMLReportContext {
 		return locale;
 	}
 
+	public FingerprintStore getFingerprints() {
+		return fingerprints;
+	}
+
+	public Executor getExecutor() {
+		return executor;
+	}
+
 	/**
 	 * Creates a new visitor to write a report to the given output.
 	 *
@@ -191,6 +234,7 @@ public class HTMLFormatter implements IHTMLReportContext {
 		resources = new Resources(root);
 		resources.copyResources();
 		index = new ElementIndex(root);
+		fingerprints = incremental ? createFingerprints(output, root) : null;
 		return new IReportVisitor() {
 
 			private List<SessionInfo> sessionInfos;
@@ -232,8 +276,29 @@ public class HTMLFormatter implements IHTMLReportContext {
 					groupHandler.visitEnd();
 				}
 				sessionsPage.render();
+				if (fingerprints != null) {
+					fingerprints.write();
+				}
 				output.close();
 			}
 		};
 	}
+
+	private static FingerprintStore createFingerprints(
+			final IMultiReportOutput output, final ReportOutputFolder root)
+			throws IOException {
+		if (!(output instanceof IIncrementalReportOutput)) {
+			return new FingerprintStore(root, null);
+		}
+		final IIncrementalReportOutput previousReport = (IIncrementalReportOutput) output;
+		final FingerprintStore store = new FingerprintStore(root,
+				previousReport);
+		final InputStream in = previousReport
+				.openFile(FingerprintStore.FILE_NAME);
+		if (in != null) {
+			store.read(in);
+		}
+		return store;
+	}
+
 }
@@ -33,6 +33,8 @@ import java.util.Set;
  * <li>If unique filenames can't directly created from the ids, additional
  * suffixes are appended.</li>
  * </ul>
+ *
+ * Instances of this class are thread-safe.
  */
 class NormalizedFileNames {
 
@@ -50,7 +52,7 @@ class NormalizedFileNames {
 
 	private final Set<String> usedNames = new HashSet<String>();
 
-	public String getFileName(final String id) {
+	public synchronized String getFileName(final String id) {
 		String name = mapping.get(id);
 		if (name != null) {
 			return name;
@@ -12,9 +12,12 @@
  *******************************************************************************/
 package org.jacoco.report.internal;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.jacoco.report.IMultiReportOutput;
@@ -22,6 +25,7 @@ import org.jacoco.report.IMultiReportOutput;
 /**
  * Logical representation of a folder in the output structure. This utility
  * ensures valid and unique file names and helps to create relative links.
+ * Folders and file names can be created concurrently.
  */
 public class ReportOutputFolder {
 
@@ -67,7 +71,7 @@ public class ReportOutputFolder {
 	 *            name of the sub-folder
 	 * @return handle for output into the sub-folder
 	 */
-	public ReportOutputFolder subFolder(final String name) {
+	public synchronized ReportOutputFolder subFolder(final String name) {
 		final String normalizedName = normalize(name);
 		ReportOutputFolder folder = subFolders.get(normalizedName);
 		if (folder != null) {
@@ -79,6 +83,52 @@ public class ReportOutputFolder {
 		return folder;
 	}
 
+	/**
+	 * Creates a sub-folder with the given name whose files are kept in memory.
+	 * The files are only written to the output of this folder in the sequence
+	 * of their creation when {@link #flush()} is called on the returned folder.
+	 * This allows to create the content of the sub-folder on another thread and
+	 * still write files in a deterministic order.
+	 *
+	 * @param name
+	 *            name of the sub-folder
+	 * @return handle for buffered output into the sub-folder
+	 * @throws IllegalStateException
+	 *             if a sub-folder with the same name has already been created
+	 *             without buffering
+	 */
+	public synchronized ReportOutputFolder bufferedSubFolder(
+			final String name) {
+		final String normalizedName = normalize(name);
+		ReportOutputFolder folder = subFolders.get(normalizedName);
+		if (folder != null) {
+			if (!(folder.output instanceof BufferedOutput)) {
+				throw new IllegalStateException(
+						"Folder is not buffered: " + folder.path);
+			}
+			return folder;
+		}
+		folder = new ReportOutputFolder(new BufferedOutput(output), this,
+				path + normalizedName + "/");
+		subFolders.put(normalizedName, folder);
+		return folder;
+	}
+
+	/**
+	 * Writes all files buffered for a folder created with
+	 * {@link #bufferedSubFolder(String)}, including the files of its
+	 * sub-folders, to the actual output and releases them. Has no effect for
+	 * folders which are not buffered.
+	 *
+	 * @throws IOException
+	 *             if writing to the output fails
+	 */
+	public void flush() throws IOException {
+		if (output instanceof BufferedOutput) {
+			((BufferedOutput) output).flush();
+		}
+	}
+
 	/**
 	 * Creates a new file in this folder with the given local name.
 	 *
@@ -124,4 +174,39 @@ public class ReportOutputFolder {
 		return fileNames.getFileName(name);
 	}
 
+	private static class BufferedOutput implements IMultiReportOutput {
+
+		private final IMultiReportOutput target;
+
+		private final List<String> paths = new ArrayList<String>();
+
+		private final List<ByteArrayOutputStream> contents = new ArrayList<ByteArrayOutputStream>();
+
+		BufferedOutput(final IMultiReportOutput target) {
+			this.target = target;
+		}
+
+		public synchronized OutputStream createFile(final String path) {
+			final ByteArrayOutputStream content = new ByteArrayOutputStream();
+			paths.add(path);
+			contents.add(content);
+			return content;
+		}
+
+		synchronized void flush() throws IOException {
+			for (int i = 0; i < paths.size(); i++) {
+				final OutputStream out = target.createFile(paths.get(i));
+				contents.get(i).writeTo(out);
+				out.close();
+			}
+			paths.clear();
+			contents.clear();
+		}
+
+		public void close() {
+			// files are written by flush()
+		}
+
+	}
+
 }
@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.report.internal.html;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.jacoco.core.analysis.ICounter;
+import org.jacoco.core.analysis.ICoverageNode;
+import org.jacoco.core.analysis.ICoverageNode.CounterEntity;
+
+/**
+ * Builder for a digest over all information which determines the content of
+ * report pages. Values are added in a unambiguous encoding, so different
+ * sequences of values result in different fingerprints.
+ */
+public class Fingerprint {
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private final MessageDigest digest;
+
+	/**
+	 * Creates a new empty fingerprint.
+	 */
+	public Fingerprint() {
+		try {
+			digest = MessageDigest.getInstance("SHA-1");
+		} catch (final NoSuchAlgorithmException e) {
+			// SHA-1 is a mandatory algorithm for every Java platform
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Adds the given string.
+	 *
+	 * @param value
+	 *            value to add, may be <code>null</code>
+	 */
+	public void add(final String value) {
+		if (value == null) {
+			add(-1);
+		} else {
+			add(value.length());
+			for (int i = 0; i < value.length(); i++) {
+				addChar(value.charAt(i));
+			}
+		}
+	}
+
+	/**
+	 * Adds the given number.
+	 *
+	 * @param value
+	 *            value to add
+	 */
+	public void add(final long value) {
+		for (int shift = 56; shift >= 0; shift -= 8) {
+			digest.update((byte) (value >>> shift));
+		}
+	}
+
+	/**
+	 * Adds the given flag.
+	 *
+	 * @param value
+	 *            value to add
+	 */
+	public void add(final boolean value) {
+		digest.update(value ? (byte) 1 : (byte) 0);
+	}
+
+	/**
+	 * Adds missed and covered count of the given counter.
+	 *
+	 * @param counter
+	 *            counter to add
+	 */
+	public void add(final ICounter counter) {
+		add(counter.getMissedCount());
+		add(counter.getCoveredCount());
+	}
+
+	/**
+	 * Adds type, name and all counters of the given node.
+	 *
+	 * @param node
+	 *            node to add
+	 */
+	public void add(final ICoverageNode node) {
+		add(node.getElementType().name());
+		add(node.getName());
+		for (final CounterEntity entity : CounterEntity.values()) {
+			add(node.getCounter(entity));
+		}
+	}
+
+	/**
+	 * Adds the complete content of the given reader and closes it.
+	 *
+	 * @param reader
+	 *            reader to add, may be <code>null</code>
+	 * @throws IOException
+	 *             if the content can't be read
+	 */
+	public void add(final Reader reader) throws IOException {
+		if (reader == null) {
+			add(false);
+			return;
+		}
+		add(true);
+		try {
+			final char[] buffer = new char[0x1000];
+			int len;
+			while ((len = reader.read(buffer)) != -1) {
+				for (int i = 0; i < len; i++) {
+					addChar(buffer[i]);
+				}
+			}
+		} finally {
+			reader.close();
+		}
+		// Terminates the content
+		add(-1);
+	}
+
+	private void addChar(final char c) {
+		digest.update((byte) (c >>> 8));
+		digest.update((byte) c);
+	}
+
+	/**
+	 * Returns the fingerprint of all values added so far as a hex string.
+	 * Afterwards this instance must not be used any more.
+	 *
+	 * @return fingerprint
+	 */
+	public String get() {
+		final byte[] hash = digest.digest();
+		final char[] result = new char[hash.length * 2];
+		for (int i = 0; i < hash.length; i++) {
+			result[2 * i] = HEX[(hash[i] >> 4) & 0xF];
+			result[2 * i + 1] = HEX[hash[i] & 0xF];
+		}
+		return new String(result);
+	}
+
+}
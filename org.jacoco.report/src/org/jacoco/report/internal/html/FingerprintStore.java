@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.report.internal.html;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.jacoco.report.IIncrementalReportOutput;
+import org.jacoco.report.internal.ReportOutputFolder;
+
+/**
+ * Fingerprints of report pages for incremental report creation. The
+ * fingerprints of the previous report are compared with the fingerprints of the
+ * current report to decide which pages have to be written. Pages are also
+ * written if their file has been removed from the previous report. All
+ * fingerprints of the current report are stored in a file in the root folder of
+ * the report. Fingerprints can be updated concurrently.
+ */
+public class FingerprintStore {
+
+	/** Name of the file containing the fingerprints */
+	public static final String FILE_NAME = "jacoco-fingerprints.txt";
+
+	private static final String ENCODING = "UTF-8";
+
+	private final ReportOutputFolder root;
+
+	private final IIncrementalReportOutput previousReport;
+
+	private final Map<String, String> previous = new HashMap<String, String>();
+
+	private final Map<String, String> current = new TreeMap<String, String>();
+
+	/**
+	 * Creates a new store without previous fingerprints.
+	 *
+	 * @param root
+	 *            root folder of the report
+	 * @param previousReport
+	 *            output which provides the files of the previous report or
+	 *            <code>null</code>
+	 */
+	public FingerprintStore(final ReportOutputFolder root,
+			final IIncrementalReportOutput previousReport) {
+		this.root = root;
+		this.previousReport = previousReport;
+	}
+
+	/**
+	 * Reads fingerprints of the previous report.
+	 *
+	 * @param in
+	 *            content of a fingerprints file which is closed afterwards
+	 * @throws IOException
+	 *             if the content can't be read
+	 */
+	public void read(final InputStream in) throws IOException {
+		final BufferedReader reader = new BufferedReader(
+				new InputStreamReader(in, ENCODING));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				final int pos = line.indexOf(' ');
+				if (pos != -1) {
+					previous.put(line.substring(pos + 1),
+							line.substring(0, pos));
+				}
+			}
+		} finally {
+			reader.close();
+		}
+	}
+
+	/**
+	 * Records the fingerprint of the given page and checks whether it differs
+	 * from the previous report.
+	 *
+	 * @param page
+	 *            report page
+	 * @param fingerprint
+	 *            fingerprint of the page content
+	 * @return <code>true</code> if the page has to be written
+	 */
+	public boolean update(final ILinkable page, final String fingerprint) {
+		final String key = page.getLink(root);
+		final boolean unchanged;
+		synchronized (this) {
+			current.put(key, fingerprint);
+			unchanged = fingerprint.equals(previous.get(key));
+		}
+		return !unchanged || previousReport == null
+				|| !previousReport.exists(key);
+	}
+
+	/**
+	 * Writes the fingerprints of the current report to the root folder.
+	 *
+	 * @throws IOException
+	 *             if the file can't be written
+	 */
+	public synchronized void write() throws IOException {
+		final Writer writer = new OutputStreamWriter(root.createFile(FILE_NAME),
+				ENCODING);
+		try {
+			for (final Map.Entry<String, String> e : current.entrySet()) {
+				writer.write(e.getValue());
+				writer.write(' ');
+				writer.write(e.getKey());
+				writer.write('\n');
+			}
+		} finally {
+			writer.close();
+		}
+	}
+
+}
@@ -13,6 +13,7 @@
 package org.jacoco.report.internal.html;
 
 import java.util.Locale;
+import java.util.concurrent.Executor;
 
 import org.jacoco.report.ILanguageNames;
 import org.jacoco.report.internal.html.index.IIndexUpdate;
@@ -39,7 +40,8 @@ public interface IHTMLReportContext {
 	ILanguageNames getLanguageNames();
 
 	/**
-	 * Returns a table for rendering coverage nodes.
+	 * Returns a new table for rendering coverage nodes. Tables keep state while
+	 * rendering and must not be used by multiple threads concurrently.
 	 *
 	 * @return table for rendering
 	 */
@@ -80,4 +82,22 @@ public interface IHTMLReportContext {
 	 */
 	Locale getLocale();
 
+	/**
+	 * Returns the fingerprints of the report pages if the report is created
+	 * incrementally.
+	 *
+	 * @return fingerprints or <code>null</code> if all pages should be written
+	 */
+	FingerprintStore getFingerprints();
+
+	/**
+	 * Returns the executor to render the pages of packages in parallel. If an
+	 * executor is available all other methods of this context must be
+	 * thread-safe.
+	 *
+	 * @return executor or <code>null</code> if all pages should be rendered on
+	 *         the calling thread
+	 */
+	Executor getExecutor();
+
 }
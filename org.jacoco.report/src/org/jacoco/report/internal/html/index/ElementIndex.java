@@ -12,21 +12,21 @@
  *******************************************************************************/
 package org.jacoco.report.internal.html.index;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.jacoco.report.internal.ReportOutputFolder;
 import org.jacoco.report.internal.html.ILinkable;
 
 /**
  * An index over all report pages that allows queries according to certain
- * criteria.
+ * criteria. The index can be updated concurrently.
  */
 public class ElementIndex implements IIndexUpdate {
 
 	private final ReportOutputFolder baseFolder;
 
-	private final Map<Long, String> allClasses = new HashMap<Long, String>();
+	private final Map<Long, String> allClasses = new ConcurrentHashMap<Long, String>();
 
 	/**
 	 * Creates a new empty index for a HTML report.
@@ -13,21 +13,44 @@
 package org.jacoco.report.internal.html.page;
 
 import java.io.IOException;
+import java.util.LinkedList;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.jacoco.core.analysis.IBundleCoverage;
 import org.jacoco.core.analysis.ICoverageNode;
 import org.jacoco.core.analysis.IPackageCoverage;
+import org.jacoco.core.internal.Futures;
+import org.jacoco.report.ILanguageNames;
 import org.jacoco.report.ISourceFileLocator;
 import org.jacoco.report.internal.ReportOutputFolder;
+import org.jacoco.report.internal.html.Fingerprint;
+import org.jacoco.report.internal.html.FingerprintStore;
 import org.jacoco.report.internal.html.HTMLElement;
 import org.jacoco.report.internal.html.IHTMLReportContext;
+import org.jacoco.report.internal.html.ILinkable;
+import org.jacoco.report.internal.html.index.IIndexUpdate;
+import org.jacoco.report.internal.html.resources.Resources;
+import org.jacoco.report.internal.html.table.Table;
 
 /**
  * Page showing coverage information for a bundle. The page contains a table
- * with all packages of the bundle.
+ * with all packages of the bundle. If the context provides an executor the
+ * pages of every package are rendered in a separate task. The files of every
+ * package are buffered and written in the sequence of the packages, so the
+ * output is the same as for sequential rendering.
  */
 public class BundlePage extends TablePage<ICoverageNode> {
 
+	/**
+	 * Maximum number of packages which are buffered while waiting for their
+	 * rendering in parallel mode.
+	 */
+	private static final int MAX_PENDING_PACKAGES = 32;
+
 	private final ISourceFileLocator locator;
 
 	private IBundleCoverage bundle;
@@ -63,20 +86,151 @@ public class BundlePage extends TablePage<ICoverageNode> {
 	}
 
 	private void renderPackages() throws IOException {
-		for (final IPackageCoverage p : bundle.getPackages()) {
-			if (!p.containsCode()) {
-				continue;
+		final Executor executor = context.getExecutor();
+		final LinkedList<RenderTask> pending = new LinkedList<RenderTask>();
+		try {
+			for (final IPackageCoverage p : bundle.getPackages()) {
+				if (!p.containsCode()) {
+					continue;
+				}
+				final String packagename = p.getName();
+				final String foldername = packagename.length() == 0 ? "default"
+						: packagename.replace('/', '.');
+				final ReportOutputFolder packageFolder;
+				if (executor == null) {
+					packageFolder = folder.subFolder(foldername);
+				} else {
+					// Files are written in package order after rendering
+					packageFolder = folder.bufferedSubFolder(foldername);
+				}
+				final PackagePage page = new PackagePage(p, this, locator,
+						packageFolder, new TaskContext(context));
+				final RenderTask task = new RenderTask(page, packageFolder);
+				pending.add(task);
+				if (executor == null) {
+					flush(pending, 0);
+				} else {
+					try {
+						executor.execute(task);
+					} catch (final RejectedExecutionException e) {
+						// The task is rendered on this thread by flush()
+					}
+					flush(pending, MAX_PENDING_PACKAGES);
+				}
+				addItem(page);
+			}
+			flush(pending, 0);
+		} finally {
+			for (final RenderTask task : pending) {
+				task.cancel(false);
 			}
-			final String packagename = p.getName();
-			final String foldername = packagename.length() == 0 ? "default"
-					: packagename.replace('/', '.');
-			final PackagePage page = new PackagePage(p, this, locator,
-					folder.subFolder(foldername), context);
-			page.render();
-			addItem(page);
 		}
 	}
 
+	/**
+	 * Writes the files of rendered packages in package order. Blocks as long as
+	 * more than the given number of packages are pending.
+	 */
+	private static void flush(final LinkedList<RenderTask> pending,
+			final int limit) throws IOException {
+		while (!pending.isEmpty()) {
+			final RenderTask task = pending.getFirst();
+			if (pending.size() <= limit && !task.isDone()) {
+				return;
+			}
+			pending.removeFirst();
+			// Render the package on this thread if it has not been started
+			// yet, so waiting never depends on free executor threads
+			task.run();
+			Futures.get(task);
+			task.folder.flush();
+		}
+	}
+
+	private static class RenderTask extends FutureTask<Void> {
+
+		final ReportOutputFolder folder;
+
+		RenderTask(final ReportPage page, final ReportOutputFolder folder) {
+			super(new Callable<Void>() {
+				public Void call() throws IOException {
+					page.render();
+					return null;
+				}
+			});
+			this.folder = folder;
+		}
+
+	}
+
+	/**
+	 * Context for the pages of a single package. As tables keep state while
+	 * rendering every task gets its own table.
+	 */
+	private static class TaskContext implements IHTMLReportContext {
+
+		private final IHTMLReportContext parent;
+
+		private Table table;
+
+		TaskContext(final IHTMLReportContext parent) {
+			this.parent = parent;
+		}
+
+		public Resources getResources() {
+			return parent.getResources();
+		}
+
+		public ILanguageNames getLanguageNames() {
+			return parent.getLanguageNames();
+		}
+
+		public Table getTable() {
+			if (table == null) {
+				table = parent.getTable();
+			}
+			return table;
+		}
+
+		public String getFooterText() {
+			return parent.getFooterText();
+		}
+
+		public ILinkable getSessionsPage() {
+			return parent.getSessionsPage();
+		}
+
+		public String getOutputEncoding() {
+			return parent.getOutputEncoding();
+		}
+
+		public IIndexUpdate getIndexUpdate() {
+			return parent.getIndexUpdate();
+		}
+
+		public Locale getLocale() {
+			return parent.getLocale();
+		}
+
+		public FingerprintStore getFingerprints() {
+			return parent.getFingerprints();
+		}
+
+		public Executor getExecutor() {
+			// Pages of a package are rendered within the task
+			return null;
+		}
+
+	}
+
+	@Override
+	protected void fingerprint(final Fingerprint fingerprint)
+			throws IOException {
+		super.fingerprint(fingerprint);
+		fingerprint.add(bundle.getPackages().isEmpty());
+		fingerprint.add(bundle.containsCode());
+	}
+
 	@Override
 	protected String getOnload() {
 		return "initialSort(['breadcrumb', 'coveragetable'])";
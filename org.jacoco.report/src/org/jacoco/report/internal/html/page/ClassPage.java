@@ -17,6 +17,7 @@ import java.io.IOException;
 import org.jacoco.core.analysis.IClassCoverage;
 import org.jacoco.core.analysis.IMethodCoverage;
 import org.jacoco.report.internal.ReportOutputFolder;
+import org.jacoco.report.internal.html.Fingerprint;
 import org.jacoco.report.internal.html.HTMLElement;
 import org.jacoco.report.internal.html.IHTMLReportContext;
 import org.jacoco.report.internal.html.ILinkable;
@@ -67,6 +68,16 @@ public class ClassPage extends TablePage<IClassCoverage> {
 		super.render();
 	}
 
+	@Override
+	protected void fingerprint(final Fingerprint fingerprint)
+			throws IOException {
+		super.fingerprint(fingerprint);
+		fingerprint.add(getNode().isNoMatch());
+		fingerprint.add(getNode().getPackageName());
+		fingerprint.add(getNode().getSourceFileName());
+		fingerprint.add(sourcePage != null);
+	}
+
 	@Override
 	protected String getFileName() {
 		final String vmname = getNode().getName();
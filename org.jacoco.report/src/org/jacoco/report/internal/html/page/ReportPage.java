@@ -16,6 +16,8 @@ import java.io.IOException;
 
 import org.jacoco.core.JaCoCo;
 import org.jacoco.report.internal.ReportOutputFolder;
+import org.jacoco.report.internal.html.Fingerprint;
+import org.jacoco.report.internal.html.FingerprintStore;
 import org.jacoco.report.internal.html.HTMLElement;
 import org.jacoco.report.internal.html.IHTMLReportContext;
 import org.jacoco.report.internal.html.ILinkable;
@@ -63,6 +65,52 @@ public abstract class ReportPage implements ILinkable {
 		return parent == null;
 	}
 
+	/**
+	 * Checks whether the content of this page differs from the previous report.
+	 * If the report is not created incrementally every page is considered as
+	 * modified.
+	 *
+	 * @return <code>true</code> if this page has to be written
+	 * @throws IOException
+	 *             if information for the fingerprint can't be read
+	 */
+	protected final boolean isModified() throws IOException {
+		final FingerprintStore store = context.getFingerprints();
+		if (store == null) {
+			return true;
+		}
+		final Fingerprint fingerprint = new Fingerprint();
+		fingerprint(fingerprint);
+		return store.update(this, fingerprint.get());
+	}
+
+	/**
+	 * Adds all information which determines the content of this page to the
+	 * given fingerprint. Subclasses must extend this method for their
+	 * additional content.
+	 *
+	 * @param fingerprint
+	 *            fingerprint to add information to
+	 * @throws IOException
+	 *             if information for the fingerprint can't be read
+	 */
+	protected void fingerprint(final Fingerprint fingerprint)
+			throws IOException {
+		fingerprint.add(JaCoCo.VERSION);
+		fingerprint.add(context.getLocale().toString());
+		fingerprint.add(context.getOutputEncoding());
+		fingerprint.add(context.getFooterText());
+		fingerprint.add(context.getLanguageNames().getClass().getName());
+		fingerprint.add(context.getSessionsPage().getLink(folder));
+		fingerprint.add(getFileName());
+		fingerprint.add(getLinkLabel());
+		fingerprint.add(getLinkStyle());
+		for (ReportPage p = parent; p != null; p = p.parent) {
+			fingerprint.add(p.getLink(folder));
+			fingerprint.add(p.getLinkLabel());
+		}
+	}
+
 	/**
 	 * Renders this page's content and optionally additional pages. This method
 	 * must be called at most once.
@@ -14,11 +14,15 @@ package org.jacoco.report.internal.html.page;
 
 import static java.lang.String.format;
 
+import java.io.CharArrayReader;
+import java.io.CharArrayWriter;
 import java.io.IOException;
 import java.io.Reader;
 
+import org.jacoco.core.analysis.ILine;
 import org.jacoco.core.analysis.ISourceNode;
 import org.jacoco.report.internal.ReportOutputFolder;
+import org.jacoco.report.internal.html.Fingerprint;
 import org.jacoco.report.internal.html.HTMLElement;
 import org.jacoco.report.internal.html.IHTMLReportContext;
 import org.jacoco.report.internal.html.resources.Resources;
@@ -29,7 +33,7 @@ import org.jacoco.report.internal.html.resources.Resources;
  */
 public class SourceFilePage extends NodePage<ISourceNode> {
 
-	private final Reader sourceReader;
+	private Reader sourceReader;
 
 	private final int tabWidth;
 
@@ -58,6 +62,44 @@ public class SourceFilePage extends NodePage<ISourceNode> {
 		this.tabWidth = tabWidth;
 	}
 
+	/**
+	 * Renders this page only if its content differs from the previous report.
+	 */
+	@Override
+	public void render() throws IOException {
+		if (isModified()) {
+			super.render();
+		} else {
+			sourceReader.close();
+		}
+	}
+
+	@Override
+	protected void fingerprint(final Fingerprint fingerprint)
+			throws IOException {
+		super.fingerprint(fingerprint);
+		final ISourceNode node = getNode();
+		fingerprint.add(node);
+		for (int nr = node.getFirstLine(); nr <= node.getLastLine(); nr++) {
+			final ILine line = node.getLine(nr);
+			fingerprint.add(line.getInstructionCounter());
+			fingerprint.add(line.getBranchCounter());
+		}
+		fingerprint.add(tabWidth);
+		// The source is required twice, for the fingerprint and for rendering.
+		// Therefore it is always read completely, also if the page is skipped.
+		final CharArrayWriter buffer = new CharArrayWriter();
+		final char[] chars = new char[0x1000];
+		int len;
+		while ((len = sourceReader.read(chars)) != -1) {
+			buffer.write(chars, 0, len);
+		}
+		sourceReader.close();
+		final char[] source = buffer.toCharArray();
+		sourceReader = new CharArrayReader(source);
+		fingerprint.add(new CharArrayReader(source));
+	}
+
 	@Override
 	protected void content(final HTMLElement body) throws IOException {
 		final SourceHighlighter hl = new SourceHighlighter(context.getLocale());
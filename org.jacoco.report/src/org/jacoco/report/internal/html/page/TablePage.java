@@ -18,6 +18,7 @@ import java.util.List;
 
 import org.jacoco.core.analysis.ICoverageNode;
 import org.jacoco.report.internal.ReportOutputFolder;
+import org.jacoco.report.internal.html.Fingerprint;
 import org.jacoco.report.internal.html.HTMLElement;
 import org.jacoco.report.internal.html.IHTMLReportContext;
 import org.jacoco.report.internal.html.resources.Resources;
@@ -62,6 +63,34 @@ public abstract class TablePage<NodeType extends ICoverageNode>
 		items.add(item);
 	}
 
+	/**
+	 * Renders this page only if its content differs from the previous report.
+	 * All items of the table must have been added before.
+	 */
+	@Override
+	public void render() throws IOException {
+		if (isModified()) {
+			super.render();
+		} else {
+			// free memory, otherwise we will keep the complete page tree:
+			items.clear();
+		}
+	}
+
+	@Override
+	protected void fingerprint(final Fingerprint fingerprint)
+			throws IOException {
+		super.fingerprint(fingerprint);
+		fingerprint.add(getNode());
+		fingerprint.add(items.size());
+		for (final ITableItem item : items) {
+			fingerprint.add(item.getLinkLabel());
+			fingerprint.add(item.getLinkStyle());
+			fingerprint.add(item.getLink(folder));
+			fingerprint.add(item.getNode());
+		}
+	}
+
 	@Override
 	protected void head(final HTMLElement head) throws IOException {
 		super.head(head);
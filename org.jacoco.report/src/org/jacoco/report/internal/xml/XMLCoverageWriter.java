@@ -48,7 +48,17 @@ public final class XMLCoverageWriter {
 		writeCounters(bundle, element);
 	}
 
-	private static void writePackage(final IPackageCoverage p,
+	/**
+	 * Writes the structure of a given package.
+	 *
+	 * @param p
+	 *            package coverage data
+	 * @param parent
+	 *            container element for the package element
+	 * @throws IOException
+	 *             if XML can't be written to the underlying output
+	 */
+	public static void writePackage(final IPackageCoverage p,
 			final ReportElement parent) throws IOException {
 		final ReportElement element = parent.packageElement(p.getName());
 		for (final IClassCoverage c : p.getClasses()) {
@@ -14,6 +14,7 @@ package org.jacoco.report.internal.xml;
 
 import static java.lang.String.format;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
@@ -81,7 +82,8 @@ public class XMLElement {
 			final String system, final boolean standalone,
 			final String encoding, final OutputStream output)
 			throws IOException {
-		this(new OutputStreamWriter(output, encoding), name, true);
+		this(new BufferedWriter(new OutputStreamWriter(output, encoding)), name,
+				true);
 		if (standalone) {
 			writer.write(format(HEADER_STANDALONE, encoding));
 		} else {
@@ -134,26 +136,31 @@ public class XMLElement {
 
 	private void quote(final String text) throws IOException {
 		final int len = text.length();
+		int start = 0;
 		for (int i = 0; i < len; i++) {
-			final char c = text.charAt(i);
-			switch (c) {
-			case '<':
-				writer.write("&lt;");
-				break;
-			case '>':
-				writer.write("&gt;");
-				break;
-			case '"':
-				writer.write("&quot;");
-				break;
-			case '&':
-				writer.write("&amp;");
-				break;
-			default:
-				writer.write(c);
-				break;
+			final String entity = entity(text.charAt(i));
+			if (entity != null) {
+				writer.write(text, start, i - start);
+				writer.write(entity);
+				start = i + 1;
 			}
 		}
+		writer.write(text, start, len - start);
+	}
+
+	private static String entity(final char c) {
+		switch (c) {
+		case '<':
+			return "&lt;";
+		case '>':
+			return "&gt;";
+		case '"':
+			return "&quot;";
+		case '&':
+			return "&amp;";
+		default:
+			return null;
+		}
 	}
 
 	/**
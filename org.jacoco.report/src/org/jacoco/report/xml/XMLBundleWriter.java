@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2021 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.report.xml;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import org.jacoco.core.analysis.CoverageNodeImpl;
+import org.jacoco.core.analysis.ICoverageNode.ElementType;
+import org.jacoco.core.analysis.IPackageCoverage;
+import org.jacoco.core.data.SessionInfo;
+import org.jacoco.report.internal.xml.ReportElement;
+import org.jacoco.report.internal.xml.XMLCoverageWriter;
+
+/**
+ * Writes a XML report for a single bundle package by package. Every package is
+ * written to the output as soon as it is passed to this writer and is not
+ * retained afterwards. Therefore analysis of the next package can release the
+ * coverage data of the previous one and memory consumption is bounded by the
+ * largest package rather than the whole bundle. Packages can e.g. be obtained
+ * by analyzing the classes of every package with a separate
+ * {@link org.jacoco.core.analysis.CoverageBuilder}.
+ *
+ * The resulting document is identical to the one written by a visitor of
+ * {@link XMLFormatter#createVisitor(OutputStream)} for a bundle with the same
+ * packages in the same order.
+ *
+ * This writer is intended for integrations which control the analysis
+ * themselves. The JaCoCo front-ends do not use it, as they analyze all class
+ * files of a bundle at once.
+ */
+public class XMLBundleWriter {
+
+	private final ReportElement report;
+
+	private final CoverageNodeImpl total;
+
+	private boolean ended;
+
+	XMLBundleWriter(final String name, final List<SessionInfo> sessionInfos,
+			final OutputStream output, final String encoding)
+			throws IOException {
+		report = new ReportElement(name, output, encoding);
+		for (final SessionInfo i : sessionInfos) {
+			report.sessioninfo(i);
+		}
+		total = new CoverageNodeImpl(ElementType.BUNDLE, name);
+	}
+
+	/**
+	 * Writes the given package to the report.
+	 *
+	 * @param coverage
+	 *            coverage data of the package
+	 * @throws IOException
+	 *             in case of problems with the output stream or if the report
+	 *             has already been ended
+	 */
+	public void visitPackage(final IPackageCoverage coverage)
+			throws IOException {
+		if (ended) {
+			throw new IOException("Report already ended.");
+		}
+		XMLCoverageWriter.writePackage(coverage, report);
+		total.increment(coverage);
+	}
+
+	/**
+	 * Writes the counters of the bundle and closes the output stream. Further
+	 * calls have no effect.
+	 *
+	 * @throws IOException
+	 *             in case of problems with the output stream
+	 */
+	public void visitEnd() throws IOException {
+		if (!ended) {
+			ended = true;
+			XMLCoverageWriter.writeCounters(total, report);
+			report.close();
+		}
+	}
+
+}
@@ -98,4 +98,25 @@ public class XMLFormatter {
 		return new RootVisitor();
 	}
 
+	/**
+	 * Creates a new writer for a report of a single bundle whose packages are
+	 * written to the given stream one by one.
+	 *
+	 * @param output
+	 *            output stream to write the report to
+	 * @param name
+	 *            name of the bundle
+	 * @param sessionInfos
+	 *            list of chronological ordered {@link SessionInfo} objects
+	 *            where execution data has been collected for this report.
+	 * @return writer to emit the packages to
+	 * @throws IOException
+	 *             in case of problems with the output stream
+	 */
+	public XMLBundleWriter createBundleWriter(final OutputStream output,
+			final String name, final List<SessionInfo> sessionInfos)
+			throws IOException {
+		return new XMLBundleWriter(name, sessionInfos, output, outputEncoding);
+	}
+
 }